@@ -52,9 +52,9 @@ public abstract class ClassificationMiningModel extends EMiningModel implements
         this.target = target;
     }
 
-    public Object clone() {
+    protected EMiningModel copy(boolean delta) {
         ClassificationMiningModel o;
-        o = (ClassificationMiningModel) super.clone();
+        o = (ClassificationMiningModel) super.copy(delta);
 
         o.target = target;
 //	    o.indexTarget = indexTarget;
@@ -182,6 +182,31 @@ public class SimplePredicate extends Predicate implements Cloneable{
   	}
 
 
+    /**
+     * Predicate evaluation of given value of the attribute
+     * (number for numeric attribute, index of category for categorical attribute).
+     *
+     * @param v value of the attribute, NaN is missing value
+     * @return predicate evaluation result, false for missing value except IS_MISSING
+     */
+    public boolean evaluate(double v) {
+      if (v != v)
+        return op == Operator.IS_MISSING;
+
+      switch(op)
+      {
+        case EQUAL: return v == value;
+        case NOT_EQUAL: return v != value;
+        case LESS_THAN: return v < value;
+        case LESS_OR_EQUAL: return v <= value;
+        case GREATER_THAN: return v > value;
+        case GREATER_OR_EQUAL: return v >= value;
+        case IS_NOT_MISSING: return true;
+        default: return false;
+      }
+    }
+
+
  /* public boolean evaluate(MiningVector miningVector) throws MiningException {
 
     MiningFunctionSettings metaData = miningVector.getMetaData();
@@ -0,0 +1,78 @@
+package org.eltech.ddm.classification.decisiontree;
+
+import org.eltech.ddm.classification.decisiontree.steps.*;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.*;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Decision tree induction by histograms. <p>
+ *
+ * The first pass over the data set finds ranges of numeric attributes, their values are split into
+ * fixed-width bins (see {@link DecisionTreeAlgorithmSettings#getBinsNumber()}). Then the tree is grown
+ * by levels: one pass over the data set moves vectors into nodes of the level and accumulates class
+ * histograms of the nodes, then every node is split by the attribute and the bin giving maximal decrease
+ * of Gini impurity. Parallel plans accumulate histograms by parts of the data set and sum them,
+ * so values of attributes are never sorted.
+ */
+public class DecisionTreeAlgorithm extends MiningAlgorithm {
+
+	public DecisionTreeAlgorithm(EMiningFunctionSettings miningSettings) throws MiningException {
+		super(miningSettings);
+	}
+
+	@Override
+	public EMiningModel createModel() throws MiningException {
+		return new DecisionTreeMiningModel(miningSettings);
+	}
+
+	@Override
+	public MiningSequence getSequenceAlgorithm() throws MiningException {
+		MiningSequence blocks = new MiningSequence(miningSettings,
+				new MiningLoopVectors(miningSettings,
+						new FindAttributeRanges(miningSettings)),
+				new InitTreeRoot(miningSettings),
+				new GrowTreeLoop(miningSettings,
+						new MiningLoopVectors(miningSettings,
+								new AccumulateNodeHistograms(miningSettings)),
+						new SplitNodes(miningSettings))
+		);
+
+		blocks.addListenerExecute(new BlockExecuteTimingListner());
+
+		return blocks;
+	}
+
+	@Override
+	public MiningSequence getCentralizedParallelAlgorithm() throws MiningException {
+		return getHorDistributedAlgorithm();
+	}
+
+	@Override
+	public MiningSequence getHorDistributedAlgorithm() throws MiningException {
+		MiningSequence blocks = new MiningSequence(miningSettings,
+				new MiningParallel(miningSettings, MemoryType.shared,
+						new MiningLoopVectors(miningSettings,
+								new FindAttributeRanges(miningSettings))),
+				new InitTreeRoot(miningSettings),
+				new GrowTreeLoop(miningSettings,
+						new MiningParallel(miningSettings, MemoryType.shared,
+								new MiningLoopVectors(miningSettings,
+										new AccumulateNodeHistograms(miningSettings))),
+						new SplitNodes(miningSettings))
+		);
+
+		blocks.addListenerExecute(new BlockExecuteTimingListner());
+
+		return blocks;
+	}
+
+	/**
+	 * Vectors are moved into nodes by values of all attributes, so vertical distribution uses the horizontal plan
+	 */
+	@Override
+	public MiningSequence getVerDistributedAlgorithm() throws MiningException {
+		return getHorDistributedAlgorithm();
+	}
+}
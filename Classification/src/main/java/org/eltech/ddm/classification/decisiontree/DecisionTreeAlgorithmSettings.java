@@ -0,0 +1,54 @@
+package org.eltech.ddm.classification.decisiontree;
+
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningAlgorithmSettings;
+
+public class DecisionTreeAlgorithmSettings extends EMiningAlgorithmSettings {
+
+	private final String TAG_MAX_DEPTH = "maxDepth";
+
+	private final String TAG_BINS_NUMBER = "binsNumber";
+
+	private final String TAG_MIN_NODE_SIZE = "minNodeSize";
+
+	public DecisionTreeAlgorithmSettings() {
+		addTaggedValue(TAG_MAX_DEPTH, "10", "int");
+		addTaggedValue(TAG_BINS_NUMBER, "32", "int");
+		addTaggedValue(TAG_MIN_NODE_SIZE, "2", "int");
+	}
+
+	/**
+	 * @param maxDepth - maximal level of split nodes (the root has level 0)
+	 */
+	public void setMaxDepth(int maxDepth) {
+		setTaggedValue(TAG_MAX_DEPTH, String.valueOf(maxDepth));
+	}
+
+	public int getMaxDepth() {
+		String v = getTaggedValue(TAG_MAX_DEPTH);
+		return v == null ? 10 : Integer.parseInt(v);
+	}
+
+	/**
+	 * @param binsNumber - number of fixed-width bins of every numeric attribute
+	 */
+	public void setBinsNumber(int binsNumber) {
+		setTaggedValue(TAG_BINS_NUMBER, String.valueOf(binsNumber));
+	}
+
+	public int getBinsNumber() {
+		String v = getTaggedValue(TAG_BINS_NUMBER);
+		return v == null ? 32 : Integer.parseInt(v);
+	}
+
+	/**
+	 * @param minNodeSize - minimal number of vectors of split nodes
+	 */
+	public void setMinNodeSize(int minNodeSize) {
+		setTaggedValue(TAG_MIN_NODE_SIZE, String.valueOf(minNodeSize));
+	}
+
+	public int getMinNodeSize() {
+		String v = getTaggedValue(TAG_MIN_NODE_SIZE);
+		return v == null ? 2 : Integer.parseInt(v);
+	}
+}
@@ -1,10 +1,34 @@
 package org.eltech.ddm.classification.decisiontree;
 
 import org.eltech.ddm.classification.ClassificationMiningModel;
+import org.eltech.ddm.classification.SimplePredicate;
 import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningErrorCode;
 import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.Operator;
+import org.eltech.ddm.miningcore.miningdata.ELogicalAttribute;
+import org.eltech.ddm.miningcore.miningdata.ELogicalData;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshot;
+import org.omg.java.cwm.analysis.datamining.miningcore.miningdata.AttributeType;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Decision tree model. Besides the tree it keeps state of the tree induction by levels. <p>
+ *
+ * Values of numeric attributes are replaced by numbers of fixed-width bins between minimum and maximum
+ * of the attribute, values of categorical attributes are their bins. Every pass over the data set moves
+ * every vector from its node to the child node of the next level and adds the vector to class histograms
+ * [node][attribute][bin][class] of the node. Splits of nodes are selected by the histograms, so values
+ * of attributes are never sorted. <p>
+ *
+ * Every copy of the model adds vectors into own histograms, the histograms of copies are added to the model
+ * when the parallel branches are joined. The node of a vector is changed by the branch handling the vector only.
+ */
 public class DecisionTreeMiningModel extends ClassificationMiningModel{
 
 	public String TreeModel;
@@ -19,10 +43,60 @@ public class DecisionTreeMiningModel extends ClassificationMiningModel{
 	//
 	// public noTrueChildStrategy;
 
+	// Blocks of the snapshot of the model: nodes by columns in depth-first order
+	private static final String SNAPSHOT_CLASSES_NUMBER = "classesNumber";
+	private static final String SNAPSHOT_PARENTS = "parents";
+	private static final String SNAPSHOT_ATTRIBUTES = "attributes";
+	private static final String SNAPSHOT_OPERATORS = "operators";
+	private static final String SNAPSHOT_VALUES = "values";
+	private static final String SNAPSHOT_SCORES = "scores";
+	private static final String SNAPSHOT_DISTRIBUTIONS = "distributions";
+
+	private final EMiningFunctionSettings functionSettings;
+
+	private int classesNumber;
+
+	// Categorical attributes
+	private boolean[] categorical;
+
+	// Number of bins of every attribute (0 for the target attribute)
+	private int[] binsNumbers;
+
+	// Offset of every attribute in the histogram of a node
+	private int[] binOffsets;
+
+	// Size of the histogram of a node: [attribute][bin][class]
+	private int nodeHistogramSize;
+
+	// Lower bound and width of bins of numeric attributes
+	private double[] mins;
+	private double[] widths;
+
+	// Minimum and maximum of every attribute: [attribute][min, max]
+	private double[] ranges;
+
+	// Index of the node of every vector at the current level or -1 if the vector has reached a leaf
+	private int[] vectorNodes;
+
+	// Nodes of the current level which can be split
+	private DecisionTreeNode[] openNodes = new DecisionTreeNode[0];
+
+	// Splits of nodes of the previous level: attribute, bin and indexes of children at the current level (-1 for leaves)
+	private int[] splitAttributes;
+	private int[] splitBins;
+	private int[] leftChildren;
+	private int[] rightChildren;
+
+	// Class histograms of the open nodes: [node][attribute][bin][class]
+	private long[] histograms;
+
+	// Number of vectors of classes in the open nodes: [node][class]
+	private long[] nodeCounts;
+
 	public DecisionTreeMiningModel(EMiningFunctionSettings settings)
 			throws MiningException {
 		super(settings);
-		// TODO Auto-generated constructor stub
+		functionSettings = settings;
 	}
 
 	public void createNode() {
@@ -30,14 +104,593 @@ public class DecisionTreeMiningModel extends ClassificationMiningModel{
 
 	@Override
 	public void initModel() throws MiningException {
-		// TODO Auto-generated method stub
+		ELogicalData data = functionSettings.getLogicalData();
+		if (target.getAttributeType() != AttributeType.categorical)
+			throw new MiningException(MiningErrorCode.INVALID_DATA_TYPE, "Target attribute " + target.getName() + " must be categorical");
+
+		classesNumber = target.getCategoricalProperties().getSize();
+		categorical = new boolean[data.getAttributesNumber()];
+		for (int a = 0; a < categorical.length; a++)
+			categorical[a] = data.getAttribute(a).getAttributeType() != AttributeType.numerical;
+	}
+
+	/**
+	 * Extends ranges of attributes by values of the vector
+	 */
+	public void addRange(double[] values) {
+		if (ranges == null)
+			ranges = emptyRanges(values.length);
+		for (int a = 0; a < values.length; a++) {
+			double v = values[a];
+			if (v < ranges[2 * a])
+				ranges[2 * a] = v;
+			if (v > ranges[2 * a + 1])
+				ranges[2 * a + 1] = v;
+		}
+	}
+
+	private static double[] emptyRanges(int attributesNumber) {
+		double[] ranges = new double[2 * attributesNumber];
+		for (int a = 0; a < attributesNumber; a++) {
+			ranges[2 * a] = Double.POSITIVE_INFINITY;
+			ranges[2 * a + 1] = Double.NEGATIVE_INFINITY;
+		}
+		return ranges;
+	}
+
+	/**
+	 * Computes bins of attributes by their ranges and creates root of the tree containing all vectors
+	 *
+	 * @param binsNumber    - number of bins of numeric attributes
+	 * @param vectorsNumber - number of vectors of the data set
+	 */
+	public void initTree(int binsNumber, int vectorsNumber) throws MiningException {
+		ELogicalData data = functionSettings.getLogicalData();
+		int nAttributes = categorical.length;
+		binsNumbers = new int[nAttributes];
+		binOffsets = new int[nAttributes];
+		mins = new double[nAttributes];
+		widths = new double[nAttributes];
+
+		long size = 0;
+		for (int a = 0; a < nAttributes; a++) {
+			if (a == indexTarget)
+				continue;
+			if (categorical[a]) {
+				binsNumbers[a] = data.getAttribute(a).getCategoricalProperties().getSize();
+			} else if (ranges != null && ranges[2 * a] < ranges[2 * a + 1]) {
+				binsNumbers[a] = binsNumber;
+				mins[a] = ranges[2 * a];
+				widths[a] = (ranges[2 * a + 1] - ranges[2 * a]) / binsNumber;
+			} else { // all values are the same
+				binsNumbers[a] = 1;
+			}
+			binOffsets[a] = (int) size;
+			size += (long) binsNumbers[a] * classesNumber;
+			if (size > Integer.MAX_VALUE)
+				throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Too many bins for histograms of the tree");
+		}
+		nodeHistogramSize = (int) size;
+		ranges = null;
+
+		DecisionTreeNode root = createTreeNode(null, null);
+		root.setRoot(true);
+		Node = root;
+		openNodes = new DecisionTreeNode[]{root};
+		vectorNodes = new int[vectorsNumber];
+		splitAttributes = null;
+		histograms = null;
+		nodeCounts = null;
+	}
+
+	/**
+	 * @return bin of the value of the attribute or -1 for missing value
+	 */
+	public int getBin(int iAttr, double value) {
+		if (value != value) // NaN is missing value
+			return -1;
+		if (categorical[iAttr]) {
+			int bin = (int) value;
+			return value >= 0 && bin < binsNumbers[iAttr] ? bin : -1;
+		}
+		if (widths[iAttr] == 0)
+			return 0;
+		int bin = (int) ((value - mins[iAttr]) / widths[iAttr]);
+		return bin < 0 ? 0 : Math.min(bin, binsNumbers[iAttr] - 1);
+	}
+
+	/**
+	 * Moves the vector from its node of the previous level to the child node
+	 *
+	 * @return index of the open node of the vector at the current level or -1 if the vector has reached a leaf
+	 */
+	public int routeVector(int iVector, double[] values) {
+		int node = vectorNodes[iVector];
+		if (splitAttributes == null || node < 0)
+			return node;
+
+		int iAttr = splitAttributes[node];
+		int bin = iAttr < 0 ? -1 : getBin(iAttr, values[iAttr]);
+		int child;
+		if (bin < 0) // the node is a leaf or the vector with missing value stays in the node
+			child = -1;
+		else if (categorical[iAttr] ? bin == splitBins[node] : bin < splitBins[node])
+			child = leftChildren[node];
+		else
+			child = rightChildren[node];
+		vectorNodes[iVector] = child;
+		return child;
+	}
+
+	/**
+	 * Adds the vector to class histograms of the open node
+	 */
+	public void addVector(int node, double[] values) {
+		double classValue = values[indexTarget];
+		if (!(classValue >= 0 && classValue < classesNumber))
+			return;
+		int iClass = (int) classValue;
+
+		if (histograms == null) {
+			histograms = new long[openNodes.length * nodeHistogramSize];
+			nodeCounts = new long[openNodes.length * classesNumber];
+		}
+		nodeCounts[node * classesNumber + iClass]++;
+		int offset = node * nodeHistogramSize + iClass;
+		for (int a = 0; a < binsNumbers.length; a++) {
+			if (binsNumbers[a] == 0)
+				continue;
+			int bin = getBin(a, values[a]);
+			if (bin >= 0)
+				histograms[offset + binOffsets[a] + bin * classesNumber]++;
+		}
+	}
+
+	/**
+	 * Splits every open node by the attribute and the bin giving maximal decrease of Gini impurity.
+	 * Children which can be split are open nodes of the next level.
+	 *
+	 * @param maxDepth    - maximal level of split nodes
+	 * @param minNodeSize - minimal number of vectors of split nodes
+	 */
+	public void splitNodes(int maxDepth, int minNodeSize) throws MiningException {
+		int nNodes = openNodes.length;
+		splitAttributes = new int[nNodes];
+		splitBins = new int[nNodes];
+		leftChildren = new int[nNodes];
+		rightChildren = new int[nNodes];
+		List<DecisionTreeNode> nextNodes = new ArrayList<>();
+
+		long[] total = new long[classesNumber];
+		long[] left = new long[classesNumber];
+		long[] bestLeft = new long[classesNumber];
+		long[] bestRight = new long[classesNumber];
+		for (int n = 0; n < nNodes; n++) {
+			DecisionTreeNode node = openNodes[n];
+			long[] counts = new long[classesNumber];
+			if (nodeCounts != null)
+				System.arraycopy(nodeCounts, n * classesNumber, counts, 0, classesNumber);
+			setDistribution(node, counts);
+
+			leftChildren[n] = rightChildren[n] = -1;
+			splitAttributes[n] = -1;
+			if (node.getLevel() >= maxDepth || sum(counts) < minNodeSize || histograms == null)
+				continue;
+
+			double bestGain = 1e-9;
+			for (int a = 0; a < binsNumbers.length; a++) {
+				if (binsNumbers[a] < 2)
+					continue;
+				int offset = n * nodeHistogramSize + binOffsets[a];
+				Arrays.fill(total, 0);
+				for (int i = 0; i < binsNumbers[a] * classesNumber; i++)
+					total[i % classesNumber] += histograms[offset + i];
+				double impurity = weightedGini(total, null);
+
+				Arrays.fill(left, 0);
+				for (int s = categorical[a] ? 0 : 1; s < binsNumbers[a]; s++) {
+					int bin = categorical[a] ? s : s - 1;
+					if (categorical[a])
+						Arrays.fill(left, 0);
+					for (int c = 0; c < classesNumber; c++)
+						left[c] += histograms[offset + bin * classesNumber + c];
+
+					long nLeft = sum(left);
+					if (nLeft == 0 || nLeft == sum(total))
+						continue;
+					double gain = impurity - weightedGini(left, null) - weightedGini(total, left);
+					if (gain > bestGain) {
+						bestGain = gain;
+						splitAttributes[n] = a;
+						splitBins[n] = s;
+						for (int c = 0; c < classesNumber; c++) {
+							bestLeft[c] = left[c];
+							bestRight[c] = total[c] - left[c];
+						}
+					}
+				}
+			}
+
+			if (splitAttributes[n] < 0)
+				continue;
+			leftChildren[n] = addChild(node, splitAttributes[n], splitBins[n], true, bestLeft, maxDepth, minNodeSize, nextNodes);
+			rightChildren[n] = addChild(node, splitAttributes[n], splitBins[n], false, bestRight, maxDepth, minNodeSize, nextNodes);
+		}
+
+		openNodes = nextNodes.toArray(new DecisionTreeNode[0]);
+		histograms = null;
+		nodeCounts = null;
+	}
+
+	/**
+	 * @return index of the child in open nodes of the next level or -1 if the child is a leaf
+	 */
+	private int addChild(DecisionTreeNode node, int iAttr, int bin, boolean left, long[] counts,
+						 int maxDepth, int minNodeSize, List<DecisionTreeNode> nextNodes) throws MiningException {
+		ELogicalAttribute attribute = functionSettings.getLogicalData().getAttribute(iAttr);
+		SimplePredicate predicate;
+		if (categorical[iAttr])
+			predicate = new SimplePredicate(attribute.getName(), bin, left ? Operator.EQUAL : Operator.NOT_EQUAL);
+		else
+			predicate = new SimplePredicate(attribute.getName(), mins[iAttr] + bin * widths[iAttr],
+					left ? Operator.LESS_THAN : Operator.GREATER_OR_EQUAL);
+
+		DecisionTreeNode child = createTreeNode(node, predicate);
+		setDistribution(child, counts);
+
+		int classes = 0;
+		for (long count : counts)
+			classes += count > 0 ? 1 : 0;
+		if (child.getLevel() >= maxDepth || sum(counts) < minNodeSize || classes < 2)
+			return -1;
+		nextNodes.add(child);
+		return nextNodes.size() - 1;
+	}
+
+	private DecisionTreeNode createTreeNode(DecisionTreeNode parent, SimplePredicate predicate) {
+		DecisionTreeNode node = new DecisionTreeNode();
+		node.setMetaData(functionSettings);
+		node.setTarget(target);
+		node.setPredicate(predicate);
+		node.setLeaf(true);
+		if (parent != null) {
+			node.setParent(parent);
+			node.setLevel(parent.getLevel() + 1);
+			parent.addChild(node);
+		}
+		return node;
+	}
+
+	private static void setDistribution(DecisionTreeNode node, long[] counts) {
+		double[] distribution = new double[counts.length];
+		int best = 0;
+		for (int c = 0; c < counts.length; c++) {
+			distribution[c] = counts[c];
+			if (counts[c] > counts[best])
+				best = c;
+		}
+		node.setDistribution(distribution);
+		node.setScore(best);
+	}
+
+	/**
+	 * @return Gini impurity of the counts (or of the difference of the counts and the subtracted ones)
+	 * multiplied by number of vectors
+	 */
+	private static double weightedGini(long[] counts, long[] subtracted) {
+		double n = 0;
+		double squares = 0;
+		for (int c = 0; c < counts.length; c++) {
+			double count = subtracted == null ? counts[c] : counts[c] - subtracted[c];
+			n += count;
+			squares += count * count;
+		}
+		return n == 0 ? 0 : n - squares / n;
+	}
+
+	private static long sum(long[] counts) {
+		long n = 0;
+		for (long count : counts)
+			n += count;
+		return n;
+	}
+
+	/**
+	 * @return root of the tree or null if the tree is not built
+	 */
+	public DecisionTreeNode getRoot() {
+		return (DecisionTreeNode) Node;
+	}
 
+	/**
+	 * @return number of nodes of the current level which can be split
+	 */
+	public int getOpenNodesNumber() {
+		return openNodes.length;
+	}
+
+	public int getClassesNumber() {
+		return classesNumber;
+	}
+
+	/**
+	 * Compiles the tree into arrays for fast prediction. Every internal node must have two children:
+	 * numeric split (LESS_THAN and GREATER_OR_EQUAL predicates) or categorical split
+	 * (EQUAL and NOT_EQUAL predicates), as nodes created by {@link DecisionTreeAlgorithm}.
+	 */
+	public FlatDecisionTree createFlatTree() throws MiningException {
+		DecisionTreeNode root = getRoot();
+		if (root == null)
+			throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "The decision tree is not built");
+
+		int nNodes = root.getTotalNumberOfChildren() + 1;
+		int[] attributes = new int[nNodes];
+		double[] thresholds = new double[nNodes];
+		int[] categoryOffsets = new int[nNodes];
+		int[] categoryLengths = new int[nNodes];
+		int[] leftNodes = new int[nNodes];
+		int[] rightNodes = new int[nNodes];
+		double[] scores = new double[nNodes];
+		List<Long> categoryWords = new ArrayList<>();
+
+		// nodes are numbered in depth-first order
+		DecisionTreeNode[] stack = new DecisionTreeNode[nNodes];
+		int[] parents = new int[nNodes];
+		int top = 0;
+		stack[top++] = root;
+		parents[0] = -1;
+		for (int n = 0; top > 0; n++) {
+			DecisionTreeNode node = stack[--top];
+			int parent = parents[top];
+			if (parent >= 0) {
+				if (leftNodes[parent] == 0)
+					leftNodes[parent] = n;
+				else
+					rightNodes[parent] = n;
+			}
+
+			scores[n] = node.getScore();
+			attributes[n] = -1;
+			categoryOffsets[n] = -1;
+			if (node.getChildCount() == 0)
+				continue;
+			if (node.getChildCount() != 2)
+				throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Node of level " + node.getLevel() + " has not two children");
+
+			DecisionTreeNode left = (DecisionTreeNode) node.getChildAt(0);
+			DecisionTreeNode right = (DecisionTreeNode) node.getChildAt(1);
+			SimplePredicate predicate = (SimplePredicate) left.getPredicate();
+			attributes[n] = functionSettings.getLogicalData().getAttributeIndex(
+					functionSettings.getLogicalData().getAttribute(predicate.getAttribute()));
+			if (predicate.getOperator() == Operator.LESS_THAN) {
+				thresholds[n] = predicate.getValue();
+			} else if (predicate.getOperator() == Operator.EQUAL) {
+				int category = (int) predicate.getValue();
+				categoryOffsets[n] = categoryWords.size();
+				categoryLengths[n] = (category >>> 6) + 1;
+				for (int w = 0; w < categoryLengths[n]; w++)
+					categoryWords.add(w == category >>> 6 ? 1L << category : 0L);
+			} else {
+				throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Split by " + predicate + " is not supported");
+			}
+
+			// the right child is numbered after the subtree of the left child
+			parents[top] = n;
+			stack[top++] = right;
+			parents[top] = n;
+			stack[top++] = left;
+		}
+
+		long[] words = new long[categoryWords.size()];
+		for (int i = 0; i < words.length; i++)
+			words[i] = categoryWords.get(i);
+		return new FlatDecisionTree(attributes, thresholds, categoryOffsets, categoryLengths, words, leftNodes, rightNodes, scores);
+	}
+
+	/**
+	 * Snapshot keeps nodes of the tree in depth-first order: index of the parent (-1 for the root),
+	 * index of attribute, operator and value of the predicate, score and class distribution [node][class].
+	 * State of the induction is not kept.
+	 */
+	@Override
+	public void writeSnapshot(ModelSnapshot snapshot) throws MiningException {
+		DecisionTreeNode root = getRoot();
+		if (root == null)
+			throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "The decision tree is not built");
+
+		ELogicalData data = functionSettings.getLogicalData();
+		int nNodes = root.getTotalNumberOfChildren() + 1;
+		int[] parents = new int[nNodes];
+		int[] attributes = new int[nNodes];
+		int[] operators = new int[nNodes];
+		double[] values = new double[nNodes];
+		double[] scores = new double[nNodes];
+		double[] distributions = new double[nNodes * classesNumber];
+
+		DecisionTreeNode[] stack = new DecisionTreeNode[nNodes];
+		int[] stackParents = new int[nNodes];
+		int top = 0;
+		stack[top] = root;
+		stackParents[top++] = -1;
+		for (int n = 0; top > 0; n++) {
+			DecisionTreeNode node = stack[--top];
+			parents[n] = stackParents[top];
+			SimplePredicate predicate = (SimplePredicate) node.getPredicate();
+			if (predicate != null) {
+				attributes[n] = data.getAttributeIndex(data.getAttribute(predicate.getAttribute()));
+				operators[n] = predicate.getOperator().ordinal();
+				values[n] = predicate.getValue();
+			} else {
+				attributes[n] = -1;
+			}
+			scores[n] = node.getScore();
+			if (node.hasDistribution())
+				System.arraycopy(node.getDistribution(), 0, distributions, n * classesNumber, classesNumber);
+
+			for (int c = node.getChildCount() - 1; c >= 0; c--) { // children are numbered in their order
+				stack[top] = (DecisionTreeNode) node.getChildAt(c);
+				stackParents[top++] = n;
+			}
+		}
+
+		snapshot.putInts(SNAPSHOT_CLASSES_NUMBER, new int[]{classesNumber});
+		snapshot.putInts(SNAPSHOT_PARENTS, parents);
+		snapshot.putInts(SNAPSHOT_ATTRIBUTES, attributes);
+		snapshot.putInts(SNAPSHOT_OPERATORS, operators);
+		snapshot.putDoubles(SNAPSHOT_VALUES, values);
+		snapshot.putDoubles(SNAPSHOT_SCORES, scores);
+		snapshot.putDoubles(SNAPSHOT_DISTRIBUTIONS, distributions);
+	}
+
+	@Override
+	public void readSnapshot(ModelSnapshot snapshot) throws MiningException {
+		initModel();
+		if (snapshot.getInts(SNAPSHOT_CLASSES_NUMBER)[0] != classesNumber)
+			throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Snapshot has " + snapshot.getInts(SNAPSHOT_CLASSES_NUMBER)[0]
+					+ " classes instead of " + classesNumber);
+
+		ELogicalData data = functionSettings.getLogicalData();
+		int[] parents = snapshot.getInts(SNAPSHOT_PARENTS);
+		int[] attributes = snapshot.getInts(SNAPSHOT_ATTRIBUTES);
+		int[] operators = snapshot.getInts(SNAPSHOT_OPERATORS);
+		double[] values = snapshot.getDoubles(SNAPSHOT_VALUES);
+		double[] scores = snapshot.getDoubles(SNAPSHOT_SCORES);
+		double[] distributions = snapshot.getDoubles(SNAPSHOT_DISTRIBUTIONS);
+
+		int nNodes = parents.length;
+		if (attributes.length != nNodes || operators.length != nNodes || values.length != nNodes || scores.length != nNodes
+				|| distributions.length != nNodes * classesNumber)
+			throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Blocks of nodes of the snapshot have different lengths");
+
+		DecisionTreeNode[] nodes = new DecisionTreeNode[nNodes];
+		for (int n = 0; n < nodes.length; n++) {
+			if (parents[n] >= n || (n > 0) != (parents[n] >= 0) || attributes[n] >= data.getAttributesNumber()
+					|| (attributes[n] >= 0 && (operators[n] < 0 || operators[n] >= Operator.values().length)))
+				throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Node " + n + " of the snapshot is not valid");
+
+			SimplePredicate predicate = attributes[n] < 0 ? null : new SimplePredicate(data.getAttribute(attributes[n]).getName(),
+					values[n], Operator.values()[operators[n]]);
+			DecisionTreeNode node = createTreeNode(n == 0 ? null : nodes[parents[n]], predicate);
+			node.setDistribution(Arrays.copyOfRange(distributions, n * classesNumber, (n + 1) * classesNumber));
+			node.setScore(scores[n]);
+			nodes[n] = node;
+		}
+		if (nodes.length > 0)
+			nodes[0].setRoot(true);
+
+		Node = nodes.length > 0 ? nodes[0] : null;
+		openNodes = new DecisionTreeNode[0];
+		vectorNodes = null;
+		splitAttributes = null;
+		histograms = null;
+		nodeCounts = null;
 	}
 
 	@Override
 	public double apply(MiningVector miningVector) throws MiningException {
-		// TODO Auto-generated method stub
-		return 0;
+		if (Node == null)
+			throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "The decision tree is not built");
+		return getRoot().apply(miningVector);
+	}
+
+	/**
+	 * Shared copy adds vectors into own histograms
+	 */
+	@Override
+	public EMiningModel share() {
+		DecisionTreeMiningModel o = (DecisionTreeMiningModel) super.share();
+		o.ranges = null;
+		o.histograms = null;
+		o.nodeCounts = null;
+		return o;
+	}
+
+	@Override
+	protected EMiningModel copy(boolean delta) {
+		DecisionTreeMiningModel o = (DecisionTreeMiningModel) super.copy(delta);
+		if (ranges != null)
+			o.ranges = ranges.clone();
+		if (histograms != null) {
+			o.histograms = histograms.clone();
+			o.nodeCounts = nodeCounts.clone();
+		}
+		if (vectorNodes != null)
+			o.vectorNodes = vectorNodes.clone();
+		return o;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Ranges and histograms of the copies are added to this model. The copies continue with
+	 * the histograms of this model, so any of them can replace this model.
+	 */
+	@Override
+	public void joinShared(List<EMiningModel> models) throws MiningException {
+		super.joinShared(models);
+
+		for (EMiningModel model : models) {
+			DecisionTreeMiningModel m = (DecisionTreeMiningModel) model;
+			if (m == this)
+				continue;
+			if (m.ranges != null && m.ranges != ranges)
+				addRanges(m.ranges);
+			if (m.histograms != null && m.histograms != histograms)
+				addHistograms(m.histograms, m.nodeCounts, null, null);
+		}
+		for (EMiningModel model : models) {
+			DecisionTreeMiningModel m = (DecisionTreeMiningModel) model;
+			m.ranges = ranges;
+			m.histograms = histograms;
+			m.nodeCounts = nodeCounts;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Histograms are summed as differences of the models from this model,
+	 * nodes of vectors are taken from the copies which have changed them.
+	 */
+	@Override
+	public void join(List<EMiningModel> models) throws MiningException {
+		super.join(models);
+
+		long[] baseHistograms = histograms == null ? null : histograms.clone();
+		long[] baseCounts = nodeCounts == null ? null : nodeCounts.clone();
+		int[] baseNodes = vectorNodes == null ? null : vectorNodes.clone();
+		for (EMiningModel model : models) {
+			DecisionTreeMiningModel m = (DecisionTreeMiningModel) model;
+			if (m == this)
+				continue;
+			if (m.ranges != null && m.ranges != ranges)
+				addRanges(m.ranges);
+			if (m.histograms != null && m.histograms != histograms)
+				addHistograms(m.histograms, m.nodeCounts, baseHistograms, baseCounts);
+			if (baseNodes != null && m.vectorNodes != vectorNodes) {
+				for (int i = 0; i < baseNodes.length; i++) {
+					if (m.vectorNodes[i] != baseNodes[i])
+						vectorNodes[i] = m.vectorNodes[i];
+				}
+			}
+		}
 	}
 
-}
\ No newline at end of file
+	private void addRanges(double[] other) {
+		if (ranges == null)
+			ranges = emptyRanges(other.length / 2);
+		for (int i = 0; i < ranges.length; i += 2) {
+			ranges[i] = Math.min(ranges[i], other[i]);
+			ranges[i + 1] = Math.max(ranges[i + 1], other[i + 1]);
+		}
+	}
+
+	private void addHistograms(long[] otherHistograms, long[] otherCounts, long[] baseHistograms, long[] baseCounts) {
+		if (histograms == null) {
+			histograms = new long[otherHistograms.length];
+			nodeCounts = new long[otherCounts.length];
+		}
+		for (int i = 0; i < histograms.length; i++)
+			histograms[i] += otherHistograms[i] - (baseHistograms == null ? 0 : baseHistograms[i]);
+		for (int i = 0; i < nodeCounts.length; i++)
+			nodeCounts[i] += otherCounts[i] - (baseCounts == null ? 0 : baseCounts[i]);
+	}
+}
@@ -1,6 +1,7 @@
 package org.eltech.ddm.classification.decisiontree;
 
 import org.eltech.ddm.classification.Predicate;
+import org.eltech.ddm.classification.SimplePredicate;
 import org.eltech.ddm.inputdata.MiningVector;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.miningdata.ECategory;
@@ -375,15 +376,24 @@ public class DecisionTreeNode extends MiningTreeNode implements IClassifier
     // -----------------------------------------------------------------------
     /**
      * Applies decision tree recursively to all child nodes
-     * and returns score value.
+     * and returns score value. If predicates of all children are false
+     * (e.g. the value is missing), score of this node is returned.
      *
      * @param miningVector vector to be classified
      * @return score value of classfication
      * @throws MiningException could not run this method
      */
     public double apply( MiningVector miningVector ) throws MiningException
-    { //may be mistake!
-      return 0;
+    {
+      for (int i = 0; i < getChildCount(); i++)
+      {
+        DecisionTreeNode child = (DecisionTreeNode) getChildAt(i);
+        SimplePredicate childPredicate = (SimplePredicate) child.getPredicate();
+        if (childPredicate.evaluate(miningVector.getValue(childPredicate.getAttribute())))
+          return child.apply(miningVector);
+      }
+
+      return score;
     }
 
 
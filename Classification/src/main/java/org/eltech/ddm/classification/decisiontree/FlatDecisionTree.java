@@ -0,0 +1,102 @@
+package org.eltech.ddm.classification.decisiontree;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Decision tree compiled into arrays indexed by node (see {@link DecisionTreeMiningModel#createFlatTree()}). <p>
+ *
+ * Nodes are kept in depth-first order, so the left child of a node usually follows it. A node has index of
+ * the attribute of its split (-1 for a leaf), threshold of numeric split or set of categories of categorical
+ * split (bits in {@link #categoryWords}), indexes of left and right children and score. A vector goes to
+ * the left child if the value is less than the threshold or the category is in the set. A vector with missing
+ * value of the split attribute gets score of the node, as by {@link DecisionTreeNode#apply}. <p>
+ *
+ * Rows are arrays of values of all attributes of logical data. The tree is immutable, so rows can be
+ * predicted in parallel ({@link #predictParallel(double[][], double[], int, Executor)}).
+ */
+public class FlatDecisionTree {
+
+	// Index of the split attribute of every node or -1 for leaves
+	private final int[] attributes;
+
+	// Threshold of numeric split of every node
+	private final double[] thresholds;
+
+	// Offset of categories of categorical split in categoryWords or -1 for numeric split
+	private final int[] categoryOffsets;
+
+	// Number of words of categories of categorical split
+	private final int[] categoryLengths;
+
+	// Sets of categories of left children of categorical splits
+	private final long[] categoryWords;
+
+	private final int[] leftChildren;
+	private final int[] rightChildren;
+	private final double[] scores;
+
+	FlatDecisionTree(int[] attributes, double[] thresholds, int[] categoryOffsets, int[] categoryLengths, long[] categoryWords,
+					 int[] leftChildren, int[] rightChildren, double[] scores) {
+		this.attributes = attributes;
+		this.thresholds = thresholds;
+		this.categoryOffsets = categoryOffsets;
+		this.categoryLengths = categoryLengths;
+		this.categoryWords = categoryWords;
+		this.leftChildren = leftChildren;
+		this.rightChildren = rightChildren;
+		this.scores = scores;
+	}
+
+	/**
+	 * @return score of the leaf of the row
+	 */
+	public double predict(double[] row) {
+		int n = 0;
+		int iAttr;
+		while ((iAttr = attributes[n]) >= 0) {
+			double v = row[iAttr];
+			if (v != v) // NaN is missing value
+				break;
+			int offset = categoryOffsets[n];
+			boolean left;
+			if (offset < 0) {
+				left = v < thresholds[n];
+			} else {
+				int category = (int) v;
+				int word = category >>> 6;
+				left = v >= 0 && word < categoryLengths[n] && (categoryWords[offset + word] & (1L << category)) != 0;
+			}
+			n = left ? leftChildren[n] : rightChildren[n];
+		}
+		return scores[n];
+	}
+
+	/**
+	 * Predicts rows from {@code from} (inclusive) to {@code to} (exclusive), score of row i is written into {@code predictions[i]}
+	 */
+	public void predict(double[][] rows, int from, int to, double[] predictions) {
+		for (int i = from; i < to; i++)
+			predictions[i] = predict(rows[i]);
+	}
+
+	/**
+	 * Predicts all rows by batches of given size, batches are predicted in parallel by tasks of the executor
+	 */
+	public void predictParallel(double[][] rows, double[] predictions, int batchSize, Executor executor) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("Size of batch must be positive: " + batchSize);
+		int batches = (rows.length + batchSize - 1) / batchSize;
+		CompletableFuture<?>[] tasks = new CompletableFuture<?>[batches];
+		for (int b = 0; b < batches; b++) {
+			int from = b * batchSize;
+			tasks[b] = CompletableFuture.runAsync(() ->
+					predict(rows, from, Math.min(rows.length, from + batchSize), predictions), executor);
+		}
+		CompletableFuture.allOf(tasks).join();
+	}
+
+	public int getNodesNumber() {
+		return attributes.length;
+	}
+}
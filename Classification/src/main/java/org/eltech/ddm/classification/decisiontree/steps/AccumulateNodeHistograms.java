@@ -0,0 +1,30 @@
+package org.eltech.ddm.classification.decisiontree.steps;
+
+import org.eltech.ddm.classification.decisiontree.DecisionTreeMiningModel;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Moves the current vector into its node of the current level and adds the vector to class histograms of the node
+ */
+public class AccumulateNodeHistograms extends DataMiningBlock {
+
+    public AccumulateNodeHistograms(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        DecisionTreeMiningModel treeModel = (DecisionTreeMiningModel) model;
+        int iVector = model.getCurrentVectorIndex();
+        double[] values = data.getVector(iVector).getValues();
+        int node = treeModel.routeVector(iVector, values);
+        if (node >= 0)
+            treeModel.addVector(node, values);
+
+        return model;
+    }
+}
@@ -0,0 +1,25 @@
+package org.eltech.ddm.classification.decisiontree.steps;
+
+import org.eltech.ddm.classification.decisiontree.DecisionTreeMiningModel;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Extends ranges of attributes by values of the current vector
+ */
+public class FindAttributeRanges extends DataMiningBlock {
+
+    public FindAttributeRanges(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        ((DecisionTreeMiningModel) model).addRange(data.getVector(model.getCurrentVectorIndex()).getValues());
+
+        return model;
+    }
+}
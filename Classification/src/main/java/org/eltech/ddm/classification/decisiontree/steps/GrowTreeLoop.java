@@ -0,0 +1,38 @@
+package org.eltech.ddm.classification.decisiontree.steps;
+
+import org.eltech.ddm.classification.decisiontree.DecisionTreeMiningModel;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.algorithms.MiningLoop;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Loop of levels of the tree: it is executed while the current level has nodes which can be split
+ */
+public class GrowTreeLoop extends MiningLoop {
+
+    public GrowTreeLoop(EMiningFunctionSettings settings, MiningBlock... steps) throws MiningException {
+        super(settings, steps);
+    }
+
+    @Override
+    protected boolean conditionLoop(EMiningModel model) throws MiningException {
+        return ((DecisionTreeMiningModel) model).getOpenNodesNumber() > 0;
+    }
+
+    @Override
+    protected EMiningModel initLoop(EMiningModel model) throws MiningException {
+        return model;
+    }
+
+    @Override
+    protected EMiningModel beforeIteration(EMiningModel model) throws MiningException {
+        return model;
+    }
+
+    @Override
+    protected EMiningModel afterIteration(EMiningModel model) throws MiningException {
+        return model;
+    }
+}
@@ -0,0 +1,29 @@
+package org.eltech.ddm.classification.decisiontree.steps;
+
+import org.eltech.ddm.classification.decisiontree.DecisionTreeAlgorithmSettings;
+import org.eltech.ddm.classification.decisiontree.DecisionTreeMiningModel;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Computes bins of attributes by their ranges and creates root of the tree containing all vectors of the data set
+ */
+public class InitTreeRoot extends DataMiningBlock {
+
+    private final int binsNumber;
+
+    public InitTreeRoot(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+        binsNumber = ((DecisionTreeAlgorithmSettings) settings.getAlgorithmSettings()).getBinsNumber();
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        ((DecisionTreeMiningModel) model).initTree(binsNumber, data.getVectorsNumber());
+
+        return model;
+    }
+}
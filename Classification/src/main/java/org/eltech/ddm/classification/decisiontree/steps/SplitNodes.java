@@ -0,0 +1,31 @@
+package org.eltech.ddm.classification.decisiontree.steps;
+
+import org.eltech.ddm.classification.decisiontree.DecisionTreeAlgorithmSettings;
+import org.eltech.ddm.classification.decisiontree.DecisionTreeMiningModel;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Splits open nodes of the current level by their class histograms
+ */
+public class SplitNodes extends MiningBlock {
+
+    private final int maxDepth;
+    private final int minNodeSize;
+
+    public SplitNodes(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+        DecisionTreeAlgorithmSettings algorithmSettings = (DecisionTreeAlgorithmSettings) settings.getAlgorithmSettings();
+        maxDepth = algorithmSettings.getMaxDepth();
+        minNodeSize = algorithmSettings.getMinNodeSize();
+    }
+
+    @Override
+    protected EMiningModel execute(EMiningModel model) throws MiningException {
+        ((DecisionTreeMiningModel) model).splitNodes(maxDepth, minNodeSize);
+
+        return model;
+    }
+}
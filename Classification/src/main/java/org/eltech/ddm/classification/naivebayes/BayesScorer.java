@@ -0,0 +1,123 @@
+package org.eltech.ddm.classification.naivebayes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Scorer of vectors by a naive Bayes model in log space. <p>
+ *
+ * The scorer is an immutable snapshot of the model: log-priors of classes and
+ * log-likelihood tables of attributes are computed once when the scorer is created,
+ * so scoring of a vector is a sum of table values and doesn't allocate memory.
+ * The score of a class is log P(class) + sum of log P(value | class) of the attributes
+ * (up to a constant common for all classes). Products of small probabilities are
+ * replaced by sums of logarithms, so scores don't underflow for many attributes. <p>
+ *
+ * Scores of a batch are written into a caller-supplied array: the score of class c
+ * for vector v is {@code scores[v * getClassesNumber() + c]}. The scorer is thread-safe,
+ * so parts of a batch can be scored in parallel ({@link #scoreParallel(double[][], double[], int, Executor)}).
+ */
+public abstract class BayesScorer {
+
+	/**
+	 * Values of classes in order of their indexes in scores
+	 */
+	protected final double[] classValues;
+
+	/**
+	 * Log-priors of classes
+	 */
+	protected final double[] logPriors;
+
+	protected BayesScorer(double[] classValues, double[] logPriors) {
+		this.classValues = classValues;
+		this.logPriors = logPriors;
+	}
+
+	/**
+	 * Scores one vector
+	 *
+	 * @param vector - values of the vector
+	 * @param scores - array of scores
+	 * @param offset - position of score of the first class in the array
+	 */
+	public abstract void score(double[] vector, double[] scores, int offset);
+
+	/**
+	 * Scores vectors from {@code from} (inclusive) to {@code to} (exclusive),
+	 * scores of vector v are written from position {@code v * getClassesNumber()}
+	 */
+	public void score(double[][] vectors, int from, int to, double[] scores) {
+		int classesNumber = classValues.length;
+		for (int v = from; v < to; v++)
+			score(vectors[v], scores, v * classesNumber);
+	}
+
+	/**
+	 * Scores all vectors by batches of given size, batches are scored in parallel by tasks of the executor
+	 *
+	 * @param vectors   - vectors
+	 * @param scores    - array of scores, it has {@code vectors.length * getClassesNumber()} elements at least
+	 * @param batchSize - number of vectors scored by one task
+	 * @param executor  - executor of tasks, e.g. pool of the mining environment
+	 */
+	public void scoreParallel(double[][] vectors, double[] scores, int batchSize, Executor executor) {
+		if (batchSize <= 0)
+			throw new IllegalArgumentException("Size of batch must be positive: " + batchSize);
+		int batches = (vectors.length + batchSize - 1) / batchSize;
+		CompletableFuture<?>[] tasks = new CompletableFuture<?>[batches];
+		for (int b = 0; b < batches; b++) {
+			int from = b * batchSize;
+			tasks[b] = CompletableFuture.runAsync(() ->
+					score(vectors, from, Math.min(vectors.length, from + batchSize), scores), executor);
+		}
+		CompletableFuture.allOf(tasks).join();
+	}
+
+	/**
+	 * @return index of class with maximal score of the vector
+	 */
+	public int predict(double[] scores, int offset) {
+		int best = 0;
+		for (int c = 1; c < classValues.length; c++) {
+			if (scores[offset + c] > scores[offset + best])
+				best = c;
+		}
+		return best;
+	}
+
+	/**
+	 * Converts scores of the vector into probabilities of classes (log-sum-exp normalization)
+	 */
+	public void toProbabilities(double[] scores, int offset) {
+		double max = scores[offset + predict(scores, offset)];
+		if (max == Double.NEGATIVE_INFINITY) { // all classes are impossible
+			for (int c = 0; c < classValues.length; c++)
+				scores[offset + c] = 0;
+			return;
+		}
+
+		double sum = 0;
+		for (int c = 0; c < classValues.length; c++) {
+			scores[offset + c] = Math.exp(scores[offset + c] - max);
+			sum += scores[offset + c];
+		}
+		for (int c = 0; c < classValues.length; c++)
+			scores[offset + c] /= sum;
+	}
+
+	public int getClassesNumber() {
+		return classValues.length;
+	}
+
+	/**
+	 * @return value of class with given index in scores
+	 */
+	public double getClassValue(int iClass) {
+		return classValues[iClass];
+	}
+
+	public double getLogPrior(int iClass) {
+		return logPriors[iClass];
+	}
+}
@@ -20,6 +20,7 @@ import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
  */
 public class NaiveBayesAlgorithm extends MiningAlgorithm {
 
+	private NaiveBayesModel.Storage modelStorage = NaiveBayesModel.Storage.elements;
 
 	public NaiveBayesAlgorithm(EMiningFunctionSettings miningSettings)
 			throws MiningException {
@@ -29,7 +30,20 @@ public class NaiveBayesAlgorithm extends MiningAlgorithm {
 
 	@Override
 	public EMiningModel createModel() throws MiningException {
-		return new NaiveBayesModel(miningSettings);
+		return new NaiveBayesModel(miningSettings, modelStorage);
+	}
+
+	/**
+	 * Sets storage of counts of created models
+	 *
+	 * @param modelStorage - tree of elements (default) or flat tensor
+	 */
+	public void setModelStorage(NaiveBayesModel.Storage modelStorage) {
+		this.modelStorage = modelStorage;
+	}
+
+	public NaiveBayesModel.Storage getModelStorage() {
+		return modelStorage;
 	}
 
 	@Override
@@ -85,7 +99,7 @@ public class NaiveBayesAlgorithm extends MiningAlgorithm {
 
 	public EMiningModel createModel(MiningInputStream inputStream)
 			throws MiningException {
-		EMiningModel resultModel = new NaiveBayesModel(miningSettings);
+		EMiningModel resultModel = new NaiveBayesModel(miningSettings, modelStorage);
 
 		return resultModel;
 	}
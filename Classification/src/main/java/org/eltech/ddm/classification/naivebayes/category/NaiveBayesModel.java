@@ -2,18 +2,36 @@ package org.eltech.ddm.classification.naivebayes.category;
 
 import org.eltech.ddm.classification.ClassificationMiningModel;
 import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningErrorCode;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
 import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 import org.eltech.ddm.miningcore.miningmodel.LogicalAttributeElement;
 import org.eltech.ddm.miningcore.miningmodel.LogicalAttributeValueElement;
 import org.eltech.ddm.miningcore.miningmodel.MiningModelElement;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshot;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 
 public class NaiveBayesModel extends ClassificationMiningModel implements Cloneable{
 
+	/**
+	 * Storage of counts of the model
+	 */
+	public enum Storage {
+		/**
+		 * Tree of mining model elements with one TargetValueCount for every count
+		 */
+		elements,
+		/**
+		 * Flat tensor of counts: [attribute][value of attribute][target value] cells
+		 * followed by [target value] cells. Mining model elements are generated on demand.
+		 */
+		tensor
+	}
+
 	/**
 	 * for each attribute and each its value
 	 * contains the counts associated with the values of the target attribute
@@ -32,8 +50,36 @@ public class NaiveBayesModel extends ClassificationMiningModel implements Clonea
 //	protected HashMap<ELogicalAttribute, HashMap<ECategory,TargetValueCounts>> bayesInputs;
 
 
+	// Blocks of the snapshot of the model
+	private static final String SNAPSHOT_VALUES_NUMBERS = "valuesNumbers";
+	private static final String SNAPSHOT_COUNTS = "counts";
+
+	private Storage storage;
+
+	// Counts of tensor storage
+	private AtomicLongArray counts;
+
+	// Offset of the first cell of every attribute in the tensor
+	private int[] attributeOffsets;
+
+	// Number of values of every attribute
+	private int[] valuesNumbers;
+
+	private int targetValuesNumber;
+
+	// Offset of counts of target values in the tensor
+	private int outputOffset;
+
+	// Scorer of apply() and getProbabilities(), it's created by the first call and dropped when counts are changed
+	private transient volatile NaiveBayesScorer scorer;
+
 	public NaiveBayesModel(EMiningFunctionSettings settings) throws MiningException{
+		this(settings, Storage.elements);
+	}
+
+	public NaiveBayesModel(EMiningFunctionSettings settings, Storage storage) throws MiningException{
 		super(settings);
+		this.storage = storage;
 
 		sets.add(BAYES_INPUT, new MiningModelElement("Input") {
 			@Override
@@ -61,9 +107,15 @@ public class NaiveBayesModel extends ClassificationMiningModel implements Clonea
 
 	@Override
 	public void initModel() throws MiningException {
+		countsChanged();
 
 		MiningModelElement attrs = getElement(INDEX_ATTRIBUTE_SET);
 		LogicalAttributeElement tlattr = (LogicalAttributeElement) attrs.getElement(indexTarget);
+		if (storage == Storage.tensor) {
+			initTensor(attrs, tlattr);
+			return;
+		}
+
 		for (int i = 0; i < attrs.size(); i++) { // loop for attributes
 			LogicalAttributeElement lattr = (LogicalAttributeElement) attrs.getElement(i);
 			String attrName = lattr.getID();
@@ -112,63 +164,381 @@ public class NaiveBayesModel extends ClassificationMiningModel implements Clonea
 		}
 	}
 
+	/**
+	 * Computes strides of the tensor and allocates its cells
+	 */
+	private void initTensor(MiningModelElement attrs, LogicalAttributeElement tlattr) throws MiningException {
+		targetValuesNumber = tlattr.size();
+		attributeOffsets = new int[attrs.size()];
+		valuesNumbers = new int[attrs.size()];
+
+		long size = 0;
+		for (int i = 0; i < attrs.size(); i++) {
+			valuesNumbers[i] = attrs.getElement(i).size();
+			attributeOffsets[i] = (int) size;
+			size += (long) valuesNumbers[i] * targetValuesNumber;
+			if (size + targetValuesNumber > Integer.MAX_VALUE)
+				throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Too many counts for tensor storage of the model");
+		}
+		outputOffset = (int) size;
+		counts = new AtomicLongArray(outputOffset + targetValuesNumber);
+	}
+
+	private int inputCell(int iAttr, int iValue, int iTarget) throws MiningException {
+		if (iValue < 0 || iValue >= valuesNumbers[iAttr] || iTarget < 0 || iTarget >= targetValuesNumber)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Count for attribute " + iAttr + ", value " + iValue + " and target value " + iTarget + " is absent.");
+		return attributeOffsets[iAttr] + iValue * targetValuesNumber + iTarget;
+	}
+
+	private int outputCell(int iTarget) throws MiningException {
+		if (iTarget < 0 || iTarget >= targetValuesNumber)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Count for target value " + iTarget + " is absent.");
+		return outputOffset + iTarget;
+	}
+
+	/**
+	 * Increases count of vectors with given value of attribute and given target value
+	 */
+	public void addInputCount(int iCurrAttr, int indexValueAttr, int indexValueTarg, int delta) throws MiningException {
+		countsChanged();
+		if (counts != null)
+			counts.addAndGet(inputCell(iCurrAttr, indexValueAttr, indexValueTarg), delta);
+		else
+			getInputTargetValueCount(iCurrAttr, indexValueAttr, indexValueTarg).addCount(delta);
+	}
+
+	/**
+	 * Increases count of vectors with given target value
+	 */
+	public void addOutputCount(int indexValueTarg, int delta) throws MiningException {
+		countsChanged();
+		if (counts != null)
+			counts.addAndGet(outputCell(indexValueTarg), delta);
+		else
+			getOutputTargetValueCount(indexValueTarg).addCount(delta);
+	}
+
+	public long getInputCount(int iCurrAttr, int indexValueAttr, int indexValueTarg) throws MiningException {
+		if (counts != null)
+			return counts.get(inputCell(iCurrAttr, indexValueAttr, indexValueTarg));
+		return getInputTargetValueCount(iCurrAttr, indexValueAttr, indexValueTarg).getCount();
+	}
+
+	public long getOutputCount(int indexValueTarg) throws MiningException {
+		if (counts != null)
+			return counts.get(outputCell(indexValueTarg));
+		return getOutputTargetValueCount(indexValueTarg).getCount();
+	}
+
+	public Storage getStorage() {
+		return storage;
+	}
+
+	/**
+	 * @return index of the most probable target value for the vector
+	 */
 	@Override
-	public double apply(MiningVector miningVector) {
-		double[] probabilities = getProbabilities(miningVector);
-
-		double maxP = 0;
-		int maxIndex = 0;
-		for(int i =0; i < probabilities.length; i++){
-			if(probabilities[i]>maxP){
-				maxP = probabilities[i];
-				maxIndex = i;
+	public double apply(MiningVector miningVector) throws MiningException {
+		NaiveBayesScorer scorer = getScorer();
+		double[] scores = new double[scorer.getClassesNumber()];
+		scorer.score(miningVector.getValues(), scores, 0);
+		return scorer.predict(scores, 0);
+	}
+
+	/**
+	 * Computes probabilities of target values for the vector
+	 */
+	public double[] getProbabilities(MiningVector miningVector) throws MiningException {
+		NaiveBayesScorer scorer = getScorer();
+		double[] probabilities = new double[scorer.getClassesNumber()];
+		scorer.score(miningVector.getValues(), probabilities, 0);
+		scorer.toProbabilities(probabilities, 0);
+		return probabilities;
+	}
+
+	/**
+	 * Returns scorer with Laplace smoothing of counts, which is kept until counts of the model are changed.
+	 * Counts changed through returned elements of counts don't drop the scorer.
+	 */
+	private NaiveBayesScorer getScorer() throws MiningException {
+		NaiveBayesScorer s = scorer;
+		if (s == null)
+			scorer = s = createScorer();
+		return s;
+	}
+
+	private void countsChanged() {
+		if (scorer != null)
+			scorer = null;
+	}
+
+	/**
+	 * Creates scorer with Laplace smoothing of counts
+	 */
+	public NaiveBayesScorer createScorer() throws MiningException {
+		return createScorer(1);
+	}
+
+	/**
+	 * Creates scorer from current counts of the model. Counts are smoothed by adding the pseudo count,
+	 * so a value of attribute absent for a target value doesn't exclude the target value.
+	 *
+	 * @param smoothing - pseudo count added to every count, 0 disables smoothing
+	 */
+	public NaiveBayesScorer createScorer(double smoothing) throws MiningException {
+		if (smoothing < 0)
+			throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Smoothing of counts must not be negative: " + smoothing);
+
+		MiningModelElement attrs = getElement(INDEX_ATTRIBUTE_SET);
+		int nTargets = attrs.getElement(indexTarget).size();
+		double[] logPriors = new double[nTargets];
+		double total = 0;
+		for (int t = 0; t < nTargets; t++)
+			total += getOutputCount(t);
+		for (int t = 0; t < nTargets; t++)
+			logPriors[t] = Math.log((getOutputCount(t) + smoothing) / (total + smoothing * nTargets));
+
+		int[] offsets = new int[attrs.size()];
+		int[] numbers = new int[attrs.size()];
+		int size = 0;
+		for (int i = 0; i < attrs.size(); i++) {
+			numbers[i] = i == indexTarget ? 0 : attrs.getElement(i).size();
+			offsets[i] = size;
+			size += numbers[i] * nTargets;
+		}
+
+		double[] logLikelihoods = new double[size];
+		for (int i = 0; i < attrs.size(); i++) {
+			for (int j = 0; j < numbers[i]; j++) {
+				for (int t = 0; t < nTargets; t++)
+					logLikelihoods[offsets[i] + j * nTargets + t] = Math.log(
+							(getInputCount(i, j, t) + smoothing) / (getOutputCount(t) + smoothing * numbers[i]));
 			}
 		}
+		return new NaiveBayesScorer(logPriors, logLikelihoods, offsets, numbers, indexTarget);
+	}
 
-		return maxIndex;
-	}
-
-	public double[] getProbabilities(MiningVector miningVector) {
-		//int numberAttr = miningVector.getValues().length;
-		int numberTargetValues = target.getCategoricalProperties().getSize();
-
-		// calculate probabilities for all target categories
-//		double summP = 0;
-//		int jCatT = 0;
-//		for(IMiningElement count: (MiningModelSet)getSet(BAYES_OUTPUT)){
-//			probabilities[jCatT] = 1;
-//			int countVectorsTarget = ((TargetValueCount)count).getCount();
-//			for(int iAttr = 0; iAttr < getSet(ATTRIBUTE_SET).size(); iAttr++){
-//				if(iAttr == indexTarget)
-//					continue;
-//				int iCat = (int)miningVector.getValue(iAttr);
-//				ELogicalAttribute attr = miningVector.getLogicalData().getAttribute(iAttr);
-//				//MiningModelIndex index = new MiningModelIndex(i, category, j);
-//				//int countVectorsAttr =  ((TargetValueCount)index.getSet(this)).getCount();
-//				int countVectorsAttr =  ((TargetValueCount)getSet(BAYES_INPUT).getSet(iAttr).getSet(iCat).getElement(jCatT)).getCount();
-//				probabilities[jCatT] *= countVectorsAttr / countVectorsTarget;
-//			}
-//			summP += probabilities[jCatT];
-//			jCatT++;
-//		}
-//
-//		// normalisation
-//		for(int i = 0; i < numberTargetValues; i++)
-//			probabilities[i] /= summP;
+	/**
+	 * Snapshot keeps numbers of values of attributes (the number of target values is the last one)
+	 * and counts in layout of tensor storage
+	 */
+	@Override
+	public void writeSnapshot(ModelSnapshot snapshot) throws MiningException {
+		MiningModelElement attrs = getElement(INDEX_ATTRIBUTE_SET);
+		int nTargets = attrs.getElement(indexTarget).size();
+		int[] numbers = new int[attrs.size() + 1];
+		long size = nTargets;
+		for (int i = 0; i < attrs.size(); i++) {
+			numbers[i] = attrs.getElement(i).size();
+			size += (long) numbers[i] * nTargets;
+		}
+		numbers[attrs.size()] = nTargets;
+		if (size > Integer.MAX_VALUE)
+			throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Too many counts for snapshot of the model");
+
+		long[] values;
+		if (counts != null) {
+			values = toArray(counts);
+		} else {
+			values = new long[(int) size];
+			int cell = 0;
+			for (int i = 0; i < attrs.size(); i++) {
+				for (int j = 0; j < numbers[i]; j++) {
+					for (int t = 0; t < nTargets; t++)
+						values[cell++] = getInputCount(i, j, t);
+				}
+			}
+			for (int t = 0; t < nTargets; t++)
+				values[cell++] = getOutputCount(t);
+		}
+		snapshot.putInts(SNAPSHOT_VALUES_NUMBERS, numbers);
+		snapshot.putLongs(SNAPSHOT_COUNTS, values);
+	}
 
-		return new double[numberTargetValues];
+	/**
+	 * Counts of the snapshot are restored into tensor storage
+	 */
+	@Override
+	public void readSnapshot(ModelSnapshot snapshot) throws MiningException {
+		storage = Storage.tensor;
+		initModel();
+
+		int[] numbers = snapshot.getInts(SNAPSHOT_VALUES_NUMBERS);
+		boolean same = numbers.length == valuesNumbers.length + 1 && numbers[valuesNumbers.length] == targetValuesNumber;
+		for (int i = 0; same && i < valuesNumbers.length; i++)
+			same = numbers[i] == valuesNumbers[i];
+		if (!same || snapshot.getLength(SNAPSHOT_COUNTS) != counts.length())
+			throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Categories of attributes of the snapshot differ from categories of logical data");
+		counts = new AtomicLongArray(snapshot.getLongs(SNAPSHOT_COUNTS));
 	}
 
+	/**
+	 * Returns element of the count. For tensor storage it's a snapshot of the count,
+	 * changes of the returned element don't change the model.
+	 */
 	public TargetValueCount getInputTargetValueCount(int iCurrAttr, int indexValueAttr, int indexValueTarg) throws MiningException {
-		return (TargetValueCount) getElement(
+		if (counts != null)
+			return createCount(inputCountID(iCurrAttr, indexValueAttr, indexValueTarg),
+					counts.get(inputCell(iCurrAttr, indexValueAttr, indexValueTarg)));
+
+		return (TargetValueCount) getElementForUpdate(
 				EMiningModel.index(NaiveBayesModel.BAYES_INPUT, iCurrAttr, indexValueAttr, indexValueTarg));
 	}
 
+	/**
+	 * Returns element of the count. For tensor storage it's a snapshot of the count.
+	 */
 	public TargetValueCount getOutputTargetValueCount(int indexValueTarg) throws MiningException {
-		return (TargetValueCount)getElement(EMiningModel.index(NaiveBayesModel.BAYES_OUTPUT, indexValueTarg));
+		if (counts != null)
+			return createCount(targetValueName(indexValueTarg), counts.get(outputCell(indexValueTarg)));
+
+		return (TargetValueCount)getElementForUpdate(EMiningModel.index(NaiveBayesModel.BAYES_OUTPUT, indexValueTarg));
 	}
 
+	/**
+	 * Returns set of counts for attribute values. For tensor storage the set is generated from the tensor.
+	 */
+	public MiningModelElement getInput() throws MiningException {
+		if (counts == null)
+			return getElement(EMiningModel.index(NaiveBayesModel.BAYES_INPUT));
+
+		MiningModelElement attrs = getElement(INDEX_ATTRIBUTE_SET);
+		ElementView input = createSet("Input");
+		for (int i = 0; i < valuesNumbers.length; i++) {
+			LogicalAttributeElement lattr = (LogicalAttributeElement) attrs.getElement(i);
+			ElementView attrElem = createSet(lattr.getID());
+			input.add(attrElem);
+			for (int j = 0; j < valuesNumbers[i]; j++) {
+				ElementView attrValElem = createSet(((LogicalAttributeValueElement) lattr.getElement(j)).getValue().getName());
+				attrElem.add(attrValElem);
+				for (int t = 0; t < targetValuesNumber; t++)
+					attrValElem.add(getInputTargetValueCount(i, j, t));
+			}
+		}
+		return input;
+	}
+
+	/**
+	 * Returns set of counts for target values. For tensor storage the set is generated from the tensor.
+	 */
 	public MiningModelElement getOutput() throws MiningException {
-		return getElement(EMiningModel.index(NaiveBayesModel.BAYES_OUTPUT));
+		if (counts == null)
+			return getElement(EMiningModel.index(NaiveBayesModel.BAYES_OUTPUT));
+
+		ElementView output = createSet("Output");
+		for (int t = 0; t < targetValuesNumber; t++)
+			output.add(getOutputTargetValueCount(t));
+		return output;
+	}
+
+	private String inputCountID(int iAttr, int iValue, int iTarget) throws MiningException {
+		LogicalAttributeElement lattr = (LogicalAttributeElement) getElement(EMiningModel.index(ATTRIBUTE_SET, iAttr));
+		String catName = ((LogicalAttributeValueElement) lattr.getElement(iValue)).getValue().getName();
+		return lattr.getID() + "=" + catName + ";" + targetValueName(iTarget);
+	}
+
+	private String targetValueName(int iTarget) throws MiningException {
+		return getTargetAttributeValue(iTarget).getValue().getName();
+	}
+
+	private static TargetValueCount createCount(String id, long count) {
+		TargetValueCount tvc = new TargetValueCount(id);
+		tvc.addCount((int) count);
+		return tvc;
+	}
+
+	private static ElementView createSet(String id) {
+		return new ElementView(id);
+	}
+
+	/**
+	 * Set of elements generated from the tensor
+	 */
+	private static class ElementView extends MiningModelElement {
+
+		ElementView(String id) {
+			super(id);
+		}
+
+		@Override
+		protected void add(MiningModelElement element) {
+			super.add(element);
+		}
+
+		@Override
+		protected String propertiesToString() {
+			return "";
+		}
+
+		@Override
+		public void merge(List<MiningModelElement> elements) {
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Counts of tensor storage are summed as differences of the models from this model.
+	 */
+	@Override
+	public void join(List<EMiningModel> models) throws MiningException {
+		super.join(models);
+		countsChanged();
+		if (counts == null)
+			return;
+
+		long[] base = toArray(counts);
+		for (EMiningModel model : models) {
+			AtomicLongArray modelCounts = ((NaiveBayesModel) model).counts;
+			if (modelCounts == counts) // the same or shared model
+				continue;
+			for (int i = 0; i < base.length; i++) {
+				long delta = modelCounts.get(i) - base[i];
+				if (delta != 0)
+					counts.addAndGet(i, delta);
+			}
+		}
+	}
+
+	/**
+	 * Shared copies change the same counts, so the scorer of this model is dropped
+	 */
+	@Override
+	public void joinShared(List<EMiningModel> models) throws MiningException {
+		super.joinShared(models);
+		countsChanged();
+	}
+
+	@Override
+	public EMiningModel share() {
+		NaiveBayesModel m = (NaiveBayesModel) super.share();
+		m.scorer = null;
+		return m;
+	}
+
+	@Override
+	protected EMiningModel copy(boolean delta) {
+		NaiveBayesModel o = (NaiveBayesModel) super.copy(delta);
+		if (counts != null)
+			o.counts = new AtomicLongArray(toArray(counts));
+		return o;
+	}
+
+	private static long[] toArray(AtomicLongArray array) {
+		long[] values = new long[array.length()];
+		for (int i = 0; i < values.length; i++)
+			values[i] = array.get(i);
+		return values;
+	}
+
+	@Override
+	public String toString() {
+		if (counts == null)
+			return super.toString();
+
+		try {
+			return getElement(INDEX_ATTRIBUTE_SET) + "\n" + getInput() + "\n" + getOutput() + "\n";
+		} catch (MiningException e) {
+			return super.toString();
+		}
 	}
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package org.eltech.ddm.classification.naivebayes.category;
+
+import org.eltech.ddm.classification.naivebayes.BayesScorer;
+
+/**
+ * Scorer of categorical naive Bayes model. <p>
+ *
+ * Values of the vector are indexes of categories of attributes, as in {@link org.eltech.ddm.inputdata.MiningVector}.
+ * Log-likelihoods are kept by one flat table [attribute][value of attribute][target value],
+ * so log-likelihoods of all target values for a value of attribute are adjacent.
+ * The target attribute, missing values and unknown categories are skipped.
+ */
+public class NaiveBayesScorer extends BayesScorer {
+
+	// Log-likelihoods of values of attributes: [attribute][value of attribute][target value]
+	private final double[] logLikelihoods;
+
+	// Offset of the first value of every attribute in the table
+	private final int[] attributeOffsets;
+
+	// Number of values of every attribute
+	private final int[] valuesNumbers;
+
+	private final int indexTarget;
+
+	NaiveBayesScorer(double[] logPriors, double[] logLikelihoods, int[] attributeOffsets, int[] valuesNumbers, int indexTarget) {
+		super(targetValues(logPriors.length), logPriors);
+		this.logLikelihoods = logLikelihoods;
+		this.attributeOffsets = attributeOffsets;
+		this.valuesNumbers = valuesNumbers;
+		this.indexTarget = indexTarget;
+	}
+
+	private static double[] targetValues(int number) {
+		double[] values = new double[number];
+		for (int t = 0; t < number; t++)
+			values[t] = t;
+		return values;
+	}
+
+	@Override
+	public void score(double[] vector, double[] scores, int offset) {
+		int targetValuesNumber = logPriors.length;
+		System.arraycopy(logPriors, 0, scores, offset, targetValuesNumber);
+		for (int a = 0; a < attributeOffsets.length; a++) {
+			double value = vector[a];
+			if (a == indexTarget || !(value >= 0 && value < valuesNumbers[a])) // NaN is missing value
+				continue;
+			int cell = attributeOffsets[a] + (int) value * targetValuesNumber;
+			for (int t = 0; t < targetValuesNumber; t++)
+				scores[offset + t] += logLikelihoods[cell + t];
+		}
+	}
+}
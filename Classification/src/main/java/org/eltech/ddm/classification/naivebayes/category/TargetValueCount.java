@@ -34,5 +34,9 @@ public class TargetValueCount extends MiningModelElement {
 		this.count++;
 	}
 
+	public synchronized void addCount(int delta) {
+		this.count += delta;
+	}
+
 
 }
@@ -2,7 +2,6 @@ package org.eltech.ddm.classification.naivebayes.category.steps;
 
 import org.eltech.ddm.classification.ClassificationFunctionSettings;
 import org.eltech.ddm.classification.naivebayes.category.NaiveBayesModel;
-import org.eltech.ddm.classification.naivebayes.category.TargetValueCount;
 import org.eltech.ddm.inputdata.MiningInputStream;
 import org.eltech.ddm.inputdata.MiningVector;
 import org.eltech.ddm.miningcore.MiningException;
@@ -11,6 +10,8 @@ import org.eltech.ddm.miningcore.miningdata.ELogicalAttribute;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
 import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 
+import java.util.Arrays;
+
 public class FindProbabilityOfAttributeValue extends DataMiningBlock {
 	private final ELogicalAttribute targetAttr;
 
@@ -29,13 +30,55 @@ public class FindProbabilityOfAttributeValue extends DataMiningBlock {
 			int indexValueTarg  = (int)mv.getValue(targetAttr.getName());
 			int indexValueAttr = (int)mv.getValue(iCurrAttr);
 
-			TargetValueCount tvc = ((NaiveBayesModel)model).getInputTargetValueCount(iCurrAttr, indexValueAttr, indexValueTarg);
-			tvc.incCount();
+			NaiveBayesModel bayesModel = (NaiveBayesModel) model;
+			bayesModel.addInputCount(iCurrAttr, indexValueAttr, indexValueTarg, 1);
+		}
+
+		return model;
+	}
+
+	/**
+	 * Counts vectors of the range by pairs (value of current attribute, target value)
+	 * and increases counts of the model once for every pair
+	 */
+	@Override
+	protected EMiningModel executeRange(MiningInputStream data, EMiningModel model, int fromVector, int toVector) throws MiningException {
+		int iCurrAttr = model.getCurrentAttributeIndex();
+		int iTarget = functionSettings.getLogicalData().getAttributeIndex(targetAttr);
+		int[][] counts = new int[0][];
 
-			System.out.println("Thread-" + Thread.currentThread().getName() + " id vectror=" + mv.getIndex() + " attr-" + iCurrAttr + " =" + tvc);
+		for (int iVec = fromVector; iVec < toVector; iVec++) {
+			MiningVector mv = data.getVector(iVec);
+			if (mv == null)
+				continue;
+
+			int indexValueAttr = (int) mv.getValue(iCurrAttr);
+			int indexValueTarg = (int) mv.getValue(iTarget);
+			if (indexValueAttr >= counts.length)
+				counts = Arrays.copyOf(counts, indexValueAttr + 1);
+			if (counts[indexValueAttr] == null)
+				counts[indexValueAttr] = new int[indexValueTarg + 1];
+			else if (indexValueTarg >= counts[indexValueAttr].length)
+				counts[indexValueAttr] = Arrays.copyOf(counts[indexValueAttr], indexValueTarg + 1);
+			counts[indexValueAttr][indexValueTarg]++;
+		}
+
+		for (int indexValueAttr = 0; indexValueAttr < counts.length; indexValueAttr++) {
+			if (counts[indexValueAttr] == null)
+				continue;
+			for (int indexValueTarg = 0; indexValueTarg < counts[indexValueAttr].length; indexValueTarg++) {
+				if (counts[indexValueAttr][indexValueTarg] > 0)
+					((NaiveBayesModel) model).addInputCount(iCurrAttr, indexValueAttr, indexValueTarg,
+							counts[indexValueAttr][indexValueTarg]);
+			}
 		}
 
 		return model;
 	}
 
+	@Override
+	public boolean isRangeSupported() {
+		return true;
+	}
+
 }
@@ -2,7 +2,6 @@ package org.eltech.ddm.classification.naivebayes.category.steps;
 
 import org.eltech.ddm.classification.ClassificationFunctionSettings;
 import org.eltech.ddm.classification.naivebayes.category.NaiveBayesModel;
-import org.eltech.ddm.classification.naivebayes.category.TargetValueCount;
 import org.eltech.ddm.inputdata.MiningInputStream;
 import org.eltech.ddm.inputdata.MiningVector;
 import org.eltech.ddm.miningcore.MiningException;
@@ -11,6 +10,8 @@ import org.eltech.ddm.miningcore.miningdata.ELogicalAttribute;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
 import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 
+import java.util.Arrays;
+
 public class FindProbabilityOfTargetValue extends DataMiningBlock {
 	private final ELogicalAttribute targetAttr;
 
@@ -26,17 +27,42 @@ public class FindProbabilityOfTargetValue extends DataMiningBlock {
 
 		MiningVector mv = data.getVector(model.getCurrentVectorIndex());
 
-		//System.out.println("Thread-" + Thread.currentThread().getName() + " id vectror = " + mv.getIndex() + " vector " + mv);
-
 		int indexValueTarg = (int) mv.getValue(targetAttr.getName());
 
 
-		TargetValueCount tvc = ((NaiveBayesModel) model).getOutputTargetValueCount(indexValueTarg);
-		tvc.incCount();
+		NaiveBayesModel bayesModel = (NaiveBayesModel) model;
+		bayesModel.addOutputCount(indexValueTarg, 1);
+
+		return model;
+	}
 
-		System.out.println("Thread-" + Thread.currentThread().getName() + " id vectror = " + mv.getIndex() + " =" + tvc);
+	/**
+	 * Counts vectors of the range by target values and increases counts of the model
+	 * once for every target value
+	 */
+	@Override
+	protected EMiningModel executeRange(MiningInputStream data, EMiningModel model, int fromVector, int toVector) throws MiningException {
+		int iTarget = functionSettings.getLogicalData().getAttributeIndex(targetAttr);
+		int[] counts = new int[0];
+
+		for (int iVec = fromVector; iVec < toVector; iVec++) {
+			int indexValueTarg = (int) data.getVector(iVec).getValue(iTarget);
+			if (indexValueTarg >= counts.length)
+				counts = Arrays.copyOf(counts, indexValueTarg + 1);
+			counts[indexValueTarg]++;
+		}
+
+		for (int indexValueTarg = 0; indexValueTarg < counts.length; indexValueTarg++) {
+			if (counts[indexValueTarg] > 0)
+				((NaiveBayesModel) model).addOutputCount(indexValueTarg, counts[indexValueTarg]);
+		}
 
 		return model;
 	}
 
+	@Override
+	public boolean isRangeSupported() {
+		return true;
+	}
+
 }
@@ -4,15 +4,34 @@ import org.eltech.ddm.environment.DataDistribution;
 import org.eltech.ddm.miningcore.miningmodel.MiningModelElement;
 
 import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
+/**
+ * Moments of attributes by classes: number of values, mean and sum of squared deviations from the mean (M2)
+ * of every attribute for every class value. Moments are updated by Welford's method in one pass over the data set
+ * and kept by arrays [class][attribute]. <p>
+ *
+ * Copies of the element for parallel branches (see {@link #copyForOwner(Object)}) start with empty moments,
+ * so every copy keeps moments of own part of the data set. The parts are merged exactly by Chan's formulas, the merge is associative,
+ * so copies can be merged in any order and by groups. Horizontal parts have the same attributes,
+ * vertical parts have different ones, so the same merge is used for both distributions.
+ */
 public class BayesModelElement extends MiningModelElement {
 
-    protected final Map<Double, double[][]> model = new HashMap<>();
-    private final Map<Double, Integer> classLengths = new HashMap<>();
-    private final Set<Double> classValues = new LinkedHashSet<>();
-    private int length;
+    // Indexes of class values in arrays of moments
+    private Map<Double, Integer> classIndexes = new HashMap<>();
+
+    // Class values in order of their indexes
+    private double[] classValues = new double[0];
+
+    // Number of values of attribute by classes: [class][attribute]
+    private long[] counts = new long[0];
+
+    // Means of attribute by classes: [class][attribute]
+    private double[] means = new double[0];
+
+    // Sums of squared deviations from means of attribute by classes: [class][attribute]
+    private double[] m2s = new double[0];
+
     private int attrCount;
     private DataDistribution dist;
 
@@ -27,94 +46,170 @@ public class BayesModelElement extends MiningModelElement {
 
     @Override
     protected String propertiesToString() {
-        return String.format("Class values: %s, Model: %s, Length: %d, Attr-count - %d",
-                classLengths.toString(), model.toString(), length, attrCount);
-    }
-
+        return String.format("Class values: %s, Counts: %s, Means: %s, M2: %s, Attr-count - %d",
+                Arrays.toString(classValues), Arrays.toString(counts), Arrays.toString(means), Arrays.toString(m2s), attrCount);
+    }
+
+    /**
+     * Adds value of attribute of vector of the class (Welford's method)
+     *
+     * @param classValue - class value of the vector
+     * @param iAttr      - index of attribute
+     * @param value      - value of attribute
+     */
+    public void addValue(double classValue, int iAttr, double value) {
+        int i = getOrCreateClassIndex(classValue) * attrCount + iAttr;
+        long n = ++counts[i];
+        double delta = value - means[i];
+        means[i] += delta / n;
+        m2s[i] += delta * (value - means[i]);
+    }
+
+    /**
+     * Adds moments of copies to moments of this element (Chan's formulas)
+     */
     @Override
     public void merge(List<MiningModelElement> elements) {
-        List<BayesModelElement> bayesElements = elements.stream()
-                .map(BayesModelElement.class::cast)
-                .collect(Collectors.toList());
-        attrCount = bayesElements.stream().mapToInt(el -> el.getAttrCount()).sum();
-        /*
-         * Merging of data model
-         */
-        Map<Double, List<double[][]>> merged = bayesElements.stream()
-                .map(BayesModelElement::getModel)
-                .flatMap(en -> en.entrySet().stream())
-                .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
-
-        switch (dist) {
-            case HORIZONTAL_DISTRIBUTION:
-                mergeHorizontalModels(bayesElements, merged);
-                break;
-            case VERTICAL_DISTRIBUTION:
-                mergeVerticalModels(merged);
-                break;
+        for (MiningModelElement element : elements) {
+            if (element == this) // the copy has not changed this element
+                continue;
+            BayesModelElement other = (BayesModelElement) element;
+            for (int oc = 0; oc < other.classValues.length; oc++) {
+                int offset = getOrCreateClassIndex(other.classValues[oc]) * attrCount;
+                int otherOffset = oc * attrCount;
+                for (int a = 0; a < attrCount; a++)
+                    combine(offset + a, other.counts[otherOffset + a], other.means[otherOffset + a], other.m2s[otherOffset + a]);
+            }
         }
-
     }
 
-    private void mergeVerticalModels(Map<Double, List<double[][]>> merged) {
-        for (Double key : merged.keySet()) {
-            //attrCount * 2 - dirty hack , resolve it later
-            double[][] array = new double[attrCount*2][2];
-            int currentIndex = 0;
-            for (double[][] part : merged.get(key)) {
-                System.out.println();
-                for (int i = 0; i < part.length; i++) {
-                    array[currentIndex++] = part[i];
-                }
-            }
-            model.put(key, array);
-        }
+    private void combine(int i, long nB, double meanB, double m2B) {
+        if (nB == 0)
+            return;
+        long nA = counts[i];
+        long n = nA + nB;
+        double delta = meanB - means[i];
+        means[i] += delta * nB / n;
+        m2s[i] += m2B + delta * delta * ((double) nA * nB / n);
+        counts[i] = n;
     }
 
-    private void mergeHorizontalModels(List<BayesModelElement> bayesElements, Map<Double, List<double[][]>> merged) {
-        this.attrCount = bayesElements.get(0).getAttrCount();
-        /*
-         * Here we're joining model metadata
-         */
-        bayesElements.forEach(el -> {
-            this.length += el.length;
-            this.classValues.addAll(el.getClassValues());
-            el.classLengths.forEach((k, v) -> this.classLengths.merge(k, v, Integer::sum));
-        });
+    private int getOrCreateClassIndex(double classValue) {
+        Integer index = classIndexes.get(classValue);
+        if (index != null)
+            return index;
 
-        /*
-         * Partials sum summary
-         */
-        merged.keySet().forEach(key -> {
-            double[][] reduced = merged.get(key).stream()
-                    .reduce(new double[attrCount][2], (initial, current) -> {
-                        IntStream.range(0, current.length).forEach(index -> {
-                            initial[index][0] += current[index][0];
-                            initial[index][1] += current[index][1];
-                        });
-                        return initial;
-                    });
-            model.put(key, reduced);
-        });
+        int c = classValues.length;
+        classIndexes.put(classValue, c);
+        classValues = Arrays.copyOf(classValues, c + 1);
+        classValues[c] = classValue;
+        counts = Arrays.copyOf(counts, (c + 1) * attrCount);
+        means = Arrays.copyOf(means, (c + 1) * attrCount);
+        m2s = Arrays.copyOf(m2s, (c + 1) * attrCount);
+        return c;
     }
 
-    public void incrementLength() {
-        this.length++;
+    /**
+     * Copy of the element with copies of moments
+     */
+    @Override
+    public Object clone() {
+        BayesModelElement o = (BayesModelElement) super.clone();
+        o.classIndexes = new HashMap<>(classIndexes);
+        o.classValues = classValues.clone();
+        o.counts = counts.clone();
+        o.means = means.clone();
+        o.m2s = m2s.clone();
+        return o;
+    }
+
+    /**
+     * Copy of the element for parallel branch starts with empty moments,
+     * they are added to this element by {@link #merge(List)}
+     */
+    @Override
+    protected MiningModelElement copyForOwner(Object owner) {
+        BayesModelElement o = (BayesModelElement) super.copyForOwner(owner);
+        o.classIndexes = new HashMap<>();
+        o.classValues = new double[0];
+        o.counts = new long[0];
+        o.means = new double[0];
+        o.m2s = new double[0];
+        return o;
+    }
+
+    /**
+     * Replaces moments of the element
+     *
+     * @param classValues - class values in order of their indexes
+     * @param counts      - numbers of values: [class][attribute]
+     * @param means       - means: [class][attribute]
+     * @param m2s         - sums of squared deviations from means: [class][attribute]
+     */
+    public void setMoments(double[] classValues, long[] counts, double[] means, double[] m2s) {
+        int size = classValues.length * attrCount;
+        if (counts.length != size || means.length != size || m2s.length != size)
+            throw new IllegalArgumentException("Moments must have " + size + " values for " + classValues.length + " classes");
+
+        classIndexes = new HashMap<>();
+        for (int c = 0; c < classValues.length; c++)
+            classIndexes.put(classValues[c], c);
+        this.classValues = classValues;
+        this.counts = counts;
+        this.means = means;
+        this.m2s = m2s;
+    }
+
+    long[] getCounts() {
+        return counts;
+    }
+
+    double[] getMeans() {
+        return means;
+    }
+
+    double[] getM2s() {
+        return m2s;
+    }
+
+    /**
+     * @return class values in order of their indexes
+     */
+    public double[] getClassValues() {
+        return classValues;
     }
 
-    public Map<Double, double[][]> getModel() {
-        return model;
+    /**
+     * @return index of class value or -1 if the class has not vectors
+     */
+    public int getClassIndex(double classValue) {
+        Integer index = classIndexes.get(classValue);
+        return index == null ? -1 : index;
     }
 
-    public Map<Double, Integer> getClassLengths() {
-        return classLengths;
+    public long getCount(int iClass, int iAttr) {
+        return counts[iClass * attrCount + iAttr];
     }
 
-    public Set<Double> getClassValues() {
-        return classValues;
+    public double getMean(int iClass, int iAttr) {
+        return means[iClass * attrCount + iAttr];
     }
 
-    public int getLength() {
+    /**
+     * @return sample deviation of attribute for the class or 0 if the class has less than two values
+     */
+    public double getDeviation(int iClass, int iAttr) {
+        int i = iClass * attrCount + iAttr;
+        return counts[i] < 2 ? 0 : Math.sqrt(m2s[i] / (counts[i] - 1));
+    }
+
+    /**
+     * @return number of vectors of the class
+     */
+    public long getClassLength(int iClass) {
+        long length = 0;
+        for (int a = 0; a < attrCount; a++)
+            length = Math.max(length, counts[iClass * attrCount + a]);
         return length;
     }
 
@@ -122,10 +217,6 @@ public class BayesModelElement extends MiningModelElement {
         return attrCount;
     }
 
-    public void setLength(int length) {
-        this.length = length;
-    }
-
     public void setAttrCount(int attrCount) {
         this.attrCount = attrCount;
     }
@@ -3,37 +3,41 @@ package org.eltech.ddm.classification.naivebayes.continious;
 import org.eltech.ddm.classification.ClassificationMiningModel;
 import org.eltech.ddm.environment.DataDistribution;
 import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningErrorCode;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
 import org.eltech.ddm.miningcore.miningmodel.Distributable;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 import org.eltech.ddm.miningcore.miningmodel.MiningModelElement;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshot;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.logging.Logger;
 
 /**
  * Represents model for Continues bayes Classifier algorithm.
  * Extends base classification mining model {@link ClassificationMiningModel}
  *
  * @author Evgenii Titkov
- * @value model             - base values model for mining algorithm. It's used for
- * store information with the next provided structure
- * [class-value] ----> { mean : [attr1,attr2 .. attrN] , deviation :[attr1,attr2 .. attrN]}
- * @value currentClassIndex - this value specifies current class index in order to determine current
- * class value during execution phase.
- * @value classValues       - array of all class values
+ * @value model             - moments of input attributes by class values ({@link BayesModelElement}),
+ * mean and deviation of attributes are computed from the moments, so the model is built by one pass over the data set
  */
 public class ContinuousBayesModel extends ClassificationMiningModel implements Distributable {
 
-    private static transient final Logger LOGGER = Logger.getLogger(ContinuousBayesModel.class.getName());
     private final transient static int BAYES_INTUT_MODEL = 1;
 
-    private Double currentClassValue;
-    private transient Iterator<Double> iterator;
+    // Blocks of the snapshot of the model
+    private static final String SNAPSHOT_ATTR_COUNT = "attrCount";
+    private static final String SNAPSHOT_CLASS_VALUES = "classValues";
+    private static final String SNAPSHOT_COUNTS = "counts";
+    private static final String SNAPSHOT_MEANS = "means";
+    private static final String SNAPSHOT_M2S = "m2s";
+
+    // Scorers of apply(), they are created by the first call and dropped when moments are changed
+    private transient volatile ContinuousBayesScorer scorer;
+    private transient volatile ContinuousBayesScorer inputScorer;
 
 
     /**
@@ -53,9 +57,10 @@ public class ContinuousBayesModel extends ClassificationMiningModel implements D
 
     @Override
     public void initModel() throws MiningException {
+        momentsChanged();
         MiningModelElement attrs = getElement(INDEX_ATTRIBUTE_SET);
-        BayesModelElement miningModelElement = (BayesModelElement) sets.get(BAYES_INTUT_MODEL);
-        miningModelElement.setAttrCount(attrs.size());
+        BayesModelElement miningModelElement = (BayesModelElement) getSet(BAYES_INTUT_MODEL);
+        miningModelElement.setAttrCount(attrs.size() - 1);
         for (int i = 0; i < attrs.size(); i++) { // loop for attributes
             if (!target.getName().equals(attrs.getElement(i).getID())) {
                 MiningModelElement element = attrs.getElement(i);
@@ -78,149 +83,155 @@ public class ContinuousBayesModel extends ClassificationMiningModel implements D
 
 
     /**
-     * {@inheritDoc}
+     * @return value of the most probable class for the vector
      */
     @Override
     public double apply(MiningVector miningVector) throws MiningException {
-        throw new IllegalAccessError("Not implemented");
-    }
-
-    /**
-     * Calculates final attribute probability
-     *
-     * @param value     - attribute value
-     * @param mean      - attribute mean
-     * @param deviation - attribute deviation
-     * @return - probability value
-     */
-    private double attrProbability(double value, double mean, double deviation) {
-        double exponent = Math.exp(-(Math.pow(value - mean, 2) / (2 * Math.pow(deviation, 2))));
-        return (1 / (Math.sqrt(2 * Math.PI) * deviation)) * exponent;
+        ContinuousBayesScorer scorer = this.scorer;
+        if (scorer == null)
+            this.scorer = scorer = createScorer();
+        double[] scores = new double[scorer.getClassesNumber()];
+        scorer.score(miningVector.getValues(), scores, 0);
+        return scorer.getClassValue(scorer.predict(scores, 0));
     }
 
     /**
      * Applies trained model to the input data
      *
-     * @param inputData - input data for algorithm
+     * @param inputData - values of input attributes
      * @return - result collection with the next structure {class-value} --> {probability}
      */
     public Map<Double, BigDecimal> apply(double[] inputData) {
-        Map<Double, BigDecimal> probabilities = new HashMap<>();
-        BayesModelElement element = (BayesModelElement) sets.get(BAYES_INTUT_MODEL);
-
-        element.getModel().keySet().forEach(key -> {
-            probabilities.put(key, BigDecimal.ONE);
-            double[][] classAttributeList = element.getModel().get(key);
-
-            for (int i = 0; i < classAttributeList.length; i++) {
-                double mean = classAttributeList[i][0];
-                double dev = classAttributeList[i][1];
-                if (mean > 0 && dev > 0) {
-                    BigDecimal probability = probabilities.get(key).multiply(BigDecimal.valueOf(attrProbability(inputData[i], mean, dev)));
-                    probabilities.put(key, probability);
-                }
-            }
-        });
+        ContinuousBayesScorer scorer = inputScorer;
+        if (scorer == null)
+            inputScorer = scorer = new ContinuousBayesScorer(getBayesElement(), -1);
+        double[] probabilities = new double[scorer.getClassesNumber()];
+        scorer.score(inputData, probabilities, 0);
+        scorer.toProbabilities(probabilities, 0);
 
-        return probabilities;
+        Map<Double, BigDecimal> result = new HashMap<>();
+        for (int c = 0; c < probabilities.length; c++)
+            result.put(scorer.getClassValue(c), BigDecimal.valueOf(probabilities[c]));
+        return result;
+    }
+
+    /**
+     * Creates scorer from current moments of the model. The scorer takes vectors with values of all attributes
+     * of logical data, the value of the target attribute is skipped.
+     */
+    public ContinuousBayesScorer createScorer() {
+        return new ContinuousBayesScorer(getBayesElement(), indexTarget);
     }
 
     /**
      * Gets model
      *
-     * @return - algorithm model
+     * @return - mean and deviation of input attributes by class values: {class-value} --> [attribute][mean, deviation]
      */
     public Map<Double, double[][]> getModel() {
-        return ((BayesModelElement) sets.get(BAYES_INTUT_MODEL)).getModel();
+        BayesModelElement element = getBayesElement();
+        double[] classValues = element.getClassValues();
+        Map<Double, double[][]> model = new HashMap<>();
+        for (int c = 0; c < classValues.length; c++) {
+            double[][] values = new double[element.getAttrCount()][];
+            for (int i = 0; i < values.length; i++)
+                values[i] = new double[]{element.getMean(c, i), element.getDeviation(c, i)};
+            model.put(classValues[c], values);
+        }
+        return model;
     }
 
-    private BayesModelElement getBayesElement() {
-        return (BayesModelElement) sets.get(BAYES_INTUT_MODEL);
+    /**
+     * Snapshot keeps moments of attributes by classes ({@link BayesModelElement})
+     */
+    @Override
+    public void writeSnapshot(ModelSnapshot snapshot) throws MiningException {
+        BayesModelElement element = getBayesElement();
+        snapshot.putInts(SNAPSHOT_ATTR_COUNT, new int[]{element.getAttrCount()});
+        snapshot.putDoubles(SNAPSHOT_CLASS_VALUES, element.getClassValues());
+        snapshot.putLongs(SNAPSHOT_COUNTS, element.getCounts());
+        snapshot.putDoubles(SNAPSHOT_MEANS, element.getMeans());
+        snapshot.putDoubles(SNAPSHOT_M2S, element.getM2s());
     }
 
-
-    public void putValue(int atrIndex, double[] values, double key) {
-        double[][] data = getModel().get(key) == null ? new double[values.length][2] : getModel().get(key);
+    @Override
+    public void readSnapshot(ModelSnapshot snapshot) throws MiningException {
+        initModel();
+        BayesModelElement element = getOwnBayesElement();
+        int attrCount = snapshot.getInts(SNAPSHOT_ATTR_COUNT)[0];
+        if (attrCount != element.getAttrCount())
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Snapshot has moments of " + attrCount
+                    + " attributes instead of " + element.getAttrCount());
         try {
-            double atrValue = values[atrIndex];
-            data[atrIndex][0] += atrValue;
-            data[atrIndex][1] += atrValue * atrValue;
-            getModel().put(key, data);
-            if (atrIndex == values.length - 1) {
-                Map<Double, Integer> classLengths = getBayesElement().getClassLengths();
-                Integer length = classLengths.get(key);
-                if (length == null) {
-                    classLengths.put(key, 1);
-                } else {
-                    classLengths.put(key, ++length);
-                }
-                getBayesElement().incrementLength();
-                getBayesElement().getClassValues().add(key);
-            }
-
-        } catch (Exception ex) {
-            LOGGER.severe("Found corrupted record, program will ignore it");
-            LOGGER.info("Nothing to worry about, we continue the execution normally...)");
+            element.setMoments(snapshot.getDoubles(SNAPSHOT_CLASS_VALUES), snapshot.getLongs(SNAPSHOT_COUNTS),
+                    snapshot.getDoubles(SNAPSHOT_MEANS), snapshot.getDoubles(SNAPSHOT_M2S));
+        } catch (IllegalArgumentException ex) {
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, ex.getMessage());
         }
     }
 
-//    /**
-//     * Calculates sums which are required to calculate mean and dev in 1 pass
-//     *
-//     * @param key    - current class key
-//     * @param data   - current array data
-//     * @param values - values in fill in
-//     */
-//    private void fillArray(double key, double[][] data, double[] values) {
-//        IntStream.range(0, values.length).forEach(attr -> {
-//            data[attr][0] += values[attr];
-//            data[attr][1] += values[attr] * values[attr];
-//        });
-//        getModel().put(key, data);
-//        Map<Double, Integer> classLengths = getBayesElement().getClassLengths();
-//        Integer length = classLengths.get(key);
-//        if (length == null) {
-//            classLengths.put(key, 1);
-//        } else {
-//            classLengths.put(key, ++length);
-//        }
-//
-//    }
-
-    public void initIterator() {
-        this.iterator = getBayesElement().getClassValues().iterator();
+    private BayesModelElement getBayesElement() {
+        return (BayesModelElement) sets.get(BAYES_INTUT_MODEL);
     }
 
-    public double[][] getCurrentModelValue() {
-        return getModel().get(currentClassValue);
+    @Override
+    public void join(List<EMiningModel> models) throws MiningException {
+        super.join(models);
+        momentsChanged();
     }
 
-    public Double getCurrentClassValue() {
-        return currentClassValue;
+    @Override
+    public void joinShared(List<EMiningModel> models) throws MiningException {
+        super.joinShared(models);
+        momentsChanged();
     }
 
-    public int getClassLength(double key) {
-        return getBayesElement().getClassLengths().get(key);
+    @Override
+    public EMiningModel share() {
+        ContinuousBayesModel m = (ContinuousBayesModel) super.share();
+        m.scorer = null;
+        m.inputScorer = null;
+        return m;
     }
 
-    public void next() {
-        currentClassValue = iterator.hasNext() ? iterator.next() : null;
+    private void momentsChanged() {
+        if (scorer != null || inputScorer != null) {
+            scorer = null;
+            inputScorer = null;
+        }
     }
 
-    public boolean hasNext() {
-        return iterator.hasNext();
+    /**
+     * Copy-on-write copy of the model gets own element with empty moments (see {@link BayesModelElement})
+     */
+    private BayesModelElement getOwnBayesElement() {
+        return (BayesModelElement) getSet(BAYES_INTUT_MODEL);
     }
 
-    @Override
-    public boolean currIsLastElement(int[] indexSet) throws MiningException {
-        MiningModelElement elem = sets.get(BAYES_INTUT_MODEL);
-        return getCurrentAttributeIndex() >= elem.size();
+    /**
+     * Adds value of attribute of the vector to moments of its class
+     *
+     * @param atrIndex - index of attribute in logical data
+     * @param values   - values of the vector
+     */
+    public void putValue(int atrIndex, double[] values) {
+        if (atrIndex == indexTarget)
+            return;
+        momentsChanged();
+        getOwnBayesElement().addValue(values[indexTarget], atrIndex < indexTarget ? atrIndex : atrIndex - 1, values[atrIndex]);
     }
 
+    /**
+     * @return number of vectors of the class
+     */
+    public long getClassLength(double key) {
+        int iClass = getBayesElement().getClassIndex(key);
+        return iClass < 0 ? 0 : getBayesElement().getClassLength(iClass);
+    }
 
     @Override
     public void setDistributionType(DataDistribution dist) {
-        getBayesElement().setDist(dist);
+        getOwnBayesElement().setDist(dist);
     }
 
     @Override
@@ -0,0 +1,81 @@
+package org.eltech.ddm.classification.naivebayes.continious;
+
+import org.eltech.ddm.classification.naivebayes.BayesScorer;
+
+/**
+ * Scorer of continuous naive Bayes model. <p>
+ *
+ * Log-density of the normal distribution of an attribute for a class is
+ * {@code logNorm - (value - mean)^2 * halfPrecision}, where {@code logNorm = -log(deviation) - log(2 * PI) / 2}
+ * and {@code halfPrecision = 1 / (2 * deviation^2)} are computed once for every class and attribute
+ * and kept by arrays [class][attribute]. An attribute without positive mean and deviation for the class
+ * is skipped, its constants are zeros. Missing values (NaN) are skipped too.
+ */
+public class ContinuousBayesScorer extends BayesScorer {
+
+    private static final double LOG_SQRT_2PI = 0.5 * Math.log(2 * Math.PI);
+
+    // Means of attributes by classes: [class][attribute]
+    private final double[] means;
+
+    // Normalization constants of log-densities: [class][attribute]
+    private final double[] logNorms;
+
+    // 1 / (2 * deviation^2): [class][attribute]
+    private final double[] halfPrecisions;
+
+    private final int attrCount;
+
+    // Index of the target attribute in scored vectors or -1 if vectors have values of input attributes only
+    private final int indexTarget;
+
+    ContinuousBayesScorer(BayesModelElement element, int indexTarget) {
+        super(element.getClassValues().clone(), logPriors(element));
+        this.attrCount = element.getAttrCount();
+        this.indexTarget = indexTarget;
+
+        int nClasses = classValues.length;
+        means = new double[nClasses * attrCount];
+        logNorms = new double[nClasses * attrCount];
+        halfPrecisions = new double[nClasses * attrCount];
+        for (int c = 0; c < nClasses; c++) {
+            for (int a = 0; a < attrCount; a++) {
+                double mean = element.getMean(c, a);
+                double dev = element.getDeviation(c, a);
+                if (mean > 0 && dev > 0) {
+                    int i = c * attrCount + a;
+                    means[i] = mean;
+                    logNorms[i] = -Math.log(dev) - LOG_SQRT_2PI;
+                    halfPrecisions[i] = 1 / (2 * dev * dev);
+                }
+            }
+        }
+    }
+
+    private static double[] logPriors(BayesModelElement element) {
+        int nClasses = element.getClassValues().length;
+        double[] logPriors = new double[nClasses];
+        double total = 0;
+        for (int c = 0; c < nClasses; c++)
+            total += element.getClassLength(c);
+        for (int c = 0; c < nClasses; c++)
+            logPriors[c] = Math.log(element.getClassLength(c) / total);
+        return logPriors;
+    }
+
+    @Override
+    public void score(double[] vector, double[] scores, int offset) {
+        for (int c = 0; c < classValues.length; c++) {
+            double score = logPriors[c];
+            int end = (c + 1) * attrCount;
+            for (int i = c * attrCount, v = 0; i < end; i++, v++) {
+                if (v == indexTarget)
+                    v++;
+                double d = vector[v] - means[i];
+                if (d == d) // NaN is missing value
+                    score += logNorms[i] - d * d * halfPrecisions[i];
+            }
+            scores[offset + c] = score;
+        }
+    }
+}
@@ -1,8 +1,6 @@
 package org.eltech.ddm.classification.naivebayes.continious;
 
-import org.eltech.ddm.classification.naivebayes.continious.steps.CalculateSumStep;
-import org.eltech.ddm.classification.naivebayes.continious.steps.FindMeanAndDeviationCycle;
-import org.eltech.ddm.classification.naivebayes.continious.steps.FindMeanAndDeviationStep;
+import org.eltech.ddm.classification.naivebayes.continious.steps.UpdateMomentsStep;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.algorithms.*;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
@@ -10,7 +8,10 @@ import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 
 
 /**
- * Continuous version for Naive Bayes classifier
+ * Continuous version for Naive Bayes classifier. <p>
+ *
+ * Moments of attributes by classes are updated in one pass over the data set,
+ * parts of the data set are processed by parallel branches and their moments are merged exactly.
  *
  * @author Evgenii Titkov
  */
@@ -29,8 +30,7 @@ public class ContinuousNaiveBayesAlgorithm extends MiningAlgorithm {
                 new MiningParallel(miningSettings, MemoryType.distributed,
                         new MiningLoopVectors(miningSettings,
                                 new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
-                                        new CalculateSumStep(miningSettings)))),
-                new FindMeanAndDeviationCycle(miningSettings, new FindMeanAndDeviationStep(miningSettings)));
+                                        new UpdateMomentsStep(miningSettings)))));
         miningSequence.addListenerExecute(new BlockExecuteTimingListner());
         return miningSequence;
     }
@@ -42,11 +42,6 @@ public class ContinuousNaiveBayesAlgorithm extends MiningAlgorithm {
 
     @Override
     public MiningSequence getHorDistributedAlgorithm() throws MiningException {
-        MiningSequence miningSequence = new MiningSequence(miningSettings,
-                new MiningLoopVectors(miningSettings,
-                                new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET, new CalculateSumStep(miningSettings))),
-                new FindMeanAndDeviationCycle(miningSettings, new FindMeanAndDeviationStep(miningSettings)));
-        miningSequence.addListenerExecute(new BlockExecuteTimingListner());
         return getSequenceAlgorithm();
     }
 
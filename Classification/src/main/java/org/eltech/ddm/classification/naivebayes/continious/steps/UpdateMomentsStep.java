@@ -7,27 +7,27 @@ import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
 import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 
-import java.util.Arrays;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Class represent logic for separating training sample by
- * class value for further calculations steps
+ * Class represent logic for adding value of current attribute of current vector
+ * to moments (count, mean, M2) of the class of the vector
  *
  * @author Evgenii Titkov
  */
-public class CalculateSumStep extends DataMiningBlock {
+public class UpdateMomentsStep extends DataMiningBlock {
 
-    private static final Logger LOGGER = Logger.getLogger(CalculateSumStep.class.getName());
+    private static final Logger LOGGER = Logger.getLogger(UpdateMomentsStep.class.getName());
     private double[] currentVector;
+    private int currentVectorIndex = -1;
 
     /**
      * Constructor of algorithm's step for all or part of input data
      *
      * @param settings - settings for build model
      */
-    public CalculateSumStep(EMiningFunctionSettings settings) throws MiningException {
+    public UpdateMomentsStep(EMiningFunctionSettings settings) throws MiningException {
         super(settings);
     }
 
@@ -41,11 +41,13 @@ public class CalculateSumStep extends DataMiningBlock {
     @Override
     public EMiningModel execute(MiningInputStream inputData, EMiningModel model) throws MiningException {
         try {
-            if (model.getCurrentAttributeIndex() == 0) {
-                currentVector = inputData.getVector(model.getCurrentVectorIndex()).getValues();
+            int iVector = model.getCurrentVectorIndex();
+            if (iVector != currentVectorIndex) { // the vector is read once for all its attributes
+                currentVector = inputData.getVector(iVector).getValues();
+                currentVectorIndex = iVector;
             }
             ContinuousBayesModel algModel = (ContinuousBayesModel) model;
-            algModel.putValue(model.getCurrentAttributeIndex(), array(currentVector), currentVector[currentVector.length - 1]);
+            algModel.putValue(model.getCurrentAttributeIndex(), currentVector);
             return algModel;
         } catch (Exception ex) {
             LOGGER.log(Level.SEVERE, ex, () -> "Exception occurred while parsing the record, but we intently just missing this record. " +
@@ -54,14 +56,4 @@ public class CalculateSumStep extends DataMiningBlock {
         }
 
     }
-
-    /**
-     * Simple syntax sugar for generating array from the set of values
-     *
-     * @param args - passed arguments
-     * @return - created array from passed args
-     */
-    private double[] array(double... args) {
-        return Arrays.copyOfRange(args, 0, args.length - 1);
-    }
-}
\ No newline at end of file
+}
@@ -1,15 +1,29 @@
 package org.eltech.ddm.classification.ruleset;
 
 import org.eltech.ddm.classification.ClassificationMiningModel;
+import org.eltech.ddm.classification.SimplePredicate;
 import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningErrorCode;
 import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.Operator;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 import org.eltech.ddm.miningcore.miningmodel.MiningModelElement;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshot;
 
 public class RuleSetModel extends ClassificationMiningModel {
 
 	private static final int[] RULE_SET = {1};
 
+	// Blocks of the snapshot of the model: rules by columns
+	private static final String SNAPSHOT_RULE_SET = "ruleSet";
+	private static final String SNAPSHOT_RULE_ATTRIBUTES = "ruleAttributes";
+	private static final String SNAPSHOT_RULE_OPERATORS = "ruleOperators";
+	private static final String SNAPSHOT_RULE_VALUES = "ruleValues";
+	private static final String SNAPSHOT_RULE_SCORES = "ruleScores";
+	private static final String SNAPSHOT_RULE_ERRORS = "ruleErrors";
+	private static final String SNAPSHOT_RULE_VECTORS = "ruleVectors";
+
 	// ======= current state of model (build model task) ==================
 	public RuleSetModel(EMiningFunctionSettings settings)
 			throws MiningException {
@@ -41,16 +55,84 @@ public class RuleSetModel extends ClassificationMiningModel {
 		return result;
 	}
 
-	public Object clone() {
+	protected EMiningModel copy(boolean delta) {
 		RuleSetModel o = null;
-		o = (RuleSetModel)super.clone();
+		o = (RuleSetModel)super.copy(delta);
 
 		return o;
 	}
 
 
+	/**
+	 * Snapshot keeps rules by columns: index of attribute, operator and value of the predicate,
+	 * index of the target value of the score, error and number of predicated vectors
+	 */
+	@Override
+	public void writeSnapshot(ModelSnapshot snapshot) throws MiningException {
+		RuleSet ruleSet = getRuleSet();
+		MiningModelElement attrs = getElement(INDEX_ATTRIBUTE_SET);
+		int n = ruleSet.size();
+		int[] attributes = new int[n];
+		int[] operators = new int[n];
+		double[] values = new double[n];
+		int[] scores = new int[n];
+		double[] errors = new double[n];
+		int[] vectors = new int[n];
+		for (int i = 0; i < n; i++) {
+			SimpleRule rule = (SimpleRule) ruleSet.getElement(i);
+			SimplePredicate predicate = rule.getPredicate();
+			attributes[i] = -1;
+			for (int a = 0; a < attrs.size() && attributes[i] < 0; a++) {
+				if (attrs.getElement(a).getID().equals(predicate.getAttribute()))
+					attributes[i] = a;
+			}
+			if (attributes[i] < 0)
+				throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Attribute of rule " + rule + " is absent in logical data");
+			operators[i] = predicate.getOperator().ordinal();
+			values[i] = predicate.getValue();
+			Integer score = rule.getScore() == null ? null : target.getCategoricalProperties().getIndex(rule.getScore());
+			scores[i] = score == null ? -1 : score;
+			errors[i] = rule.getError();
+			vectors[i] = rule.getNumberOfPredicatedVectors();
+		}
+		snapshot.putInts(SNAPSHOT_RULE_SET, new int[]{ruleSet.getNumberCorrectVectors()});
+		snapshot.putInts(SNAPSHOT_RULE_ATTRIBUTES, attributes);
+		snapshot.putInts(SNAPSHOT_RULE_OPERATORS, operators);
+		snapshot.putDoubles(SNAPSHOT_RULE_VALUES, values);
+		snapshot.putInts(SNAPSHOT_RULE_SCORES, scores);
+		snapshot.putDoubles(SNAPSHOT_RULE_ERRORS, errors);
+		snapshot.putInts(SNAPSHOT_RULE_VECTORS, vectors);
+	}
+
+	@Override
+	public void readSnapshot(ModelSnapshot snapshot) throws MiningException {
+		initModel();
+
+		MiningModelElement attrs = getElement(INDEX_ATTRIBUTE_SET);
+		int[] attributes = snapshot.getInts(SNAPSHOT_RULE_ATTRIBUTES);
+		int[] operators = snapshot.getInts(SNAPSHOT_RULE_OPERATORS);
+		double[] values = snapshot.getDoubles(SNAPSHOT_RULE_VALUES);
+		int[] scores = snapshot.getInts(SNAPSHOT_RULE_SCORES);
+		double[] errors = snapshot.getDoubles(SNAPSHOT_RULE_ERRORS);
+		int[] vectors = snapshot.getInts(SNAPSHOT_RULE_VECTORS);
+
+		setRuleSet(new RuleSet("Rules"));
+		for (int i = 0; i < attributes.length; i++) {
+			if (attributes[i] < 0 || attributes[i] >= attrs.size() || operators[i] < 0 || operators[i] >= Operator.values().length)
+				throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Rule " + i + " of the snapshot is not valid");
+			SimpleRule rule = new SimpleRule(new SimplePredicate(attrs.getElement(attributes[i]).getID(), values[i],
+					Operator.values()[operators[i]]));
+			if (scores[i] >= 0)
+				rule.setScore(target.getCategoricalProperties().getValue(scores[i]).toString());
+			rule.setError(errors[i]);
+			rule.setNumberOfPredicatedVectors(vectors[i]);
+			addElement(RULE_SET, rule);
+		}
+		getRuleSet().addNumberCorrectVectors(snapshot.getInts(SNAPSHOT_RULE_SET)[0]);
+	}
+
     public RuleSet getRuleSet() throws MiningException {
-		return (RuleSet)getElement(RuleSetModel.RULE_SET);
+		return (RuleSet)getElementForUpdate(RuleSetModel.RULE_SET);
     }
 
 	public void setRuleSet(RuleSet rules) throws MiningException {
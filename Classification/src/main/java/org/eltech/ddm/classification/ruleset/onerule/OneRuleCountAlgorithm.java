@@ -13,6 +13,8 @@ public class OneRuleCountAlgorithm extends MiningAlgorithm {
 	private final int indexTargetAttr;
 	private final int[] indexTargetValues;
 
+	private OneRuleCountMiningModel.Storage modelStorage = OneRuleCountMiningModel.Storage.privatized;
+
 	public OneRuleCountAlgorithm(EMiningFunctionSettings miningSettings)
 			throws MiningException {
 		super(miningSettings);
@@ -24,7 +26,20 @@ public class OneRuleCountAlgorithm extends MiningAlgorithm {
 
 	@Override
 	public EMiningModel createModel() throws MiningException {
-		return new OneRuleCountMiningModel(miningSettings);
+		return new OneRuleCountMiningModel(miningSettings, modelStorage);
+	}
+
+	/**
+	 * Sets storage of counts of created models
+	 *
+	 * @param modelStorage - private arrays of threads (default), striped adders or tree of elements
+	 */
+	public void setModelStorage(OneRuleCountMiningModel.Storage modelStorage) {
+		this.modelStorage = modelStorage;
+	}
+
+	public OneRuleCountMiningModel.Storage getModelStorage() {
+		return modelStorage;
 	}
 
 	@Override
@@ -124,7 +139,7 @@ public class OneRuleCountAlgorithm extends MiningAlgorithm {
 	}
 
 	public EMiningModel createModel(MiningInputStream inputStream) throws MiningException {
-		EMiningModel resultModel = new OneRuleCountMiningModel(miningSettings);
+		EMiningModel resultModel = new OneRuleCountMiningModel(miningSettings, modelStorage);
 
 		return resultModel;
 	}
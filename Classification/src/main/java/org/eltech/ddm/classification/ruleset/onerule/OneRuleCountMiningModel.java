@@ -1,23 +1,81 @@
 package org.eltech.ddm.classification.ruleset.onerule;
 
 
+import org.eltech.ddm.miningcore.MiningErrorCode;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
 import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 import org.eltech.ddm.miningcore.miningmodel.LogicalAttributeElement;
 import org.eltech.ddm.miningcore.miningmodel.LogicalAttributeValueElement;
 import org.eltech.ddm.miningcore.miningmodel.MiningModelElement;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshot;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
 public class OneRuleCountMiningModel extends OneRuleMiningModel {
 
+	/**
+	 * Storage of counts of the count matrix
+	 */
+	public enum Storage {
+		/**
+		 * Tree of mining model elements with one VectorsCount4TargetValue for every count.
+		 * Shared copies of the model increase the same elements.
+		 */
+		elements,
+		/**
+		 * Array of counts: [attribute][value of attribute][target value] cells.
+		 * Every shared copy of the model counts into own private array, private arrays
+		 * are added to the model once when the parallel branches are joined.
+		 */
+		privatized,
+		/**
+		 * Array of LongAdder cells increased by all shared copies of the model.
+		 * Nothing is reduced on join; suits large number of threads.
+		 */
+		striped
+	}
+
 	private final static int COUNT_MATRIX = 3;
 	private final static int[] INDEX_COUNT_MATRIX = {COUNT_MATRIX};
 
-    public OneRuleCountMiningModel(EMiningFunctionSettings settings)
+	// Blocks of the snapshot of the model
+	private static final String SNAPSHOT_VALUES_NUMBERS = "valuesNumbers";
+	private static final String SNAPSHOT_COUNTS = "counts";
+
+	private Storage storage;
+
+	// Offset of the first cell of every attribute in arrays of counts
+	private int[] attributeOffsets;
+
+	// Number of values of every attribute
+	private int[] valuesNumbers;
+
+	private int targetValuesNumber;
+
+	// Counts of privatized storage, they are common for the model and its shared copies
+	private long[] counts;
+
+	// The model is shared copy, so it counts into private counts
+	private boolean sharedCopy;
+
+	// Private counts of the shared copy (created on the first increase)
+	private PrivateCounts privateCounts;
+
+	// Counts of striped storage
+	private LongAdder[] adders;
+
+	public OneRuleCountMiningModel(EMiningFunctionSettings settings)
+			throws MiningException {
+		this(settings, Storage.privatized);
+	}
+
+	public OneRuleCountMiningModel(EMiningFunctionSettings settings, Storage storage)
 			throws MiningException {
 		super(settings);
+		this.storage = storage;
 		sets.add(COUNT_MATRIX, new MiningModelElement("Count matrix") {
 
 			@Override
@@ -29,6 +87,14 @@ public class OneRuleCountMiningModel extends OneRuleMiningModel {
 			public void merge(List<MiningModelElement> elements) throws MiningException {
 
 			}
+
+			/**
+			 * Merge of the counts (see {@link VectorsCount4AttributeValue#isMergeAssociative()}) is not associative
+			 */
+			@Override
+			public boolean isMergeAssociative() {
+				return false;
+			}
 		});
 	}
 
@@ -38,6 +104,9 @@ public class OneRuleCountMiningModel extends OneRuleMiningModel {
 
     	MiningModelElement attrs = getElement(INDEX_ATTRIBUTE_SET);
 		LogicalAttributeElement tlattr = (LogicalAttributeElement)attrs.getElement(indexTarget);
+		if (storage != Storage.elements)
+			initCells(attrs, tlattr);
+
     	for(int i = 0; i < attrs.size(); i++) { // loop for attributes
 			LogicalAttributeElement lattr = (LogicalAttributeElement)attrs.getElement(i);
     		String attrName = lattr.getID();
@@ -60,6 +129,8 @@ public class OneRuleCountMiningModel extends OneRuleMiningModel {
 				String catName = lattrv.getValue().getName();
 				VectorsCount4AttributeValue vc4av = new VectorsCount4AttributeValue(attrName + "=" + catName);
 				addElement(index(COUNT_MATRIX, i), vc4av);
+				if (storage != Storage.elements) // counts are kept by arrays
+					continue;
 
 				for(int t = 0; t < tlattr.size(); t++) { // loop for value of target attribute
 					LogicalAttributeValueElement tlattrv = (LogicalAttributeValueElement)tlattr.getElement(t);
@@ -73,13 +144,267 @@ public class OneRuleCountMiningModel extends OneRuleMiningModel {
 
 	}
 
+	/**
+	 * Computes offsets of attributes and allocates cells of counts
+	 */
+	private void initCells(MiningModelElement attrs, LogicalAttributeElement tlattr) throws MiningException {
+		targetValuesNumber = tlattr.size();
+		attributeOffsets = new int[attrs.size()];
+		valuesNumbers = new int[attrs.size()];
+
+		long size = 0;
+		for (int i = 0; i < attrs.size(); i++) {
+			valuesNumbers[i] = attrs.getElement(i).size();
+			attributeOffsets[i] = (int) size;
+			size += (long) valuesNumbers[i] * targetValuesNumber;
+			if (size > Integer.MAX_VALUE)
+				throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Too many counts for array storage of the model");
+		}
+
+		if (storage == Storage.striped) {
+			adders = new LongAdder[(int) size];
+			for (int i = 0; i < adders.length; i++)
+				adders[i] = new LongAdder();
+		} else {
+			counts = new long[(int) size];
+		}
+	}
+
+	private int cell(int iAttr, int iValue, int iTarget) throws MiningException {
+		if (iAttr < 0 || iAttr >= valuesNumbers.length || iValue < 0 || iValue >= valuesNumbers[iAttr]
+				|| iTarget < 0 || iTarget >= targetValuesNumber)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Count for attribute " + iAttr + ", value " + iValue + " and target value " + iTarget + " is absent.");
+		return attributeOffsets[iAttr] + iValue * targetValuesNumber + iTarget;
+	}
+
+	private void addCell(int cell, long delta) {
+		if (adders != null) {
+			adders[cell].add(delta);
+		} else if (sharedCopy) {
+			if (privateCounts == null)
+				privateCounts = new PrivateCounts(counts.length);
+			privateCounts.add(cell, delta);
+		} else {
+			counts[cell] += delta;
+		}
+	}
+
+	private long getCell(int cell) {
+		if (adders != null)
+			return adders[cell].sum();
+		return privateCounts == null ? counts[cell] : counts[cell] + privateCounts.deltas[cell];
+	}
+
+	private int cellsNumber() {
+		return adders != null ? adders.length : counts.length;
+	}
+
+	/**
+	 * Increases number of vectors with given value of attribute and given target value
+	 */
+	public void addCount(int indexAttr, int indexValue, int indexTargetValue, int delta) throws MiningException {
+		if (storage == Storage.elements)
+			getCountMatrix(indexAttr, indexValue, indexTargetValue).addNumberCorrectVectors(delta);
+		else
+			addCell(cell(indexAttr, indexValue, indexTargetValue), delta);
+	}
+
+	/**
+	 * Returns number of vectors with given value of attribute and given target value
+	 */
+	public long getCount(int indexAttr, int indexValue, int indexTargetValue) throws MiningException {
+		if (storage == Storage.elements)
+			return getCountMatrix(indexAttr, indexValue, indexTargetValue).getNumberCorrectVectors();
+		return getCell(cell(indexAttr, indexValue, indexTargetValue));
+	}
+
+	public Storage getStorage() {
+		return storage;
+	}
 
 	public VectorsCount4AttributeValue getCountMatrix(int indexAttr, int indexValue) throws MiningException {
-    	return  (VectorsCount4AttributeValue)getElement(EMiningModel.index(OneRuleCountMiningModel.COUNT_MATRIX, indexAttr,  indexValue));
+    	return  (VectorsCount4AttributeValue)getElementForUpdate(EMiningModel.index(OneRuleCountMiningModel.COUNT_MATRIX, indexAttr,  indexValue));
 	}
 
+	/**
+	 * Returns element of the count. For array storages it's a snapshot of the count,
+	 * changes of the returned element don't change the model.
+	 */
 	public VectorsCount4TargetValue getCountMatrix(int indexAttr, int indexValue, int indexTargetValue) throws MiningException {
-		return  (VectorsCount4TargetValue)getElement(EMiningModel.index(OneRuleCountMiningModel.COUNT_MATRIX, indexAttr,  indexValue, indexTargetValue));
+		if (storage == Storage.elements)
+			return  (VectorsCount4TargetValue)getElementForUpdate(EMiningModel.index(OneRuleCountMiningModel.COUNT_MATRIX, indexAttr,  indexValue, indexTargetValue));
+
+		long count = getCell(cell(indexAttr, indexValue, indexTargetValue));
+		VectorsCount4TargetValue vc4tv = new VectorsCount4TargetValue(
+				getCountMatrix(indexAttr, indexValue).getID() + ";" + getTargetAttributeValue(indexTargetValue).getValue().getName());
+		vc4tv.addNumberCorrectVectors(Math.toIntExact(count));
+		return vc4tv;
 	}
-}
 
+	/**
+	 * Snapshot keeps the rules, numbers of values of attributes (the number of target values is the last one)
+	 * and the count matrix by cells [attribute][value of attribute][target value]
+	 */
+	@Override
+	public void writeSnapshot(ModelSnapshot snapshot) throws MiningException {
+		super.writeSnapshot(snapshot);
+
+		MiningModelElement attrs = getElement(INDEX_ATTRIBUTE_SET);
+		int nTargets = attrs.getElement(indexTarget).size();
+		int[] numbers = new int[attrs.size() + 1];
+		long size = 0;
+		for (int i = 0; i < attrs.size(); i++) {
+			numbers[i] = attrs.getElement(i).size();
+			size += (long) numbers[i] * nTargets;
+		}
+		numbers[attrs.size()] = nTargets;
+		if (size > Integer.MAX_VALUE)
+			throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Too many counts for snapshot of the model");
+
+		long[] values = new long[(int) size];
+		if (storage == Storage.elements) {
+			int cell = 0;
+			for (int i = 0; i < attrs.size(); i++) {
+				for (int j = 0; j < numbers[i]; j++) {
+					for (int t = 0; t < nTargets; t++)
+						values[cell++] = getCount(i, j, t);
+				}
+			}
+		} else {
+			for (int i = 0; i < values.length; i++)
+				values[i] = getCell(i);
+		}
+		snapshot.putInts(SNAPSHOT_VALUES_NUMBERS, numbers);
+		snapshot.putLongs(SNAPSHOT_COUNTS, values);
+	}
+
+	/**
+	 * Counts of the snapshot are restored into privatized storage
+	 */
+	@Override
+	public void readSnapshot(ModelSnapshot snapshot) throws MiningException {
+		storage = Storage.privatized;
+		super.readSnapshot(snapshot);
+
+		int[] numbers = snapshot.getInts(SNAPSHOT_VALUES_NUMBERS);
+		boolean same = numbers.length == valuesNumbers.length + 1 && numbers[valuesNumbers.length] == targetValuesNumber;
+		for (int i = 0; same && i < valuesNumbers.length; i++)
+			same = numbers[i] == valuesNumbers[i];
+		if (!same || snapshot.getLength(SNAPSHOT_COUNTS) != counts.length)
+			throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Categories of attributes of the snapshot differ from categories of logical data");
+		counts = snapshot.getLongs(SNAPSHOT_COUNTS);
+	}
+
+	/**
+	 * Shared copy counts into own private array of privatized storage
+	 */
+	@Override
+	public EMiningModel share() {
+		OneRuleCountMiningModel o = (OneRuleCountMiningModel) super.share();
+		if (counts != null) {
+			o.sharedCopy = true;
+			o.privateCounts = null;
+		}
+		return o;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Private counts of the copies are added to this model. The copies continue with
+	 * private counts of this model, so any of them can replace this model.
+	 */
+	@Override
+	public void joinShared(List<EMiningModel> models) throws MiningException {
+		super.joinShared(models);
+		if (counts == null)
+			return;
+
+		if (sharedCopy && privateCounts == null)
+			privateCounts = new PrivateCounts(counts.length);
+		for (EMiningModel model : models) {
+			OneRuleCountMiningModel copy = (OneRuleCountMiningModel) model;
+			if (copy == this || copy.counts != counts)
+				continue;
+
+			PrivateCounts copyCounts = copy.privateCounts;
+			if (copyCounts != null && copyCounts != privateCounts) {
+				for (int i = 0; i < copyCounts.changedNumber; i++) {
+					int cell = copyCounts.changed[i];
+					addCell(cell, copyCounts.deltas[cell]);
+					copyCounts.deltas[cell] = 0; // the cell may be listed twice
+				}
+			}
+			copy.sharedCopy = sharedCopy;
+			copy.privateCounts = privateCounts;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Counts of array storages are summed as differences of the models from this model.
+	 */
+	@Override
+	public void join(List<EMiningModel> models) throws MiningException {
+		super.join(models);
+		if (storage == Storage.elements)
+			return;
+
+		long[] base = new long[cellsNumber()];
+		for (int i = 0; i < base.length; i++)
+			base[i] = getCell(i);
+
+		for (EMiningModel model : models) {
+			OneRuleCountMiningModel m = (OneRuleCountMiningModel) model;
+			if (m == this || (counts != null && m.counts == counts) || (adders != null && m.adders == adders))
+				continue; // the same or shared model
+			for (int i = 0; i < base.length; i++) {
+				long delta = m.getCell(i) - base[i];
+				if (delta != 0)
+					addCell(i, delta);
+			}
+		}
+	}
+
+	@Override
+	protected EMiningModel copy(boolean delta) {
+		OneRuleCountMiningModel o = (OneRuleCountMiningModel) super.copy(delta);
+		if (counts != null) {
+			o.counts = new long[counts.length];
+			for (int i = 0; i < counts.length; i++)
+				o.counts[i] = getCell(i);
+			o.sharedCopy = false;
+			o.privateCounts = null;
+		}
+		if (adders != null) {
+			o.adders = new LongAdder[adders.length];
+			for (int i = 0; i < adders.length; i++) {
+				o.adders[i] = new LongAdder();
+				o.adders[i].add(adders[i].sum());
+			}
+		}
+		return o;
+	}
+
+	/**
+	 * Increases of counts of the shared copy. Changed cells are listed,
+	 * so the reduce doesn't pass the whole array.
+	 */
+	private static class PrivateCounts {
+		final long[] deltas;
+		int[] changed = new int[16];
+		int changedNumber;
+
+		PrivateCounts(int size) {
+			deltas = new long[size];
+		}
+
+		void add(int cell, long delta) {
+			if (deltas[cell] == 0) {
+				if (changedNumber == changed.length)
+					changed = Arrays.copyOf(changed, changedNumber * 2);
+				changed[changedNumber++] = cell;
+			}
+			deltas[cell] += delta;
+		}
+	}
+}
@@ -23,7 +23,7 @@ public class OneRuleMiningModel extends RuleSetModel {
 	}
 
 	public RuleSet getCandidateRules() throws MiningException {
-		return (RuleSet)getElement(INDEX_RULE_CANDIDATE_SET);
+		return (RuleSet)getElementForUpdate(INDEX_RULE_CANDIDATE_SET);
 	}
 
 	public void cleareCandidateRules() throws MiningException {
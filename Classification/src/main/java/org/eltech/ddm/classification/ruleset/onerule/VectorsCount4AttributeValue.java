@@ -24,6 +24,14 @@ public class VectorsCount4AttributeValue extends MiningModelElement {
 
     @Override
     public void merge(List<MiningModelElement> valueCounts){
+        if (size() == 0) { // counts are kept by arrays of the model, so index changed by a copy is taken
+            for (MiningModelElement vCount : valueCounts) {
+                if (((VectorsCount4AttributeValue) vCount).getMaxIndex() != maxIndex)
+                    maxIndex = ((VectorsCount4AttributeValue) vCount).getMaxIndex();
+            }
+            return;
+        }
+
         for(MiningModelElement vCount: valueCounts) {
             //set(MAX_INDEX,  ((int)get(MAX_INDEX) > (int)vCount.get(MAX_INDEX))? MAX_INDEX):vCount.get(MAX_INDEX));
             setMaxIndex((((VectorsCount4TargetValue)getElement(getMaxIndex())).getNumberCorrectVectors() >
@@ -32,6 +40,14 @@ public class VectorsCount4AttributeValue extends MiningModelElement {
         }
     }
 
+    /**
+     * Index changed by the last copy is taken, so the result depends on grouping of the copies
+     */
+    @Override
+    public boolean isMergeAssociative() {
+        return false;
+    }
+
     public int getMaxIndex() {
         return maxIndex;
     }
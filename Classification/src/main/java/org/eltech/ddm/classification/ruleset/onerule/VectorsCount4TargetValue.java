@@ -41,4 +41,8 @@ public class VectorsCount4TargetValue extends MiningModelElement {
     public void incNumberCorrectVectors(){
         numberCorrectVectors++;
     }
+
+    public void addNumberCorrectVectors(int delta){
+        numberCorrectVectors += delta;
+    }
 }
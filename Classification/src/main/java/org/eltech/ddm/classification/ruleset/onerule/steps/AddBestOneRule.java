@@ -34,7 +34,7 @@ public class AddBestOneRule extends MiningBlock {
         int indexValue = model.getCurrentAttributeValueIndex();
 
         int indexTargetValue = ((OneRuleCountMiningModel)model).getCountMatrix(indexAttr, indexValue).getMaxIndex();
-        int count = ((OneRuleCountMiningModel)model).getCountMatrix(indexAttr, indexValue, indexTargetValue).getNumberCorrectVectors();
+        int count = Math.toIntExact(((OneRuleCountMiningModel)model).getCount(indexAttr, indexValue, indexTargetValue));
 
         SimpleRule rule = createRule(indexValue, indexTargetValue, attrID, count);
 
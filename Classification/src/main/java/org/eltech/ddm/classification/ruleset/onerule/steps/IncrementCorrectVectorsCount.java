@@ -2,16 +2,18 @@ package org.eltech.ddm.classification.ruleset.onerule.steps;
 
 import org.eltech.ddm.classification.ClassificationFunctionSettings;
 import org.eltech.ddm.classification.ruleset.onerule.OneRuleCountMiningModel;
-import org.eltech.ddm.classification.ruleset.onerule.VectorsCount4TargetValue;
 import org.eltech.ddm.inputdata.MiningInputStream;
 import org.eltech.ddm.inputdata.MiningVector;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
 import org.eltech.ddm.miningcore.miningdata.ELogicalAttribute;
+import org.eltech.ddm.miningcore.miningdata.ELogicalData;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
 import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 import org.eltech.ddm.miningcore.miningmodel.LogicalAttributeElement;
 
+import java.util.Arrays;
+
 /**
  * @author iholod
  */
@@ -36,10 +38,51 @@ public class IncrementCorrectVectorsCount extends DataMiningBlock {
         int value = (int) mv.getValue(la.getID());
         int targetValue = (int)mv.getValue(indexTarget);
 
-        VectorsCount4TargetValue vc4tv = ((OneRuleCountMiningModel)model).getCountMatrix(iAttr, value, targetValue);
-        vc4tv.incNumberCorrectVectors();
+        ((OneRuleCountMiningModel)model).addCount(iAttr, value, targetValue, 1);
 
         return model;
     }
 
+    /**
+     * Counts vectors of the range by pairs (value of current attribute, target value)
+     * and increases the count matrix once for every pair
+     */
+    @Override
+    protected EMiningModel executeRange(MiningInputStream data, EMiningModel model, int fromVector, int toVector) throws MiningException {
+        LogicalAttributeElement la = model.getCurrentAttribute();
+        int iAttr = la.getIndex();
+        ELogicalData logicalData = functionSettings.getLogicalData();
+        int iValueAttr = logicalData.getAttributeIndex(logicalData.getAttribute(la.getID()));
+        int[][] counts = new int[0][];
+
+        for (int iVec = fromVector; iVec < toVector; iVec++) {
+            MiningVector mv = data.getVector(iVec);
+            int value = (int) mv.getValue(iValueAttr);
+            int targetValue = (int) mv.getValue(indexTarget);
+            if (value >= counts.length)
+                counts = Arrays.copyOf(counts, value + 1);
+            if (counts[value] == null)
+                counts[value] = new int[targetValue + 1];
+            else if (targetValue >= counts[value].length)
+                counts[value] = Arrays.copyOf(counts[value], targetValue + 1);
+            counts[value][targetValue]++;
+        }
+
+        for (int value = 0; value < counts.length; value++) {
+            if (counts[value] == null)
+                continue;
+            for (int targetValue = 0; targetValue < counts[value].length; targetValue++) {
+                if (counts[value][targetValue] > 0)
+                    ((OneRuleCountMiningModel)model).addCount(iAttr, value, targetValue, counts[value][targetValue]);
+            }
+        }
+
+        return model;
+    }
+
+    @Override
+    public boolean isRangeSupported() {
+        return true;
+    }
+
 }
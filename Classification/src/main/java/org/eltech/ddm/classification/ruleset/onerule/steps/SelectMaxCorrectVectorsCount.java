@@ -25,8 +25,8 @@ public class SelectMaxCorrectVectorsCount extends MiningBlock {
 
         VectorsCount4AttributeValue vc4qv = ((OneRuleCountMiningModel)model).getCountMatrix(indexAttr, indexValue);
         int maxPos = vc4qv.getMaxIndex();
-        int count = ((OneRuleCountMiningModel)model).getCountMatrix(indexAttr, indexValue, indexTargetValue).getNumberCorrectVectors();
-        int countMax = ((OneRuleCountMiningModel)model).getCountMatrix(indexAttr, indexValue, maxPos).getNumberCorrectVectors();
+        long count = ((OneRuleCountMiningModel)model).getCount(indexAttr, indexValue, indexTargetValue);
+        long countMax = ((OneRuleCountMiningModel)model).getCount(indexAttr, indexValue, maxPos);
 
         if(countMax < count) {
             vc4qv.setMaxIndex(indexTargetValue);
@@ -28,10 +28,9 @@ public class SummCorrectVectorsCount extends MiningBlock {
 
         int indexTargetValue = ((OneRuleCountMiningModel)model).getCountMatrix(indexAttr, indexValue).getMaxIndex();
 
-        int count = ((OneRuleCountMiningModel)model).getCountMatrix(indexAttr, indexValue, indexTargetValue).getNumberCorrectVectors();
+        int count = Math.toIntExact(((OneRuleCountMiningModel)model).getCount(indexAttr, indexValue, indexTargetValue));
 
         ((OneRuleMiningModel)model).getCandidateRules().addNumberCorrectVectors(count);
-        System.out.println(Thread.currentThread() + " Candidate rule set = " + ((OneRuleMiningModel)model).getCandidateRules().getNumberCorrectVectors() );
 
         return model;
     }
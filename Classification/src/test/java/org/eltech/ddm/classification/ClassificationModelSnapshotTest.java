@@ -0,0 +1,151 @@
+package org.eltech.ddm.classification;
+
+import org.eltech.ddm.classification.decisiontree.DecisionTreeAlgorithm;
+import org.eltech.ddm.classification.decisiontree.DecisionTreeAlgorithmSettings;
+import org.eltech.ddm.classification.decisiontree.DecisionTreeMiningModel;
+import org.eltech.ddm.classification.naivebayes.category.NaiveBayesAlgorithm;
+import org.eltech.ddm.classification.naivebayes.category.NaiveBayesModel;
+import org.eltech.ddm.classification.naivebayes.continious.ContinuousBayesModel;
+import org.eltech.ddm.classification.ruleset.SimpleRule;
+import org.eltech.ddm.classification.ruleset.onerule.OneRuleCountAlgorithm;
+import org.eltech.ddm.classification.ruleset.onerule.OneRuleCountMiningModel;
+import org.eltech.ddm.environment.ConcurrencyExecutionEnvironment;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningAlgorithm;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningAlgorithmSettings;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshotReader;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshotWriter;
+import org.eltech.ddm.miningcore.miningtask.EMiningBuildTask;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Models read from snapshots must be the same as the written models
+ */
+public class ClassificationModelSnapshotTest extends ClassificationMiningModelTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void naiveBayesTest() throws Exception {
+		setInputData4WeatherNominal();
+		setMiningSettings4WeatherNominal(algorithmSettings(NaiveBayesAlgorithm.class));
+		NaiveBayesModel written = (NaiveBayesModel) build(new NaiveBayesAlgorithm(miningSettings));
+		NaiveBayesModel read = (NaiveBayesModel) writeRead(written);
+
+		assertEquals(NaiveBayesModel.Storage.tensor, read.getStorage());
+		int nTargets = model.getTarget().getCategoricalProperties().getSize();
+		for (int t = 0; t < nTargets; t++) {
+			assertEquals(written.getOutputCount(t), read.getOutputCount(t));
+			for (int a = 0; a < inputData.getLogicalData().getAttributesNumber(); a++) {
+				for (int v = 0; v < inputData.getLogicalData().getAttribute(a).getCategoricalProperties().getSize(); v++)
+					assertEquals(written.getInputCount(a, v, t), read.getInputCount(a, v, t));
+			}
+		}
+		verifyApply(written, read);
+	}
+
+	@Test
+	public void oneRuleTest() throws Exception {
+		setInputData4WeatherNominal();
+		setMiningSettings4WeatherNominal(algorithmSettings(OneRuleCountAlgorithm.class));
+		OneRuleCountMiningModel written = (OneRuleCountMiningModel) build(new OneRuleCountAlgorithm(miningSettings));
+		OneRuleCountMiningModel read = (OneRuleCountMiningModel) writeRead(written);
+
+		assertEquals(written.getRuleSet().size(), read.getRuleSet().size());
+		assertEquals(written.getRuleSet().getNumberCorrectVectors(), read.getRuleSet().getNumberCorrectVectors());
+		for (int i = 0; i < written.getRuleSet().size(); i++) {
+			SimpleRule rule = (SimpleRule) written.getRuleSet().getElement(i);
+			SimpleRule readRule = (SimpleRule) read.getRuleSet().getElement(i);
+			assertEquals(rule, readRule);
+			assertEquals(rule.getError(), readRule.getError(), 0);
+			assertEquals(rule.getNumberOfPredicatedVectors(), readRule.getNumberOfPredicatedVectors());
+		}
+		assertEquals(written.getCount(0, 1, 1), read.getCount(0, 1, 1));
+		verifyApply(written, read);
+	}
+
+	@Test
+	public void decisionTreeTest() throws Exception {
+		setInputData4Iris();
+		setMiningSettings4Iris(algorithmSettings(DecisionTreeAlgorithm.class));
+		DecisionTreeMiningModel written = (DecisionTreeMiningModel) build(new DecisionTreeAlgorithm(miningSettings));
+		DecisionTreeMiningModel read = (DecisionTreeMiningModel) writeRead(written);
+
+		assertEquals(written.getRoot().getTotalNumberOfChildren(), read.getRoot().getTotalNumberOfChildren());
+		assertArrayEquals(written.getRoot().getDistribution(), read.getRoot().getDistribution(), 0);
+		assertEquals(written.createFlatTree().getNodesNumber(), read.createFlatTree().getNodesNumber());
+		verifyApply(written, read);
+	}
+
+	@Test
+	public void continuousBayesTest() throws Exception {
+		setInputData4Iris();
+		setMiningSettings4Iris(new EMiningAlgorithmSettings());
+		ContinuousBayesModel written = new ContinuousBayesModel(miningSettings);
+		written.initModel();
+		for (int i = 0; i < inputData.getVectorsNumber(); i++) {
+			double[] values = inputData.getVector(i).getValues();
+			for (int a = 0; a < values.length; a++)
+				written.putValue(a, values);
+		}
+		model = written;
+		ContinuousBayesModel read = (ContinuousBayesModel) writeRead(written);
+
+		assertEquals(written.getModel().keySet(), read.getModel().keySet());
+		for (Double classValue : written.getModel().keySet()) {
+			assertEquals(written.getClassLength(classValue), read.getClassLength(classValue));
+			for (int a = 0; a < written.getModel().get(classValue).length; a++)
+				assertArrayEquals(written.getModel().get(classValue)[a], read.getModel().get(classValue)[a], 0);
+		}
+		verifyApply(written, read);
+	}
+
+	@Test(expected = MiningException.class)
+	public void otherAttributesTest() throws Exception {
+		setInputData4WeatherNominal();
+		setMiningSettings4WeatherNominal(algorithmSettings(NaiveBayesAlgorithm.class));
+		String path = new File(folder.getRoot(), "model.ddms").getPath();
+		new ModelSnapshotWriter().write(build(new NaiveBayesAlgorithm(miningSettings)), path);
+
+		setInputData4Iris();
+		setMiningSettings4Iris(algorithmSettings(NaiveBayesAlgorithm.class));
+		new ModelSnapshotReader().read(path, miningSettings);
+	}
+
+	private EMiningAlgorithmSettings algorithmSettings(Class<?> algorithmClass) {
+		EMiningAlgorithmSettings algorithmSettings = algorithmClass == DecisionTreeAlgorithm.class
+				? new DecisionTreeAlgorithmSettings() : new EMiningAlgorithmSettings();
+		algorithmSettings.setName(algorithmClass.getSimpleName());
+		algorithmSettings.setClassname(algorithmClass.getName());
+		return algorithmSettings;
+	}
+
+	private ClassificationMiningModel build(MiningAlgorithm algorithm) throws Exception {
+		EMiningBuildTask buildTask = new EMiningBuildTask();
+		buildTask.setMiningAlgorithm(algorithm);
+		buildTask.setMiningSettings(miningSettings);
+		buildTask.setExecutionEnvironment(new ConcurrencyExecutionEnvironment(inputData));
+		model = (ClassificationMiningModel) buildTask.execute();
+		return model;
+	}
+
+	private ClassificationMiningModel writeRead(ClassificationMiningModel written) throws Exception {
+		String path = new File(folder.getRoot(), "model.ddms").getPath();
+		assertTrue(new ModelSnapshotWriter().write(written, path) > 0);
+		ClassificationMiningModel read = (ClassificationMiningModel) new ModelSnapshotReader().read(path, miningSettings);
+		assertSame(written.getClass(), read.getClass());
+		return read;
+	}
+
+	private void verifyApply(ClassificationMiningModel written, ClassificationMiningModel read) throws Exception {
+		for (int i = 0; i < inputData.getVectorsNumber(); i++)
+			assertEquals(written.apply(inputData.getVector(i)), read.apply(inputData.getVector(i)), 0);
+	}
+}
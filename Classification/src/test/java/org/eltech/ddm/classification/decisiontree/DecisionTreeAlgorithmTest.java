@@ -0,0 +1,74 @@
+package org.eltech.ddm.classification.decisiontree;
+
+import org.eltech.ddm.classification.ClassificationMiningModelTest;
+import org.eltech.ddm.environment.ConcurrencyExecutionEnvironment;
+import org.eltech.ddm.miningcore.miningtask.EMiningBuildTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DecisionTreeAlgorithmTest extends ClassificationMiningModelTest {
+
+	private final int NUMBER_HANDLERS = 4;
+
+	private DecisionTreeAlgorithmSettings algorithmSettings;
+
+	@Before
+	public void setUp() {
+		algorithmSettings = new DecisionTreeAlgorithmSettings();
+		algorithmSettings.setName("Decision Tree");
+		algorithmSettings.setClassname(DecisionTreeAlgorithm.class.getName());
+		algorithmSettings.setMaxDepth(5);
+		algorithmSettings.setBinsNumber(16);
+	}
+
+	@Test
+	public void test4Iris() throws Exception {
+		setInputData4Iris();
+		setMiningSettings4Iris(algorithmSettings);
+
+		DecisionTreeMiningModel treeModel = build(0);
+		model = treeModel;
+		assertTrue(verifyModel(inputData, model) > 95);
+		assertEquals(3, treeModel.getRoot().getDistribution().length);
+		assertEquals(inputData.getVectorsNumber(), treeModel.getRoot().getRecordCount(), 0);
+	}
+
+	@Test
+	public void test4IrisParallel() throws Exception {
+		setInputData4Iris();
+		setMiningSettings4Iris(algorithmSettings);
+
+		DecisionTreeMiningModel sequenceModel = build(0);
+		DecisionTreeMiningModel parallelModel = build(NUMBER_HANDLERS);
+		model = parallelModel;
+
+		// histograms of parts are summed exactly, so the trees are the same
+		assertEquals(inputData.getVectorsNumber(), parallelModel.getRoot().getRecordCount(), 0);
+		assertEquals(sequenceModel.getRoot().getTotalNumberOfChildren(), parallelModel.getRoot().getTotalNumberOfChildren());
+		for (int i = 0; i < inputData.getVectorsNumber(); i++)
+			assertEquals(sequenceModel.apply(inputData.getVector(i)), parallelModel.apply(inputData.getVector(i)), 0);
+		assertTrue(verifyModel(inputData, model) > 95);
+	}
+
+	@Test
+	public void test4WeatherNominal() throws Exception {
+		setInputData4WeatherNominal();
+		setMiningSettings4WeatherNominal(algorithmSettings);
+
+		model = build(NUMBER_HANDLERS);
+		assertEquals(100, verifyModel(inputData, model), 0);
+	}
+
+	private DecisionTreeMiningModel build(int handlers) throws Exception {
+		EMiningBuildTask buildTask = new EMiningBuildTask();
+		buildTask.setMiningAlgorithm(new DecisionTreeAlgorithm(miningSettings));
+		buildTask.setMiningSettings(miningSettings);
+		buildTask.setExecutionEnvironment(handlers == 0 ? new ConcurrencyExecutionEnvironment(inputData)
+				: new ConcurrencyExecutionEnvironment(handlers, inputData));
+
+		return (DecisionTreeMiningModel) buildTask.execute();
+	}
+}
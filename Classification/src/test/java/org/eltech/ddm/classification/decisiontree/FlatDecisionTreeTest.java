@@ -0,0 +1,91 @@
+package org.eltech.ddm.classification.decisiontree;
+
+import org.eltech.ddm.classification.ClassificationMiningModelTest;
+import org.eltech.ddm.environment.ConcurrencyExecutionEnvironment;
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.miningtask.EMiningBuildTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Predictions of the flat tree must be the same as predictions of the tree of nodes
+ */
+public class FlatDecisionTreeTest extends ClassificationMiningModelTest {
+
+	private DecisionTreeAlgorithmSettings algorithmSettings;
+
+	@Before
+	public void setUp() {
+		algorithmSettings = new DecisionTreeAlgorithmSettings();
+		algorithmSettings.setName("Decision Tree");
+		algorithmSettings.setClassname(DecisionTreeAlgorithm.class.getName());
+	}
+
+	@Test
+	public void test4Iris() throws Exception {
+		setInputData4Iris();
+		setMiningSettings4Iris(algorithmSettings);
+		verifyFlatTree(build());
+	}
+
+	@Test
+	public void test4WeatherNominal() throws Exception {
+		setInputData4WeatherNominal();
+		setMiningSettings4WeatherNominal(algorithmSettings);
+		verifyFlatTree(build());
+	}
+
+	@Test
+	public void missingValueTest() throws Exception {
+		setInputData4Iris();
+		setMiningSettings4Iris(algorithmSettings);
+		DecisionTreeMiningModel treeModel = build();
+		FlatDecisionTree flatTree = treeModel.createFlatTree();
+
+		MiningVector vector = inputData.getVector(0);
+		double[] row = vector.getValues().clone();
+		for (int a = 0; a < row.length; a++)
+			row[a] = Double.NaN;
+		assertEquals(treeModel.getRoot().getScore(), flatTree.predict(row), 0);
+	}
+
+	private DecisionTreeMiningModel build() throws Exception {
+		EMiningBuildTask buildTask = new EMiningBuildTask();
+		buildTask.setMiningAlgorithm(new DecisionTreeAlgorithm(miningSettings));
+		buildTask.setMiningSettings(miningSettings);
+		buildTask.setExecutionEnvironment(new ConcurrencyExecutionEnvironment(inputData));
+
+		return (DecisionTreeMiningModel) buildTask.execute();
+	}
+
+	private void verifyFlatTree(DecisionTreeMiningModel treeModel) throws Exception {
+		FlatDecisionTree flatTree = treeModel.createFlatTree();
+		assertEquals(treeModel.getRoot().getTotalNumberOfChildren() + 1, flatTree.getNodesNumber());
+
+		double[][] rows = new double[inputData.getVectorsNumber()][];
+		double[] expected = new double[rows.length];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = inputData.getVector(i).getValues().clone();
+			expected[i] = treeModel.apply(inputData.getVector(i));
+		}
+
+		double[] predictions = new double[rows.length];
+		flatTree.predict(rows, 0, rows.length, predictions);
+		assertArrayEquals(expected, predictions, 0);
+
+		double[] parallelPredictions = new double[rows.length];
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			flatTree.predictParallel(rows, parallelPredictions, 4, executor);
+		} finally {
+			executor.shutdown();
+		}
+		assertArrayEquals(expected, parallelPredictions, 0);
+	}
+}
@@ -2,14 +2,22 @@ package org.eltech.ddm.classification.naivebayes;
 
 import org.eltech.ddm.classification.ClassificationMiningModel;
 import org.eltech.ddm.classification.naivebayes.category.NaiveBayesAlgorithm;
+import org.eltech.ddm.classification.naivebayes.category.NaiveBayesModel;
+import org.eltech.ddm.classification.naivebayes.category.steps.FindProbabilityOfAttributeValue;
+import org.eltech.ddm.classification.naivebayes.category.steps.FindProbabilityOfTargetValue;
 import org.eltech.ddm.environment.ConcurrencyExecutionEnvironment;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.algorithms.MiningAlgorithm;
+import org.eltech.ddm.miningcore.algorithms.MiningLoopElement;
+import org.eltech.ddm.miningcore.algorithms.MiningLoopVectors;
+import org.eltech.ddm.miningcore.algorithms.MiningSequence;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningAlgorithmSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 import org.eltech.ddm.miningcore.miningtask.EMiningBuildTask;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 public class NaiveBayesAlgorithmTest extends NaiveBayesModelTest {
@@ -49,6 +57,74 @@ public class NaiveBayesAlgorithmTest extends NaiveBayesModelTest {
 
 	}
 
+	@Test
+	public void test4WeatherNominalTensor() {
+		try {
+
+			setInputData4WeatherNominal();
+			setMiningSettings4WeatherNominal(algorithmSettings);
+
+			EMiningBuildTask buildTask = createBuildTask(NaiveBayesModel.Storage.tensor);
+
+			model = (ClassificationMiningModel) buildTask.execute();
+
+			assertEquals(NaiveBayesModel.Storage.tensor, ((NaiveBayesModel) model).getStorage());
+			verifyModel4WeatherNominal();
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		}
+
+	}
+
+	@Test
+	public void rangeTest() throws Exception {
+		setInputData4WeatherNominal();
+		setMiningSettings4WeatherNominal(algorithmSettings);
+
+		for (NaiveBayesModel.Storage storage : NaiveBayesModel.Storage.values()) {
+			NaiveBayesModel expected = countByLoops(storage, 0); // every vector
+			for (int chunkSize : new int[]{MiningLoopVectors.DEFAULT_CHUNK_SIZE, 5}) {
+				NaiveBayesModel actual = countByLoops(storage, chunkSize);
+				int nTargets = miningSettings.getTarget().getCategoricalProperties().getSize();
+				for (int t = 0; t < nTargets; t++) {
+					assertEquals(expected.getOutputCount(t), actual.getOutputCount(t));
+					for (int a = 0; a < inputData.getLogicalData().getAttributesNumber(); a++) {
+						int nValues = inputData.getLogicalData().getAttribute(a).getCategoricalProperties().getSize();
+						for (int v = 0; v < nValues; v++)
+							assertEquals(expected.getInputCount(a, v, t), actual.getInputCount(a, v, t));
+					}
+				}
+			}
+			assertEquals(14, expected.getOutputCount(0) + expected.getOutputCount(1));
+		}
+	}
+
+	/**
+	 * Counts target values and attribute values by loops of the vertical plan with given chunk size
+	 */
+	private NaiveBayesModel countByLoops(NaiveBayesModel.Storage storage, int chunkSize) throws MiningException {
+		int nVectors = inputData.getVectorsNumber();
+		FindProbabilityOfTargetValue targetStep = new FindProbabilityOfTargetValue(miningSettings);
+		FindProbabilityOfAttributeValue attributeStep = new FindProbabilityOfAttributeValue(miningSettings);
+		targetStep.setData(inputData);
+		attributeStep.setData(inputData);
+
+		MiningLoopVectors targetLoop = new MiningLoopVectors(miningSettings, 0, nVectors,
+				new MiningSequence(miningSettings, targetStep));
+		MiningLoopVectors attributeLoop = new MiningLoopVectors(miningSettings, 0, nVectors,
+				new MiningSequence(miningSettings, attributeStep));
+		targetLoop.setChunkSize(chunkSize);
+		attributeLoop.setChunkSize(chunkSize);
+
+		NaiveBayesModel bayesModel = new NaiveBayesModel(miningSettings, storage);
+		bayesModel.initModel();
+		targetLoop.run(bayesModel);
+		new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET, attributeLoop).run(bayesModel);
+		return bayesModel;
+	}
+
 /*	@Test
 	public void test4Iris() {
 		try {
@@ -70,7 +146,12 @@ public class NaiveBayesAlgorithmTest extends NaiveBayesModelTest {
 	}*/
 
 	private EMiningBuildTask createBuildTask() throws MiningException {
-		MiningAlgorithm algorithm = new NaiveBayesAlgorithm(miningSettings);
+		return createBuildTask(NaiveBayesModel.Storage.elements);
+	}
+
+	private EMiningBuildTask createBuildTask(NaiveBayesModel.Storage storage) throws MiningException {
+		NaiveBayesAlgorithm algorithm = new NaiveBayesAlgorithm(miningSettings);
+		algorithm.setModelStorage(storage);
 		ConcurrencyExecutionEnvironment environment = new ConcurrencyExecutionEnvironment(inputData);
 
 		EMiningBuildTask buildTask = new EMiningBuildTask();
@@ -0,0 +1,119 @@
+package org.eltech.ddm.classification.naivebayes;
+
+import org.eltech.ddm.classification.ClassificationMiningModel;
+import org.eltech.ddm.classification.naivebayes.category.NaiveBayesAlgorithm;
+import org.eltech.ddm.classification.naivebayes.category.NaiveBayesModel;
+import org.eltech.ddm.classification.naivebayes.category.NaiveBayesScorer;
+import org.eltech.ddm.environment.ConcurrencyExecutionEnvironment;
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningAlgorithmSettings;
+import org.eltech.ddm.miningcore.miningtask.EMiningBuildTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Scores of the scorer must be the same as computed from counts of the model
+ */
+public class NaiveBayesScorerTest extends NaiveBayesModelTest {
+
+	private static final double EPS = 1e-12;
+
+	private NaiveBayesModel bayesModel;
+	private double[][] vectors;
+
+	@Before
+	public void setUp() throws Exception {
+		EMiningAlgorithmSettings algorithmSettings = new EMiningAlgorithmSettings();
+		algorithmSettings.setName("Naive Bayes");
+		algorithmSettings.setClassname(NaiveBayesAlgorithm.class.getName());
+
+		setInputData4WeatherNominal();
+		setMiningSettings4WeatherNominal(algorithmSettings);
+
+		EMiningBuildTask buildTask = new EMiningBuildTask();
+		buildTask.setMiningAlgorithm(new NaiveBayesAlgorithm(miningSettings));
+		buildTask.setMiningSettings(miningSettings);
+		buildTask.setExecutionEnvironment(new ConcurrencyExecutionEnvironment(inputData));
+		model = (ClassificationMiningModel) buildTask.execute();
+		bayesModel = (NaiveBayesModel) model;
+
+		vectors = new double[inputData.getVectorsNumber()][];
+		for (int i = 0; i < vectors.length; i++)
+			vectors[i] = inputData.getVector(i).getValues().clone();
+	}
+
+	@Test
+	public void scoreTest() throws Exception {
+		NaiveBayesScorer scorer = bayesModel.createScorer();
+		int iTarget = inputData.getLogicalData().getAttributeIndex(model.getTarget());
+		int nTargets = scorer.getClassesNumber();
+		assertEquals(2, nTargets);
+
+		double[] scores = new double[vectors.length * nTargets];
+		scorer.score(vectors, 0, vectors.length, scores);
+
+		for (int v = 0; v < vectors.length; v++) {
+			for (int t = 0; t < nTargets; t++) {
+				double expected = Math.log((bayesModel.getOutputCount(t) + 1.0) / (vectors.length + nTargets));
+				for (int a = 0; a < vectors[v].length; a++) {
+					if (a == iTarget)
+						continue;
+					int nValues = inputData.getLogicalData().getAttribute(a).getCategoricalProperties().getSize();
+					expected += Math.log((bayesModel.getInputCount(a, (int) vectors[v][a], t) + 1.0)
+							/ (bayesModel.getOutputCount(t) + nValues));
+				}
+				assertEquals(expected, scores[v * nTargets + t], EPS);
+			}
+		}
+	}
+
+	@Test
+	public void scoreParallelTest() throws Exception {
+		NaiveBayesScorer scorer = bayesModel.createScorer();
+		double[] scores = new double[vectors.length * scorer.getClassesNumber()];
+		scorer.score(vectors, 0, vectors.length, scores);
+
+		double[] parallelScores = new double[scores.length];
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			scorer.scoreParallel(vectors, parallelScores, 3, executor);
+		} finally {
+			executor.shutdown();
+		}
+		assertArrayEquals(scores, parallelScores, 0);
+	}
+
+	@Test
+	public void probabilitiesTest() throws Exception {
+		for (double[] vector : vectors) {
+			double[] probabilities = bayesModel.getProbabilities(new MiningVector(vector));
+			assertEquals(1, probabilities[0] + probabilities[1], EPS);
+		}
+		// naive Bayes misclassifies one vector of weather-nominal
+		assertEquals(100 - 100.0 / 14, verifyModel(inputData, model), EPS);
+	}
+
+	@Test
+	public void changedCountsTest() throws Exception {
+		MiningVector vector = new MiningVector(vectors[0]);
+		double[] before = bayesModel.getProbabilities(vector);
+		assertArrayEquals(before, bayesModel.getProbabilities(vector), 0);
+
+		// the scorer of the model is created again from the changed counts
+		bayesModel.addOutputCount(0, 100);
+		double[] after = bayesModel.getProbabilities(vector);
+		assertTrue(Math.abs(after[0] - before[0]) > EPS);
+		NaiveBayesScorer scorer = bayesModel.createScorer();
+		double[] expected = new double[scorer.getClassesNumber()];
+		scorer.score(vectors[0], expected, 0);
+		scorer.toProbabilities(expected, 0);
+		assertArrayEquals(expected, after, 0);
+	}
+}
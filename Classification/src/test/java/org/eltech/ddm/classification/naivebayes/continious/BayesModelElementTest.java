@@ -0,0 +1,136 @@
+package org.eltech.ddm.classification.naivebayes.continious;
+
+import org.eltech.ddm.miningcore.miningmodel.MiningModelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Moments updated in one pass and merged by parts must be the same as computed by two passes over all values
+ */
+public class BayesModelElementTest {
+
+    private static final int ATTRS = 3;
+    private static final double EPS = 1e-9;
+
+    private double[][] vectors;
+    private double[] classes;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(7);
+        vectors = new double[300][ATTRS];
+        classes = new double[vectors.length];
+        for (int v = 0; v < vectors.length; v++) {
+            classes[v] = v % 3;
+            for (int a = 0; a < ATTRS; a++)
+                vectors[v][a] = 1e6 + classes[v] * 10 + a + random.nextGaussian();
+        }
+    }
+
+    @Test
+    public void onePassTest() {
+        BayesModelElement element = createElement();
+        add(element, 0, vectors.length, 0, ATTRS);
+        verify(element);
+    }
+
+    @Test
+    public void horizontalMergeTest() {
+        BayesModelElement base = createElement();
+        BayesModelElement part1 = copy(base);
+        BayesModelElement part2 = copy(base);
+        BayesModelElement part3 = copy(base);
+        add(part1, 0, 50, 0, ATTRS);
+        add(part2, 50, 220, 0, ATTRS);
+        add(part3, 220, vectors.length, 0, ATTRS);
+
+        // the copies are merged by groups: (part1 + part2) + part3
+        BayesModelElement pair = copy(base);
+        pair.merge(Arrays.<MiningModelElement>asList(part1, part2));
+        base.merge(Arrays.<MiningModelElement>asList(pair, part3, base));
+        verify(base);
+    }
+
+    @Test
+    public void verticalMergeTest() {
+        BayesModelElement base = createElement();
+        BayesModelElement part1 = copy(base);
+        BayesModelElement part2 = copy(base);
+        add(part1, 0, vectors.length, 0, 1);
+        add(part2, 0, vectors.length, 1, ATTRS);
+
+        base.merge(Arrays.<MiningModelElement>asList(part1, part2));
+        verify(base);
+    }
+
+    @Test
+    public void cloneTest() {
+        BayesModelElement element = createElement();
+        add(element, 0, vectors.length, 0, ATTRS);
+        BayesModelElement clone = (BayesModelElement) element.clone();
+        verify(clone);
+        add(clone, 0, 1, 0, ATTRS);
+        verify(element);
+    }
+
+    @Test
+    public void copyForOwnerTest() {
+        BayesModelElement element = createElement();
+        add(element, 0, 120, 0, ATTRS);
+        BayesModelElement copy = copy(element);
+        assertEquals(0, copy.getClassValues().length);
+        add(copy, 120, vectors.length, 0, ATTRS);
+
+        element.merge(Collections.<MiningModelElement>singletonList(copy));
+        verify(element);
+    }
+
+    private BayesModelElement copy(BayesModelElement element) {
+        return (BayesModelElement) element.copyForOwner(new Object());
+    }
+
+    private BayesModelElement createElement() {
+        BayesModelElement element = new BayesModelElement("Bayes Model");
+        element.setAttrCount(ATTRS);
+        return element;
+    }
+
+    private void add(BayesModelElement element, int from, int to, int fromAttr, int toAttr) {
+        for (int v = from; v < to; v++)
+            for (int a = fromAttr; a < toAttr; a++)
+                element.addValue(classes[v], a, vectors[v][a]);
+    }
+
+    private void verify(BayesModelElement element) {
+        assertEquals(3, element.getClassValues().length);
+        for (int c = 0; c < 3; c++) {
+            int iClass = element.getClassIndex(c);
+            assertEquals(vectors.length / 3, element.getClassLength(iClass));
+            for (int a = 0; a < ATTRS; a++) {
+                double sum = 0;
+                int n = 0;
+                for (int v = 0; v < vectors.length; v++) {
+                    if (classes[v] == c) {
+                        sum += vectors[v][a];
+                        n++;
+                    }
+                }
+                double mean = sum / n;
+                double m2 = 0;
+                for (int v = 0; v < vectors.length; v++) {
+                    if (classes[v] == c)
+                        m2 += (vectors[v][a] - mean) * (vectors[v][a] - mean);
+                }
+                assertEquals(n, element.getCount(iClass, a));
+                assertEquals(mean, element.getMean(iClass, a), EPS * Math.abs(mean));
+                assertEquals(Math.sqrt(m2 / (n - 1)), element.getDeviation(iClass, a), EPS);
+            }
+        }
+    }
+}
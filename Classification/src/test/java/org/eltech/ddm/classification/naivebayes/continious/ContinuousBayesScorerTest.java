@@ -0,0 +1,89 @@
+package org.eltech.ddm.classification.naivebayes.continious;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Log-scores of the scorer must be logarithms of products of prior and normal densities
+ */
+public class ContinuousBayesScorerTest {
+
+    private static final int ATTRS = 3;
+    private static final int TARGET = 1;
+    private static final double EPS = 1e-9;
+
+    private BayesModelElement element;
+    private double[][] vectors;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(11);
+        element = new BayesModelElement("Bayes Model");
+        element.setAttrCount(ATTRS);
+        vectors = new double[200][ATTRS + 1];
+        for (int v = 0; v < vectors.length; v++) {
+            double classValue = v % 4 == 0 ? 1 : 0;
+            vectors[v][TARGET] = classValue;
+            for (int a = 0, i = 0; a < ATTRS; a++, i++) {
+                if (i == TARGET)
+                    i++;
+                vectors[v][i] = 5 + classValue * 3 + a + random.nextGaussian();
+                element.addValue(classValue, a, vectors[v][i]);
+            }
+        }
+    }
+
+    @Test
+    public void scoreTest() {
+        ContinuousBayesScorer scorer = new ContinuousBayesScorer(element, TARGET);
+        int nClasses = scorer.getClassesNumber();
+        double[] scores = new double[vectors.length * nClasses];
+        scorer.score(vectors, 0, vectors.length, scores);
+
+        for (int v = 0; v < vectors.length; v++) {
+            for (int c = 0; c < nClasses; c++) {
+                double p = (double) element.getClassLength(c) / vectors.length;
+                for (int a = 0, i = 0; a < ATTRS; a++, i++) {
+                    if (i == TARGET)
+                        i++;
+                    double mean = element.getMean(c, a);
+                    double dev = element.getDeviation(c, a);
+                    p *= Math.exp(-(vectors[v][i] - mean) * (vectors[v][i] - mean) / (2 * dev * dev)) / (Math.sqrt(2 * Math.PI) * dev);
+                }
+                assertEquals(Math.log(p), scores[v * nClasses + c], EPS);
+            }
+        }
+
+        double[] parallelScores = new double[scores.length];
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            scorer.scoreParallel(vectors, parallelScores, 7, executor);
+        } finally {
+            executor.shutdown();
+        }
+        assertArrayEquals(scores, parallelScores, 0);
+    }
+
+    @Test
+    public void predictTest() {
+        ContinuousBayesScorer scorer = new ContinuousBayesScorer(element, TARGET);
+        double[] scores = new double[scorer.getClassesNumber()];
+        int right = 0;
+        for (double[] vector : vectors) {
+            scorer.score(vector, scores, 0);
+            if (scorer.getClassValue(scorer.predict(scores, 0)) == vector[TARGET])
+                right++;
+            scorer.toProbabilities(scores, 0);
+            assertEquals(1, scores[0] + scores[1], EPS);
+        }
+        assertTrue(right > 0.9 * vectors.length);
+    }
+}
@@ -47,8 +47,32 @@ public class OneRuleCountAlgorithmVerParallelTest extends RuleSetModelTest {
 
 	}
 
+	@org.junit.Test
+	public void test4WeatherNominalStriped() {
+		try {
+			setInputData4WeatherNominal();
+			setMiningSettings4WeatherNominal(algorithmSettings);
+
+			EMiningBuildTask buildTask = createBuidTask(OneRuleCountMiningModel.Storage.striped);
+
+			model = (OneRuleMiningModel) buildTask.execute();
+
+			verifyModel4WeatherNominal();
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		}
+
+	}
+
 	private EMiningBuildTask createBuidTask() throws MiningException{
-		MiningAlgorithm algorithm = new OneRuleCountAlgorithm(miningSettings);
+		return createBuidTask(OneRuleCountMiningModel.Storage.privatized);
+	}
+
+	private EMiningBuildTask createBuidTask(OneRuleCountMiningModel.Storage storage) throws MiningException{
+		OneRuleCountAlgorithm algorithm = new OneRuleCountAlgorithm(miningSettings);
+		algorithm.setModelStorage(storage);
 		ConcurrencyExecutionEnvironment environment = new ConcurrencyExecutionEnvironment(NUMBER_HANDLERS, inputData);
 
 		EMiningBuildTask buildTask = new EMiningBuildTask();
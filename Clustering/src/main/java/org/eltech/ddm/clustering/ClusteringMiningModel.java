@@ -36,7 +36,7 @@ public abstract class ClusteringMiningModel extends EMiningModel//ClusteringMode
 	}
 
     public Coordinate getClusterCenterCoordinate(int iCurrentCluster, int iAttr) throws MiningException {
-		return  (Coordinate)getElement(index(ClusteringMiningModel.CLUSTERS, iCurrentCluster, iAttr));
+		return  (Coordinate)getElementForUpdate(index(ClusteringMiningModel.CLUSTERS, iCurrentCluster, iAttr));
 
 	}
 
@@ -45,11 +45,11 @@ public abstract class ClusteringMiningModel extends EMiningModel//ClusteringMode
 	}
 
 	public Cluster getCluster(int iCluster) throws MiningException {
-		return ((Cluster)getElement(index(CLUSTERS, iCluster)));
+		return ((Cluster)getElementForUpdate(index(CLUSTERS, iCluster)));
 
 	}
 
 	public ClusterSet getClusterSet() throws MiningException {
-		return (ClusterSet) getElement(INDEX_CLUSTERS);
+		return (ClusterSet) getElementForUpdate(INDEX_CLUSTERS);
 	}
 }
\ No newline at end of file
@@ -4,6 +4,7 @@ import org.eltech.ddm.clustering.ClusteringFunctionSettings;
 import org.eltech.ddm.clustering.ClusteringMiningModel;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 
 
 public class CDBasedClusteringMiningModel extends ClusteringMiningModel{
@@ -28,9 +29,9 @@ public class CDBasedClusteringMiningModel extends ClusteringMiningModel{
 	}
 
 	@Override
-	public Object clone() {
+	protected EMiningModel copy(boolean delta) {
 		CDBasedClusteringMiningModel o = null;
-		o = (CDBasedClusteringMiningModel)super.clone();
+		o = (CDBasedClusteringMiningModel)super.copy(delta);
 
 		return o;
 	}
@@ -0,0 +1,37 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.steps.AssignVectorByBounds;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * K-Means accelerated by the triangle inequality. <p>
+ *
+ * The model keeps bounds of distances between vectors and centers of clusters
+ * (see {@link KMeansAlgorithmSettings#getBounds()}), so distances which can't change
+ * the cluster of a vector are not computed. Clusters are the same as built by {@link KMeansAlgorithm},
+ * numbers of computed and avoided distances are reported by
+ * {@link KMeansMiningModel#getComputedDistancesNumber()} and {@link KMeansMiningModel#getAvoidedDistancesNumber()}.
+ * The vertical distributed plan computes distances by attributes, so it is not accelerated.
+ */
+public class AcceleratedKMeansAlgorithm extends KMeansAlgorithm {
+
+	public AcceleratedKMeansAlgorithm(EMiningFunctionSettings miningSettings) throws MiningException {
+		super(miningSettings);
+	}
+
+	@Override
+	public EMiningModel createModel() throws MiningException {
+		KMeansMiningModel model = (KMeansMiningModel) super.createModel();
+		model.setBounds(((KMeansAlgorithmSettings) miningSettings.getAlgorithmSettings()).getBounds());
+
+		return model;
+	}
+
+	@Override
+	protected MiningBlock createNearestClusterBlock() throws MiningException {
+		return new AssignVectorByBounds(miningSettings);
+	}
+}
@@ -5,6 +5,7 @@ package org.eltech.ddm.clustering.cdbase.kmeans;
 import org.eltech.ddm.clustering.ClusteringMiningModel;
 import org.eltech.ddm.clustering.cdbase.kmeans.steps.*;
 import org.eltech.ddm.clustering.cdbase.steps.InitClusterByVectors;
+import org.eltech.ddm.clustering.cdbase.steps.InitClustersByKMeansParallel;
 import org.eltech.ddm.clustering.cdbase.steps.SetCentroidOfCluster;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.ReportType;
@@ -55,22 +56,48 @@ public class KMeansAlgorithm extends MiningAlgorithm
 		return resultModel;
 	}
 
+	/**
+	 * Creates block initializing centers of all clusters (see {@link KMeansAlgorithmSettings#getInitialization()})
+	 *
+	 * @param parallel - the block is a part of parallel plan, so vectors can be handled by parts of the data set
+	 */
+	protected MiningBlock createInitClustersBlock(boolean parallel) throws MiningException {
+		if (((KMeansAlgorithmSettings) miningSettings.getAlgorithmSettings()).getInitialization()
+				== KMeansAlgorithmSettings.Initialization.kMeansParallel)
+			return new InitClustersByKMeansParallel(miningSettings, parallel);
+
+		return new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
+				new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
+						//new InitClusterByRandom(miningSettings))),
+						new InitClusterByVectors(miningSettings)));
+	}
+
+	/**
+	 * Creates block assigning the current vector to the nearest cluster:
+	 * the fused step or the loops by clusters and attributes (see {@link KMeansAlgorithmSettings#isFusedDistance()})
+	 */
+	protected MiningBlock createNearestClusterBlock() throws MiningException {
+		if (((KMeansAlgorithmSettings) miningSettings.getAlgorithmSettings()).isFusedDistance())
+			return new AssignVectorToNearestCluster(miningSettings);
+
+		return new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
+				new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
+						new AccumulateDistanceVectorCluster(miningSettings)),
+				new DistanceVectorCluster(miningSettings),
+				new ClosestClusterForVector(miningSettings));
+	}
+
 	@Override
 	public MiningSequence getSequenceAlgorithm() throws MiningException {
 		MiningSequence blocks = new MiningSequence(miningSettings,
-		  		new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
-						new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
-								//new InitClusterByRandom(miningSettings))),
-								new InitClusterByVectors(miningSettings))),
+				new InitVectorsAssignment(miningSettings),
+				createInitClustersBlock(false),
 				new WhileChangClustersLoop(miningSettings,
 						new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
 								new InitCluster(miningSettings)),
+						new InitCentroidMatrix(miningSettings),
 						new MiningLoopVectors(miningSettings,
-								new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
-										new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
-												new AccumulateDistanceVectorCluster(miningSettings)),
-										new DistanceVectorCluster(miningSettings),
-										new ClosestClusterForVector(miningSettings)),
+								createNearestClusterBlock(),
 								new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
 										new CalcNewClusterCenter(miningSettings)),
 								new IncVectorCountInCluster(miningSettings)),
@@ -93,20 +120,15 @@ public class KMeansAlgorithm extends MiningAlgorithm
 	@Override
 	public MiningSequence getHorDistributedAlgorithm() throws MiningException {
 		MiningSequence blocks = new MiningSequence(miningSettings,
-				new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
-						new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
-								//new InitClusterByRandom(miningSettings))),
-								new InitClusterByVectors(miningSettings))),
+				new InitVectorsAssignment(miningSettings),
+				createInitClustersBlock(true),
 				new WhileChangClustersLoop(miningSettings,
 						new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
 								new InitCluster(miningSettings)),
+						new InitCentroidMatrix(miningSettings),
 						new MiningParallel(miningSettings, MemoryType.shared,
 								new MiningLoopVectors(miningSettings,
-										new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
-												new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
-														new AccumulateDistanceVectorCluster(miningSettings)),
-												new DistanceVectorCluster(miningSettings),
-												new ClosestClusterForVector(miningSettings)),
+										createNearestClusterBlock(),
 										new MiningParallel(miningSettings, MemoryType.shared,
 												new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
 														new CalcNewClusterCenter(miningSettings)),
@@ -125,10 +147,8 @@ public class KMeansAlgorithm extends MiningAlgorithm
 	@Override
 	public MiningSequence getVerDistributedAlgorithm() throws MiningException {
 		MiningSequence blocks = new MiningSequence(miningSettings,
-				new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
-						new MiningLoopElement(miningSettings, EMiningModel.INDEX_ATTRIBUTE_SET,
-								//new InitClusterByRandom(miningSettings))),
-								new InitClusterByVectors(miningSettings))),
+				new InitVectorsAssignment(miningSettings),
+				createInitClustersBlock(true),
 				new WhileChangClustersLoop(miningSettings,
 						new MiningLoopElement(miningSettings, ClusteringMiningModel.INDEX_CLUSTERS,
 								new InitCluster(miningSettings)),
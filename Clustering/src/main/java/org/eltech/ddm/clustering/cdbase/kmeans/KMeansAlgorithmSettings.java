@@ -4,14 +4,80 @@ import org.eltech.ddm.clustering.ClusteringAlgorithmSettings;
 
 public class KMeansAlgorithmSettings extends ClusteringAlgorithmSettings {
 
+	/**
+	 * Method of initialization of centers of clusters
+	 */
+	public enum Initialization {
+		/**
+		 * Centers are evenly spaced vectors of the data set
+		 */
+		vectors,
+		/**
+		 * Centers are found by k-means||: several passes over the data set sample candidates
+		 * with probability proportional to the squared distance to the sampled ones,
+		 * then the weighted candidates are reduced to the centers by k-means++
+		 */
+		kMeansParallel
+	}
+
+	/**
+	 * Bounds of distances kept by {@link AcceleratedKMeansAlgorithm}
+	 */
+	public enum Bounds {
+		/**
+		 * Hamerly bounds for small number of clusters, elkan bounds otherwise
+		 */
+		auto,
+		/**
+		 * One lower bound of distance to the second closest cluster for every vector
+		 */
+		hamerly,
+		/**
+		 * Lower bounds of distances to all clusters for every vector
+		 */
+		elkan
+	}
+
+	/**
+	 * Minimal number of clusters for which automatic choice takes elkan bounds
+	 */
+	public static final int ELKAN_MIN_CLUSTERS_NUMBER = 20;
+
 	private final String TAG_MAX_NUMBER_CLUSTERS = "maxNumberOfIterations";
 	
 	private final String TAG_EPS = "eps";
 
+	private final String TAG_FUSED_DISTANCE = "fusedDistance";
+
+	private final String TAG_INITIALIZATION = "initialization";
+
+	private final String TAG_OVERSAMPLING_FACTOR = "oversamplingFactor";
+
+	private final String TAG_INITIALIZATION_ROUNDS = "initializationRounds";
+
+	private final String TAG_INITIALIZATION_SEED = "initializationSeed";
+
+	private final String TAG_BOUNDS = "bounds";
+
+	private final String TAG_BATCH_SIZE = "batchSize";
+
+	private final String TAG_BATCH_SEED = "batchSeed";
+
+	private final String TAG_TIME_BUDGET = "timeBudget";
+
 
 	public KMeansAlgorithmSettings(){
 		addTaggedValue(TAG_MAX_NUMBER_CLUSTERS, "MAX_VALUE", "int");
 		addTaggedValue(TAG_EPS, "0.1", "double");
+		addTaggedValue(TAG_FUSED_DISTANCE, "true", "boolean");
+		addTaggedValue(TAG_INITIALIZATION, Initialization.vectors.name(), "string");
+		addTaggedValue(TAG_OVERSAMPLING_FACTOR, "2", "double");
+		addTaggedValue(TAG_INITIALIZATION_ROUNDS, "5", "int");
+		addTaggedValue(TAG_INITIALIZATION_SEED, "10", "long");
+		addTaggedValue(TAG_BOUNDS, Bounds.auto.name(), "string");
+		addTaggedValue(TAG_BATCH_SIZE, "1024", "int");
+		addTaggedValue(TAG_BATCH_SEED, "10", "long");
+		addTaggedValue(TAG_TIME_BUDGET, "MAX_VALUE", "long");
 	}
 	
 	public double getEps() {
@@ -43,4 +109,105 @@ public class KMeansAlgorithmSettings extends ClusteringAlgorithmSettings {
 		else
 			return Integer.parseInt(v);
 	}
+
+	/**
+	 * @param fusedDistance - find the nearest cluster of a vector by one step over the matrix of centers
+	 *                      instead of the loops by clusters and attributes
+	 */
+	public void setFusedDistance(boolean fusedDistance) {
+		setTaggedValue(TAG_FUSED_DISTANCE, String.valueOf(fusedDistance));
+	}
+
+	public boolean isFusedDistance() {
+		String v = getTaggedValue(TAG_FUSED_DISTANCE);
+		return v == null || Boolean.parseBoolean(v);
+	}
+
+	public void setInitialization(Initialization initialization) {
+		setTaggedValue(TAG_INITIALIZATION, initialization.name());
+	}
+
+	public Initialization getInitialization() {
+		String v = getTaggedValue(TAG_INITIALIZATION);
+		return v == null ? Initialization.vectors : Initialization.valueOf(v);
+	}
+
+	/**
+	 * @param factor - expected number of candidates sampled by one pass of k-means||
+	 *               as a multiple of the number of clusters
+	 */
+	public void setOversamplingFactor(double factor) {
+		setTaggedValue(TAG_OVERSAMPLING_FACTOR, String.valueOf(factor));
+	}
+
+	public double getOversamplingFactor() {
+		String v = getTaggedValue(TAG_OVERSAMPLING_FACTOR);
+		return v == null ? 2 : Double.parseDouble(v);
+	}
+
+	/**
+	 * @param rounds - number of sampling passes of k-means||
+	 */
+	public void setInitializationRounds(int rounds) {
+		setTaggedValue(TAG_INITIALIZATION_ROUNDS, String.valueOf(rounds));
+	}
+
+	public int getInitializationRounds() {
+		String v = getTaggedValue(TAG_INITIALIZATION_ROUNDS);
+		return v == null ? 5 : Integer.parseInt(v);
+	}
+
+	public void setInitializationSeed(long seed) {
+		setTaggedValue(TAG_INITIALIZATION_SEED, String.valueOf(seed));
+	}
+
+	public long getInitializationSeed() {
+		String v = getTaggedValue(TAG_INITIALIZATION_SEED);
+		return v == null ? 10 : Long.parseLong(v);
+	}
+
+	public void setBounds(Bounds bounds) {
+		setTaggedValue(TAG_BOUNDS, bounds.name());
+	}
+
+	public Bounds getBounds() {
+		String v = getTaggedValue(TAG_BOUNDS);
+		return v == null ? Bounds.auto : Bounds.valueOf(v);
+	}
+
+	/**
+	 * @param batchSize - number of vectors sampled for one iteration of {@link MiniBatchKMeansAlgorithm}
+	 */
+	public void setBatchSize(int batchSize) {
+		setTaggedValue(TAG_BATCH_SIZE, String.valueOf(batchSize));
+	}
+
+	public int getBatchSize() {
+		String v = getTaggedValue(TAG_BATCH_SIZE);
+		return v == null ? 1024 : Integer.parseInt(v);
+	}
+
+	public void setBatchSeed(long seed) {
+		setTaggedValue(TAG_BATCH_SEED, String.valueOf(seed));
+	}
+
+	public long getBatchSeed() {
+		String v = getTaggedValue(TAG_BATCH_SEED);
+		return v == null ? 10 : Long.parseLong(v);
+	}
+
+	/**
+	 * @param timeBudget - time of iterations of {@link MiniBatchKMeansAlgorithm} (ms)
+	 */
+	public void setTimeBudget(long timeBudget) {
+		setTaggedValue(TAG_TIME_BUDGET, String.valueOf(timeBudget));
+	}
+
+	public long getTimeBudget() {
+		String v = getTaggedValue(TAG_TIME_BUDGET);
+		if ((v == null) || (v.equals("MAX_VALUE")))
+			return Long.MAX_VALUE;
+		else
+			return Long.parseLong(v);
+	}
 }
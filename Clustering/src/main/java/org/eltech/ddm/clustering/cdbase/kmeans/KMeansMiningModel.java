@@ -1,45 +1,639 @@
 package org.eltech.ddm.clustering.cdbase.kmeans;
 
+import org.eltech.ddm.clustering.ClusteringFunctionSettings;
 import org.eltech.ddm.clustering.cdbase.CDBasedClusteringMiningModel;
+import org.eltech.ddm.clustering.cdbase.Coordinate;
+import org.eltech.ddm.miningcore.MiningErrorCode;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
 import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshot;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * K-Means model. Besides the clusters it keeps assignment of every vector to the cluster
+ * and distance of the vector to the center of the cluster in arrays indexed by vector.
+ * Copy-on-write copy of the model (see {@link #deltaClone()}) reads the arrays of this model
+ * and copies a range of vectors changed by the copy only. <p>
+ *
+ * Distances of the current vector to all clusters are accumulated in the buffer of the
+ * model copy, so every thread has own buffer. If distances of several vectors are
+ * accumulated at the same time (e.g. by attributes in vertical distribution),
+ * the buffer is replaced by the table of distances of all vectors to all clusters. <p>
+ *
+ * If bounds are kept (see {@link #setBounds(KMeansAlgorithmSettings.Bounds)}), the model keeps an upper bound
+ * of distance of every vector to its cluster and lower bounds of distances to other clusters,
+ * drifts of centers and distances between centers, so distances proved not changing
+ * the cluster of a vector are not computed. <p>
+ *
+ * While centers are initialized by k-means|| the model keeps candidates of centers
+ * (see {@link #setCandidates(KMeansParallelCandidates)}).
+ */
 public class KMeansMiningModel extends CDBasedClusteringMiningModel{
 
-	static final int CLUSTER_VECTOR = 2;
-	static final int[] INDEX_CLUSTER_VECTOR = {CLUSTER_VECTOR};
+	// Blocks of the snapshot of the model
+	private static final String SNAPSHOT_SHAPE = "shape";
+	private static final String SNAPSHOT_CENTERS = "centers";
+	private static final String SNAPSHOT_MASSES = "masses";
+	private static final String SNAPSHOT_VECTOR_COUNTS = "vectorCounts";
+
+	private final int clustersNumber;
+
+	// Index of the cluster of every vector, distance to the center of the cluster and bounds of the distances
+	private KMeansVectors vectors;
+
+	// Distances of the current vector to clusters
+	private transient double[] clusterDistances;
+	private transient boolean[] usedClusterDistances;
+	private transient int usedNumber;
+	private transient int currentVector = -1;
+
+	// Distances of all vectors to all clusters: [vector][cluster]
+	private double[] vectorClusterDistances;
+
+	// Coordinates of centers of clusters: [cluster][attribute]
+	private double[] centroids;
+	private int attributesNumber;
+
+	private KMeansAlgorithmSettings.Bounds bounds;
+
+	// Distance moved by every center when the matrix of centers was copied last time
+	private double[] centroidDrifts;
+
+	// Half of distance from every center to the nearest other center
+	private double[] halfSeparations;
+
+	// Half of distances between centers: [cluster][cluster], for elkan bounds only
+	private double[] centroidDistances;
+
+	// Candidates of centers chosen by k-means|| during initialization of clusters
+	private KMeansParallelCandidates candidates;
+
+	private LongAdder computedDistances = new LongAdder();
+	private LongAdder avoidedDistances = new LongAdder();
 
 	public KMeansMiningModel(EMiningFunctionSettings settings) throws MiningException {
 		super(settings);
-		sets.add(CLUSTER_VECTOR, new VectrosDistribution("Vectors distribution")) ;
+		clustersNumber = ((ClusteringFunctionSettings) settings).getMaxNumberOfClusters();
+	}
+
+	/**
+	 * Allocates assignments of vectors. It must be called before parallel
+	 * processing of vectors, because copies of the model share the arrays.
+	 *
+	 * @param vectorsNumber - number of vectors of the data set
+	 */
+	public void initVectors(int vectorsNumber) throws MiningException {
+		if (vectors != null && vectors.size() == vectorsNumber)
+			return;
+
+		vectors = new KMeansVectors(vectorsNumber);
+		vectorClusterDistances = null;
+		currentVector = -1;
+		initBounds();
+	}
+
+	/**
+	 * Sets kind of bounds of distances kept by the model. It must be called before {@link #initVectors(int)}.
+	 *
+	 * @param bounds - kind of bounds or null if bounds are not kept
+	 */
+	public void setBounds(KMeansAlgorithmSettings.Bounds bounds) throws MiningException {
+		if (bounds == KMeansAlgorithmSettings.Bounds.auto)
+			bounds = clustersNumber >= KMeansAlgorithmSettings.ELKAN_MIN_CLUSTERS_NUMBER
+					? KMeansAlgorithmSettings.Bounds.elkan : KMeansAlgorithmSettings.Bounds.hamerly;
+		this.bounds = bounds;
+		initBounds();
+	}
+
+	/**
+	 * @return kind of bounds kept by the model or null
+	 */
+	public KMeansAlgorithmSettings.Bounds getBounds() {
+		return bounds;
+	}
+
+	private void initBounds() throws MiningException {
+		if (vectors == null)
+			return;
+
+		int lowerBoundsNumber = bounds == null ? 0 : bounds == KMeansAlgorithmSettings.Bounds.elkan ? clustersNumber : 1;
+		if ((long) vectors.size() * lowerBoundsNumber > Integer.MAX_VALUE)
+			throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Too many vectors for lower bounds of distances to clusters");
+		vectors.initBounds(lowerBoundsNumber);
+	}
+
+	public int getVectorsNumber() {
+		return vectors == null ? 0 : vectors.size();
+	}
+
+	/**
+	 * Copies coordinates of centers of clusters to the matrix read by {@link #getCentroids()}.
+	 * Copies of the model share the matrix, so it must be called when the centers are changed
+	 * before parallel processing of vectors.
+	 */
+	public void initCentroids() throws MiningException {
+		int nAttributes = getElement(INDEX_ATTRIBUTE_SET).size();
+		double[] matrix = new double[clustersNumber * nAttributes];
+		for (int c = 0; c < clustersNumber; c++) {
+			for (int a = 0; a < nAttributes; a++)
+				matrix[c * nAttributes + a] = getClusterCenterCoordinate(c, a).getValue();
+		}
+		if (bounds != null)
+			initCentroidDistances(matrix, nAttributes);
+		attributesNumber = nAttributes;
+		centroids = matrix;
+	}
+
+	/**
+	 * Computes drifts of centers from the previous matrix and distances between centers
+	 */
+	private void initCentroidDistances(double[] matrix, int nAttributes) {
+		double[] drifts = new double[clustersNumber];
+		if (centroids != null && attributesNumber == nAttributes) {
+			for (int c = 0; c < clustersNumber; c++)
+				drifts[c] = Math.sqrt(squaredDistance(matrix, c * nAttributes, centroids, c * nAttributes, nAttributes));
+		}
+
+		double[] separations = new double[clustersNumber];
+		Arrays.fill(separations, Double.MAX_VALUE);
+		double[] distances = bounds == KMeansAlgorithmSettings.Bounds.elkan ? new double[clustersNumber * clustersNumber] : null;
+		for (int c1 = 0; c1 < clustersNumber; c1++) {
+			for (int c2 = c1 + 1; c2 < clustersNumber; c2++) {
+				double half = Math.sqrt(squaredDistance(matrix, c1 * nAttributes, matrix, c2 * nAttributes, nAttributes)) / 2;
+				separations[c1] = Math.min(separations[c1], half);
+				separations[c2] = Math.min(separations[c2], half);
+				if (distances != null) {
+					distances[c1 * clustersNumber + c2] = half;
+					distances[c2 * clustersNumber + c1] = half;
+				}
+			}
+		}
+		centroidDrifts = drifts;
+		halfSeparations = separations;
+		centroidDistances = distances;
+	}
+
+	/**
+	 * @return squared euclidean distance between rows of matrices
+	 */
+	public static double squaredDistance(double[] x, int xOffset, double[] y, int yOffset, int nAttributes) {
+		double d = 0;
+		for (int a = 0; a < nAttributes; a++) {
+			double diff = x[xOffset + a] - y[yOffset + a];
+			d += diff * diff;
+		}
+		return d;
+	}
+
+	/**
+	 * @return coordinates of centers of clusters by rows: [cluster][attribute]
+	 */
+	public double[] getCentroids() throws MiningException {
+		if (centroids == null)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Centers of clusters are not copied to the matrix");
+		return centroids;
+	}
+
+	/**
+	 * @return number of columns of the matrix of centers
+	 */
+	public int getCentroidsAttributesNumber() {
+		return attributesNumber;
+	}
+
+	public int getClustersNumber() {
+		return clustersNumber;
+	}
+
+	/**
+	 * Sets candidates of centers chosen by k-means||. Copies of the model share the candidates,
+	 * so they must be set before parallel processing of vectors.
+	 *
+	 * @param candidates - candidates or null when the centers are initialized
+	 */
+	public void setCandidates(KMeansParallelCandidates candidates) {
+		this.candidates = candidates;
+	}
+
+	/**
+	 * @return candidates of centers chosen by k-means||
+	 */
+	public KMeansParallelCandidates getCandidates() throws MiningException {
+		if (candidates == null)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Candidates of centers are not chosen");
+		return candidates;
+	}
+
+	private void checkBounds() throws MiningException {
+		if (vectors == null || !vectors.hasBounds())
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Bounds of distances are not kept by the model");
+		if (centroidDrifts == null)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Centers of clusters are not copied to the matrix");
+	}
+
+	/**
+	 * @return upper bound of distance of the vector to the center of its cluster
+	 */
+	public double getUpperBound(int iVector) throws MiningException {
+		checkVector(iVector);
+		checkBounds();
+		return vectors.getUpperBound(iVector);
+	}
+
+	public void setUpperBound(int iVector, double bound) throws MiningException {
+		checkVector(iVector);
+		checkBounds();
+		vectors.setUpperBound(iVector, bound);
+	}
+
+	/**
+	 * @param i - index of the cluster for elkan bounds, 0 for hamerly bounds
+	 * @return lower bound of distance of the vector to the cluster for elkan bounds or to other clusters for hamerly bounds
+	 */
+	public double getLowerBound(int iVector, int i) throws MiningException {
+		checkVector(iVector);
+		checkBounds();
+		return vectors.getLowerBound(iVector, i);
+	}
+
+	public void setLowerBound(int iVector, int i, double bound) throws MiningException {
+		checkVector(iVector);
+		checkBounds();
+		vectors.setLowerBound(iVector, i, bound);
+	}
+
+	/**
+	 * @return distances moved by centers when the matrix of centers was copied last time
+	 */
+	public double[] getCentroidDrifts() throws MiningException {
+		checkBounds();
+		return centroidDrifts;
+	}
+
+	/**
+	 * @return half of distance from every center to the nearest other center
+	 */
+	public double[] getHalfSeparations() throws MiningException {
+		checkBounds();
+		return halfSeparations;
 	}
 
+	/**
+	 * @return half of distances between centers: [cluster][cluster] (elkan bounds only)
+	 */
+	public double[] getCentroidDistances() throws MiningException {
+		checkBounds();
+		return centroidDistances;
+	}
+
+	/**
+	 * Counts distances between vectors and centers of clusters
+	 *
+	 * @param computed - number of computed distances
+	 * @param avoided - number of distances not computed due to bounds
+	 */
+	public void countDistances(long computed, long avoided) {
+		if (computed != 0)
+			computedDistances.add(computed);
+		if (avoided != 0)
+			avoidedDistances.add(avoided);
+	}
+
+	public long getComputedDistancesNumber() {
+		return computedDistances.sum();
+	}
+
+	public long getAvoidedDistancesNumber() {
+		return avoidedDistances.sum();
+	}
+
+	private void checkVector(int iVector) throws MiningException {
+		if (vectors == null)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Vectors of the model are not initialized");
+		if (iVector < 0 || iVector >= vectors.size())
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Vector " + iVector + " is absent in the model");
+	}
+
+	private void checkCluster(int iCluster) throws MiningException {
+		if (iCluster < 0 || iCluster >= clustersNumber)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Cluster " + iCluster + " is absent in the model");
+	}
+
+	public int getVectorClusterIndex(int iVector) throws MiningException {
+		checkVector(iVector);
+		return vectors.getAssignment(iVector);
+	}
+
+	public void setVectorClusterIndex(int iVector, int iCluster) throws MiningException {
+		checkVector(iVector);
+		checkCluster(iCluster);
+		vectors.setAssignment(iVector, iCluster);
+	}
+
+	public double getDistanceToCenter(int iVector) throws MiningException {
+		checkVector(iVector);
+		return vectors.getDistanceToCenter(iVector);
+	}
+
+	public void setDistanceToCenter(int iVector, double distance) throws MiningException {
+		checkVector(iVector);
+		vectors.setDistanceToCenter(iVector, distance);
+	}
+
+	/**
+	 * Adds to distance between the vector and the cluster
+	 */
+	public void addVectorClusterDistance(int iVector, int iCluster, double distance) throws MiningException {
+		checkVector(iVector);
+		checkCluster(iCluster);
+		if (vectorClusterDistances == null && !moveBuffer(iVector))
+			spillBuffer();
+
+		if (vectorClusterDistances != null) {
+			vectorClusterDistances[iVector * clustersNumber + iCluster] += distance;
+		} else {
+			use(iCluster);
+			clusterDistances[iCluster] += distance;
+		}
+	}
+
+	public double getVectorClusterDistance(int iVector, int iCluster) throws MiningException {
+		checkVector(iVector);
+		checkCluster(iCluster);
+		if (vectorClusterDistances != null)
+			return vectorClusterDistances[iVector * clustersNumber + iCluster];
+		return iVector == currentVector ? clusterDistances[iCluster] : 0;
+	}
+
+	/**
+	 * Sets distance between the vector and the cluster. Zero distance releases the distance in the buffer.
+	 */
+	public void setVectorClusterDistance(int iVector, int iCluster, double distance) throws MiningException {
+		checkVector(iVector);
+		checkCluster(iCluster);
+		if (vectorClusterDistances != null) {
+			vectorClusterDistances[iVector * clustersNumber + iCluster] = distance;
+			return;
+		}
+		if (!moveBuffer(iVector)) {
+			if (distance == 0)
+				return; // distances of other vectors are zero already
+			spillBuffer();
+			vectorClusterDistances[iVector * clustersNumber + iCluster] = distance;
+			return;
+		}
+
+		clusterDistances[iCluster] = distance;
+		if (distance != 0) {
+			use(iCluster);
+		} else if (usedClusterDistances[iCluster]) {
+			usedClusterDistances[iCluster] = false;
+			usedNumber--;
+		}
+	}
 
+	/**
+	 * Moves the buffer to the vector if distances of the previous vector are released
+	 *
+	 * @return false if the buffer is used by other vector
+	 */
+	private boolean moveBuffer(int iVector) {
+		if (clusterDistances == null) {
+			clusterDistances = new double[clustersNumber];
+			usedClusterDistances = new boolean[clustersNumber];
+		}
+		if (iVector == currentVector)
+			return true;
+		if (usedNumber > 0)
+			return false;
 
+		Arrays.fill(clusterDistances, 0);
+		currentVector = iVector;
+		return true;
+	}
+
+	private void use(int iCluster) {
+		if (!usedClusterDistances[iCluster]) {
+			usedClusterDistances[iCluster] = true;
+			usedNumber++;
+		}
+	}
+
+	/**
+	 * Replaces the buffer by the table of distances of all vectors
+	 */
+	private void spillBuffer() throws MiningException {
+		long size = (long) vectors.size() * clustersNumber;
+		if (size > Integer.MAX_VALUE)
+			throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Too many vectors for the table of distances to clusters");
+
+		vectorClusterDistances = new double[(int) size];
+		if (currentVector >= 0)
+			System.arraycopy(clusterDistances, 0, vectorClusterDistances, currentVector * clustersNumber, clustersNumber);
+		releaseBuffer();
+	}
+
+	private void releaseBuffer() {
+		clusterDistances = null;
+		usedClusterDistances = null;
+		usedNumber = 0;
+		currentVector = -1;
+	}
+
+	/**
+	 * Snapshot keeps coordinates and masses of centers by rows [cluster][attribute] and numbers of vectors of clusters.
+	 * Assignments of vectors and bounds of distances are state of the build, they are not kept.
+	 */
 	@Override
-	public Object clone() {
+	public void writeSnapshot(ModelSnapshot snapshot) throws MiningException {
+		int nAttributes = getElement(INDEX_ATTRIBUTE_SET).size();
+		double[] centers = new double[clustersNumber * nAttributes];
+		double[] masses = new double[clustersNumber * nAttributes];
+		long[] vectorCounts = new long[clustersNumber];
+		for (int c = 0; c < clustersNumber; c++) {
+			for (int a = 0; a < nAttributes; a++) {
+				Coordinate coordinate = getClusterCenterCoordinate(c, a);
+				centers[c * nAttributes + a] = coordinate.getValue();
+				masses[c * nAttributes + a] = coordinate.getMass();
+			}
+			vectorCounts[c] = getCluster(c).getVectorCount();
+		}
+		snapshot.putInts(SNAPSHOT_SHAPE, new int[]{clustersNumber, nAttributes});
+		snapshot.putDoubles(SNAPSHOT_CENTERS, centers);
+		snapshot.putDoubles(SNAPSHOT_MASSES, masses);
+		snapshot.putLongs(SNAPSHOT_VECTOR_COUNTS, vectorCounts);
+	}
+
+	@Override
+	public void readSnapshot(ModelSnapshot snapshot) throws MiningException {
+		int nAttributes = getElement(INDEX_ATTRIBUTE_SET).size();
+		int[] shape = snapshot.getInts(SNAPSHOT_SHAPE);
+		if (shape[0] != clustersNumber || shape[1] != nAttributes)
+			throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Snapshot has " + shape[0] + " clusters of "
+					+ shape[1] + " attributes instead of " + clustersNumber + " clusters of " + nAttributes + " attributes");
+
+		initModel();
+		double[] centers = snapshot.getDoubles(SNAPSHOT_CENTERS);
+		double[] masses = snapshot.getDoubles(SNAPSHOT_MASSES);
+		long[] vectorCounts = snapshot.getLongs(SNAPSHOT_VECTOR_COUNTS);
+		for (int c = 0; c < clustersNumber; c++) {
+			for (int a = 0; a < nAttributes; a++) {
+				Coordinate coordinate = getClusterCenterCoordinate(c, a);
+				coordinate.setValue(centers[c * nAttributes + a]);
+				coordinate.setMass(masses[c * nAttributes + a]);
+			}
+			getCluster(c).setVectorCount((int) vectorCounts[c]);
+		}
+		initCentroids();
+	}
+
+	/**
+	 * Shared copy has own buffer of distances.
+	 * Shared copies of copy-on-write copy have own ranges of vectors too, they are joined by {@link #joinShared(List)}.
+	 */
+	@Override
+	public EMiningModel share() {
+		KMeansMiningModel o = (KMeansMiningModel) super.share();
+		o.releaseBuffer();
+		if (vectors != null && vectors.isFork())
+			o.vectors = vectors.fork();
+		return o;
+	}
+
+	@Override
+	protected EMiningModel copy(boolean delta) {
 		KMeansMiningModel o = null;
-		o = (KMeansMiningModel)super.clone();
+		o = (KMeansMiningModel)super.copy(delta);
 
+		if (vectors != null)
+			o.vectors = delta ? vectors.fork() : vectors.copy();
+		if (candidates != null)
+			o.candidates = candidates.copy();
+		o.computedDistances = new LongAdder();
+		o.computedDistances.add(computedDistances.sum());
+		o.avoidedDistances = new LongAdder();
+		o.avoidedDistances.add(avoidedDistances.sum());
+		if (vectorClusterDistances != null) {
+			o.vectorClusterDistances = vectorClusterDistances.clone();
+		} else if (currentVector >= 0 && usedNumber > 0) {
+			o.clusterDistances = clusterDistances.clone();
+			o.usedClusterDistances = usedClusterDistances.clone();
+			o.usedNumber = usedNumber;
+			o.currentVector = currentVector;
+		}
 		return o;
 	}
 
-    public VectorAssignment getVectorAssigment(int iCurrentVector) throws MiningException {
-		return (VectorAssignment)getElement( EMiningModel.index(KMeansMiningModel.CLUSTER_VECTOR, iCurrentVector));
+	/**
+	 * {@inheritDoc}
+	 * Distances kept by the copies and not released are added to the table of this model.
+	 */
+	@Override
+	public void joinShared(List<EMiningModel> models) throws MiningException {
+		super.joinShared(models);
+		joinVectors(models);
+
+		for (EMiningModel model : models) {
+			KMeansMiningModel m = (KMeansMiningModel) model;
+			if (m == this || m.vectorClusterDistances == vectorClusterDistances)
+				continue;
+			if (m.vectorClusterDistances == null && m.usedNumber == 0)
+				continue;
+
+			if (vectorClusterDistances == null)
+				spillBuffer();
+			if (m.vectorClusterDistances != null) { // the table of the copy is filled by the copy only
+				for (int i = 0; i < vectorClusterDistances.length; i++)
+					vectorClusterDistances[i] += m.vectorClusterDistances[i];
+			} else {
+				for (int c = 0; c < clustersNumber; c++)
+					vectorClusterDistances[m.currentVector * clustersNumber + c] += m.clusterDistances[c];
+			}
+		}
+
+		if (vectorClusterDistances != null) {
+			for (EMiningModel model : models) {
+				KMeansMiningModel m = (KMeansMiningModel) model;
+				if (m == this)
+					continue;
+				m.vectorClusterDistances = vectorClusterDistances;
+				m.releaseBuffer();
+			}
+		}
 	}
 
-	public void addVectorAssigment(VectorAssignment vec) throws MiningException {
-		addElement( index(CLUSTER_VECTOR), vec);
+	/**
+	 * Joins states of vectors of the copies into the state of this model, then the copies share it
+	 */
+	private void joinVectors(List<EMiningModel> models) {
+		if (vectors == null)
+			return;
+
+		List<KMeansVectors> copies = new ArrayList<>();
+		for (EMiningModel model : models) {
+			KMeansMiningModel m = (KMeansMiningModel) model;
+			if (m.vectors != null && m.vectors != vectors)
+				copies.add(m.vectors);
+		}
+		if (copies.isEmpty())
+			return;
+
+		vectors.join(copies);
+		for (EMiningModel model : models)
+			((KMeansMiningModel) model).vectors = vectors;
 	}
 
-	public VectorCluster getVectorsCluster(int iCurrentVector, int iCurrentCluster) throws MiningException {
-		return (VectorCluster)getElement(index(CLUSTER_VECTOR, iCurrentVector, iCurrentCluster));
+	/**
+	 * {@inheritDoc}
+	 * Vector changed by the models is assigned to the closest cluster found by the models changed it,
+	 * bounds of the vector are taken from the same model, so only ranges of vectors copied by the models are visited.
+	 * Distances between vectors and clusters and counters of distances are summed as differences of the models from this model.
+	 * Distances of vectors to candidates of centers are taken from the model with the nearest candidate.
+	 */
+	@Override
+	public void join(List<EMiningModel> models) throws MiningException {
+		super.join(models);
+		joinCounters(models);
+		if (candidates != null) {
+			for (EMiningModel model : models) {
+				KMeansMiningModel m = (KMeansMiningModel) model;
+				if (m.candidates != null)
+					candidates.join(m.candidates);
+			}
+		}
+		joinVectors(models);
 
+		double[] base = null;
+		for (EMiningModel model : models) {
+			KMeansMiningModel m = (KMeansMiningModel) model;
+			if (m == this || m.vectorClusterDistances == null || m.vectorClusterDistances == vectorClusterDistances)
+				continue;
+			if (base == null) {
+				if (vectorClusterDistances == null)
+					spillBuffer();
+				base = vectorClusterDistances.clone();
+			}
+			for (int i = 0; i < base.length; i++) {
+				double delta = m.vectorClusterDistances[i] - base[i];
+				if (delta != 0)
+					vectorClusterDistances[i] += delta;
+			}
+		}
 	}
 
-	public void addVectorsCluster(int iCurrentVector, VectorCluster vc) throws MiningException {
-		addElement( index(CLUSTER_VECTOR, iCurrentVector), vc);
+	private void joinCounters(List<EMiningModel> models) {
+		long computed = computedDistances.sum();
+		long avoided = avoidedDistances.sum();
+		for (EMiningModel model : models) {
+			KMeansMiningModel m = (KMeansMiningModel) model;
+			if (m == this || m.computedDistances == computedDistances)
+				continue; // the same or shared model
+			countDistances(m.computedDistances.sum() - computed, m.avoidedDistances.sum() - avoided);
+		}
 	}
-}
\ No newline at end of file
+}
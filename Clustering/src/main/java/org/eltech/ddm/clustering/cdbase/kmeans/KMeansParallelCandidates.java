@@ -0,0 +1,152 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.inputdata.MiningVector;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Candidates of centers of clusters chosen by k-means|| and squared distance of every vector
+ * to the nearest candidate. Candidates added after the last update of distances are new,
+ * distances of vectors to them are not computed yet. <p>
+ *
+ * Shared copies of the model update distances of different vectors, so they share the arrays.
+ * Random choices of the initialization are made by one generator, copies of the candidates share it.
+ */
+public class KMeansParallelCandidates {
+
+	private final int attributesNumber;
+
+	// Coordinates of candidates by rows: [candidate][attribute]
+	private double[] points;
+	private int number;
+
+	// Index of the first new candidate
+	private int newStart;
+
+	// Squared distance of every vector to the nearest candidate and index of the candidate
+	private double[] distances;
+	private int[] nearest;
+
+	// Number of finished sampling rounds
+	private int round;
+
+	private final Random random;
+
+	public KMeansParallelCandidates(int vectorsNumber, int attributesNumber, long seed) {
+		this.attributesNumber = attributesNumber;
+		random = new Random(seed);
+		points = new double[16 * attributesNumber];
+		distances = new double[vectorsNumber];
+		Arrays.fill(distances, Double.MAX_VALUE);
+		nearest = new int[vectorsNumber];
+	}
+
+	private KMeansParallelCandidates(KMeansParallelCandidates other) {
+		attributesNumber = other.attributesNumber;
+		points = other.points.clone();
+		number = other.number;
+		newStart = other.newStart;
+		distances = other.distances.clone();
+		nearest = other.nearest.clone();
+		round = other.round;
+		random = other.random;
+	}
+
+	public int getAttributesNumber() {
+		return attributesNumber;
+	}
+
+	/**
+	 * Adds the vector as new candidate
+	 */
+	public void add(MiningVector mv) {
+		if ((number + 1) * attributesNumber > points.length)
+			points = Arrays.copyOf(points, points.length * 2);
+		for (int a = 0; a < attributesNumber; a++)
+			points[number * attributesNumber + a] = mv.getValue(a);
+		number++;
+	}
+
+	/**
+	 * Marks all candidates as old, candidates added after that are new
+	 */
+	public void startNew() {
+		newStart = number;
+	}
+
+	/**
+	 * @return coordinates of candidates by rows: [candidate][attribute]
+	 */
+	public double[] getPoints() {
+		return points;
+	}
+
+	public int size() {
+		return number;
+	}
+
+	public int getNewStart() {
+		return newStart;
+	}
+
+	/**
+	 * @return squared distance of every vector to the nearest candidate
+	 */
+	public double[] getDistances() {
+		return distances;
+	}
+
+	/**
+	 * @return index of the nearest candidate of every vector
+	 */
+	public int[] getNearest() {
+		return nearest;
+	}
+
+	/**
+	 * @return sum of squared distances of all vectors to the nearest candidates
+	 */
+	public double getCost() {
+		double cost = 0;
+		for (double d : distances)
+			cost += d;
+		return cost;
+	}
+
+	public int getRound() {
+		return round;
+	}
+
+	public void nextRound() {
+		round++;
+	}
+
+	/**
+	 * @return generator of random choices of the initialization
+	 */
+	public Random getRandom() {
+		return random;
+	}
+
+	/**
+	 * Takes distance and the nearest candidate of every vector from the copy if the copy's candidate is nearer
+	 */
+	public void join(KMeansParallelCandidates copy) {
+		if (copy == this || copy.distances == distances)
+			return;
+		for (int i = 0; i < distances.length; i++) {
+			if (copy.distances[i] < distances[i]) {
+				distances[i] = copy.distances[i];
+				nearest[i] = copy.nearest[i];
+			}
+		}
+	}
+
+	/**
+	 * @return copy of the candidates with own arrays
+	 */
+	public KMeansParallelCandidates copy() {
+		return new KMeansParallelCandidates(this);
+	}
+}
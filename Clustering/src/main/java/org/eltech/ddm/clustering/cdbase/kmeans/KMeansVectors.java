@@ -0,0 +1,262 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * State of vectors of {@link KMeansMiningModel} indexed by vector: index of the cluster of the vector,
+ * distance to the center of the cluster, upper bound of the distance and lower bounds of distances to other clusters. <p>
+ *
+ * Copy of the state for parallel branch (see {@link #fork()}) reads values of the base and keeps own values
+ * of a range of vectors only. The range grows to every vector changed by the copy and changed vectors are marked,
+ * so a branch processing a part of vectors copies and joins this part only.
+ * The base must not be changed while the copy is used.
+ */
+class KMeansVectors {
+
+	// Initial size of the range of a copy
+	private static final int MIN_RANGE = 64;
+
+	// State read for vectors out of the range, null if the range has all vectors
+	private KMeansVectors base;
+
+	private final int vectorsNumber;
+
+	// Number of lower bounds of a vector, 0 if bounds are not kept
+	private int lowerBoundsNumber;
+
+	// Range [from, to) of vectors kept by the arrays
+	private int from;
+	private int to;
+
+	private int[] assignment;
+	private double[] distanceToCenter;
+	private double[] upperBounds;
+	private double[] lowerBounds;
+
+	// Vectors of the range changed by the copy, by offset from the start of the range; null if all vectors are changed
+	private BitSet changed;
+
+	/**
+	 * State of all vectors without bounds: vectors have no clusters, distances are maximal
+	 */
+	KMeansVectors(int vectorsNumber) {
+		this.vectorsNumber = vectorsNumber;
+		to = vectorsNumber;
+		assignment = new int[vectorsNumber];
+		distanceToCenter = new double[vectorsNumber];
+		Arrays.fill(distanceToCenter, Double.MAX_VALUE);
+	}
+
+	private KMeansVectors(KMeansVectors base) {
+		this.base = base;
+		vectorsNumber = base.vectorsNumber;
+		lowerBoundsNumber = base.lowerBoundsNumber;
+		assignment = new int[0];
+		distanceToCenter = new double[0];
+		if (lowerBoundsNumber > 0) {
+			upperBounds = new double[0];
+			lowerBounds = new double[0];
+		}
+		changed = new BitSet();
+	}
+
+	/**
+	 * Allocates bounds of all vectors, it's called for the state of all vectors only
+	 *
+	 * @param lowerBoundsNumber - number of lower bounds of a vector or 0 if bounds are not kept
+	 */
+	void initBounds(int lowerBoundsNumber) {
+		this.lowerBoundsNumber = lowerBoundsNumber;
+		upperBounds = null;
+		lowerBounds = null;
+		if (lowerBoundsNumber == 0)
+			return;
+
+		upperBounds = new double[vectorsNumber];
+		Arrays.fill(upperBounds, Double.POSITIVE_INFINITY); // distances of all vectors are computed first time
+		lowerBounds = new double[vectorsNumber * lowerBoundsNumber];
+	}
+
+	/**
+	 * @return copy-on-write copy of the state, O(1)
+	 */
+	KMeansVectors fork() {
+		return new KMeansVectors(this);
+	}
+
+	/**
+	 * @return independent copy of the state of all vectors, all vectors are changed by the copy
+	 */
+	KMeansVectors copy() {
+		KMeansVectors o = new KMeansVectors(this);
+		o.resize(0, vectorsNumber);
+		o.base = null;
+		o.changed = null;
+		return o;
+	}
+
+	/**
+	 * @return true if it's a copy made by {@link #fork()}
+	 */
+	boolean isFork() {
+		return changed != null;
+	}
+
+	int size() {
+		return vectorsNumber;
+	}
+
+	boolean hasBounds() {
+		return lowerBoundsNumber > 0;
+	}
+
+	int getAssignment(int iVector) {
+		return iVector >= from && iVector < to ? assignment[iVector - from] : base.getAssignment(iVector);
+	}
+
+	void setAssignment(int iVector, int iCluster) {
+		int offset = own(iVector); // own() can replace the array
+		assignment[offset] = iCluster;
+	}
+
+	double getDistanceToCenter(int iVector) {
+		return iVector >= from && iVector < to ? distanceToCenter[iVector - from] : base.getDistanceToCenter(iVector);
+	}
+
+	void setDistanceToCenter(int iVector, double distance) {
+		int offset = own(iVector);
+		distanceToCenter[offset] = distance;
+	}
+
+	double getUpperBound(int iVector) {
+		return iVector >= from && iVector < to ? upperBounds[iVector - from] : base.getUpperBound(iVector);
+	}
+
+	void setUpperBound(int iVector, double bound) {
+		int offset = own(iVector);
+		upperBounds[offset] = bound;
+	}
+
+	double getLowerBound(int iVector, int i) {
+		return iVector >= from && iVector < to ? lowerBounds[(iVector - from) * lowerBoundsNumber + i] : base.getLowerBound(iVector, i);
+	}
+
+	void setLowerBound(int iVector, int i, double bound) {
+		int offset = own(iVector);
+		lowerBounds[offset * lowerBoundsNumber + i] = bound;
+	}
+
+	/**
+	 * Takes values of vectors changed by the copies. Vector changed by several copies gets values of the copy
+	 * with the least distance to the center (the first of them on ties), other vectors keep values of this state.
+	 * O(n) = v * m where v - number of vectors in ranges of the copies, m - number of the copies
+	 *
+	 * @param copies - copies of this state or copies of the same base
+	 */
+	void join(List<KMeansVectors> copies) {
+		for (int m = 0; m < copies.size(); m++) {
+			KMeansVectors copy = copies.get(m);
+			if (copy == this)
+				continue;
+			for (int v = copy.nextChanged(copy.from); v >= 0; v = copy.nextChanged(v + 1)) {
+				if (isChangedBefore(copies, m, v) && getDistanceToCenter(v) <= copy.getDistanceToCenter(v))
+					continue;
+				setAssignment(v, copy.getAssignment(v));
+				setDistanceToCenter(v, copy.getDistanceToCenter(v));
+				if (hasBounds() && copy.hasBounds()) {
+					setUpperBound(v, copy.getUpperBound(v));
+					for (int i = 0; i < lowerBoundsNumber; i++)
+						setLowerBound(v, i, copy.getLowerBound(v, i));
+				}
+			}
+		}
+	}
+
+	private boolean isChangedBefore(List<KMeansVectors> copies, int m, int iVector) {
+		for (int p = 0; p < m; p++) {
+			KMeansVectors copy = copies.get(p);
+			if (copy != this && copy.isChanged(iVector))
+				return true;
+		}
+		return false;
+	}
+
+	private boolean isChanged(int iVector) {
+		return iVector >= from && iVector < to && (changed == null || changed.get(iVector - from));
+	}
+
+	/**
+	 * @return the first changed vector from the vector or -1
+	 */
+	private int nextChanged(int iVector) {
+		if (changed == null)
+			return iVector < to ? iVector : -1;
+		int offset = changed.nextSetBit(iVector - from);
+		return offset < 0 ? -1 : from + offset;
+	}
+
+	/**
+	 * Marks the vector as changed, the range of the copy grows to the vector at first
+	 *
+	 * @return offset of the vector in the arrays
+	 */
+	private int own(int iVector) {
+		if (iVector < from || iVector >= to) {
+			int size = Math.max(to - from, MIN_RANGE); // the range is doubled, so vectors are copied O(1) times on average
+			if (from == to)
+				resize(iVector, Math.min(vectorsNumber, iVector + size));
+			else if (iVector < from)
+				resize(Math.max(0, Math.min(iVector, from - size)), to);
+			else
+				resize(from, Math.min(vectorsNumber, Math.max(iVector + 1, to + size)));
+		}
+		if (changed != null)
+			changed.set(iVector - from);
+		return iVector - from;
+	}
+
+	/**
+	 * Replaces the range by the range containing it, new vectors of the range are read from the base
+	 */
+	private void resize(int newFrom, int newTo) {
+		int size = newTo - newFrom;
+		int[] newAssignment = new int[size];
+		double[] newDistances = new double[size];
+		double[] newUpperBounds = hasBounds() ? new double[size] : null;
+		double[] newLowerBounds = hasBounds() ? new double[size * lowerBoundsNumber] : null;
+		for (int v = newFrom; v < newTo; v++) {
+			if (v >= from && v < to)
+				continue;
+			newAssignment[v - newFrom] = base.getAssignment(v);
+			newDistances[v - newFrom] = base.getDistanceToCenter(v);
+			if (hasBounds()) {
+				newUpperBounds[v - newFrom] = base.getUpperBound(v);
+				for (int i = 0; i < lowerBoundsNumber; i++)
+					newLowerBounds[(v - newFrom) * lowerBoundsNumber + i] = base.getLowerBound(v, i);
+			}
+		}
+
+		BitSet newChanged = new BitSet();
+		if (from < to) {
+			int offset = from - newFrom;
+			System.arraycopy(assignment, 0, newAssignment, offset, to - from);
+			System.arraycopy(distanceToCenter, 0, newDistances, offset, to - from);
+			if (hasBounds()) {
+				System.arraycopy(upperBounds, 0, newUpperBounds, offset, to - from);
+				System.arraycopy(lowerBounds, 0, newLowerBounds, offset * lowerBoundsNumber, (to - from) * lowerBoundsNumber);
+			}
+			for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1))
+				newChanged.set(i + offset);
+		}
+
+		assignment = newAssignment;
+		distanceToCenter = newDistances;
+		upperBounds = newUpperBounds;
+		lowerBounds = newLowerBounds;
+		changed = newChanged;
+		from = newFrom;
+		to = newTo;
+	}
+}
@@ -0,0 +1,113 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.steps.*;
+import org.eltech.ddm.clustering.cdbase.steps.InitClustersByKMeansParallel;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.*;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Mini-batch K-Means. <p>
+ *
+ * Every iteration samples a mini-batch of vectors (see {@link KMeansAlgorithmSettings#getBatchSize()}),
+ * assigns them to the nearest clusters and moves every center to the mean of its vectors with
+ * learning rate of the center. Iterations are finished when centers are moved less than eps,
+ * after maximal number of iterations or when the time budget is spent. Parallel plans assign vectors
+ * of the mini-batch by parts of the data set. <p>
+ *
+ * {@link #partialFit(EMiningModel, MiningInputStream)} updates a model by a new portion of data,
+ * so the model can be built by data arriving continuously.
+ */
+public class MiniBatchKMeansAlgorithm extends KMeansAlgorithm {
+
+	public MiniBatchKMeansAlgorithm(EMiningFunctionSettings miningSettings) throws MiningException {
+		super(miningSettings);
+	}
+
+	@Override
+	public EMiningModel createModel() throws MiningException {
+		return new MiniBatchKMeansMiningModel(miningSettings);
+	}
+
+	@Override
+	public MiningSequence getSequenceAlgorithm() throws MiningException {
+		MiningSequence blocks = new MiningSequence(miningSettings,
+				createInitClustersBlock(false),
+				new MiniBatchLoop(miningSettings,
+						new SampleMiniBatch(miningSettings),
+						new InitCentroidMatrix(miningSettings),
+						new AssignMiniBatch(miningSettings),
+						new UpdateCentersByMiniBatch(miningSettings))
+		);
+
+		blocks.addListenerExecute(new BlockExecuteTimingListner());
+
+		return blocks;
+	}
+
+	@Override
+	public MiningSequence getCentralizedParallelAlgorithm() throws MiningException {
+		return getHorDistributedAlgorithm();
+	}
+
+	@Override
+	public MiningSequence getHorDistributedAlgorithm() throws MiningException {
+		MiningSequence blocks = new MiningSequence(miningSettings,
+				createInitClustersBlock(true),
+				new MiniBatchLoop(miningSettings,
+						new SampleMiniBatch(miningSettings),
+						new InitCentroidMatrix(miningSettings),
+						new MiningParallel(miningSettings, MemoryType.shared,
+								new MiningLoopVectors(miningSettings,
+										new AssignMiniBatchVectors(miningSettings))),
+						new UpdateCentersByMiniBatch(miningSettings))
+		);
+
+		blocks.addListenerExecute(new BlockExecuteTimingListner());
+
+		return blocks;
+	}
+
+	/**
+	 * Vectors of the mini-batch are assigned by all attributes, so vertical distribution uses the horizontal plan
+	 */
+	@Override
+	public MiningSequence getVerDistributedAlgorithm() throws MiningException {
+		return getHorDistributedAlgorithm();
+	}
+
+	/**
+	 * Updates the model by all vectors of the data set as by one mini-batch.
+	 * Centers of a new model are initialized by k-means|| over the data set.
+	 *
+	 * @param model - model built by the algorithm or null to create new model
+	 * @param data - new portion of vectors
+	 * @return the updated model
+	 */
+	public EMiningModel partialFit(EMiningModel model, MiningInputStream data) throws MiningException {
+		MiniBatchKMeansMiningModel mbModel = model == null ? (MiniBatchKMeansMiningModel) initModel() : (MiniBatchKMeansMiningModel) model;
+		if (data.getVectorsNumber() == 0)
+			return mbModel;
+
+		if (mbModel.getProcessedVectorsNumber() == 0) {
+			MiningPlan.compile(new InitClustersByKMeansParallel(miningSettings)).bind(data).run(mbModel);
+		}
+
+		int[] batch = new int[data.getVectorsNumber()];
+		for (int i = 0; i < batch.length; i++)
+			batch[i] = i;
+		mbModel.setMiniBatch(batch);
+
+		AssignMiniBatch assign = new AssignMiniBatch(miningSettings);
+		assign.setData(data);
+		new MiningSequence(miningSettings,
+				new InitCentroidMatrix(miningSettings),
+				assign,
+				new UpdateCentersByMiniBatch(miningSettings)).run(mbModel);
+		mbModel.setMiniBatch(null);
+
+		return mbModel;
+	}
+}
@@ -0,0 +1,183 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Model of mini-batch K-Means. Besides the clusters it keeps indexes of vectors of the current
+ * mini-batch and number of vectors assigned to every cluster by all mini-batches. <p>
+ *
+ * Vectors of the mini-batch are summed by clusters. Every copy of the model sums vectors
+ * into own arrays, the arrays of copies are added to the model when the parallel branches are joined.
+ */
+public class MiniBatchKMeansMiningModel extends KMeansMiningModel {
+
+	// Ascending indexes of vectors of the current mini-batch
+	private int[] miniBatch;
+
+	// Number of vectors assigned to every cluster by all mini-batches
+	private long[] clusterWeights;
+
+	// Sums of vectors of the mini-batch by clusters: [cluster][attribute]
+	private double[] batchSums;
+
+	// Number of vectors of the mini-batch by clusters
+	private long[] batchCounts;
+
+	public MiniBatchKMeansMiningModel(EMiningFunctionSettings settings) throws MiningException {
+		super(settings);
+		clusterWeights = new long[getClustersNumber()];
+	}
+
+	public void setMiniBatch(int[] vectors) {
+		miniBatch = vectors;
+	}
+
+	/**
+	 * @return ascending indexes of vectors of the current mini-batch
+	 */
+	public int[] getMiniBatch() throws MiningException {
+		if (miniBatch == null)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Mini-batch is not sampled");
+		return miniBatch;
+	}
+
+	/**
+	 * @return number of vectors assigned to the cluster by all mini-batches
+	 */
+	public long getClusterWeight(int iCluster) {
+		return clusterWeights[iCluster];
+	}
+
+	public void addClusterWeight(int iCluster, long delta) {
+		clusterWeights[iCluster] += delta;
+	}
+
+	/**
+	 * @return number of vectors of all mini-batches
+	 */
+	public long getProcessedVectorsNumber() {
+		long n = 0;
+		for (long w : clusterWeights)
+			n += w;
+		return n;
+	}
+
+	/**
+	 * Adds the vector of the mini-batch to the sum of the cluster
+	 *
+	 * @param values - values of attributes of the vector
+	 */
+	public void addBatchVector(int iCluster, double[] values) {
+		int nAttributes = values.length;
+		if (batchCounts == null) {
+			batchCounts = new long[getClustersNumber()];
+			batchSums = new double[getClustersNumber() * nAttributes];
+		}
+		batchCounts[iCluster]++;
+		for (int a = 0, offset = iCluster * nAttributes; a < nAttributes; a++)
+			batchSums[offset + a] += values[a];
+	}
+
+	public long getBatchCount(int iCluster) {
+		return batchCounts == null ? 0 : batchCounts[iCluster];
+	}
+
+	public double getBatchSum(int iCluster, int iAttr) {
+		if (batchCounts == null)
+			return 0;
+		return batchSums[iCluster * (batchSums.length / batchCounts.length) + iAttr];
+	}
+
+	/**
+	 * Clears sums of the mini-batch
+	 */
+	public void resetBatch() {
+		if (batchCounts != null) {
+			Arrays.fill(batchCounts, 0);
+			Arrays.fill(batchSums, 0);
+		}
+	}
+
+	/**
+	 * Shared copy sums vectors into own arrays
+	 */
+	@Override
+	public EMiningModel share() {
+		MiniBatchKMeansMiningModel o = (MiniBatchKMeansMiningModel) super.share();
+		o.batchCounts = null;
+		o.batchSums = null;
+		return o;
+	}
+
+	@Override
+	protected EMiningModel copy(boolean delta) {
+		MiniBatchKMeansMiningModel o = (MiniBatchKMeansMiningModel) super.copy(delta);
+		o.clusterWeights = clusterWeights.clone();
+		if (batchCounts != null) {
+			o.batchCounts = batchCounts.clone();
+			o.batchSums = batchSums.clone();
+		}
+		return o;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Sums of the copies are added to this model. The copies continue with the sums
+	 * of this model, so any of them can replace this model.
+	 */
+	@Override
+	public void joinShared(List<EMiningModel> models) throws MiningException {
+		super.joinShared(models);
+
+		for (EMiningModel model : models) {
+			MiniBatchKMeansMiningModel m = (MiniBatchKMeansMiningModel) model;
+			if (m == this || m.batchCounts == null || m.batchCounts == batchCounts)
+				continue;
+			allocateBatch(m.batchSums.length);
+			for (int c = 0; c < batchCounts.length; c++)
+				batchCounts[c] += m.batchCounts[c];
+			for (int i = 0; i < batchSums.length; i++)
+				batchSums[i] += m.batchSums[i];
+		}
+		for (EMiningModel model : models) {
+			MiniBatchKMeansMiningModel m = (MiniBatchKMeansMiningModel) model;
+			m.batchCounts = batchCounts;
+			m.batchSums = batchSums;
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * Sums of mini-batch are summed as differences of the models from this model.
+	 */
+	@Override
+	public void join(List<EMiningModel> models) throws MiningException {
+		super.join(models);
+
+		long[] baseCounts = batchCounts == null ? null : batchCounts.clone();
+		double[] baseSums = batchSums == null ? null : batchSums.clone();
+		for (EMiningModel model : models) {
+			MiniBatchKMeansMiningModel m = (MiniBatchKMeansMiningModel) model;
+			if (m == this || m.batchCounts == null || m.batchCounts == batchCounts)
+				continue;
+			allocateBatch(m.batchSums.length);
+			for (int c = 0; c < batchCounts.length; c++)
+				batchCounts[c] += m.batchCounts[c] - (baseCounts == null ? 0 : baseCounts[c]);
+			for (int i = 0; i < batchSums.length; i++)
+				batchSums[i] += m.batchSums[i] - (baseSums == null ? 0 : baseSums[i]);
+		}
+	}
+
+	private void allocateBatch(int sumsNumber) {
+		if (batchCounts == null) {
+			batchCounts = new long[getClustersNumber()];
+			batchSums = new double[sumsNumber];
+		}
+	}
+}
@@ -2,8 +2,6 @@ package org.eltech.ddm.clustering.cdbase.kmeans.steps;
 
 import org.eltech.ddm.clustering.ClusteringMiningModel;
 import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
-import org.eltech.ddm.clustering.cdbase.kmeans.VectorAssignment;
-import org.eltech.ddm.clustering.cdbase.kmeans.VectorCluster;
 import org.eltech.ddm.inputdata.MiningInputStream;
 import org.eltech.ddm.inputdata.MiningVector;
 import org.eltech.ddm.miningcore.MiningException;
@@ -31,21 +29,8 @@ public class AccumulateDistanceVectorCluster extends DataMiningBlock {
         double cv = mv.getValue(iAttr);
         double cc = ((ClusteringMiningModel)model).getClusterCenterCoordinate(iCurrentCluster, iAttr).getValue();
 
-        VectorAssignment vec = ((KMeansMiningModel)model).getVectorAssigment(iCurrentVector);
-        if(vec ==null){
-            vec = new VectorAssignment("v" + iCurrentVector);
-            ((KMeansMiningModel)model).addVectorAssigment(vec);
-        }
-
-
-        VectorCluster vc = ((KMeansMiningModel)model).getVectorsCluster(iCurrentVector, iCurrentCluster);
-        if(vc ==null){
-            vc = new VectorCluster("v" +iCurrentVector +":c" + iCurrentCluster);
-            ((KMeansMiningModel)model).addVectorsCluster(iCurrentVector, vc);
-        }
-
-        double v = Math.abs(cv-cc);
-        vc.addDistance(v*v);
+        double d = cv - cc;
+        ((KMeansMiningModel)model).addVectorClusterDistance(iCurrentVector, iCurrentCluster, d*d);
         //System.out.println("Thread-" + Thread.currentThread().getName() + " vc = " + vc);
 
 
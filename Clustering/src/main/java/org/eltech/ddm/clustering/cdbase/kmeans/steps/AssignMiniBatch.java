@@ -0,0 +1,28 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.MiniBatchKMeansMiningModel;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Adds every vector of the mini-batch to the sum of the nearest cluster by one call, out of a loop of vectors
+ * (loops of vectors use {@link AssignMiniBatchVectors})
+ */
+public class AssignMiniBatch extends DataMiningBlock {
+
+    public AssignMiniBatch(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        MiniBatchKMeansMiningModel mbModel = (MiniBatchKMeansMiningModel) model;
+        int[] batch = mbModel.getMiniBatch();
+        AssignMiniBatchVectors.assign(data, mbModel, batch, 0, batch.length);
+
+        return model;
+    }
+}
@@ -0,0 +1,86 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
+import org.eltech.ddm.clustering.cdbase.kmeans.MiniBatchKMeansMiningModel;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+import java.util.Arrays;
+
+/**
+ * Adds vectors of the mini-batch to the sum of the nearest cluster
+ * (centers are read from the matrix of centers, see {@link InitCentroidMatrix}). <p>
+ *
+ * The block is executed by a loop of vectors and handles the current vector (or vectors of the range)
+ * if it is in the mini-batch, so parallel loops over parts of the data set share the mini-batch.
+ * All vectors of the mini-batch are assigned out of a loop by {@link AssignMiniBatch}.
+ */
+public class AssignMiniBatchVectors extends DataMiningBlock {
+
+    public AssignMiniBatchVectors(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        MiniBatchKMeansMiningModel mbModel = (MiniBatchKMeansMiningModel) model;
+        int[] batch = mbModel.getMiniBatch();
+        int iVector = model.getCurrentVectorIndex();
+        assign(data, mbModel, batch, position(batch, iVector), position(batch, iVector + 1));
+
+        return model;
+    }
+
+    @Override
+    protected EMiningModel executeRange(MiningInputStream data, EMiningModel model, int fromVector, int toVector) throws MiningException {
+        MiniBatchKMeansMiningModel mbModel = (MiniBatchKMeansMiningModel) model;
+        int[] batch = mbModel.getMiniBatch();
+        assign(data, mbModel, batch, position(batch, fromVector), position(batch, toVector));
+
+        return model;
+    }
+
+    @Override
+    public boolean isRangeSupported() {
+        return true;
+    }
+
+    /**
+     * @return position of the first vector of the mini-batch which is not less than given one
+     */
+    private static int position(int[] batch, int iVector) {
+        int i = Arrays.binarySearch(batch, iVector);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    /**
+     * Adds vectors of the mini-batch from positions [from, to) to the sums of the nearest clusters
+     */
+    static void assign(MiningInputStream data, MiniBatchKMeansMiningModel model, int[] batch, int from, int to) throws MiningException {
+        double[] centroids = model.getCentroids();
+        int nAttributes = model.getCentroidsAttributesNumber();
+        int nClusters = model.getClustersNumber();
+        double[] values = new double[nAttributes];
+
+        for (int i = from; i < to; i++) {
+            MiningVector mv = data.getVector(batch[i]);
+            for (int a = 0; a < nAttributes; a++)
+                values[a] = mv.getValue(a);
+
+            int iNearest = 0;
+            double dNearest = Double.MAX_VALUE;
+            for (int c = 0; c < nClusters; c++) {
+                double d = KMeansMiningModel.squaredDistance(values, 0, centroids, c * nAttributes, nAttributes);
+                if (d < dNearest) {
+                    iNearest = c;
+                    dNearest = d;
+                }
+            }
+            model.addBatchVector(iNearest, values);
+        }
+    }
+}
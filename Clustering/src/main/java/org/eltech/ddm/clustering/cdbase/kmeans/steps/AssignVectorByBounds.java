@@ -0,0 +1,179 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansAlgorithmSettings;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Assigns the current vector to the nearest cluster as {@link AssignVectorToNearestCluster},
+ * but skips distances which can't change the cluster of the vector due to the triangle inequality. <p>
+ *
+ * Bounds kept by the model are moved by drifts of centers at first. Hamerly bounds skip the vector if
+ * the upper bound is less than the lower bound or half of distance from its center to the nearest center.
+ * Elkan bounds skip every cluster separately if the upper bound is less than the lower bound of the cluster
+ * or half of distance between the centers. Skipping is proved by strict inequalities only, so
+ * the vector gets the same cluster as computing of all distances (the first nearest cluster on ties).
+ */
+public class AssignVectorByBounds extends DataMiningBlock {
+
+    // Relative error of bounds computed by float arithmetic
+    private static final double TOLERANCE = 1e-9;
+
+    public AssignVectorByBounds(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        int iVec = model.getCurrentVectorIndex();
+        assign((KMeansMiningModel) model, iVec, data);
+
+        return model;
+    }
+
+    @Override
+    protected EMiningModel executeRange(MiningInputStream data, EMiningModel model, int fromVector, int toVector) throws MiningException {
+        KMeansMiningModel kmModel = (KMeansMiningModel) model;
+        for (int iVec = fromVector; iVec < toVector; iVec++)
+            assign(kmModel, iVec, data);
+
+        return model;
+    }
+
+    @Override
+    public boolean isRangeSupported() {
+        return true;
+    }
+
+    private void assign(KMeansMiningModel model, int iVec, MiningInputStream data) throws MiningException {
+        if (model.getBounds() == KMeansAlgorithmSettings.Bounds.elkan)
+            assignByElkan(model, iVec, data);
+        else
+            assignByHamerly(model, iVec, data);
+    }
+
+    private static boolean proved(double upperBound, double lowerBound) {
+        return upperBound * (1 + TOLERANCE) < lowerBound;
+    }
+
+    private void assignByHamerly(KMeansMiningModel model, int iVec, MiningInputStream data) throws MiningException {
+        double[] drifts = model.getCentroidDrifts();
+        int nClusters = model.getClustersNumber();
+        int iCluster = model.getVectorClusterIndex(iVec);
+
+        double maxDrift = 0;
+        for (int c = 0; c < nClusters; c++) {
+            if (c != iCluster)
+                maxDrift = Math.max(maxDrift, drifts[c]);
+        }
+        double upper = model.getUpperBound(iVec) + drifts[iCluster];
+        double lower = Math.max(0, model.getLowerBound(iVec, 0) - maxDrift);
+        model.setLowerBound(iVec, 0, lower);
+
+        double bound = Math.max(model.getHalfSeparations()[iCluster], lower);
+        if (proved(upper, bound)) {
+            keep(model, iVec, upper, 0, nClusters);
+            return;
+        }
+
+        double[] centroids = model.getCentroids();
+        int nAttributes = model.getCentroidsAttributesNumber();
+        double[] values = values(data.getVector(iVec), nAttributes);
+        double dOwn = KMeansMiningModel.squaredDistance(values, 0, centroids, iCluster * nAttributes, nAttributes);
+        upper = Math.sqrt(dOwn);
+        if (proved(upper, bound)) {
+            keep(model, iVec, upper, 1, nClusters - 1);
+            return;
+        }
+
+        // distances to all clusters in the order of AssignVectorToNearestCluster
+        int iNearest = iCluster;
+        double dNearest = Double.MAX_VALUE;
+        double dSecond = Double.MAX_VALUE;
+        for (int c = 0; c < nClusters; c++) {
+            double d = c == iCluster ? dOwn : KMeansMiningModel.squaredDistance(values, 0, centroids, c * nAttributes, nAttributes);
+            if (d < dNearest) {
+                dSecond = dNearest;
+                iNearest = c;
+                dNearest = d;
+            } else if (d < dSecond) {
+                dSecond = d;
+            }
+        }
+        model.setLowerBound(iVec, 0, Math.sqrt(dSecond));
+        model.setVectorClusterIndex(iVec, iNearest);
+        keep(model, iVec, Math.sqrt(dNearest), nClusters, 0);
+    }
+
+    private void assignByElkan(KMeansMiningModel model, int iVec, MiningInputStream data) throws MiningException {
+        double[] drifts = model.getCentroidDrifts();
+        double[] halfDistances = model.getCentroidDistances();
+        int nClusters = model.getClustersNumber();
+        int iCluster = model.getVectorClusterIndex(iVec);
+
+        double upper = model.getUpperBound(iVec) + drifts[iCluster];
+        for (int c = 0; c < nClusters; c++)
+            model.setLowerBound(iVec, c, Math.max(0, model.getLowerBound(iVec, c) - drifts[c]));
+
+        if (proved(upper, model.getHalfSeparations()[iCluster])) {
+            keep(model, iVec, upper, 0, nClusters);
+            return;
+        }
+
+        double[] centroids = model.getCentroids();
+        int nAttributes = model.getCentroidsAttributesNumber();
+        double[] values = null;
+        boolean tight = false;
+        double dNearest = 0; // squared distance to the nearest cluster, if the upper bound is tight
+        int iNearest = iCluster;
+        int computed = 0;
+        for (int c = 0; c < nClusters; c++) {
+            if (c == iNearest || proved(upper, model.getLowerBound(iVec, c))
+                    || proved(upper, halfDistances[iNearest * nClusters + c]))
+                continue;
+
+            if (!tight) {
+                values = values(data.getVector(iVec), nAttributes);
+                dNearest = KMeansMiningModel.squaredDistance(values, 0, centroids, iNearest * nAttributes, nAttributes);
+                upper = Math.sqrt(dNearest);
+                model.setLowerBound(iVec, iNearest, upper);
+                computed++;
+                tight = true;
+                if (proved(upper, model.getLowerBound(iVec, c)) || proved(upper, halfDistances[iNearest * nClusters + c]))
+                    continue;
+            }
+
+            double d = KMeansMiningModel.squaredDistance(values, 0, centroids, c * nAttributes, nAttributes);
+            model.setLowerBound(iVec, c, Math.sqrt(d));
+            computed++;
+            if (d < dNearest || (d == dNearest && c < iNearest)) { // skipped clusters are farther strictly
+                iNearest = c;
+                dNearest = d;
+                upper = model.getLowerBound(iVec, c);
+            }
+        }
+        model.setVectorClusterIndex(iVec, iNearest);
+        keep(model, iVec, upper, computed, nClusters - computed);
+    }
+
+    /**
+     * Keeps the upper bound as distance of the vector to the center of its cluster
+     */
+    private static void keep(KMeansMiningModel model, int iVec, double upper, long computed, long avoided) throws MiningException {
+        model.countDistances(computed, avoided);
+        model.setUpperBound(iVec, upper);
+        model.setDistanceToCenter(iVec, upper);
+    }
+
+    private static double[] values(MiningVector mv, int nAttributes) {
+        double[] values = new double[nAttributes];
+        for (int a = 0; a < nAttributes; a++)
+            values[a] = mv.getValue(a);
+        return values;
+    }
+}
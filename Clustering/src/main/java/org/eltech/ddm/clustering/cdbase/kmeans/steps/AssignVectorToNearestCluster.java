@@ -0,0 +1,74 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Assigns the current vector to the nearest cluster. <p>
+ *
+ * It replaces the loop of {@link AccumulateDistanceVectorCluster}, {@link DistanceVectorCluster}
+ * and {@link ClosestClusterForVector} by clusters and attributes: the vector is read once,
+ * squared distances to all clusters are computed by one pass over the matrix of centers
+ * (see {@link InitCentroidMatrix}), and only the distance to the nearest cluster is kept.
+ */
+public class AssignVectorToNearestCluster extends DataMiningBlock {
+
+    public AssignVectorToNearestCluster(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        int iVec = model.getCurrentVectorIndex();
+        assign((KMeansMiningModel) model, iVec, data.getVector(iVec));
+
+        return model;
+    }
+
+    @Override
+    protected EMiningModel executeRange(MiningInputStream data, EMiningModel model, int fromVector, int toVector) throws MiningException {
+        KMeansMiningModel kmModel = (KMeansMiningModel) model;
+        for (int iVec = fromVector; iVec < toVector; iVec++)
+            assign(kmModel, iVec, data.getVector(iVec));
+
+        return model;
+    }
+
+    @Override
+    public boolean isRangeSupported() {
+        return true;
+    }
+
+    private void assign(KMeansMiningModel model, int iVec, MiningVector mv) throws MiningException {
+        double[] centroids = model.getCentroids();
+        int nAttributes = model.getCentroidsAttributesNumber();
+        int nClusters = model.getClustersNumber();
+
+        int iNearest = model.getVectorClusterIndex(iVec);
+        double dNearest = model.getDistanceToCenter(iVec);
+        dNearest = dNearest == Double.MAX_VALUE ? Double.MAX_VALUE : dNearest * dNearest;
+        boolean changed = false;
+        for (int c = 0, offset = 0; c < nClusters; c++, offset += nAttributes) {
+            double d = 0;
+            for (int a = 0; a < nAttributes; a++) {
+                double diff = mv.getValue(a) - centroids[offset + a];
+                d += diff * diff;
+            }
+            if (d < dNearest) {
+                iNearest = c;
+                dNearest = d;
+                changed = true;
+            }
+        }
+
+        if (changed) {
+            model.setVectorClusterIndex(iVec, iNearest);
+            model.setDistanceToCenter(iVec, Math.sqrt(dNearest));
+        }
+    }
+}
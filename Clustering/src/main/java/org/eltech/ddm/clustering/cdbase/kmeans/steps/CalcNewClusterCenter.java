@@ -3,7 +3,6 @@ package org.eltech.ddm.clustering.cdbase.kmeans.steps;
 import org.eltech.ddm.clustering.ClusteringMiningModel;
 import org.eltech.ddm.clustering.cdbase.Coordinate;
 import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
-import org.eltech.ddm.clustering.cdbase.kmeans.VectorAssignment;
 import org.eltech.ddm.inputdata.MiningInputStream;
 import org.eltech.ddm.inputdata.MiningVector;
 import org.eltech.ddm.miningcore.MiningException;
@@ -25,8 +24,7 @@ public class CalcNewClusterCenter extends DataMiningBlock {
 		int iAttr = model.getCurrentAttributeIndex();
 		int iVec = model.getCurrentVectorIndex();
 		MiningVector mv = data.getVector(iVec);
-		VectorAssignment v = ((KMeansMiningModel)model).getVectorAssigment(iVec);
-		int iCloseCluster = v.getIndexCluster();
+		int iCloseCluster = ((KMeansMiningModel)model).getVectorClusterIndex(iVec);
 		Coordinate cc = ((ClusteringMiningModel)model).getClusterCenterCoordinate (iCloseCluster, iAttr);
 
 		double val = mv.getValue(iAttr);
@@ -37,4 +35,34 @@ public class CalcNewClusterCenter extends DataMiningBlock {
 		return model;
 	}
 
+	/**
+	 * Sums values of current attribute for the range of vectors by clusters
+	 * and adds the sums to mass of cluster's centers once for the range
+	 */
+	@Override
+	protected EMiningModel executeRange(MiningInputStream data, EMiningModel model, int fromVector, int toVector) throws MiningException {
+		int iAttr = model.getCurrentAttributeIndex();
+		KMeansMiningModel kmModel = (KMeansMiningModel) model;
+		double[] mass = new double[kmModel.getClusterSet().size()];
+		boolean[] used = new boolean[mass.length];
+
+		for (int iVec = fromVector; iVec < toVector; iVec++) {
+			int iCloseCluster = kmModel.getVectorClusterIndex(iVec);
+			mass[iCloseCluster] += data.getVector(iVec).getValue(iAttr);
+			used[iCloseCluster] = true;
+		}
+
+		for (int iCluster = 0; iCluster < mass.length; iCluster++) {
+			if (used[iCluster])
+				kmModel.getClusterCenterCoordinate(iCluster, iAttr).addMass(mass[iCluster]);
+		}
+
+		return model;
+	}
+
+	@Override
+	public boolean isRangeSupported() {
+		return true;
+	}
+
 }
\ No newline at end of file
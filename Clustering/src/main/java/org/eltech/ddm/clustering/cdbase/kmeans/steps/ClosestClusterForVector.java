@@ -4,8 +4,6 @@ import org.eltech.ddm.clustering.ClusteringFunctionSettings;
 import org.eltech.ddm.clustering.Distance;
 import org.eltech.ddm.clustering.cdbase.CDBasedClusteringMiningModel;
 import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
-import org.eltech.ddm.clustering.cdbase.kmeans.VectorAssignment;
-import org.eltech.ddm.clustering.cdbase.kmeans.VectorCluster;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.algorithms.MiningBlock;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
@@ -27,16 +25,15 @@ public class ClosestClusterForVector extends MiningBlock {
 		int iVec = model.getCurrentVectorIndex();
 		int iCluster = model.getCurrentElementIndex(EMiningModel.index(CDBasedClusteringMiningModel.CLUSTERS));
 
-		VectorAssignment v = ((KMeansMiningModel)model).getVectorAssigment(iVec);
-		VectorCluster vc = ((KMeansMiningModel)model).getVectorsCluster(iVec, iCluster);
+		KMeansMiningModel kmModel = (KMeansMiningModel)model;
+		double d = kmModel.getVectorClusterDistance(iVec, iCluster);
 
-		if(v.getDistanceToCenter() > vc.getDistance()){
-			v.setIndexCluster(iCluster);
-			v.setDistanceToCenter(vc.getDistance());
-			//System.out.println("Thread-" + Thread.currentThread().getName() + " vector  " + iVec +" in cluster " + iCluster + " d=" + v.getDistanceToCenter());
+		if(kmModel.getDistanceToCenter(iVec) > d){
+			kmModel.setVectorClusterIndex(iVec, iCluster);
+			kmModel.setDistanceToCenter(iVec, d);
+			//System.out.println("Thread-" + Thread.currentThread().getName() + " vector  " + iVec +" in cluster " + iCluster + " d=" + d);
 		}
-		//System.out.println("Thread-" + Thread.currentThread().getName() + " v=" + v);
-		vc.setDistance(0);
+		kmModel.setVectorClusterDistance(iVec, iCluster, 0);
 
 		return model;
 	}
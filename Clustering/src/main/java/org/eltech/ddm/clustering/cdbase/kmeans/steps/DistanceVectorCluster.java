@@ -2,7 +2,6 @@ package org.eltech.ddm.clustering.cdbase.kmeans.steps;
 
 import org.eltech.ddm.clustering.ClusteringMiningModel;
 import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
-import org.eltech.ddm.clustering.cdbase.kmeans.VectorCluster;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.algorithms.MiningBlock;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
@@ -26,10 +25,9 @@ public class DistanceVectorCluster extends MiningBlock {
     protected EMiningModel execute(EMiningModel model) throws MiningException {
         int iVec = model.getCurrentVectorIndex();
         int iCluster = ((ClusteringMiningModel)model).getCurrentClusterIndex();
-        VectorCluster vc = ((KMeansMiningModel)model).getVectorsCluster(iVec, iCluster);
+        KMeansMiningModel kmModel = (KMeansMiningModel)model;
 
-        //System.out.println("Thread-" + Thread.currentThread().getName() + " vc  " + vc);
-        vc.setDistance(Math.sqrt(vc.getDistance()));
+        kmModel.setVectorClusterDistance(iVec, iCluster, Math.sqrt(kmModel.getVectorClusterDistance(iVec, iCluster)));
 
         return model;
     }
@@ -3,7 +3,6 @@ package org.eltech.ddm.clustering.cdbase.kmeans.steps;
 import org.eltech.ddm.clustering.Cluster;
 import org.eltech.ddm.clustering.ClusteringMiningModel;
 import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
-import org.eltech.ddm.clustering.cdbase.kmeans.VectorAssignment;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.algorithms.MiningBlock;
 import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
@@ -28,13 +27,13 @@ public class IncVectorCountInCluster extends MiningBlock{
     protected EMiningModel execute(EMiningModel model) throws MiningException {
 
         int iVec = model.getCurrentVectorIndex();
-        VectorAssignment v = ((KMeansMiningModel)model).getVectorAssigment(iVec);
-        int iCloseCluster = v.getIndexCluster();
+        KMeansMiningModel kmModel = (KMeansMiningModel)model;
+        int iCloseCluster = kmModel.getVectorClusterIndex(iVec);
 
         Cluster c = ((ClusteringMiningModel)model).getCluster(iCloseCluster);
 
         c.incVectorCount();
-        v.setDistanceToCenter(Double.MAX_VALUE);
+        kmModel.setDistanceToCenter(iVec, Double.MAX_VALUE);
         //System.out.println("Thread-" + Thread.currentThread().getName() + " vector  " + iVec +" in cluster " + iCloseCluster);
 
         return model;
@@ -0,0 +1,24 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Copies centers of clusters to the matrix of centers read by {@link AssignVectorToNearestCluster}
+ */
+public class InitCentroidMatrix extends MiningBlock {
+
+    public InitCentroidMatrix(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+    }
+
+    @Override
+    protected EMiningModel execute(EMiningModel model) throws MiningException {
+        ((KMeansMiningModel) model).initCentroids();
+
+        return model;
+    }
+}
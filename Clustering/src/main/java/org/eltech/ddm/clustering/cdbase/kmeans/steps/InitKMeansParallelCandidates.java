@@ -0,0 +1,39 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansAlgorithmSettings;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansParallelCandidates;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Starts k-means||: allocates candidates of centers for all vectors of the data set
+ * and chooses a random vector as the first candidate
+ */
+public class InitKMeansParallelCandidates extends DataMiningBlock {
+
+    private final long seed;
+
+    public InitKMeansParallelCandidates(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+        seed = ((KMeansAlgorithmSettings) settings.getAlgorithmSettings()).getInitializationSeed();
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        int nVectors = data.getVectorsNumber();
+        if (nVectors <= 0)
+            throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Data set is empty");
+
+        int nAttributes = model.getElement(EMiningModel.INDEX_ATTRIBUTE_SET).size();
+        KMeansParallelCandidates candidates = new KMeansParallelCandidates(nVectors, nAttributes, seed);
+        candidates.add(data.getVector(candidates.getRandom().nextInt(nVectors)));
+        ((KMeansMiningModel) model).setCandidates(candidates);
+
+        return model;
+    }
+}
@@ -0,0 +1,44 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansAlgorithmSettings;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.algorithms.MiningLoop;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Loop of sampling rounds of k-means|| (see {@link KMeansAlgorithmSettings#getInitializationRounds()}).
+ * Number of finished rounds is kept by candidates of the model.
+ */
+public class KMeansParallelRoundsLoop extends MiningLoop {
+
+    private final int rounds;
+
+    public KMeansParallelRoundsLoop(EMiningFunctionSettings settings, MiningBlock... steps) throws MiningException {
+        super(settings, steps);
+        rounds = ((KMeansAlgorithmSettings) settings.getAlgorithmSettings()).getInitializationRounds();
+    }
+
+    @Override
+    protected EMiningModel initLoop(EMiningModel model) throws MiningException {
+        return model;
+    }
+
+    @Override
+    protected boolean conditionLoop(EMiningModel model) throws MiningException {
+        return ((KMeansMiningModel) model).getCandidates().getRound() < rounds;
+    }
+
+    @Override
+    protected EMiningModel beforeIteration(EMiningModel model) throws MiningException {
+        return model;
+    }
+
+    @Override
+    protected EMiningModel afterIteration(EMiningModel model) throws MiningException {
+        ((KMeansMiningModel) model).getCandidates().nextRound();
+        return model;
+    }
+}
@@ -0,0 +1,36 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansAlgorithmSettings;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Loop of mini-batches. Besides conditions of {@link WhileChangClustersLoop} the loop is finished
+ * when the time budget is spent (see {@link KMeansAlgorithmSettings#getTimeBudget()}).
+ */
+public class MiniBatchLoop extends WhileChangClustersLoop {
+
+    private final long timeBudget;
+
+    private long deadline;
+
+    public MiniBatchLoop(EMiningFunctionSettings settings, MiningBlock... steps) throws MiningException {
+        super(settings, steps);
+        timeBudget = ((KMeansAlgorithmSettings) this.functionSettings.getAlgorithmSettings()).getTimeBudget();
+    }
+
+    @Override
+    protected boolean conditionLoop(EMiningModel model) throws MiningException {
+        return super.conditionLoop(model) && System.currentTimeMillis() < deadline;
+    }
+
+    @Override
+    protected EMiningModel initLoop(EMiningModel model) throws MiningException {
+        long now = System.currentTimeMillis();
+        deadline = timeBudget > Long.MAX_VALUE - now ? Long.MAX_VALUE : now + timeBudget;
+
+        return super.initLoop(model);
+    }
+}
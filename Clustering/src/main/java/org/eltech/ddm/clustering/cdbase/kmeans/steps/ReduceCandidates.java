@@ -0,0 +1,140 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansParallelCandidates;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Finishes k-means||: every candidate of centers is weighted by number of vectors nearest to it
+ * and the candidates are reduced to the centers of clusters by weighted k-means++ and some iterations
+ * of weighted k-means over the candidates only. The candidates are released after that.
+ */
+public class ReduceCandidates extends MiningBlock {
+
+    private static final int LOCAL_ITERATIONS = 20;
+
+    public ReduceCandidates(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+    }
+
+    @Override
+    protected EMiningModel execute(EMiningModel model) throws MiningException {
+        KMeansMiningModel kmModel = (KMeansMiningModel) model;
+        KMeansParallelCandidates candidates = kmModel.getCandidates();
+        int nClusters = kmModel.getClusterSet().size();
+        int nAttributes = candidates.getAttributesNumber();
+
+        double[] weights = new double[candidates.size()];
+        for (int iCandidate : candidates.getNearest())
+            weights[iCandidate]++;
+
+        double[] centers = reduce(candidates, weights, nClusters, candidates.getRandom());
+        for (int c = 0; c < nClusters; c++) {
+            for (int a = 0; a < nAttributes; a++)
+                kmModel.getClusterCenterCoordinate(c, a).setValue(centers[c * nAttributes + a]);
+        }
+        kmModel.setCandidates(null);
+
+        return model;
+    }
+
+    /**
+     * Chooses centers from weighted candidates by k-means++ and refines them by weighted k-means
+     *
+     * @return coordinates of centers by rows: [cluster][attribute]
+     */
+    private static double[] reduce(KMeansParallelCandidates candidates, double[] weights, int nClusters, Random random) {
+        int nAttributes = candidates.getAttributesNumber();
+        int nCandidates = candidates.size();
+        double[] points = candidates.getPoints();
+        double[] centers = new double[nClusters * nAttributes];
+
+        double[] distances = new double[nCandidates];
+        Arrays.fill(distances, Double.MAX_VALUE);
+        int chosen = pick(weights, null, random);
+        for (int c = 0; c < nClusters; c++) {
+            System.arraycopy(points, chosen * nAttributes, centers, c * nAttributes, nAttributes);
+            if (c + 1 == nClusters)
+                break;
+            for (int i = 0; i < nCandidates; i++)
+                distances[i] = Math.min(distances[i], KMeansMiningModel.squaredDistance(points, i * nAttributes, centers, c * nAttributes, nAttributes));
+            chosen = pick(weights, distances, random);
+        }
+
+        int[] assignment = new int[nCandidates];
+        Arrays.fill(assignment, -1);
+        double[] sums = new double[nClusters * nAttributes];
+        double[] counts = new double[nClusters];
+        for (int it = 0; it < LOCAL_ITERATIONS; it++) {
+            boolean changed = false;
+            for (int i = 0; i < nCandidates; i++) {
+                int iNearest = nearestCenter(points, i * nAttributes, centers, nClusters, nAttributes);
+                if (iNearest != assignment[i]) {
+                    assignment[i] = iNearest;
+                    changed = true;
+                }
+            }
+            if (!changed)
+                break;
+
+            Arrays.fill(sums, 0);
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < nCandidates; i++) {
+                int c = assignment[i];
+                counts[c] += weights[i];
+                for (int a = 0; a < nAttributes; a++)
+                    sums[c * nAttributes + a] += weights[i] * points[i * nAttributes + a];
+            }
+            for (int c = 0; c < nClusters; c++) {
+                if (counts[c] == 0)
+                    continue; // the center keeps its position
+                for (int a = 0; a < nAttributes; a++)
+                    centers[c * nAttributes + a] = sums[c * nAttributes + a] / counts[c];
+            }
+        }
+        return centers;
+    }
+
+    /**
+     * Picks a candidate with probability proportional to weight * d^2 (or to weight if distances are absent)
+     */
+    private static int pick(double[] weights, double[] distances, Random random) {
+        double total = 0;
+        for (int i = 0; i < weights.length; i++)
+            total += distances == null ? weights[i] : weights[i] * distances[i];
+        if (total <= 0) // all candidates are chosen already
+            return distances == null ? random.nextInt(weights.length) : pick(weights, null, random);
+
+        double r = random.nextDouble() * total;
+        int last = 0;
+        for (int i = 0; i < weights.length; i++) {
+            double w = distances == null ? weights[i] : weights[i] * distances[i];
+            if (w <= 0)
+                continue;
+            last = i;
+            r -= w;
+            if (r < 0)
+                return i;
+        }
+        return last;
+    }
+
+    private static int nearestCenter(double[] points, int offset, double[] centers, int nClusters, int nAttributes) {
+        int iNearest = 0;
+        double dNearest = Double.MAX_VALUE;
+        for (int c = 0; c < nClusters; c++) {
+            double d = KMeansMiningModel.squaredDistance(points, offset, centers, c * nAttributes, nAttributes);
+            if (d < dNearest) {
+                iNearest = c;
+                dNearest = d;
+            }
+        }
+        return iNearest;
+    }
+}
@@ -0,0 +1,60 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansAlgorithmSettings;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansParallelCandidates;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+import java.util.SplittableRandom;
+
+/**
+ * Round of k-means||: samples every vector with probability l * d^2 / cost, where d is the distance
+ * of the vector to the nearest candidate, cost is the sum of d^2 of all vectors and l is oversampling
+ * factor multiplied by number of clusters. Sampled vectors become new candidates of centers. <p>
+ *
+ * Vectors are sampled by partitions, every partition has own random generator split from
+ * the generator of the round, so the sample doesn't depend on the order of sampling of partitions.
+ */
+public class SampleCandidates extends DataMiningBlock {
+
+    // Number of vectors sampled by one random generator
+    private static final int PARTITION_SIZE = 1024;
+
+    private final double oversamplingFactor;
+
+    private final long seed;
+
+    public SampleCandidates(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+        KMeansAlgorithmSettings algorithmSettings = (KMeansAlgorithmSettings) settings.getAlgorithmSettings();
+        oversamplingFactor = algorithmSettings.getOversamplingFactor();
+        seed = algorithmSettings.getInitializationSeed();
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        KMeansMiningModel kmModel = (KMeansMiningModel) model;
+        KMeansParallelCandidates candidates = kmModel.getCandidates();
+        candidates.startNew();
+        double cost = candidates.getCost();
+        if (cost <= 0)
+            return model; // every vector is a candidate already
+
+        double factor = oversamplingFactor * kmModel.getClustersNumber() / cost;
+        SplittableRandom root = new SplittableRandom(seed + candidates.getRound() + 1);
+        SplittableRandom random = null;
+        double[] distances = candidates.getDistances();
+        for (int i = 0; i < distances.length; i++) {
+            if (i % PARTITION_SIZE == 0)
+                random = root.split();
+            if (random.nextDouble() < factor * distances[i])
+                candidates.add(data.getVector(i)); // the data set is read forward
+        }
+
+        return model;
+    }
+}
@@ -0,0 +1,57 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansAlgorithmSettings;
+import org.eltech.ddm.clustering.cdbase.kmeans.MiniBatchKMeansMiningModel;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Samples vectors of the next mini-batch uniformly without replacement.
+ * Indexes are sorted, so the vectors of the mini-batch are read from the data set forward.
+ */
+public class SampleMiniBatch extends DataMiningBlock {
+
+    private final int batchSize;
+
+    private final Random random;
+
+    public SampleMiniBatch(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+        KMeansAlgorithmSettings algorithmSettings = (KMeansAlgorithmSettings) settings.getAlgorithmSettings();
+        batchSize = algorithmSettings.getBatchSize();
+        random = new Random(algorithmSettings.getBatchSeed());
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        int nVectors = data.getVectorsNumber();
+        int[] batch;
+        if (batchSize >= nVectors) {
+            batch = new int[nVectors];
+            for (int i = 0; i < nVectors; i++)
+                batch[i] = i;
+        } else { // Floyd's sampling
+            Set<Integer> sample = new HashSet<>(batchSize * 2);
+            for (int j = nVectors - batchSize; j < nVectors; j++) {
+                int t = random.nextInt(j + 1);
+                sample.add(sample.contains(t) ? j : t);
+            }
+            batch = new int[batchSize];
+            int i = 0;
+            for (int iVector : sample)
+                batch[i++] = iVector;
+            Arrays.sort(batch);
+        }
+        ((MiniBatchKMeansMiningModel) model).setMiniBatch(batch);
+
+        return model;
+    }
+}
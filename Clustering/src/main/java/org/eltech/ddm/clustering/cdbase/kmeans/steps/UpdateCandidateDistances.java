@@ -0,0 +1,71 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansMiningModel;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansParallelCandidates;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.DataMiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Decreases distance of the current vector to the nearest candidate of centers by new candidates
+ * of k-means|| (see {@link KMeansParallelCandidates}). Every vector has own distance, so loops over
+ * parts of the data set can update distances of shared candidates in parallel.
+ */
+public class UpdateCandidateDistances extends DataMiningBlock {
+
+    public UpdateCandidateDistances(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+    }
+
+    @Override
+    protected EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException {
+        int iVector = model.getCurrentVectorIndex();
+        update(data, ((KMeansMiningModel) model).getCandidates(), iVector, iVector + 1);
+
+        return model;
+    }
+
+    @Override
+    protected EMiningModel executeRange(MiningInputStream data, EMiningModel model, int fromVector, int toVector) throws MiningException {
+        update(data, ((KMeansMiningModel) model).getCandidates(), fromVector, toVector);
+
+        return model;
+    }
+
+    @Override
+    public boolean isRangeSupported() {
+        return true;
+    }
+
+    private static void update(MiningInputStream data, KMeansParallelCandidates candidates, int fromVector, int toVector) throws MiningException {
+        int from = candidates.getNewStart();
+        int to = candidates.size();
+        if (from == to)
+            return; // the round has sampled nothing
+
+        int nAttributes = candidates.getAttributesNumber();
+        double[] points = candidates.getPoints();
+        double[] distances = candidates.getDistances();
+        int[] nearest = candidates.getNearest();
+        double[] values = new double[nAttributes];
+
+        for (int i = fromVector; i < toVector; i++) {
+            MiningVector mv = data.getVector(i);
+            for (int a = 0; a < nAttributes; a++)
+                values[a] = mv.getValue(a);
+
+            double dNearest = distances[i];
+            for (int c = from; c < to; c++) {
+                double d = KMeansMiningModel.squaredDistance(values, 0, points, c * nAttributes, nAttributes);
+                if (d < dNearest) {
+                    dNearest = d;
+                    nearest[i] = c;
+                }
+            }
+            distances[i] = dNearest;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.eltech.ddm.clustering.cdbase.kmeans.steps;
+
+import org.eltech.ddm.clustering.ClusterSet;
+import org.eltech.ddm.clustering.cdbase.Coordinate;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansAlgorithmSettings;
+import org.eltech.ddm.clustering.cdbase.kmeans.MiniBatchKMeansMiningModel;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Moves centers of clusters to vectors of the mini-batch. Learning rate of every center is
+ * number of its vectors in the mini-batch divided by number of its vectors in all mini-batches,
+ * so the center is the mean of all vectors assigned to it. The clusters are changed
+ * if a coordinate of a center is moved more than eps.
+ */
+public class UpdateCentersByMiniBatch extends MiningBlock {
+
+    private final double eps;
+
+    public UpdateCentersByMiniBatch(EMiningFunctionSettings settings) throws MiningException {
+        super(settings);
+        eps = ((KMeansAlgorithmSettings) settings.getAlgorithmSettings()).getEps();
+    }
+
+    @Override
+    protected EMiningModel execute(EMiningModel model) throws MiningException {
+        MiniBatchKMeansMiningModel mbModel = (MiniBatchKMeansMiningModel) model;
+        ClusterSet cs = mbModel.getClusterSet();
+        int nAttributes = mbModel.getCentroidsAttributesNumber();
+
+        for (int c = 0; c < mbModel.getClustersNumber(); c++) {
+            long count = mbModel.getBatchCount(c);
+            if (count == 0)
+                continue;
+
+            mbModel.addClusterWeight(c, count);
+            double rate = (double) count / mbModel.getClusterWeight(c);
+            for (int a = 0; a < nAttributes; a++) {
+                Coordinate cc = mbModel.getClusterCenterCoordinate(c, a);
+                double oldv = cc.getValue();
+                double v = oldv + rate * (mbModel.getBatchSum(c, a) / count - oldv);
+                if (Math.abs(oldv - v) > eps)
+                    cs.setChanged(true);
+                cc.setValue(v);
+            }
+            mbModel.getCluster(c).setVectorCount((int) Math.min(Integer.MAX_VALUE, mbModel.getClusterWeight(c)));
+        }
+        mbModel.resetBatch();
+
+        return model;
+    }
+}
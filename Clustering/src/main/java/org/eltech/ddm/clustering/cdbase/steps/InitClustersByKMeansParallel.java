@@ -0,0 +1,51 @@
+package org.eltech.ddm.clustering.cdbase.steps;
+
+import org.eltech.ddm.clustering.cdbase.kmeans.steps.InitKMeansParallelCandidates;
+import org.eltech.ddm.clustering.cdbase.kmeans.steps.KMeansParallelRoundsLoop;
+import org.eltech.ddm.clustering.cdbase.kmeans.steps.ReduceCandidates;
+import org.eltech.ddm.clustering.cdbase.kmeans.steps.SampleCandidates;
+import org.eltech.ddm.clustering.cdbase.kmeans.steps.UpdateCandidateDistances;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MemoryType;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.algorithms.MiningLoopVectors;
+import org.eltech.ddm.miningcore.algorithms.MiningParallel;
+import org.eltech.ddm.miningcore.algorithms.MiningSequence;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+
+/**
+ * Initializes centers of all clusters by k-means|| (scalable k-means++). <p>
+ *
+ * The first candidate is a random vector. Every round samples every vector with probability
+ * l * d^2 / cost, where d is the distance of the vector to the nearest candidate,
+ * cost is the sum of d^2 of all vectors and l is oversampling factor multiplied by number of clusters.
+ * Distances of vectors to new candidates are updated by a loop of vectors, the parallel
+ * variant runs the loop by parts of the data set. After the rounds every candidate is weighted
+ * by number of vectors nearest to it and the candidates are reduced to the centers by weighted
+ * k-means++ and some iterations of weighted k-means over the candidates only.
+ */
+public class InitClustersByKMeansParallel extends MiningSequence {
+
+	public InitClustersByKMeansParallel(EMiningFunctionSettings settings) throws MiningException {
+		this(settings, false);
+	}
+
+	/**
+	 * @param settings - function settings with {@link org.eltech.ddm.clustering.cdbase.kmeans.KMeansAlgorithmSettings}
+	 * @param parallel - distances are updated by parallel loops over parts of the data set
+	 */
+	public InitClustersByKMeansParallel(EMiningFunctionSettings settings, boolean parallel) throws MiningException {
+		super(settings,
+				new InitKMeansParallelCandidates(settings),
+				updateDistances(settings, parallel),
+				new KMeansParallelRoundsLoop(settings,
+						new SampleCandidates(settings),
+						updateDistances(settings, parallel)),
+				new ReduceCandidates(settings));
+	}
+
+	private static MiningBlock updateDistances(EMiningFunctionSettings settings, boolean parallel) throws MiningException {
+		MiningLoopVectors loop = new MiningLoopVectors(settings, new UpdateCandidateDistances(settings));
+		return parallel ? new MiningParallel(settings, MemoryType.shared, loop) : loop;
+	}
+}
@@ -1,15 +1,59 @@
 package org.eltech.ddm.clustering.cdbase;
 
+import org.eltech.ddm.clustering.AggregationFunction;
 import org.eltech.ddm.clustering.Cluster;
 import org.eltech.ddm.clustering.ClusterSet;
 import org.eltech.ddm.clustering.ClusteringMiningModel;
 import org.eltech.ddm.clustering.ClusteringMiningModelTest;
+import org.eltech.ddm.clustering.cdbase.kmeans.KMeansAlgorithmSettings;
+import org.eltech.ddm.environment.ConcurrencyExecutionEnvironment;
 import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningAlgorithm;
 import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+import org.eltech.ddm.miningcore.miningtask.EMiningBuildTask;
 import org.junit.Assert;
 
 public class CDBaseModelTest extends ClusteringMiningModelTest {
 
+    /**
+     * Sets settings of K-Means for iris with euclidian distance
+     *
+     * @param algorithmSettings - settings of the algorithm
+     * @param clusters - number of clusters
+     */
+    protected void setKMeansSettings4Iris(KMeansAlgorithmSettings algorithmSettings, int clusters) throws MiningException {
+        algorithmSettings.setAlgorithm("KMeans");
+        setMiningSettings4Iris(algorithmSettings);
+        miningSettings.setMaxNumberOfClusters(clusters);
+        miningSettings.setAggregationFunction(AggregationFunction.euclidian);
+        miningSettings.verify();
+    }
+
+    /**
+     * Builds the model by the algorithm with the input data and the mining settings of the test
+     *
+     * @param handlers - number of handlers of the environment, 0 for the default environment
+     */
+    protected ClusteringMiningModel build(MiningAlgorithm algorithm, int handlers) throws Exception {
+        EMiningBuildTask buildTask = new EMiningBuildTask();
+        buildTask.setMiningAlgorithm(algorithm);
+        buildTask.setMiningSettings(miningSettings);
+        buildTask.setExecutionEnvironment(handlers == 0 ? new ConcurrencyExecutionEnvironment(inputData)
+                : new ConcurrencyExecutionEnvironment(handlers, inputData));
+
+        return (ClusteringMiningModel) buildTask.execute();
+    }
+
+    /**
+     * @return numbers of vectors of clusters
+     */
+    protected static long[] vectorCounts(ClusteringMiningModel model) throws MiningException {
+        long[] counts = new long[model.getClusterSet().size()];
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = model.getCluster(i).getVectorCount();
+        return counts;
+    }
+
     protected void verifyModel4Iris(ClusteringMiningModel model) throws MiningException {
         // Show the clusters:
         showClusters((CDBasedClusteringMiningModel) model);
@@ -0,0 +1,65 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.clustering.ClusteringMiningModel;
+import org.eltech.ddm.clustering.cdbase.CDBaseModelTest;
+import org.eltech.ddm.miningcore.MiningException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Accelerated K-Means must build the same clusters as K-Means and avoid some distances
+ */
+public class AcceleratedKMeansAlgorithmTest extends CDBaseModelTest {
+
+	private final int NUMBER_HANDLERS = 4;
+
+	@Test
+	public void hamerlySequenceTest() throws Exception {
+		compare(KMeansAlgorithmSettings.Bounds.hamerly, 3, 0);
+	}
+
+	@Test
+	public void elkanSequenceTest() throws Exception {
+		compare(KMeansAlgorithmSettings.Bounds.elkan, 3, 0);
+	}
+
+	@Test
+	public void hamerlyHorParallelTest() throws Exception {
+		compare(KMeansAlgorithmSettings.Bounds.hamerly, 8, NUMBER_HANDLERS);
+	}
+
+	@Test
+	public void elkanHorParallelTest() throws Exception {
+		compare(KMeansAlgorithmSettings.Bounds.elkan, 8, NUMBER_HANDLERS);
+	}
+
+	private void compare(KMeansAlgorithmSettings.Bounds bounds, int clusters, int handlers) throws Exception {
+		ClusteringMiningModel expected = build(null, clusters, handlers);
+		KMeansMiningModel accelerated = (KMeansMiningModel) build(bounds, clusters, handlers);
+
+		assertArrayEquals(vectorCounts(expected), vectorCounts(accelerated));
+		assertArrayEquals(centers(expected), centers(accelerated), 1e-9); // masses of parallel parts are summed in any order
+		assertTrue(accelerated.getComputedDistancesNumber() > 0);
+		assertTrue(accelerated.getAvoidedDistancesNumber() > 0);
+	}
+
+	private ClusteringMiningModel build(KMeansAlgorithmSettings.Bounds bounds, int clusters, int handlers) throws Exception {
+		setInputData4Iris();
+		KMeansAlgorithmSettings algorithmSettings = new KMeansAlgorithmSettings();
+		algorithmSettings.setMaxNumberOfIterations(50);
+		algorithmSettings.setEps(0.001);
+		if (bounds != null)
+			algorithmSettings.setBounds(bounds);
+		setKMeansSettings4Iris(algorithmSettings, clusters);
+
+		return build(bounds == null ? new KMeansAlgorithm(miningSettings) : new AcceleratedKMeansAlgorithm(miningSettings), handlers);
+	}
+
+	private static double[] centers(ClusteringMiningModel model) throws MiningException {
+		KMeansMiningModel kmModel = (KMeansMiningModel) model;
+		kmModel.initCentroids();
+		return kmModel.getCentroids();
+	}
+}
@@ -0,0 +1,61 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.clustering.AggregationFunction;
+import org.eltech.ddm.clustering.ClusteringMiningModel;
+import org.eltech.ddm.clustering.cdbase.CDBaseModelTest;
+import org.eltech.ddm.environment.ForkJoinExecutionEnvironment;
+import org.eltech.ddm.miningcore.algorithms.MiningAlgorithm;
+import org.eltech.ddm.miningcore.miningtask.EMiningBuildTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.fail;
+
+public class KMeansAlgorithmForkJoinTest extends CDBaseModelTest{
+
+	private final int NUMBER_HANDLERS = 4;
+	private final int GRAIN_SIZE = 16;
+	
+	protected KMeansAlgorithmSettings miningAlgorithmSettings;
+	protected MiningAlgorithm algorithm;
+	
+	@Before
+	public void setUp() throws Exception {
+		// Create mining algorithm settings
+		miningAlgorithmSettings = new KMeansAlgorithmSettings();
+		miningAlgorithmSettings.setAlgorithm("KMeans");
+		miningAlgorithmSettings.setMaxNumberOfIterations(50);
+		miningAlgorithmSettings.setEps(0.05);
+	}
+
+	@Test
+	public void test4Iris() {
+
+		try {
+			setInputData4Iris();
+			setMiningSettings4Iris(miningAlgorithmSettings);
+
+			// Assign settings:
+			miningSettings.setMaxNumberOfClusters(3);
+			miningSettings.setAggregationFunction(AggregationFunction.euclidian);
+			miningSettings.verify();
+			
+
+			MiningAlgorithm algorithm = new KMeansAlgorithm(miningSettings);
+			ForkJoinExecutionEnvironment environment = new ForkJoinExecutionEnvironment(NUMBER_HANDLERS, GRAIN_SIZE, inputData);
+
+			EMiningBuildTask buildTask = new EMiningBuildTask();
+			buildTask.setMiningAlgorithm(algorithm);
+			buildTask.setMiningSettings(miningSettings);
+			buildTask.setExecutionEnvironment(environment);
+			model = (ClusteringMiningModel) buildTask.execute();
+			
+			verifyModel4Iris(model);
+			
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		}
+	}
+
+}
@@ -0,0 +1,67 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.clustering.AggregationFunction;
+import org.eltech.ddm.clustering.ClusteringMiningModel;
+import org.eltech.ddm.clustering.cdbase.CDBaseModelTest;
+import org.eltech.ddm.environment.PlanExecutionEnvironment;
+import org.eltech.ddm.miningcore.algorithms.MiningAlgorithm;
+import org.eltech.ddm.miningcore.algorithms.MiningPlan;
+import org.eltech.ddm.miningcore.miningtask.EMiningBuildTask;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class KMeansAlgorithmPlanTest extends CDBaseModelTest{
+
+	protected KMeansAlgorithmSettings miningAlgorithmSettings;
+	protected MiningAlgorithm algorithm;
+	
+	@Before
+	public void setUp() throws Exception {
+		// Create mining algorithm settings
+		miningAlgorithmSettings = new KMeansAlgorithmSettings();
+		miningAlgorithmSettings.setAlgorithm("KMeans");
+		miningAlgorithmSettings.setMaxNumberOfIterations(50);
+		miningAlgorithmSettings.setEps(0.05);
+	}
+
+	@Test
+	public void test4Iris() {
+
+		try {
+			setInputData4Iris();
+			setMiningSettings4Iris(miningAlgorithmSettings);
+
+			// Assign settings:
+			miningSettings.setMaxNumberOfClusters(3);
+			miningSettings.setAggregationFunction(AggregationFunction.euclidian);
+			miningSettings.verify();
+			
+
+			MiningAlgorithm algorithm = new KMeansAlgorithm(miningSettings);
+			PlanExecutionEnvironment environment = new PlanExecutionEnvironment(inputData);
+
+			EMiningBuildTask buildTask = new EMiningBuildTask();
+			buildTask.setMiningAlgorithm(algorithm);
+			buildTask.setMiningSettings(miningSettings);
+			buildTask.setExecutionEnvironment(environment);
+			model = (ClusteringMiningModel) buildTask.execute();
+
+			verifyModel4Iris(model);
+
+			// the compiled plan is reused by the next build
+			MiningPlan plan = algorithm.getSequencePlan();
+			model = (ClusteringMiningModel) buildTask.execute();
+
+			assertSame(plan, algorithm.getSequencePlan());
+			verifyModel4Iris(model);
+			
+		} catch (Exception e) {
+			e.printStackTrace();
+			fail();
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.clustering.ClusteringMiningModel;
+import org.eltech.ddm.clustering.cdbase.CDBaseModelTest;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the fused step of the nearest cluster with the loops by clusters and attributes:
+ * both must give the same clusters after the same number of iterations.
+ */
+public class KMeansFusedDistanceTest extends CDBaseModelTest {
+
+	private final int NUMBER_HANDLERS = 4;
+
+	@Test
+	public void sequenceTest() throws Exception {
+		compare(0);
+	}
+
+	@Test
+	public void horParallelTest() throws Exception {
+		compare(NUMBER_HANDLERS);
+	}
+
+	private void compare(int handlers) throws Exception {
+		ClusteringMiningModel loops = build(false, handlers);
+		ClusteringMiningModel fused = build(true, handlers);
+
+		assertEquals(loops.getClusterSet().getNumberOfIterations(), fused.getClusterSet().getNumberOfIterations());
+		assertArrayEquals(vectorCounts(loops), vectorCounts(fused));
+	}
+
+	private ClusteringMiningModel build(boolean fused, int handlers) throws Exception {
+		setInputData4Iris();
+		KMeansAlgorithmSettings algorithmSettings = new KMeansAlgorithmSettings();
+		algorithmSettings.setMaxNumberOfIterations(50);
+		algorithmSettings.setEps(0.05);
+		algorithmSettings.setFusedDistance(fused);
+		setKMeansSettings4Iris(algorithmSettings, 3);
+
+		return build(new KMeansAlgorithm(miningSettings), handlers);
+	}
+}
@@ -0,0 +1,81 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.clustering.ClusterSet;
+import org.eltech.ddm.clustering.ClusteringMiningModel;
+import org.eltech.ddm.clustering.cdbase.CDBaseModelTest;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningSequence;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of initialization of centers of clusters by k-means||
+ */
+public class KMeansInitializationTest extends CDBaseModelTest {
+
+	private final int NUMBER_HANDLERS = 4;
+
+	@Test
+	public void sequenceTest() throws Exception {
+		int vectorsIterations = iterations(build(KMeansAlgorithmSettings.Initialization.vectors, 0));
+		model = build(KMeansAlgorithmSettings.Initialization.kMeansParallel, 0);
+		verifyModel4Iris(model);
+
+		int parallelIterations = iterations(model);
+		assertTrue(parallelIterations <= vectorsIterations);
+	}
+
+	@Test
+	public void horParallelTest() throws Exception {
+		model = build(KMeansAlgorithmSettings.Initialization.kMeansParallel, NUMBER_HANDLERS);
+		verifyModel4Iris(model);
+	}
+
+	@Test
+	public void seedTest() throws Exception {
+		long[] counts = vectorCounts(build(KMeansAlgorithmSettings.Initialization.kMeansParallel, 0));
+		assertArrayEquals(counts, vectorCounts(build(KMeansAlgorithmSettings.Initialization.kMeansParallel, NUMBER_HANDLERS)));
+	}
+
+	@Test
+	public void seedingTest() throws Exception {
+		double[] centers = initCenters(1);
+		assertArrayEquals(centers, initCenters(NUMBER_HANDLERS), 0);
+		assertArrayEquals(centers, initCenters(NUMBER_HANDLERS - 1), 0);
+	}
+
+	private ClusteringMiningModel build(KMeansAlgorithmSettings.Initialization initialization, int handlers) throws Exception {
+		setSettings(initialization);
+		return build(new KMeansAlgorithm(miningSettings), handlers);
+	}
+
+	/**
+	 * @return centers initialized by k-means|| without iterations of k-means: [cluster][attribute]
+	 */
+	private double[] initCenters(int handlers) throws Exception {
+		setSettings(KMeansAlgorithmSettings.Initialization.kMeansParallel);
+		KMeansMiningModel kmModel = (KMeansMiningModel) build(new KMeansAlgorithm(miningSettings) {
+			@Override
+			public MiningSequence getHorDistributedAlgorithm() throws MiningException {
+				return new MiningSequence(miningSettings, createInitClustersBlock(true));
+			}
+		}, handlers);
+		kmModel.initCentroids();
+		return kmModel.getCentroids();
+	}
+
+	private void setSettings(KMeansAlgorithmSettings.Initialization initialization) throws Exception {
+		setInputData4Iris();
+		KMeansAlgorithmSettings algorithmSettings = new KMeansAlgorithmSettings();
+		algorithmSettings.setMaxNumberOfIterations(50);
+		algorithmSettings.setEps(0.05);
+		algorithmSettings.setInitialization(initialization);
+		setKMeansSettings4Iris(algorithmSettings, 3);
+	}
+
+	private static int iterations(ClusteringMiningModel model) throws MiningException {
+		return ((ClusterSet) model.getElement(ClusteringMiningModel.INDEX_CLUSTERS)).getNumberOfIterations();
+	}
+}
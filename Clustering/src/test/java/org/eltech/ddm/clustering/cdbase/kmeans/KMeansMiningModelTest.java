@@ -0,0 +1,227 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.clustering.Cluster;
+import org.eltech.ddm.clustering.cdbase.CDBaseModelTest;
+import org.eltech.ddm.handlers.forkjoin.ForkJoinExecutorFactory;
+import org.eltech.ddm.miningcore.algorithms.MemoryType;
+import org.eltech.ddm.miningcore.algorithms.MiningParallel;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshotReader;
+import org.eltech.ddm.miningcore.miningmodel.ModelSnapshotWriter;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests of assignment of vectors and distances to clusters kept by arrays of the model
+ */
+public class KMeansMiningModelTest extends CDBaseModelTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private KMeansMiningModel kmModel;
+
+	@Before
+	public void setUp() throws Exception {
+		setInputData4Iris();
+		KMeansAlgorithmSettings algorithmSettings = new KMeansAlgorithmSettings();
+		algorithmSettings.setAlgorithm("KMeans");
+		setMiningSettings4Iris(algorithmSettings);
+		miningSettings.setMaxNumberOfClusters(3);
+
+		kmModel = new KMeansMiningModel(miningSettings);
+		kmModel.initModel();
+		kmModel.initVectors(10);
+	}
+
+	@Test
+	public void bufferTest() throws Exception {
+		assertEquals(Double.MAX_VALUE, kmModel.getDistanceToCenter(5), 0);
+
+		kmModel.addVectorClusterDistance(5, 1, 4);
+		kmModel.addVectorClusterDistance(5, 1, 5);
+		assertEquals(9, kmModel.getVectorClusterDistance(5, 1), 0);
+		kmModel.setVectorClusterDistance(5, 1, 0);
+
+		// the buffer is released, so it is moved to other vector
+		kmModel.addVectorClusterDistance(6, 2, 1);
+		assertEquals(1, kmModel.getVectorClusterDistance(6, 2), 0);
+		assertEquals(0, kmModel.getVectorClusterDistance(5, 1), 0);
+
+		kmModel.setVectorClusterIndex(6, 2);
+		kmModel.setDistanceToCenter(6, 1);
+		assertEquals(2, kmModel.getVectorClusterIndex(6));
+		assertEquals(1, kmModel.getDistanceToCenter(6), 0);
+	}
+
+	@Test
+	public void spillTest() throws Exception {
+		// distances of several vectors are accumulated together
+		for (int v = 0; v < 10; v++)
+			for (int c = 0; c < 3; c++)
+				kmModel.addVectorClusterDistance(v, c, v + c);
+
+		for (int v = 0; v < 10; v++)
+			for (int c = 0; c < 3; c++)
+				assertEquals(v + c, kmModel.getVectorClusterDistance(v, c), 0);
+	}
+
+	@Test
+	public void joinTest() throws Exception {
+		KMeansMiningModel shared1 = (KMeansMiningModel) kmModel.share();
+		KMeansMiningModel shared2 = (KMeansMiningModel) kmModel.share();
+		for (int v = 0; v < 5; v++) {
+			shared1.addVectorClusterDistance(v, 0, 1);
+			shared2.addVectorClusterDistance(v + 5, 1, 2);
+		}
+		kmModel.joinShared(Arrays.<EMiningModel>asList(shared1, shared2));
+		assertEquals(1, shared1.getVectorClusterDistance(4, 0), 0);
+		assertEquals(2, shared1.getVectorClusterDistance(9, 1), 0);
+
+		KMeansMiningModel clone1 = (KMeansMiningModel) shared1.clone();
+		KMeansMiningModel clone2 = (KMeansMiningModel) shared1.clone();
+		clone1.addVectorClusterDistance(0, 0, 1);
+		clone2.addVectorClusterDistance(0, 0, 2);
+		clone1.setVectorClusterIndex(3, 1);
+		clone1.setDistanceToCenter(3, 7);
+		clone2.setVectorClusterIndex(3, 2);
+		clone2.setDistanceToCenter(3, 5);
+		shared1.join(Arrays.<EMiningModel>asList(clone1, clone2));
+
+		assertEquals(4, shared1.getVectorClusterDistance(0, 0), 0);
+		assertEquals(2, shared1.getVectorClusterIndex(3));
+		assertEquals(5, shared1.getDistanceToCenter(3), 0);
+	}
+
+	@Test
+	public void deltaCloneTest() throws Exception {
+		Cluster untouched = kmModel.getCluster(1);
+		KMeansMiningModel delta1 = (KMeansMiningModel) kmModel.deltaClone();
+		KMeansMiningModel delta2 = (KMeansMiningModel) kmModel.deltaClone();
+		delta1.getClusterCenterCoordinate(0, 1).addMass(2);
+		delta2.getClusterCenterCoordinate(0, 1).addMass(3);
+		delta2.getCluster(2).incVectorCount();
+
+		// the copies change own copies of elements only
+		assertEquals(0, kmModel.getClusterCenterCoordinate(0, 1).getMass(), 0);
+		assertEquals(0, kmModel.getCluster(2).getVectorCount());
+		assertEquals(2, delta1.getClusterCenterCoordinate(0, 1).getMass(), 0);
+
+		kmModel.join(Arrays.<EMiningModel>asList(delta1, delta2));
+		assertEquals(5, kmModel.getClusterCenterCoordinate(0, 1).getMass(), 0);
+		assertEquals(1, kmModel.getCluster(2).getVectorCount());
+		assertSame(untouched, kmModel.getCluster(1));
+		assertEquals(0, kmModel.getCluster(1).getVectorCount());
+	}
+
+	@Test
+	public void deltaCloneVectorsTest() throws Exception {
+		kmModel.initVectors(1000);
+		KMeansMiningModel delta1 = (KMeansMiningModel) kmModel.deltaClone();
+		KMeansMiningModel delta2 = (KMeansMiningModel) kmModel.deltaClone();
+		for (int v = 0; v < 5; v++) {
+			delta1.setVectorClusterIndex(v, 1);
+			delta1.setDistanceToCenter(v, 3);
+			delta2.setVectorClusterIndex(v + 500, 2);
+			delta2.setDistanceToCenter(v + 500, 4);
+		}
+		delta2.setVectorClusterIndex(3, 2);
+		delta2.setDistanceToCenter(3, 2);
+
+		// the copies read vectors of the model and change own ranges only
+		assertEquals(Double.MAX_VALUE, delta1.getDistanceToCenter(500), 0);
+		assertEquals(Double.MAX_VALUE, kmModel.getDistanceToCenter(0), 0);
+		assertEquals(0, kmModel.getVectorClusterIndex(500));
+
+		kmModel.join(Arrays.<EMiningModel>asList(delta1, delta2));
+		for (int v = 0; v < 5; v++) {
+			assertEquals(v == 3 ? 2 : 1, kmModel.getVectorClusterIndex(v));
+			assertEquals(v == 3 ? 2 : 3, kmModel.getDistanceToCenter(v), 0);
+			assertEquals(2, kmModel.getVectorClusterIndex(v + 500));
+			assertEquals(4, kmModel.getDistanceToCenter(v + 500), 0);
+		}
+		assertEquals(0, kmModel.getVectorClusterIndex(999));
+		assertEquals(Double.MAX_VALUE, kmModel.getDistanceToCenter(999), 0);
+	}
+
+	@Test
+	public void deltaCloneBoundsTest() throws Exception {
+		kmModel.setBounds(KMeansAlgorithmSettings.Bounds.elkan);
+		kmModel.initVectors(200);
+		kmModel.initCentroids();
+		KMeansMiningModel delta = (KMeansMiningModel) kmModel.deltaClone();
+		delta.setUpperBound(150, 1);
+		delta.setLowerBound(150, 2, 5);
+		assertEquals(Double.POSITIVE_INFINITY, kmModel.getUpperBound(150), 0);
+		assertEquals(0, kmModel.getLowerBound(150, 2), 0);
+
+		kmModel.join(Arrays.<EMiningModel>asList(delta));
+		assertEquals(1, kmModel.getUpperBound(150), 0);
+		assertEquals(5, kmModel.getLowerBound(150, 2), 0);
+		assertEquals(Double.POSITIVE_INFINITY, kmModel.getUpperBound(149), 0);
+	}
+
+	@Test
+	public void joinByPairsTest() throws Exception {
+		List<EMiningModel> copies = new ArrayList<>();
+		for (int m = 0; m < 5; m++) {
+			KMeansMiningModel copy = (KMeansMiningModel) kmModel.deltaClone();
+			copy.getClusterCenterCoordinate(0, 1).addMass(m + 1);
+			copy.getCluster(m % 3).incVectorCount();
+			copy.setVectorClusterIndex(m, 2);
+			copy.setDistanceToCenter(m, m);
+			copies.add(copy);
+		}
+		MiningParallel parallel = new MiningParallel(miningSettings, MemoryType.distributed);
+		ForkJoinExecutorFactory factory = new ForkJoinExecutorFactory(2, 0);
+		try {
+			parallel.addExecutor(factory.create(null));
+			parallel.join(kmModel, copies);
+		} finally {
+			factory.shutdown();
+		}
+
+		assertEquals(15, kmModel.getClusterCenterCoordinate(0, 1).getMass(), 0);
+		assertEquals(2, kmModel.getCluster(0).getVectorCount());
+		assertEquals(2, kmModel.getCluster(1).getVectorCount());
+		assertEquals(1, kmModel.getCluster(2).getVectorCount());
+		for (int v = 0; v < 5; v++) {
+			assertEquals(2, kmModel.getVectorClusterIndex(v));
+			assertEquals(v, kmModel.getDistanceToCenter(v), 0);
+		}
+	}
+
+	@Test
+	public void snapshotTest() throws Exception {
+		int nAttributes = miningSettings.getLogicalData().getAttributesNumber();
+		for (int c = 0; c < 3; c++) {
+			for (int a = 0; a < nAttributes; a++) {
+				kmModel.getClusterCenterCoordinate(c, a).setValue(c * 10 + a);
+				kmModel.getClusterCenterCoordinate(c, a).setMass(c + a);
+			}
+			kmModel.getCluster(c).setVectorCount(c + 1);
+		}
+		kmModel.initCentroids();
+
+		String path = new File(folder.getRoot(), "kmeans.ddms").getPath();
+		new ModelSnapshotWriter().write(kmModel, path);
+		KMeansMiningModel read = (KMeansMiningModel) new ModelSnapshotReader().read(path, miningSettings);
+
+		assertArrayEquals(kmModel.getCentroids(), read.getCentroids(), 0);
+		for (int c = 0; c < 3; c++) {
+			assertEquals(c + 1, read.getCluster(c).getVectorCount());
+			assertEquals(c + 1, read.getClusterCenterCoordinate(c, 1).getMass(), 0);
+		}
+	}
+}
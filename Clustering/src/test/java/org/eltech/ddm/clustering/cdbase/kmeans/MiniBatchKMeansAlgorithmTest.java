@@ -0,0 +1,138 @@
+package org.eltech.ddm.clustering.cdbase.kmeans;
+
+import org.eltech.ddm.clustering.ClusteringMiningModel;
+import org.eltech.ddm.clustering.cdbase.CDBaseModelTest;
+import org.eltech.ddm.inputdata.MiningArrayStream;
+import org.eltech.ddm.clustering.cdbase.kmeans.steps.AssignMiniBatch;
+import org.eltech.ddm.clustering.cdbase.kmeans.steps.AssignMiniBatchVectors;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.algorithms.MiningLoopVectors;
+import org.eltech.ddm.miningcore.algorithms.MiningPlan;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MiniBatchKMeansAlgorithmTest extends CDBaseModelTest {
+
+	private final int NUMBER_HANDLERS = 4;
+
+	@Test
+	public void sequenceTest() throws Exception {
+		model = build(0, Long.MAX_VALUE);
+		showClusters((MiniBatchKMeansMiningModel) model);
+		verifyCenters4Iris((KMeansMiningModel) model);
+	}
+
+	@Test
+	public void horParallelTest() throws Exception {
+		model = build(NUMBER_HANDLERS, Long.MAX_VALUE);
+		showClusters((MiniBatchKMeansMiningModel) model);
+		verifyCenters4Iris((KMeansMiningModel) model);
+	}
+
+	@Test
+	public void timeBudgetTest() throws Exception {
+		MiniBatchKMeansMiningModel mbModel = (MiniBatchKMeansMiningModel) build(0, 0);
+		assertEquals(0, mbModel.getClusterSet().getNumberOfIterations());
+		assertEquals(0, mbModel.getProcessedVectorsNumber());
+	}
+
+	@Test
+	public void partialFitTest() throws Exception {
+		setInputData4Iris();
+		setSettings(Long.MAX_VALUE);
+		MiniBatchKMeansAlgorithm algorithm = new MiniBatchKMeansAlgorithm(miningSettings);
+
+		// vectors of iris are sorted by classes, so every portion takes every third vector
+		int nPortions = 3;
+		MiniBatchKMeansMiningModel mbModel = null;
+		for (int epoch = 0; epoch < 5; epoch++) {
+			for (int p = 0; p < nPortions; p++) {
+				double[][] portion = new double[inputData.getVectorsNumber() / nPortions][];
+				for (int i = 0; i < portion.length; i++)
+					portion[i] = inputData.getVector(i * nPortions + p).getValues().clone();
+				mbModel = (MiniBatchKMeansMiningModel) algorithm.partialFit(mbModel,
+						new MiningArrayStream(portion, inputData.getLogicalData()));
+			}
+		}
+		model = mbModel;
+
+		assertEquals(5 * inputData.getVectorsNumber(), mbModel.getProcessedVectorsNumber());
+		verifyCenters4Iris(mbModel);
+	}
+
+	@Test
+	public void assignTest() throws Exception {
+		MiniBatchKMeansMiningModel mbModel = (MiniBatchKMeansMiningModel) build(0, Long.MAX_VALUE);
+		mbModel.initCentroids();
+		mbModel.setMiniBatch(new int[]{0, 7, 8, 60, 61, 99, 120, 149});
+
+		double[] batch = assign(mbModel, new AssignMiniBatch(miningSettings));
+		for (int chunkSize : new int[]{0, 3, MiningLoopVectors.DEFAULT_CHUNK_SIZE}) {
+			MiningLoopVectors loop = new MiningLoopVectors(miningSettings, new AssignMiniBatchVectors(miningSettings));
+			loop.setChunkSize(chunkSize);
+			assertArrayEquals("chunk size " + chunkSize, batch, assign(mbModel, loop), 0);
+		}
+		assertEquals(8, batch[0] + batch[1] + batch[2], 0);
+	}
+
+	/**
+	 * Assigns vectors of the mini-batch by the block
+	 *
+	 * @return numbers of vectors of clusters and sums of the vectors by clusters
+	 */
+	private double[] assign(MiniBatchKMeansMiningModel mbModel, MiningBlock block) throws MiningException {
+		mbModel.resetBatch();
+		MiningPlan.compile(block).bind(inputData).run(mbModel);
+
+		int nAttributes = mbModel.getCentroidsAttributesNumber();
+		int nClusters = mbModel.getClustersNumber();
+		double[] result = new double[nClusters * (nAttributes + 1)];
+		for (int c = 0; c < nClusters; c++) {
+			result[c] = mbModel.getBatchCount(c);
+			for (int a = 0; a < nAttributes; a++)
+				result[nClusters + c * nAttributes + a] = mbModel.getBatchSum(c, a);
+		}
+		return result;
+	}
+
+	private ClusteringMiningModel build(int handlers, long timeBudget) throws Exception {
+		setInputData4Iris();
+		setSettings(timeBudget);
+		return build(new MiniBatchKMeansAlgorithm(miningSettings), handlers);
+	}
+
+	private void setSettings(long timeBudget) throws MiningException {
+		KMeansAlgorithmSettings algorithmSettings = new KMeansAlgorithmSettings();
+		algorithmSettings.setMaxNumberOfIterations(100);
+		algorithmSettings.setEps(0.001);
+		algorithmSettings.setBatchSize(30);
+		algorithmSettings.setTimeBudget(timeBudget);
+		setKMeansSettings4Iris(algorithmSettings, 3);
+	}
+
+	/**
+	 * Every vector of iris is assigned to the nearest center: every cluster must have more than 35 vectors
+	 */
+	private void verifyCenters4Iris(KMeansMiningModel kmModel) throws MiningException {
+		kmModel.initCentroids();
+		double[] centroids = kmModel.getCentroids();
+		int nAttributes = kmModel.getCentroidsAttributesNumber();
+		int[] counts = new int[kmModel.getClustersNumber()];
+		for (int i = 0; i < inputData.getVectorsNumber(); i++) {
+			double[] values = inputData.getVector(i).getValues();
+			int iNearest = 0;
+			for (int c = 1; c < counts.length; c++) {
+				if (KMeansMiningModel.squaredDistance(values, 0, centroids, c * nAttributes, nAttributes)
+						< KMeansMiningModel.squaredDistance(values, 0, centroids, iNearest * nAttributes, nAttributes))
+					iNearest = c;
+			}
+			counts[iNearest]++;
+		}
+		for (int count : counts)
+			assertTrue("cluster of " + count + " vectors", count > 35);
+	}
+}
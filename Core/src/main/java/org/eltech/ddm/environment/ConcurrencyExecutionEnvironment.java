@@ -4,8 +4,10 @@ import com.opencsv.exceptions.CsvException;
 import org.eltech.ddm.handlers.MiningExecutorFactory;
 import org.eltech.ddm.handlers.ParallelExecutionException;
 import org.eltech.ddm.handlers.thread.ConcurrencyExecutorFactory;
+import org.eltech.ddm.handlers.thread.VirtualThreadExecutorFactory;
 import org.eltech.ddm.inputdata.MiningInputStream;
 import org.eltech.ddm.inputdata.file.common.CloneableStream;
+import org.eltech.ddm.inputdata.file.csv.MiningMappedCsvStream;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.algorithms.*;
 
@@ -17,28 +19,54 @@ public class ConcurrencyExecutionEnvironment extends ExecutionEnvironment {
 
     private int numberThreads = 1;
     private final MiningInputStream data;
+    private final ThreadMode threadMode;
 
     public ConcurrencyExecutionEnvironment(MiningInputStream data) throws MiningException {
-        this.numberThreads = 1;
-        this.data = data;
-        initEnvironment();
+        this(1, data);
     }
 
     public ConcurrencyExecutionEnvironment(int numberThreads, MiningInputStream data) throws MiningException {
+        this(numberThreads, data, ThreadMode.platform);
+    }
+
+    /**
+     * Environment with given kind of threads. In virtual mode the number of threads is
+     * the number of data partitions, they are read on virtual threads while CPU bound
+     * blocks use a pool sized to the number of processors.
+     *
+     * @param numberThreads - number of threads (data partitions)
+     * @param data          - input data
+     * @param threadMode    - kind of threads
+     */
+    public ConcurrencyExecutionEnvironment(int numberThreads, MiningInputStream data, ThreadMode threadMode) throws MiningException {
         this.numberThreads = numberThreads;
         this.data = data;
+        this.threadMode = threadMode;
         initEnvironment();
     }
 
     @Override
     protected void initEnvironment() throws ParallelExecutionException {
-        miningExecutorFactory = new ConcurrencyExecutorFactory(numberThreads);
+        if (threadMode == ThreadMode.virtual)
+            miningExecutorFactory = new VirtualThreadExecutorFactory();
+        else
+            miningExecutorFactory = new ConcurrencyExecutorFactory(numberThreads);
     }
 
     @Override
     protected List<MiningExecutor> createExecutors(MiningBlock block) throws MiningException, IOException, CsvException {
         List<MiningExecutor> execs = new ArrayList<>();
-        if (block instanceof MiningLoopVectors) {
+        if (block instanceof MiningLoopVectors && data instanceof MiningMappedCsvStream) {
+            // partitions of the mapped file are aligned to lines, so they can differ in size
+            MiningLoopVectors bl = (MiningLoopVectors) block;
+            List<MiningMappedCsvStream> parts = ((MiningMappedCsvStream) data).split(numberThreads);
+            for (int i = 0; i < parts.size(); i++) {
+                MiningMappedCsvStream part = parts.get(i);
+                MiningSequence iteration = i == 0 ? bl.getIteration() : (MiningSequence) bl.getIteration().clone();
+                MiningLoopVectors mlv = new MiningLoopVectors(bl.getFunctionSettings(), part.getFirstVectorIndex(), part.getVectorsNumber(), iteration);
+                execs.add(getMiningExecutorFactory().create(mlv, part));
+            }
+        } else if (block instanceof MiningLoopVectors) {
             MiningLoopVectors bl = (MiningLoopVectors) block;
             int startPos = 0;
             int countElement = data.getVectorsNumber() / numberThreads;
@@ -12,7 +12,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
-public abstract class ExecutionEnvironment<T extends MiningExecutor, F extends MiningExecutorFactory<T>> {
+public abstract class ExecutionEnvironment<T extends MiningExecutor, F extends MiningExecutorFactory<T>> implements AutoCloseable {
     protected MiningExecutor mainExecutor = null;
 
     protected F miningExecutorFactory;
@@ -43,7 +43,7 @@ public abstract class ExecutionEnvironment<T extends MiningExecutor, F extends M
                 executor.addParallelBlock(mp);
                 MiningBlock[] blocks = mp.getBlocks();
                 for (MiningBlock bl : blocks) {
-                    List<MiningExecutor> execs = createExecutors(bl);
+                    List<MiningExecutor> execs = createExecutors(mp, bl);
                     for (MiningExecutor exec : execs) {
                         mp.addExecutor(exec);
                         fullExecutor(exec.getBlock(), exec);
@@ -83,6 +83,19 @@ public abstract class ExecutionEnvironment<T extends MiningExecutor, F extends M
 
     protected abstract List<MiningExecutor> createExecutors(MiningBlock bl) throws MiningException, IOException, CsvException;
 
+    /**
+     * Creates executors for a branch of parallel block. By default the parallel
+     * block is not taken into account, environments can override it to use
+     * e.g. memory type of the parallel block.
+     *
+     * @param parallel - parallel block which contains the branch
+     * @param bl       - block of the branch
+     * @return executors of the branch
+     */
+    protected List<MiningExecutor> createExecutors(MiningParallel parallel, MiningBlock bl) throws MiningException, IOException, CsvException {
+        return createExecutors(bl);
+    }
+
 
     public EMiningModel runAlgorithm(EMiningModel initModel) throws MiningException {
         if (mainExecutor == null)
@@ -96,4 +109,21 @@ public abstract class ExecutionEnvironment<T extends MiningExecutor, F extends M
         return miningExecutorFactory;
     }
 
+    /**
+     * Stops the environment and releases its resources (e.g. worker threads).
+     * Algorithms can't be run in the environment after shutdown.
+     */
+    public void shutdown() {
+        if (miningExecutorFactory != null)
+            miningExecutorFactory.shutdown();
+    }
+
+    /**
+     * Same as {@link #shutdown()}, allows use of the environment in try-with-resources
+     */
+    @Override
+    public void close() {
+        shutdown();
+    }
+
 }
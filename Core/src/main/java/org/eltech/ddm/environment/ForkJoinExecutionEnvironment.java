@@ -0,0 +1,91 @@
+package org.eltech.ddm.environment;
+
+import com.opencsv.exceptions.CsvException;
+import org.eltech.ddm.handlers.ParallelExecutionException;
+import org.eltech.ddm.handlers.forkjoin.ForkJoinExecutorFactory;
+import org.eltech.ddm.handlers.forkjoin.ForkJoinMiningExecutor;
+import org.eltech.ddm.inputdata.MiningArrayStream;
+import org.eltech.ddm.inputdata.MiningColumnarStore;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Execution environment based on fork/join pool. <p>
+ *
+ * Unlike {@link ConcurrencyExecutionEnvironment}, loops of parallel blocks are
+ * not split into a fixed number of equal ranges. Every branch gets one executor,
+ * which splits loop range recursively down to the grain size, and the
+ * work-stealing pool balances the parts between workers. <p>
+ *
+ * The parts read the input data concurrently, so data which doesn't support
+ * concurrent random access is cached into {@link MiningColumnarStore}.
+ */
+public class ForkJoinExecutionEnvironment extends ExecutionEnvironment<ForkJoinMiningExecutor, ForkJoinExecutorFactory> {
+
+    private final int parallelism;
+    private final int grainSize;
+    private final MiningInputStream data;
+
+    /**
+     * Environment with automatic grain size
+     *
+     * @param parallelism - number of worker threads
+     * @param data        - input data
+     */
+    public ForkJoinExecutionEnvironment(int parallelism, MiningInputStream data) throws MiningException {
+        this(parallelism, 0, data);
+    }
+
+    /**
+     * Main constructor for the environment
+     *
+     * @param parallelism - number of worker threads
+     * @param grainSize   - maximal number of loop iterations executed by one task,
+     *                    0 for automatic size (4 tasks per worker)
+     * @param data        - input data
+     */
+    public ForkJoinExecutionEnvironment(int parallelism, int grainSize, MiningInputStream data) throws MiningException {
+        this.parallelism = parallelism;
+        this.grainSize = grainSize;
+        this.data = (data instanceof MiningArrayStream || data instanceof MiningColumnarStore) ? data : new MiningColumnarStore(data);
+        initEnvironment();
+    }
+
+    @Override
+    protected void initEnvironment() throws ParallelExecutionException {
+        miningExecutorFactory = new ForkJoinExecutorFactory(parallelism, grainSize);
+    }
+
+    @Override
+    protected List<MiningExecutor> createExecutors(MiningBlock block) throws MiningException {
+        return createExecutors(block, MemoryType.distributed);
+    }
+
+    @Override
+    protected List<MiningExecutor> createExecutors(MiningParallel parallel, MiningBlock block) throws MiningException {
+        return createExecutors(block, parallel.getMemoryType());
+    }
+
+    private List<MiningExecutor> createExecutors(MiningBlock block, MemoryType memoryType) throws MiningException {
+        List<MiningExecutor> execs = new ArrayList<>();
+        execs.add(getMiningExecutorFactory().create(block, block.isDataBlock() ? data : null, memoryType));
+        return execs;
+    }
+
+    @Override
+    public void deploy(MiningAlgorithm algorithm) throws MiningException, IOException, CsvException {
+        mainExecutor = createExecutorTree(algorithm.getCentralizedParallelAlgorithm());
+    }
+
+    /**
+     * @return input data used by the environment
+     */
+    public MiningInputStream getData() {
+        return data;
+    }
+}
@@ -0,0 +1,49 @@
+package org.eltech.ddm.environment;
+
+import com.opencsv.exceptions.CsvException;
+import org.eltech.ddm.handlers.ParallelExecutionException;
+import org.eltech.ddm.handlers.plan.PlanExecutorFactory;
+import org.eltech.ddm.handlers.plan.PlanMiningExecutor;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningAlgorithm;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.algorithms.MiningExecutor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Execution environment for sequential execution of algorithm. <p>
+ *
+ * The sequence algorithm ({@link MiningAlgorithm#getSequenceAlgorithm()}) is executed
+ * as compiled plan ({@link MiningAlgorithm#getSequencePlan()}), so it's not interpreted
+ * block by block and the plan is reused by all builds of the algorithm.
+ */
+public class PlanExecutionEnvironment extends ExecutionEnvironment<PlanMiningExecutor, PlanExecutorFactory> {
+
+    private final MiningInputStream data;
+
+    public PlanExecutionEnvironment(MiningInputStream data) throws MiningException {
+        this.data = data;
+        initEnvironment();
+    }
+
+    @Override
+    protected void initEnvironment() throws ParallelExecutionException {
+        miningExecutorFactory = new PlanExecutorFactory();
+    }
+
+    @Override
+    protected List<MiningExecutor> createExecutors(MiningBlock block) throws MiningException {
+        List<MiningExecutor> execs = new ArrayList<>();
+        execs.add(getMiningExecutorFactory().create(block, block.isDataBlock() ? data : null));
+        return execs;
+    }
+
+    @Override
+    public void deploy(MiningAlgorithm algorithm) throws MiningException, IOException, CsvException {
+        mainExecutor = getMiningExecutorFactory().create(algorithm.getSequencePlan(), data);
+    }
+}
@@ -0,0 +1,15 @@
+package org.eltech.ddm.environment;
+
+/**
+ * Kind of threads used by thread based execution environments
+ */
+public enum ThreadMode {
+    /**
+     * Bounded pool of platform threads, for CPU bound algorithms
+     */
+    platform,
+    /**
+     * Virtual threads for branches reading data, for I/O bound data sources
+     */
+    virtual
+}
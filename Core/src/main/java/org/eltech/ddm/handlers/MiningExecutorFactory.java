@@ -10,4 +10,11 @@ public abstract class MiningExecutorFactory<T extends MiningExecutor>  {
 
     public abstract T create(MiningBlock block, MiningInputStream data) throws ParallelExecutionException;
 
+    /**
+     * Releases resources of the factory (e.g. worker threads).
+     * Executors can't be created or started after shutdown.
+     */
+    public void shutdown() {
+    }
+
 }
@@ -10,4 +10,8 @@ public class ParallelExecutionException extends MiningException {
 		super(MiningErrorCode.PARALLEL_EXECUTION_ERROR, msg);
 	}
 
+	public ParallelExecutionException(String msg, Throwable cause) {
+		super(MiningErrorCode.PARALLEL_EXECUTION_ERROR, msg, cause);
+	}
+
 }
@@ -0,0 +1,95 @@
+package org.eltech.ddm.handlers.forkjoin;
+
+import org.eltech.ddm.handlers.MiningExecutorFactory;
+import org.eltech.ddm.handlers.ParallelExecutionException;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.algorithms.MemoryType;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Factory of fork/join executors. All executors of one factory share
+ * one work-stealing pool.
+ */
+public class ForkJoinExecutorFactory extends MiningExecutorFactory<ForkJoinMiningExecutor> {
+
+    final ForkJoinPool pool;
+
+    /**
+     * Maximal number of vectors (elements) of a loop handled by one task,
+     * value less than 1 means automatic grain size
+     */
+    final int grainSize;
+
+    /**
+     * Constructor of factory
+     *
+     * @param parallelism - number of worker threads
+     * @param grainSize   - maximal number of loop iterations in one task,
+     *                    if it's less than 1, a loop is split into 4 tasks per worker
+     */
+    public ForkJoinExecutorFactory(int parallelism, int grainSize) {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+
+        this.pool = new ForkJoinPool(parallelism);
+        this.grainSize = grainSize;
+    }
+
+    @Override
+    public ForkJoinMiningExecutor create(MiningBlock block) throws ParallelExecutionException {
+        return create(block, null, MemoryType.distributed);
+    }
+
+    @Override
+    public ForkJoinMiningExecutor create(MiningBlock block, MiningInputStream data) throws ParallelExecutionException {
+        return create(block, data, MemoryType.distributed);
+    }
+
+    /**
+     * Creates executor for block of parallel branch
+     *
+     * @param block      - block of the branch
+     * @param data       - input data of the branch, may be null
+     * @param memoryType - memory type of the parallel block, defines
+     *                   how the model is copied between tasks of split loop
+     * @return new executor
+     */
+    public ForkJoinMiningExecutor create(MiningBlock block, MiningInputStream data, MemoryType memoryType) throws ParallelExecutionException {
+        if (pool.isShutdown())
+            throw new ParallelExecutionException("The executor factory is shut down");
+
+        ForkJoinMiningExecutor executor = new ForkJoinMiningExecutor(block, this, memoryType);
+        executor.setData(data);
+        return executor;
+    }
+
+    /**
+     * Returns size of a task for loop with given number of iterations
+     */
+    int grainSize(int count) {
+        if (grainSize > 0)
+            return grainSize;
+        return Math.max(1, count / (pool.getParallelism() * 4));
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return number of worker threads
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return estimate of number of tasks stolen by workers from other workers
+     */
+    public long getStealCount() {
+        return pool.getStealCount();
+    }
+}
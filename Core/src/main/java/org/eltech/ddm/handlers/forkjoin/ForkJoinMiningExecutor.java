@@ -0,0 +1,208 @@
+package org.eltech.ddm.handlers.forkjoin;
+
+import org.eltech.ddm.handlers.ParallelExecutionException;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.*;
+import org.eltech.ddm.miningcore.miningmodel.Distributable;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Executor of parallel branch in a fork/join pool. <p>
+ *
+ * If the block of the branch is a loop ({@link MiningLoopVectors} or
+ * {@link MiningLoopElement}), its range is split recursively into halves
+ * until a part is not greater than the grain size. Every part works with
+ * own copy of the model: a copy-on-write clone ({@link EMiningModel#deltaClone()})
+ * for distributed memory or a share for shared memory. Results of two halves are joined into the model of their
+ * parent task by {@link EMiningModel#join(java.util.List)} (or by
+ * {@link EMiningModel#joinShared(java.util.List)} for shared memory), so the executor
+ * returns one model for the whole range. Idle workers steal the halves,
+ * so uneven parts and nested parallel blocks are balanced by the pool.
+ */
+public class ForkJoinMiningExecutor extends MiningExecutor implements Cloneable {
+
+	transient ForkJoinExecutorFactory factory;
+
+	/**
+	 * Memory type of the parallel block of the branch
+	 */
+	protected MemoryType memoryType;
+
+	private transient ForkJoinTask<EMiningModel> task;
+
+	ForkJoinMiningExecutor(MiningBlock block, ForkJoinExecutorFactory factory, MemoryType memoryType) {
+		super(block);
+		this.factory = factory;
+		this.memoryType = memoryType;
+	}
+
+	/**
+	 * Submit execution of the branch to the pool
+	 */
+	@Override
+	public void start(EMiningModel model) throws MiningException {
+		if (block == null)
+			throw new ParallelExecutionException("The executor has not a mining block");
+
+		task = createTask(model);
+		if (ForkJoinTask.getPool() == factory.pool) {
+			task.fork();
+		} else {
+			try {
+				factory.pool.execute(task);
+			} catch (RejectedExecutionException e) {
+				throw new ParallelExecutionException("The executor pool is shut down", e);
+			}
+		}
+	}
+
+	private ForkJoinTask<EMiningModel> createTask(EMiningModel model) throws MiningException {
+		if (block instanceof MiningLoopVectors) {
+			MiningLoopVectors loop = (MiningLoopVectors) block;
+			int count = loop.getCountElement();
+			if (count < 0) {
+				if (data == null)
+					throw new ParallelExecutionException("Data set for the loop " + block + " is not initialized!");
+				count = data.getVectorsNumber() - loop.getStartPositon();
+			}
+			return new RangeTask(model, loop.getStartPositon(), count, factory.grainSize(count), false);
+		}
+		if (block instanceof MiningLoopElement) {
+			MiningLoopElement loop = (MiningLoopElement) block;
+			int count = loop.getCountElement();
+			if (count < 0)
+				count = model.getElement(loop.getIndexSet()).size() - loop.getStartPositon();
+			return new RangeTask(model, loop.getStartPositon(), count, factory.grainSize(count), false);
+		}
+		return new BlockTask(model);
+	}
+
+	/**
+	 * Waiting finish of the branch. A worker of the pool executes other tasks while it waits.
+	 *
+	 * @throws ParallelExecutionException the branch has failed
+	 */
+	@Override
+	public EMiningModel getModel() throws ParallelExecutionException {
+		if (task == null)
+			throw new ParallelExecutionException("The executor was not started");
+
+		try {
+			return task.join();
+		} catch (RuntimeException e) {
+			Throwable cause = e;
+			while (cause instanceof BlockExecutionException && cause.getCause() != null)
+				cause = cause.getCause();
+			if (cause instanceof ParallelExecutionException)
+				throw (ParallelExecutionException) cause;
+			throw new ParallelExecutionException("Execution of block " + block.getClass().getSimpleName() + " has failed: " + cause, cause);
+		}
+	}
+
+	public Object clone() {
+		ForkJoinMiningExecutor o = (ForkJoinMiningExecutor) super.clone();
+		o.task = null;
+		return o;
+	}
+
+	/**
+	 * Creates loop block for part of range
+	 */
+	private MiningLoop createRangeLoop(int start, int count, boolean copyIteration) throws MiningException {
+		MiningLoop loop = (MiningLoop) block;
+		MiningSequence iteration = copyIteration ? (MiningSequence) loop.getIteration().clone() : loop.getIteration();
+		if (loop instanceof MiningLoopVectors)
+			return new MiningLoopVectors(loop.getFunctionSettings(), start, count, iteration);
+		return new MiningLoopElement(loop.getFunctionSettings(), ((MiningLoopElement) loop).getIndexSet(), start, count, iteration);
+	}
+
+	private EMiningModel copy(EMiningModel model) {
+		return memoryType == MemoryType.distributed ? model.deltaClone() : model.share();
+	}
+
+	/**
+	 * Task executing not loop block
+	 */
+	private class BlockTask extends RecursiveTask<EMiningModel> {
+		private final EMiningModel model;
+
+		BlockTask(EMiningModel model) {
+			this.model = model;
+		}
+
+		@Override
+		protected EMiningModel compute() {
+			try {
+				return call(model);
+			} catch (MiningException e) {
+				throw new BlockExecutionException(e);
+			}
+		}
+	}
+
+	/**
+	 * Task executing part of loop range
+	 */
+	private class RangeTask extends RecursiveTask<EMiningModel> {
+		private final EMiningModel model;
+		private final int start;
+		private final int count;
+		private final int grain;
+		private final boolean split;
+
+		/**
+		 * @param model - model of the task, it is owned by the task
+		 * @param start - first iteration of the part
+		 * @param count - number of iterations of the part
+		 * @param grain - maximal number of iterations executed without split
+		 * @param split - the part is a result of split, so it must use own copy of iteration blocks
+		 */
+		RangeTask(EMiningModel model, int start, int count, int grain, boolean split) {
+			this.model = model;
+			this.start = start;
+			this.count = count;
+			this.grain = grain;
+			this.split = split;
+		}
+
+		@Override
+		protected EMiningModel compute() {
+			try {
+				if (count <= grain)
+					return createRangeLoop(start, count, split).run(model);
+
+				int half = count / 2;
+				RangeTask left = new RangeTask(copy(model), start, half, grain, true);
+				RangeTask right = new RangeTask(copy(model), start + half, count - half, grain, true);
+				right.fork();
+				EMiningModel leftModel = left.compute();
+				EMiningModel rightModel = right.join();
+
+				if (memoryType == MemoryType.distributed) {
+					if (model instanceof Distributable)
+						((Distributable) model).setDistributionType(((Distributable) leftModel).getDistributionType());
+					model.join(Arrays.asList(leftModel, rightModel));
+				} else {
+					model.joinShared(Arrays.asList(leftModel, rightModel));
+				}
+				return model;
+			} catch (MiningException e) {
+				throw new BlockExecutionException(e);
+			}
+		}
+	}
+
+	/**
+	 * Unchecked carrier of mining exception through fork/join tasks
+	 */
+	private static class BlockExecutionException extends RuntimeException {
+		BlockExecutionException(Throwable cause) {
+			super(cause);
+		}
+	}
+}
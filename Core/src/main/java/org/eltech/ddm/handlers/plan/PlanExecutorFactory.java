@@ -0,0 +1,47 @@
+package org.eltech.ddm.handlers.plan;
+
+import org.eltech.ddm.handlers.MiningExecutorFactory;
+import org.eltech.ddm.handlers.ParallelExecutionException;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.algorithms.MiningPlan;
+
+/**
+ * Factory of executors of compiled plans
+ */
+public class PlanExecutorFactory extends MiningExecutorFactory<PlanMiningExecutor> {
+
+    @Override
+    public PlanMiningExecutor create(MiningBlock block) throws ParallelExecutionException {
+        return new PlanMiningExecutor(MiningPlan.compile(block));
+    }
+
+    @Override
+    public PlanMiningExecutor create(MiningBlock block, MiningInputStream data) throws ParallelExecutionException {
+        return create(MiningPlan.compile(block), data);
+    }
+
+    /**
+     * Creates executor for plan which is already compiled. The executor runs copy of the plan
+     * bound to the data ({@link MiningPlan#bind(MiningInputStream)}), so the plan can be shared.
+     *
+     * @param plan - compiled plan
+     * @param data - input data bound to the plan, may be null
+     * @return new executor
+     */
+    public PlanMiningExecutor create(MiningPlan plan, MiningInputStream data) throws ParallelExecutionException {
+        if (data != null) {
+            try {
+                plan = plan.bind(data);
+            } catch (ParallelExecutionException e) {
+                throw e;
+            } catch (MiningException e) {
+                throw new ParallelExecutionException("Data set can't be bound to the plan: " + e.getMessage(), e);
+            }
+        }
+        PlanMiningExecutor executor = new PlanMiningExecutor(plan);
+        executor.setData(data);
+        return executor;
+    }
+}
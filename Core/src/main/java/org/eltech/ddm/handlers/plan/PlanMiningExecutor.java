@@ -0,0 +1,54 @@
+package org.eltech.ddm.handlers.plan;
+
+import org.eltech.ddm.handlers.ParallelExecutionException;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningExecutor;
+import org.eltech.ddm.miningcore.algorithms.MiningPlan;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+/**
+ * Executor of compiled plan. The plan is executed by the calling thread.
+ */
+public class PlanMiningExecutor extends MiningExecutor implements Cloneable {
+
+	private final MiningPlan plan;
+
+	private transient EMiningModel result;
+
+	PlanMiningExecutor(MiningPlan plan) {
+		super(plan.getRoot());
+		this.plan = plan;
+	}
+
+	/**
+	 * Executes the plan
+	 */
+	@Override
+	public void start(EMiningModel model) throws MiningException {
+		result = null;
+		result = plan.run(model);
+	}
+
+	@Override
+	public EMiningModel getModel() throws ParallelExecutionException {
+		if (result == null)
+			throw new ParallelExecutionException("The executor was not started");
+
+		return result;
+	}
+
+	@Override
+	protected EMiningModel call(EMiningModel model) throws MiningException {
+		return plan.run(model);
+	}
+
+	public MiningPlan getPlan() {
+		return plan;
+	}
+
+	public Object clone() {
+		PlanMiningExecutor o = (PlanMiningExecutor) super.clone();
+		o.result = null;
+		return o;
+	}
+}
@@ -5,27 +5,108 @@ import org.eltech.ddm.handlers.ParallelExecutionException;
 import org.eltech.ddm.inputdata.MiningInputStream;
 import org.eltech.ddm.miningcore.algorithms.MiningBlock;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Factory of thread executors. All executors of one factory share a bounded
+ * pool of named worker threads. The number of workers is equal to number
+ * of threads of the execution environment. <p>
+ *
+ * A parent executor that waits for its children runs a child task itself if
+ * no worker has started it yet (see {@link ConcurrencyMiningExecutor#getModel()}),
+ * so nested parallel blocks can't exhaust the bounded pool.
+ */
 public class ConcurrencyExecutorFactory extends MiningExecutorFactory<ConcurrencyMiningExecutor> {
-    ExecutorService service;
 
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    final ThreadPoolExecutor service;
+
+    /**
+     * Number of tasks which were executed by waiting threads instead of workers
+     */
+    final AtomicLong inlineTaskCount = new AtomicLong();
 
     public ConcurrencyExecutorFactory(int numThreds) {
-        service = Executors.newCachedThreadPool(); //newFixedThreadPool(numThreds);
+        if (numThreds < 1)
+            throw new IllegalArgumentException("Number of threads must be positive: " + numThreds);
+
+        service = new ThreadPoolExecutor(numThreds, numThreds, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new WorkerThreadFactory("pool"));
+        service.allowCoreThreadTimeOut(true);
     }
 
     @Override
     public ConcurrencyMiningExecutor create(MiningBlock block) throws ParallelExecutionException {
-        return new ConcurrencyMiningExecutor(block, service);
+        checkRunning();
+        return new ConcurrencyMiningExecutor(block, service, inlineTaskCount);
     }
 
     @Override
     public ConcurrencyMiningExecutor create(MiningBlock block, MiningInputStream data) throws ParallelExecutionException {
-        ConcurrencyMiningExecutor executor = new ConcurrencyMiningExecutor(block, service);
+        checkRunning();
+        ConcurrencyMiningExecutor executor = new ConcurrencyMiningExecutor(block, service, inlineTaskCount);
         executor.setData(data);
         return executor;
     }
 
+    private void checkRunning() throws ParallelExecutionException {
+        if (service.isShutdown())
+            throw new ParallelExecutionException("The executor factory is shut down");
+    }
+
+    /**
+     * Stops worker threads. Tasks which are already submitted are finished.
+     */
+    @Override
+    public void shutdown() {
+        service.shutdown();
+    }
+
+    /**
+     * Is the worker pool shut down?
+     *
+     * @return true if {@link #shutdown()} was called
+     */
+    public boolean isShutdown() {
+        return service.isShutdown();
+    }
+
+    /**
+     * Returns snapshot of utilisation of the worker pool
+     *
+     * @return current pool metrics
+     */
+    public ExecutorPoolMetrics getMetrics() {
+        return new ExecutorPoolMetrics(service.getMaximumPoolSize(), service.getPoolSize(),
+                service.getLargestPoolSize(), service.getActiveCount(), service.getQueue().size(),
+                service.getCompletedTaskCount(), inlineTaskCount.get());
+    }
+
+    /**
+     * Creates named daemon worker threads: ddm-[name]-[pool]-worker-[thread]
+     */
+    static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+        private final String prefix;
+
+        WorkerThreadFactory(String name) {
+            prefix = "ddm-" + name + "-" + POOL_NUMBER.getAndIncrement() + "-worker-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
 }
@@ -7,8 +7,12 @@ import org.eltech.ddm.miningcore.algorithms.MiningBlock;
 import org.eltech.ddm.miningcore.algorithms.MiningExecutor;
 import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Adapter for thread. One adapter is created for one thread
@@ -18,48 +22,83 @@ import java.util.concurrent.Future;
  */
 public class ConcurrencyMiningExecutor extends MiningExecutor implements Cloneable {
 
-	ExecutorService service;
+	transient ExecutorService service;
 
-	Future future;
+	/**
+	 * Counter of tasks executed by waiting threads (shared by executors of one factory)
+	 */
+	transient AtomicLong inlineTaskCount;
 
-	private EMiningModel resultModel;
+	transient FutureTask<EMiningModel> future;
+
+	/**
+	 * Thread which has executed the block
+	 */
+	private transient volatile Thread runner;
 
 	/**
 	 *  This is  memory type of the system which will be fulfilling the execution of the parallel algorithm
 	 */
 	protected MemoryType memoryType = MemoryType.distributed;
 
-	ConcurrencyMiningExecutor(MiningBlock block, ExecutorService service) {
+	ConcurrencyMiningExecutor(MiningBlock block, ExecutorService service, AtomicLong inlineTaskCount) {
 		super(block);
 		this.service = service;
+		this.inlineTaskCount = inlineTaskCount;
 	}
 
 	/**
-	 * Start thread
+	 * Submit execution of the block to the worker pool
 	 */
 	@Override
 	public void start (final EMiningModel model) throws MiningException {
 		if (block == null)
 			throw new ParallelExecutionException("The executor has not a mining block");
 
-		future = service.submit(() -> {
-			try {
-				resultModel = call(model);
-			} catch (MiningException e) {
-				e.printStackTrace();
-			}
+		runner = null;
+		future = new FutureTask<>(() -> {
+			runner = Thread.currentThread();
+			return call(model);
 		});
 
-
+		try {
+			service.execute(future);
+		} catch (RejectedExecutionException e) {
+			throw new ParallelExecutionException("The executor pool is shut down", e);
+		}
 	}
 
 	/**
-	 * Waiting finish of thread execution
+	 * Waiting finish of thread execution. If no worker has taken the block yet,
+	 * it is executed by the waiting thread.
+	 *
+	 * @throws ParallelExecutionException the block has failed or the waiting was interrupted
 	 */
 	@Override
-	public EMiningModel getModel() {
-			while (!future.isDone()){}
-		return resultModel;
+	public EMiningModel getModel() throws ParallelExecutionException {
+		if (future == null)
+			throw new ParallelExecutionException("The executor was not started");
+
+		if (!future.isDone()) {
+			future.run(); // does nothing if a worker is already executing the block
+			if (runner == Thread.currentThread()) {
+				if (service instanceof ThreadPoolExecutor)
+					((ThreadPoolExecutor) service).remove(future);
+				inlineTaskCount.incrementAndGet();
+			}
+		}
+
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ParallelExecutionException("Waiting of block " + block.getClass().getSimpleName() + " was interrupted", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof ParallelExecutionException)
+				throw (ParallelExecutionException) cause;
+			throw new ParallelExecutionException("Execution of block " + block.getClass().getSimpleName() + " has failed: " + cause, cause);
+		}
 	}
 
 
@@ -67,6 +106,8 @@ public class ConcurrencyMiningExecutor extends MiningExecutor implements Cloneab
 		ConcurrencyMiningExecutor o;
 		o = (ConcurrencyMiningExecutor) super.clone();
 		o.data = data;
+		o.future = null;
+		o.runner = null;
 
 		return o;
 	}
@@ -0,0 +1,95 @@
+package org.eltech.ddm.handlers.thread;
+
+/**
+ * Snapshot of utilisation of the worker pool of {@link ConcurrencyExecutorFactory}
+ */
+public class ExecutorPoolMetrics {
+
+    private final int maximumPoolSize;
+    private final int poolSize;
+    private final int largestPoolSize;
+    private final int activeCount;
+    private final int queuedTaskCount;
+    private final long completedTaskCount;
+    private final long inlineTaskCount;
+
+    ExecutorPoolMetrics(int maximumPoolSize, int poolSize, int largestPoolSize, int activeCount,
+                        int queuedTaskCount, long completedTaskCount, long inlineTaskCount) {
+        this.maximumPoolSize = maximumPoolSize;
+        this.poolSize = poolSize;
+        this.largestPoolSize = largestPoolSize;
+        this.activeCount = activeCount;
+        this.queuedTaskCount = queuedTaskCount;
+        this.completedTaskCount = completedTaskCount;
+        this.inlineTaskCount = inlineTaskCount;
+    }
+
+    /**
+     * @return bound of number of worker threads
+     */
+    public int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    /**
+     * @return current number of worker threads
+     */
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return largest number of worker threads that have ever simultaneously been in the pool
+     */
+    public int getLargestPoolSize() {
+        return largestPoolSize;
+    }
+
+    /**
+     * @return approximate number of workers that are executing tasks
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * @return number of tasks waiting for a free worker
+     */
+    public int getQueuedTaskCount() {
+        return queuedTaskCount;
+    }
+
+    /**
+     * @return approximate number of tasks completed by workers
+     */
+    public long getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    /**
+     * @return number of tasks executed by waiting threads instead of workers
+     */
+    public long getInlineTaskCount() {
+        return inlineTaskCount;
+    }
+
+    /**
+     * @return part of busy workers from bound of the pool
+     */
+    public double getUtilisation() {
+        return maximumPoolSize == 0 ? 0 : (double) activeCount / maximumPoolSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorPoolMetrics{" +
+                "maximumPoolSize=" + maximumPoolSize +
+                ", poolSize=" + poolSize +
+                ", largestPoolSize=" + largestPoolSize +
+                ", activeCount=" + activeCount +
+                ", queuedTaskCount=" + queuedTaskCount +
+                ", completedTaskCount=" + completedTaskCount +
+                ", inlineTaskCount=" + inlineTaskCount +
+                '}';
+    }
+}
@@ -0,0 +1,143 @@
+package org.eltech.ddm.handlers.thread;
+
+import org.eltech.ddm.handlers.MiningExecutorFactory;
+import org.eltech.ddm.handlers.ParallelExecutionException;
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Factory of thread executors for I/O bound branches (e.g. many partitions of
+ * {@link org.eltech.ddm.inputdata.db.MiningDBStream} or CSV files). <p>
+ *
+ * Branches which read input data are executed one task per thread on virtual
+ * threads, so hundreds of partitions can wait for JDBC or file reads without
+ * hundreds of OS threads. Other (CPU bound) branches are executed by a separate
+ * bounded pool of platform threads. <p>
+ *
+ * The library is compiled for Java 8, so virtual threads are looked up at runtime
+ * (Java 21+). On older runtimes the data branches use a large bounded pool of
+ * daemon platform threads instead.
+ */
+public class VirtualThreadExecutorFactory extends MiningExecutorFactory<ConcurrencyMiningExecutor> {
+
+    private static final Logger LOGGER = Logger.getLogger(VirtualThreadExecutorFactory.class.getName());
+
+    /**
+     * Default number of I/O threads if virtual threads are not available
+     */
+    public static final int DEFAULT_IO_THREADS = 256;
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final ThreadPoolExecutor cpuService;
+
+    private final ExecutorService ioService;
+
+    private final boolean virtualThreads;
+
+    private final AtomicLong inlineTaskCount = new AtomicLong();
+
+    /**
+     * Factory with number of CPU threads equal to the number of processors
+     */
+    public VirtualThreadExecutorFactory() {
+        this(Runtime.getRuntime().availableProcessors(), DEFAULT_IO_THREADS);
+    }
+
+    /**
+     * Main constructor
+     *
+     * @param cpuThreads - bound of the pool for CPU bound branches
+     * @param ioThreads  - bound of the pool for data branches, used only if virtual threads are not available
+     */
+    public VirtualThreadExecutorFactory(int cpuThreads, int ioThreads) {
+        if (cpuThreads < 1 || ioThreads < 1)
+            throw new IllegalArgumentException("Number of threads must be positive: " + cpuThreads + ", " + ioThreads);
+
+        cpuService = newPool(cpuThreads, "cpu");
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        virtualThreads = virtual != null;
+        ioService = virtualThreads ? virtual : newPool(ioThreads, "io");
+    }
+
+    private static ThreadPoolExecutor newPool(int threads, String name) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new ConcurrencyExecutorFactory.WorkerThreadFactory(name));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Creates executor of virtual threads if the runtime supports it
+     *
+     * @return executor or null for runtime without virtual threads
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.fine("Virtual threads are not available, platform threads are used for data branches");
+            return null;
+        }
+    }
+
+    /**
+     * Creates executor for CPU bound block
+     */
+    @Override
+    public ConcurrencyMiningExecutor create(MiningBlock block) throws ParallelExecutionException {
+        checkRunning();
+        return new ConcurrencyMiningExecutor(block, cpuService, inlineTaskCount);
+    }
+
+    /**
+     * Creates executor for block with data. Data blocks are executed on virtual threads.
+     */
+    @Override
+    public ConcurrencyMiningExecutor create(MiningBlock block, MiningInputStream data) throws ParallelExecutionException {
+        checkRunning();
+        ExecutorService service = block.isDataBlock() ? ioService : cpuService;
+        ConcurrencyMiningExecutor executor = new ConcurrencyMiningExecutor(block, service, inlineTaskCount);
+        executor.setData(data);
+        return executor;
+    }
+
+    private void checkRunning() throws ParallelExecutionException {
+        if (cpuService.isShutdown())
+            throw new ParallelExecutionException("The executor factory is shut down");
+    }
+
+    @Override
+    public void shutdown() {
+        cpuService.shutdown();
+        ioService.shutdown();
+    }
+
+    /**
+     * Are data branches executed on virtual threads?
+     *
+     * @return true for virtual threads, false if the runtime doesn't support them
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Returns snapshot of utilisation of the pool for CPU bound branches
+     *
+     * @return current pool metrics
+     */
+    public ExecutorPoolMetrics getCpuMetrics() {
+        return new ExecutorPoolMetrics(cpuService.getMaximumPoolSize(), cpuService.getPoolSize(),
+                cpuService.getLargestPoolSize(), cpuService.getActiveCount(), cpuService.getQueue().size(),
+                cpuService.getCompletedTaskCount(), inlineTaskCount.get());
+    }
+}
@@ -0,0 +1,373 @@
+package org.eltech.ddm.inputdata;
+
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.miningdata.ELogicalAttribute;
+import org.eltech.ddm.miningcore.miningdata.ELogicalData;
+import org.eltech.ddm.miningcore.miningdata.EPhysicalData;
+import org.eltech.ddm.miningcore.miningdata.assignment.AttributeAssignmentType;
+import org.omg.java.cwm.analysis.datamining.miningcore.miningdata.AttributeType;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.Arrays;
+
+/**
+ * Column oriented in-memory cache of any mining input stream. <p>
+ *
+ * The wrapped stream is read exactly once (sequentially) and its values
+ * are stored into primitive columns: <code>int[]</code> for categorical
+ * attributes (category keys) and <code>double[]</code> for numerical ones.
+ * After that <code>getVector</code> and <code>readPhysicalRecord</code>
+ * work in O(1) independently of the position of the requested vector,
+ * so the algorithm steps don't force file streams to re-parse the data
+ * on backward moves. <p>
+ *
+ * The vectors returned by the cursor (<code>next</code> and <code>move</code>)
+ * are flyweights: every thread gets one reusable <code>MiningVector</code>
+ * which is refilled on each cursor operation, so such a vector is valid until
+ * the next cursor operation of the same thread. <code>getVector</code> returns
+ * a new vector that may be kept by the caller.
+ */
+public class MiningColumnarStore extends MiningInputStream implements Cloneable
+{
+    // -----------------------------------------------------------------------
+    //  Variables definitions
+    // -----------------------------------------------------------------------
+    /** Columns of numerical attributes (null for categorical attributes). */
+    protected double[][] numericColumns;
+
+    /** Columns of categorical attributes (null for numerical attributes). */
+    protected int[][] categoricalColumns;
+
+    /** Number of cached vectors. */
+    protected int length;
+
+    /** Number of attributes. */
+    protected int attributesNumber;
+
+    /** Reusable vector of the current thread, it's created with the store and its copies. */
+    private transient volatile ThreadLocal<MiningVector> flyweight;
+
+    // -----------------------------------------------------------------------
+    //  Constructors
+    // -----------------------------------------------------------------------
+    /**
+     * Creates columnar store from any mining input stream. The stream is
+     * reset and read to the end once, its cursor is reset afterwards.
+     *
+     * @param inputStream mining input stream to read in
+     * @exception IllegalArgumentException input stream is null
+     * @exception MiningException could not read input stream
+     */
+    public MiningColumnarStore( MiningInputStream inputStream ) throws IllegalArgumentException, MiningException {
+        if (inputStream == null)
+            throw new IllegalArgumentException("MiningInputStream can't be null.");
+
+        if (!inputStream.isOpen())
+            inputStream.open();
+
+        this.physicalData = inputStream.getPhysicalData();
+        this.logicalData = inputStream.getLogicalData();
+        this.attributeAssignmentSet = inputStream.getAttributeAssignmentSet();
+        if (logicalData == null)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Input stream has no logical data");
+
+        attributesNumber = logicalData.getAttributesNumber();
+        numericColumns = new double[attributesNumber][];
+        categoricalColumns = new int[attributesNumber][];
+
+        int capacity = inputStream.vectorsNumber > 0 ? inputStream.vectorsNumber : 16;
+        for (int i = 0; i < attributesNumber; i++) {
+            ELogicalAttribute la = logicalData.getAttribute(i);
+            if (la.getAttributeType() == AttributeType.categorical)
+                categoricalColumns[i] = new int[capacity];
+            else
+                numericColumns[i] = new double[capacity];
+        }
+
+        load(inputStream);
+        flyweight = createFlyweight();
+
+        this.vectorsNumber = length;
+        this.cursorPosition = -1;
+        this.open = true;
+    }
+
+    /**
+     * Reads all vectors of the input stream into the columns.
+     *
+     * @param inputStream mining input stream to read in
+     * @exception MiningException could not read input stream
+     */
+    private void load(MiningInputStream inputStream) throws MiningException {
+        inputStream.reset();
+        MiningVector vec = inputStream.next();
+        while (vec != null) {
+            ensureCapacity(length + 1);
+            for (int i = 0; i < attributesNumber; i++)
+                store(length, i, vec.getValue(i));
+            length++;
+            vec = inputStream.next();
+        }
+        inputStream.reset();
+
+        // Trim columns to the real length:
+        for (int i = 0; i < attributesNumber; i++) {
+            if (categoricalColumns[i] != null)
+                categoricalColumns[i] = Arrays.copyOf(categoricalColumns[i], length);
+            else
+                numericColumns[i] = Arrays.copyOf(numericColumns[i], length);
+        }
+    }
+
+    /**
+     * Stores value into the column. Categorical column which gets
+     * non integral value (e.g. missing value) is converted to numerical.
+     */
+    private void store(int row, int attr, double value) {
+        int[] catColumn = categoricalColumns[attr];
+        if (catColumn != null) {
+            int key = (int) value;
+            if (key == value) {
+                catColumn[row] = key;
+                return;
+            }
+            double[] column = new double[catColumn.length];
+            for (int j = 0; j < row; j++)
+                column[j] = catColumn[j];
+            numericColumns[attr] = column;
+            categoricalColumns[attr] = null;
+        }
+        numericColumns[attr][row] = value;
+    }
+
+    private void ensureCapacity(int capacity) {
+        for (int i = 0; i < attributesNumber; i++) {
+            if (categoricalColumns[i] != null) {
+                if (categoricalColumns[i].length < capacity)
+                    categoricalColumns[i] = Arrays.copyOf(categoricalColumns[i], Math.max(capacity, categoricalColumns[i].length * 2));
+            }
+            else if (numericColumns[i].length < capacity)
+                numericColumns[i] = Arrays.copyOf(numericColumns[i], Math.max(capacity, numericColumns[i].length * 2));
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    //  Getter and setter methods
+    // -----------------------------------------------------------------------
+    /**
+     * Returns number of cached vectors.
+     *
+     * @return number of vectors
+     */
+    @Override
+    public int getVectorsNumber() {
+        return length;
+    }
+
+    /**
+     * Returns value of attribute for given vector without
+     * creation of mining vector.
+     *
+     * @param rowNumber the row number
+     * @param attributeIndex attribute index
+     * @return value of attribute (key of category for categorical attribute)
+     */
+    public double getValue(int rowNumber, int attributeIndex) {
+        int[] catColumn = categoricalColumns[attributeIndex];
+        return catColumn != null ? catColumn[rowNumber] : numericColumns[attributeIndex][rowNumber];
+    }
+
+    /**
+     * Is attribute stored as column of category keys?
+     *
+     * @param attributeIndex attribute index
+     * @return true if column is <code>int[]</code>, false if <code>double[]</code>
+     */
+    public boolean isCategoricalColumn(int attributeIndex) {
+        return categoricalColumns[attributeIndex] != null;
+    }
+
+    /**
+     * Returns column of numerical attribute. The column is not copied
+     * and must not be changed.
+     *
+     * @param attributeIndex attribute index
+     * @return column of values
+     * @exception MiningException attribute is stored as categorical column
+     */
+    public double[] getNumericColumn(int attributeIndex) throws MiningException {
+        if (numericColumns[attributeIndex] == null)
+            throw new MiningException(MiningErrorCode.INVALID_DATA_TYPE, "attribute " + attributeIndex + " is stored as categorical column");
+        return numericColumns[attributeIndex];
+    }
+
+    /**
+     * Returns column of categorical attribute. The column is not copied
+     * and must not be changed.
+     *
+     * @param attributeIndex attribute index
+     * @return column of category keys
+     * @exception MiningException attribute is stored as numerical column
+     */
+    public int[] getCategoricalColumn(int attributeIndex) throws MiningException {
+        if (categoricalColumns[attributeIndex] == null)
+            throw new MiningException(MiningErrorCode.INVALID_DATA_TYPE, "attribute " + attributeIndex + " is stored as numerical column");
+        return categoricalColumns[attributeIndex];
+    }
+
+    // -----------------------------------------------------------------------
+    //  General stream methods
+    // -----------------------------------------------------------------------
+    /**
+     * Opens columnar store.
+     *
+     * @exception MiningException if a mining source access error occurs
+     */
+    public synchronized void open() throws MiningException {
+        this.open = true;
+        reset();
+    }
+
+    /**
+     * Closes columnar store. The cached data is kept.
+     *
+     * @exception MiningException if a mining source access error occurs
+     */
+    public synchronized void close() throws MiningException {
+        if (!open)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Stream is already closed");
+
+        this.open = false;
+    }
+
+    /**
+     * Returns meta data of the wrapped stream.
+     *
+     * @return meta data
+     */
+    public EPhysicalData recognize() {
+        return physicalData;
+    }
+
+    // -----------------------------------------------------------------------
+    //  Methods of cursor positioning
+    // -----------------------------------------------------------------------
+    /**
+     * Set cursor before first row.
+     *
+     * @exception MiningException could not reset cursor
+     */
+    public void reset() throws MiningException {
+        if (!open)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can't reset closed stream. Call open()");
+
+        cursorPosition = -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MiningVector readPhysicalRecord() throws MiningException {
+        if (!open)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can't perform operation on closed stream. Call open()");
+
+        if (cursorPosition + 1 >= length)
+            return null;
+
+        cursorPosition++;
+        return readVector(cursorPosition);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected MiningVector movePhysicalRecord(int position) throws MiningException {
+        if (!open)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can't perform operation on closed stream. Call open()");
+
+        if (position < 0 || position >= length)
+            return null;
+
+        cursorPosition = position;
+        return readVector(position);
+    }
+
+    /**
+     * Reads vector at given position without moving the cursor. Streams with
+     * pivot assignment of attributes are read by <code>move</code>.
+     *
+     * @param rowNumber the row number
+     * @return new vector of the row, null if row is out of range
+     * @exception MiningException if an error occurs
+     */
+    @Override
+    public MiningVector getVector(int rowNumber) throws MiningException {
+        if (!open)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can't perform operation on closed stream. Call open()");
+
+        AttributeAssignmentType assignmentType = getAttributeAssignmentType();
+        if (assignmentType != null && assignmentType != AttributeAssignmentType.DirectAttributeAssignment)
+            return super.getVector(rowNumber);
+
+        if (rowNumber < 0 || rowNumber >= length)
+            return null;
+
+        MiningVector vector = new MiningVector(new double[attributesNumber]);
+        vector.setLogicalData(logicalData);
+        fillVector(vector, rowNumber);
+        return vector;
+    }
+
+    // -----------------------------------------------------------------------
+    //  Methods of reading from the store
+    // -----------------------------------------------------------------------
+    /**
+     * Fills flyweight vector of current thread by values of given row.
+     */
+    private MiningVector readVector(int rowNumber) {
+        MiningVector vector = flyweight.get();
+        fillVector(vector, rowNumber);
+        return vector;
+    }
+
+    private void fillVector(MiningVector vector, int rowNumber) {
+        double[] values = vector.values;
+        for (int i = 0; i < attributesNumber; i++) {
+            int[] catColumn = categoricalColumns[i];
+            values[i] = catColumn != null ? catColumn[rowNumber] : numericColumns[i][rowNumber];
+        }
+        vector.setIndex(rowNumber);
+    }
+
+    private ThreadLocal<MiningVector> createFlyweight() {
+        final ELogicalData ld = logicalData;
+        final int n = attributesNumber;
+        return ThreadLocal.withInitial(() -> {
+            MiningVector vector = new MiningVector(new double[n]);
+            vector.setLogicalData(ld);
+            return vector;
+        });
+    }
+
+    /**
+     * Clones the store. The columns are read only and shared between
+     * copies, every copy has its own cursor and flyweight vectors.
+     *
+     * @return copy of the store
+     */
+    @Override
+    public Object clone() {
+        MiningColumnarStore o = (MiningColumnarStore) super.clone();
+        o.flyweight = o.createFlyweight();
+        return o;
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        flyweight = createFlyweight();
+    }
+}
@@ -485,6 +485,10 @@ public abstract class MiningInputStream implements Cloneable, Serializable //ext
 	}
 	
 	//--assignment
+	protected AttributeAssignmentType getAttributeAssignmentType() {
+		return attributeAssignmentType;
+	}
+
 	public void setAssignmentManager(AssignmentManager assignmentManager) throws MiningException{
 		attributeAssignmentSet = assignmentManager.getAttributeAssignmentSet();
 		attributeAssignmentType = assignmentManager.getAttributeAssignmentType();
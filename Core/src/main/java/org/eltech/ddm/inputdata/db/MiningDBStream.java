@@ -16,10 +16,20 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Класс для работы с БД
+ * Класс для работы с БД. <p>
+ *
+ * В потоковом режиме ({@link #setStreaming(boolean)}) запрос открывается однонаправленным курсором
+ * только для чтения с отключенной автофиксацией, поэтому драйвер (например, PostgreSQL) получает строки
+ * порциями по {@link #getFetchSize()} строк, а не загружает всю таблицу в память. Возврат к началу
+ * выполняет запрос заново. Число строк определяется запросом {@code select count(*)}.
  */
 public class MiningDBStream extends MiningInputStream {
 
+    /**
+     * Число строк, получаемых драйвером за одно обращение к БД, по умолчанию
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
     //Соединение с БД
     private Connection con;
     //Адрес подключения к БД
@@ -32,6 +42,14 @@ public class MiningDBStream extends MiningInputStream {
 
     //Данные из БД, полученные в результате запроса
     private ResultSet values;
+    //Запрос, открывший данные
+    private Statement statement;
+    //Потоковый режим чтения данных
+    private boolean streaming;
+    //Число строк, получаемых драйвером за одно обращение к БД
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    //Режим автофиксации соединения до открытия потокового запроса
+    private boolean autoCommit = true;
     //Метаданные о БД
     private DatabaseMetaData metaData;
     //Настройки по преобразованию данных
@@ -135,6 +153,7 @@ public class MiningDBStream extends MiningInputStream {
             throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Stream is already closed");
         }
 
+        closeData();
         ConnectionPool.getInstance().freeConnection(con, url);
         this.open = false;
     }
@@ -189,27 +208,52 @@ public class MiningDBStream extends MiningInputStream {
 
     /**
      * {@inheritDoc}
+     * Число строк определяется запросом к БД без чтения данных, оно сохраняется до сброса потока.
      */
     @Override
-    public int getVectorsNumber() {
-        if (values == null) {
-            try {
-                getData();
-            } catch (MiningDataException e) {
-                e.printStackTrace();
-            }
-        }
+    public int getVectorsNumber() throws MiningException {
+        if (vectorsNumber > 0)
+            return vectorsNumber;
 
-        int counter = 0;
-        try {
-            while (values.next()) {
-                ++counter;
-            }
-            return values.getFetchSize();
-        } catch (SQLException e) {
-            e.printStackTrace();
+        try (Statement stmt = con.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*) from " + tableName)) {
+            rs.next();
+            vectorsNumber = rs.getInt(1);
+        } catch (SQLException ex) {
+            throw new MiningDataException("Can not count rows: " + ex.getMessage());
         }
-        return counter;
+        return vectorsNumber;
+    }
+
+    /**
+     * Включение потокового режима чтения данных. Открытый запрос закрывается,
+     * данные будут получены заново при следующем чтении.
+     * @param streaming читать данные однонаправленным курсором порциями
+     */
+    public void setStreaming(boolean streaming) throws MiningException {
+        if (this.streaming == streaming)
+            return;
+        closeData();
+        this.streaming = streaming;
+        cursorPosition = -1;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * Число строк, получаемых драйвером за одно обращение к БД. Применяется к следующему запросу.
+     * @param fetchSize число строк
+     */
+    public void setFetchSize(int fetchSize) {
+        if (fetchSize < 1)
+            throw new IllegalArgumentException("Fetch size must be positive: " + fetchSize);
+        this.fetchSize = fetchSize;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
     }
 
     /**
@@ -263,11 +307,16 @@ public class MiningDBStream extends MiningInputStream {
         if (!open)
             throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can't reset closed stream. Call open()");
 
-        try {
-            values.beforeFirst();
-        } catch (SQLException e) {
-            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can not reset "+e.getMessage());
+        if (streaming) {
+            closeData(); // the query is executed again by the next read
+        } else if (values != null) {
+            try {
+                values.beforeFirst();
+            } catch (SQLException e) {
+                throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can not reset "+e.getMessage());
+            }
         }
+        vectorsNumber = 0; // rows are counted again after reset in both modes
         cursorPosition = -1;
     }
 
@@ -287,7 +336,8 @@ public class MiningDBStream extends MiningInputStream {
         int i = 0;
 
         try {
-            values.next();
+            if (!values.next())
+                return null;
         } catch (SQLException e) {
             throw new MiningDataException(e.getMessage());
         }
@@ -361,13 +411,17 @@ public class MiningDBStream extends MiningInputStream {
 
         int offset = position - cursorPosition;
 
-        if (offset < 0) {
+        if (offset <= 0) { // the current row is read again too
             cursorPosition = -1;
             offset = position - cursorPosition;
-            try {
-                values.beforeFirst();
-            } catch (SQLException e) {
-                e.printStackTrace();
+            if (streaming) {
+                getData(); // forward-only cursor is not moved back
+            } else {
+                try {
+                    values.beforeFirst();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
             }
         }
 
@@ -388,16 +442,47 @@ public class MiningDBStream extends MiningInputStream {
      */
     private void getData() throws MiningDataException {
         String getDataQuery = "select * from " + tableName/* + " order by " + allSettings.entrySet().iterator().next().getKey()*/;
-        Statement stmt;
 
+        closeData();
         try {
-            stmt = con.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
-            values = stmt.executeQuery(getDataQuery);
+            if (streaming) {
+                // drivers fetch rows by portions inside transaction only
+                autoCommit = con.getAutoCommit();
+                con.setAutoCommit(false);
+                statement = con.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchDirection(ResultSet.FETCH_FORWARD);
+            } else {
+                statement = con.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE);
+            }
+            statement.setFetchSize(fetchSize);
+            values = statement.executeQuery(getDataQuery);
         } catch (SQLException ex) {
             throw new MiningDataException(ex.getMessage());
         }
     }
 
+    /**
+     * Закрытие данных запроса. Транзакция потокового запроса завершается,
+     * соединению возвращается прежний режим автофиксации.
+     */
+    private void closeData() throws MiningDataException {
+        if (statement == null)
+            return;
+
+        try {
+            statement.close(); // closes the result set too
+            if (streaming) {
+                con.rollback(); // the transaction has read data only
+                con.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException ex) {
+            throw new MiningDataException("Can not close query: " + ex.getMessage());
+        } finally {
+            statement = null;
+            values = null;
+        }
+    }
+
     /**
      * Получение названий и типов данных всех столбцов
      * @return объект всех названий столбцов и их типов данных
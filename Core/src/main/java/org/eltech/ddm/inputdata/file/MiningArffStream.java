@@ -29,6 +29,7 @@ package org.eltech.ddm.inputdata.file;
 
 import org.eltech.ddm.inputdata.MiningSparseVector;
 import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.inputdata.file.common.RowOffsetIndex;
 import org.eltech.ddm.miningcore.MiningDataException;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.miningdata.*;
@@ -446,7 +447,21 @@ public class MiningArffStream extends MiningFileStream
 	@Override
 	synchronized protected MiningVector movePhysicalRecord(int position) throws MiningException {
 		MiningVector mv;
-		if(getCurrentPosition() < position)
+		RowOffsetIndex index = getRowIndex();
+		if(index != null && (position <= getCurrentPosition() || position - getCurrentPosition() > index.getStep()))
+		{
+			if(position < 0 || position >= index.getRowsNumber())
+				return null;
+
+			// continue from the nearest indexed row
+			int row = index.getIndexedRow(position);
+			openReaderAt(index.getOffset(row));
+			initTokenizer( reader );
+			cursorPosition = row - 1;
+			do{mv = next();}
+			while((mv != null) && (getCurrentPosition() < position));
+		}
+		else if(getCurrentPosition() < position)
 		{
 			do{mv = next();}
 			while((mv!= null) && (getCurrentPosition() < position));
@@ -461,6 +476,14 @@ public class MiningArffStream extends MiningFileStream
         return mv;
 	}
 
+	/**
+	 * Creates index of rows of the data section.
+	 */
+	@Override
+	protected RowOffsetIndex createRowIndex(int step, boolean persistent) throws MiningException {
+		return RowOffsetIndex.open(path, RowOffsetIndex.Syntax.ARFF, 0, step, persistent);
+	}
+
 	@Override
 	public Object clone() {
         return super.clone();
@@ -20,6 +20,7 @@ package org.eltech.ddm.inputdata.file;
 
 import org.eltech.ddm.inputdata.MiningInputStream;
 import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.inputdata.file.common.RowOffsetIndex;
 import org.eltech.ddm.miningcore.MiningDataException;
 import org.eltech.ddm.miningcore.MiningErrorCode;
 import org.eltech.ddm.miningcore.MiningException;
@@ -44,6 +45,15 @@ public abstract class MiningFileStream extends MiningInputStream {
     /** File reader object. */
     protected transient Reader reader;
 
+    /** Index of rows, it's built on the first use. */
+    private transient RowOffsetIndex rowIndex;
+
+    /** Number of rows between indexed offsets, 0 if the index isn't used. */
+    private int rowIndexStep;
+
+    /** Is the index saved as sidecar file? */
+    private boolean rowIndexPersistent;
+
     // -----------------------------------------------------------------------
     //  Constructor
     // -----------------------------------------------------------------------
@@ -89,6 +99,98 @@ public abstract class MiningFileStream extends MiningInputStream {
         return path;
     }
 
+    // -----------------------------------------------------------------------
+    //  Row index
+    // -----------------------------------------------------------------------
+
+    /**
+     * Enables index of rows for the stream. The index gives seeks to any vector
+     * from the nearest indexed row and the number of vectors without reading them.
+     * It's built by a scan of the file on the first use.
+     *
+     * @param step number of rows between indexed offsets, 0 disables the index
+     * @param persistent if true, the index is saved next to the data file
+     *                   and loaded on later opens while the file isn't changed
+     */
+    public void setRowIndex(int step, boolean persistent) {
+        if (step < 0)
+            throw new IllegalArgumentException("Step of the row index must not be negative: " + step);
+
+        this.rowIndexStep = step;
+        this.rowIndexPersistent = persistent;
+        this.rowIndex = null;
+    }
+
+    /**
+     * Returns index of rows, builds or loads it on the first call.
+     *
+     * @return index of rows or null if the index isn't used or isn't supported by the format
+     * @throws MiningException file can't be indexed
+     */
+    public synchronized RowOffsetIndex getRowIndex() throws MiningException {
+        if (rowIndex == null && rowIndexStep > 0)
+            rowIndex = createRowIndex(rowIndexStep, rowIndexPersistent);
+        return rowIndex;
+    }
+
+    /**
+     * Creates index of rows of the file. Formats which support the index override it.
+     *
+     * @param step number of rows between indexed offsets
+     * @param persistent use sidecar file of the index
+     * @return index of rows or null if it isn't supported
+     * @throws MiningException file can't be indexed
+     */
+    protected RowOffsetIndex createRowIndex(int step, boolean persistent) throws MiningException {
+        return null;
+    }
+
+    /**
+     * Uses index settings and the built index of other stream of the same file.
+     *
+     * @param stream stream of the same file
+     */
+    protected void copyRowIndex(MiningFileStream stream) {
+        this.rowIndexStep = stream.rowIndexStep;
+        this.rowIndexPersistent = stream.rowIndexPersistent;
+        this.rowIndex = stream.rowIndex;
+    }
+
+    /**
+     * Reopens the reader of the file at the given byte offset.
+     *
+     * @param offset offset of the first byte to read
+     * @throws MiningException if a mining source access error occurs
+     */
+    protected void openReaderAt(long offset) throws MiningException {
+        try {
+            if (reader != null) reader.close();
+            FileInputStream in = new FileInputStream(this.path);
+            in.getChannel().position(offset);
+            reader = new BufferedReader(new InputStreamReader(in));
+        } catch (IOException ex) {
+            this.reader = null;
+            throw new MiningDataException("Can't read from the file: " + this.path);
+        }
+    }
+
+    /**
+     * Returns number of vectors. If the row index is used, the number
+     * is taken from the index without reading of vectors.
+     *
+     * @return number of vectors
+     * @exception MiningException if a mining source access error occurs
+     */
+    @Override
+    public int getVectorsNumber() throws MiningException {
+        RowOffsetIndex index = getRowIndex();
+        if (index == null)
+            return super.getVectorsNumber();
+
+        vectorsNumber = index.getRowsNumber();
+        return vectorsNumber;
+    }
+
     // -----------------------------------------------------------------------
     //  General stream methods
     // -----------------------------------------------------------------------
@@ -0,0 +1,233 @@
+package org.eltech.ddm.inputdata.file.binary;
+
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningDataException;
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.miningdata.ECategoricalAttributeProperties;
+import org.eltech.ddm.miningcore.miningdata.ELogicalData;
+import org.omg.java.cwm.analysis.datamining.miningcore.miningdata.AttributeType;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+
+/**
+ * Converter of any mining input stream to the binary columnar format read by
+ * {@link MiningBinaryStream}. <p>
+ *
+ * Layout of the file (big-endian):
+ * <pre>
+ * magic, version
+ * column chunks: chunk 0 of all attributes, chunk 1 of all attributes, ...
+ * footer: attributes number, vectors number, rows per chunk, chunks number,
+ *         serialized meta data (logical data, physical data, attribute assignments,
+ *         category dictionaries),
+ *         directory of chunks (offset, length, encoding)
+ * offset of the footer, magic
+ * </pre>
+ * Meta data is written after the columns because categories of text streams are
+ * collected while their vectors are read. A column chunk of a categorical attribute
+ * keeps category keys as ints, other chunks keep doubles. Chunks can be deflated.
+ */
+public class BinaryColumnarWriter {
+
+    static final int MAGIC = 0x44444D42; // "DDMB"
+    static final int VERSION = 1;
+
+    /** Encoding flag: values are ints (category keys), else doubles */
+    static final int ENCODING_INT = 1;
+    /** Encoding flag: chunk is deflated */
+    static final int ENCODING_DEFLATE = 2;
+
+    /**
+     * Default number of rows of one column chunk
+     */
+    public static final int DEFAULT_CHUNK_ROWS = 1 << 16;
+
+    private int chunkRows = DEFAULT_CHUNK_ROWS;
+
+    private boolean compressed;
+
+    /**
+     * @param chunkRows - number of rows of one column chunk
+     */
+    public void setChunkRows(int chunkRows) {
+        if (chunkRows < 1)
+            throw new IllegalArgumentException("Number of rows of a chunk must be positive: " + chunkRows);
+        this.chunkRows = chunkRows;
+    }
+
+    public int getChunkRows() {
+        return chunkRows;
+    }
+
+    /**
+     * @param compressed - deflate the column chunks
+     */
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Reads the stream from the beginning to the end and writes it to the file.
+     *
+     * @param input - input data
+     * @param path  - path to the binary file
+     * @return number of written vectors
+     * @throws MiningException - data can't be read or the file can't be written
+     */
+    public int write(MiningInputStream input, String path) throws MiningException {
+        if (!input.isOpen())
+            input.open();
+
+        ELogicalData logicalData = input.getLogicalData();
+        if (logicalData == null)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Input stream has no logical data");
+
+        int attributesNumber = logicalData.getAttributesNumber();
+        boolean[] categorical = new boolean[attributesNumber];
+        for (int i = 0; i < attributesNumber; i++)
+            categorical[i] = logicalData.getAttribute(i).getAttributeType() == AttributeType.categorical;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(path), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            long offset = 8;
+
+            ByteArrayOutputStream directoryBytes = new ByteArrayOutputStream();
+            DataOutputStream directory = new DataOutputStream(directoryBytes);
+            double[][] chunk = new double[attributesNumber][chunkRows];
+            int rows = 0;
+            int chunkSize = 0;
+            int chunks = 0;
+
+            input.reset();
+            for (MiningVector vector = input.next(); vector != null; vector = input.next()) {
+                for (int i = 0; i < attributesNumber; i++)
+                    chunk[i][chunkSize] = vector.getValue(i);
+                rows++;
+                if (++chunkSize == chunkRows) {
+                    offset = writeChunk(out, directory, chunk, chunkSize, categorical, offset);
+                    chunkSize = 0;
+                    chunks++;
+                }
+            }
+            if (chunkSize > 0) {
+                offset = writeChunk(out, directory, chunk, chunkSize, categorical, offset);
+                chunks++;
+            }
+            input.reset();
+
+            // meta data is complete when all vectors are read
+            byte[] metaData = serializeMetaData(input);
+            out.writeInt(attributesNumber);
+            out.writeInt(rows);
+            out.writeInt(chunkRows);
+            out.writeInt(chunks);
+            out.writeInt(metaData.length);
+            out.write(metaData);
+            directoryBytes.writeTo(out);
+            out.writeLong(offset);
+            out.writeInt(MAGIC);
+            return rows;
+        } catch (IOException ex) {
+            throw new MiningDataException("Can't write the file: " + path, ex);
+        }
+    }
+
+    /**
+     * Writes columns of the chunk and adds their entries to the directory
+     *
+     * @return offset after the chunk
+     */
+    private long writeChunk(DataOutputStream out, DataOutputStream directory, double[][] chunk, int size,
+                            boolean[] categorical, long offset) throws IOException {
+        for (int i = 0; i < chunk.length; i++) {
+            boolean ints = categorical[i] && isIntegral(chunk[i], size);
+            ByteBuffer column = ByteBuffer.allocate(size * (ints ? Integer.BYTES : Double.BYTES));
+            for (int j = 0; j < size; j++) {
+                if (ints)
+                    column.putInt((int) chunk[i][j]);
+                else
+                    column.putDouble(chunk[i][j]);
+            }
+
+            byte[] bytes = column.array();
+            int encoding = ints ? ENCODING_INT : 0;
+            if (compressed) {
+                byte[] deflated = deflate(bytes);
+                if (deflated.length < bytes.length) {
+                    bytes = deflated;
+                    encoding |= ENCODING_DEFLATE;
+                }
+            }
+
+            out.write(bytes);
+            directory.writeLong(offset);
+            directory.writeInt(bytes.length);
+            directory.writeByte(encoding);
+            offset += bytes.length;
+        }
+        return offset;
+    }
+
+    /**
+     * Category keys are integral, missing values are stored as doubles
+     */
+    private static boolean isIntegral(double[] column, int size) {
+        for (int j = 0; j < size; j++) {
+            if ((int) column[j] != column[j])
+                return false;
+        }
+        return true;
+    }
+
+    private static byte[] deflate(byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2 + 16);
+            byte[] buffer = new byte[1 << 13];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] serializeMetaData(MiningInputStream input) throws MiningException, IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            // one graph, so the assignments keep references to the attributes
+            out.writeObject(input.getLogicalData());
+            out.writeObject(input.getPhysicalData());
+            out.writeObject(input.getAttributeAssignmentSet());
+
+            // categories are not serializable with the attributes, so dictionaries are written separately
+            ELogicalData logicalData = input.getLogicalData();
+            for (int i = 0; i < logicalData.getAttributesNumber(); i++) {
+                ECategoricalAttributeProperties catPr = logicalData.getAttribute(i).getCategoricalProperties();
+                if (catPr == null) {
+                    out.writeInt(-1);
+                    continue;
+                }
+                out.writeInt(catPr.getSize());
+                for (int j = 0; j < catPr.getSize(); j++) {
+                    out.writeObject(catPr.getValue(j));
+                    out.writeObject(catPr.getProperty(j));
+                }
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,294 @@
+package org.eltech.ddm.inputdata.file.binary;
+
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.inputdata.file.MiningFileStream;
+import org.eltech.ddm.inputdata.file.common.CloneableStream;
+import org.eltech.ddm.inputdata.file.common.MappedFile;
+import org.eltech.ddm.miningcore.MiningDataException;
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.miningdata.EAttributeAssignmentSet;
+import org.eltech.ddm.miningcore.miningdata.ECategoricalAttributeProperties;
+import org.eltech.ddm.miningcore.miningdata.ELogicalData;
+import org.eltech.ddm.miningcore.miningdata.EPhysicalData;
+import org.omg.java.cwm.analysis.datamining.miningcore.miningdata.CategoryProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Mining input stream of the binary columnar format written by {@link BinaryColumnarWriter}. <p>
+ *
+ * The file is memory-mapped, meta data is deserialized from the footer, so neither
+ * text parsing nor recognition is done. Values of a vector are read from the column
+ * chunks of its row; not compressed chunks are read directly from the mapping,
+ * deflated chunks are inflated when the stream moves to them. <p>
+ *
+ * All vectors are accessed in O(1), the copies ({@link #deepCopy()}, {@link #clone()})
+ * share the mapping and have own cursors.
+ */
+public class MiningBinaryStream extends MiningFileStream implements CloneableStream {
+
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+    private static final int DIRECTORY_ENTRY_SIZE = Long.BYTES + Integer.BYTES + 1;
+
+    private final transient MappedFile mapping;
+
+    private final int attributesNumber;
+    private final int chunkRows;
+
+    // Directory of column chunks: index is chunk * attributesNumber + attribute
+    private final long[] chunkOffsets;
+    private final int[] chunkLengths;
+    private final byte[] chunkEncodings;
+
+    // Columns of the current chunk (one of them is null for every attribute)
+    private transient int currentChunk = -1;
+    private transient DoubleBuffer[] doubleColumns;
+    private transient IntBuffer[] intColumns;
+
+    /**
+     * Maps the binary file and reads its meta data
+     *
+     * @param file - path to the binary file
+     */
+    public MiningBinaryStream(String file) throws MiningException {
+        super(file);
+        try {
+            mapping = new MappedFile(file);
+        } catch (IOException ex) {
+            throw new MiningDataException("Can't map the file: " + file, ex);
+        }
+
+        long size = mapping.size();
+        if (size < 8 + TRAILER_SIZE)
+            throw new MiningDataException("The file is not binary data file: " + file);
+        ByteBuffer trailer = mapping.slice(size - TRAILER_SIZE, TRAILER_SIZE);
+        long footerOffset = trailer.getLong();
+        ByteBuffer head = mapping.slice(0, 8);
+        if (trailer.getInt() != BinaryColumnarWriter.MAGIC || head.getInt() != BinaryColumnarWriter.MAGIC)
+            throw new MiningDataException("The file is not binary data file: " + file);
+        if (head.getInt() != BinaryColumnarWriter.VERSION)
+            throw new MiningDataException("Unsupported version of binary data file: " + file);
+
+        ByteBuffer footer = mapping.slice(footerOffset, (int) (size - TRAILER_SIZE - footerOffset));
+        attributesNumber = footer.getInt();
+        vectorsNumber = footer.getInt();
+        chunkRows = footer.getInt();
+        int chunks = footer.getInt();
+
+        byte[] metaData = new byte[footer.getInt()];
+        footer.get(metaData);
+        readMetaData(metaData);
+
+        int entries = chunks * attributesNumber;
+        if (footer.remaining() != entries * DIRECTORY_ENTRY_SIZE)
+            throw new MiningDataException("Broken directory of binary data file: " + file);
+        chunkOffsets = new long[entries];
+        chunkLengths = new int[entries];
+        chunkEncodings = new byte[entries];
+        for (int i = 0; i < entries; i++) {
+            chunkOffsets[i] = footer.getLong();
+            chunkLengths[i] = footer.getInt();
+            chunkEncodings[i] = footer.get();
+        }
+
+        open();
+    }
+
+    /**
+     * Copy of the stream with own cursor
+     */
+    private MiningBinaryStream(MiningBinaryStream stream) {
+        super(stream.path, stream.logicalData);
+        this.physicalData = stream.physicalData;
+        this.attributeAssignmentSet = stream.attributeAssignmentSet;
+        this.vectorsNumber = stream.vectorsNumber;
+        this.mapping = stream.mapping;
+        this.attributesNumber = stream.attributesNumber;
+        this.chunkRows = stream.chunkRows;
+        this.chunkOffsets = stream.chunkOffsets;
+        this.chunkLengths = stream.chunkLengths;
+        this.chunkEncodings = stream.chunkEncodings;
+        this.open = true;
+        this.cursorPosition = -1;
+    }
+
+    private void readMetaData(byte[] bytes) throws MiningException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            logicalData = (ELogicalData) in.readObject();
+            physicalData = (EPhysicalData) in.readObject();
+            attributeAssignmentSet = (EAttributeAssignmentSet) in.readObject();
+
+            for (int i = 0; i < logicalData.getAttributesNumber(); i++) {
+                int categories = in.readInt();
+                if (categories < 0)
+                    continue;
+
+                ECategoricalAttributeProperties catPr = logicalData.getAttribute(i).getCategoricalProperties();
+                catPr.removeAllCategories();
+                for (int j = 0; j < categories; j++)
+                    catPr.addCategory(in.readObject(), (CategoryProperty) in.readObject());
+            }
+        } catch (IOException | ClassNotFoundException ex) {
+            throw new MiningDataException("Can't read meta data of binary data file: " + path, ex);
+        }
+    }
+
+    /**
+     * The file is mapped, so only the cursor is reset
+     */
+    @Override
+    public void open() throws MiningException {
+        this.open = true;
+        reset();
+    }
+
+    @Override
+    public void close() throws MiningException {
+        if (!this.isOpen())
+            throw new MiningDataException("Stream is already closed");
+
+        this.open = false;
+        currentChunk = -1;
+        doubleColumns = null;
+        intColumns = null;
+    }
+
+    @Override
+    public void reset() throws MiningException {
+        if (!this.isOpen())
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can't reset closed stream. Call open()");
+
+        cursorPosition = -1;
+    }
+
+    /**
+     * Meta data is read from the file
+     */
+    @Override
+    public EPhysicalData recognize() {
+        return physicalData;
+    }
+
+    @Override
+    public int getVectorsNumber() {
+        return vectorsNumber;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MiningVector readPhysicalRecord() throws MiningException {
+        if (cursorPosition + 1 >= vectorsNumber)
+            return null;
+
+        cursorPosition++;
+        return readVector(cursorPosition);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected MiningVector movePhysicalRecord(int position) throws MiningException {
+        if (position < 0 || position >= vectorsNumber)
+            return null;
+
+        cursorPosition = position;
+        return readVector(position);
+    }
+
+    private MiningVector readVector(int row) throws MiningException {
+        if (!open)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can't perform operation on closed stream. Call open()");
+
+        int chunk = row / chunkRows;
+        if (chunk != currentChunk)
+            loadChunk(chunk);
+
+        int index = row - chunk * chunkRows;
+        double[] values = new double[attributesNumber];
+        for (int i = 0; i < attributesNumber; i++)
+            values[i] = intColumns[i] != null ? intColumns[i].get(index) : doubleColumns[i].get(index);
+
+        MiningVector vector = new MiningVector(values);
+        vector.setLogicalData(logicalData);
+        vector.setIndex(row);
+        return vector;
+    }
+
+    private void loadChunk(int chunk) throws MiningException {
+        if (doubleColumns == null) {
+            doubleColumns = new DoubleBuffer[attributesNumber];
+            intColumns = new IntBuffer[attributesNumber];
+        }
+
+        int rows = Math.min(chunkRows, vectorsNumber - chunk * chunkRows);
+        for (int i = 0; i < attributesNumber; i++) {
+            int entry = chunk * attributesNumber + i;
+            int encoding = chunkEncodings[entry];
+            boolean ints = (encoding & BinaryColumnarWriter.ENCODING_INT) != 0;
+            ByteBuffer column = mapping.slice(chunkOffsets[entry], chunkLengths[entry]);
+            if ((encoding & BinaryColumnarWriter.ENCODING_DEFLATE) != 0)
+                column = inflate(column, rows * (ints ? Integer.BYTES : Double.BYTES));
+
+            intColumns[i] = ints ? column.asIntBuffer() : null;
+            doubleColumns[i] = ints ? null : column.asDoubleBuffer();
+        }
+        currentChunk = chunk;
+    }
+
+    private ByteBuffer inflate(ByteBuffer column, int length) throws MiningException {
+        byte[] input = new byte[column.remaining()];
+        column.get(input);
+        byte[] output = new byte[length];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            int n = 0;
+            while (n < length && !inflater.finished())
+                n += inflater.inflate(output, n, length - n);
+            if (n != length)
+                throw new MiningDataException("Broken column chunk of binary data file: " + path);
+        } catch (DataFormatException ex) {
+            throw new MiningDataException("Broken column chunk of binary data file: " + path, ex);
+        } finally {
+            inflater.end();
+        }
+        return ByteBuffer.wrap(output);
+    }
+
+    /**
+     * Creates copy with own cursor, the mapping and the meta data are shared
+     */
+    @Override
+    public MiningFileStream deepCopy() {
+        return new MiningBinaryStream(this);
+    }
+
+    @Override
+    public Object clone() {
+        MiningBinaryStream o = (MiningBinaryStream) super.clone();
+        o.currentChunk = -1;
+        o.doubleColumns = null;
+        o.intColumns = null;
+        return o;
+    }
+
+    @Override
+    public String toString() {
+        return "MiningBinaryStream{" +
+                "path=" + path +
+                ", vectorsNumber=" + vectorsNumber +
+                ", currentPosition=" + cursorPosition +
+                '}';
+    }
+}
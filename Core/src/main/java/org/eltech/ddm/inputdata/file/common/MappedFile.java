@@ -0,0 +1,118 @@
+package org.eltech.ddm.inputdata.file.common;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only mapping of the file. Files greater than 2 GB are mapped by several segments.
+ * The mapping is shared by streams which read parts of the file; it's released when
+ * all of them are released.
+ */
+public final class MappedFile {
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    /**
+     * Maps the whole file
+     *
+     * @param path - path to the file
+     */
+    public MappedFile(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            size = channel.size();
+            int n = (int) ((size + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[n];
+            for (int i = 0; i < n; i++) {
+                long offset = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(SEGMENT_MASK + 1, size - offset));
+            }
+        }
+    }
+
+    /**
+     * @return size of the file in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    public byte get(long pos) {
+        return segments[(int) (pos >>> SEGMENT_SHIFT)].get((int) (pos & SEGMENT_MASK));
+    }
+
+    /**
+     * Returns bytes of the range in big-endian order. The range is a view of the mapping
+     * if it lies in one segment, otherwise its bytes are copied.
+     *
+     * @param pos    - offset of the first byte
+     * @param length - number of bytes
+     * @return buffer with position 0 and limit length
+     */
+    public ByteBuffer slice(long pos, int length) {
+        int segment = (int) (pos >>> SEGMENT_SHIFT);
+        int start = (int) (pos & SEGMENT_MASK);
+        if (start + (long) length <= segments[segment].capacity()) {
+            ByteBuffer view = segments[segment].duplicate();
+            view.position(start);
+            view.limit(start + length);
+            return view.slice().order(ByteOrder.BIG_ENDIAN);
+        }
+
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++)
+            bytes[i] = get(pos + i);
+        return ByteBuffer.wrap(bytes);
+    }
+
+    /**
+     * @return position of line break of the line (or the end of range)
+     */
+    public long lineEnd(long pos, long end) {
+        while (pos < end && get(pos) != '\n')
+            pos++;
+        return pos;
+    }
+
+    /**
+     * @return end of the line content without line break
+     */
+    public long contentEnd(long pos, long end) {
+        long e = lineEnd(pos, end);
+        return (e > pos && get(e - 1) == '\r') ? e - 1 : e;
+    }
+
+    /**
+     * @return start of the next line (or the end of range)
+     */
+    public long nextLine(long pos, long end) {
+        long e = lineEnd(pos, end);
+        return e < end ? e + 1 : end;
+    }
+
+    /**
+     * Counts not blank lines in the range
+     */
+    public int countRecords(long from, long to) {
+        int count = 0;
+        boolean content = false;
+        for (long p = from; p < to; p++) {
+            byte b = get(p);
+            if (b == '\n') {
+                if (content)
+                    count++;
+                content = false;
+            } else if (b != '\r') {
+                content = true;
+            }
+        }
+        return content ? count + 1 : count;
+    }
+}
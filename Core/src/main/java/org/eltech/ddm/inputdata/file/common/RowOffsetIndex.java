@@ -0,0 +1,358 @@
+package org.eltech.ddm.inputdata.file.common;
+
+import org.eltech.ddm.miningcore.MiningDataException;
+import org.eltech.ddm.miningcore.MiningException;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * Sampled index of rows of a text data file. The index keeps byte offset of
+ * every {@link #getStep()}-th row and the number of rows, so a stream can seek
+ * near any row without parsing the file from the beginning and knows the number
+ * of vectors without reading them. <p>
+ *
+ * The index can be saved as a sidecar file next to the data file
+ * ({@link #getSidecarFile(String)}). The sidecar is used on later opens while
+ * length and modification time of the data file are not changed.
+ */
+public final class RowOffsetIndex implements Serializable {
+
+    private static final Logger LOGGER = Logger.getLogger(RowOffsetIndex.class.getName());
+
+    /**
+     * Default number of rows between two indexed offsets
+     */
+    public static final int DEFAULT_STEP = 1024;
+
+    /**
+     * Extension of the sidecar file added to the name of the data file
+     */
+    public static final String SIDECAR_EXTENSION = ".idx";
+
+    private static final int MAGIC = 0x44444D49; // "DDMI"
+    private static final int VERSION = 2; // blank lines of CSV files are not rows since version 2
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Row syntax of indexed files
+     */
+    public enum Syntax {
+        /**
+         * Every not blank line after the header is a row, quoted values can contain line breaks
+         */
+        CSV,
+        /**
+         * Rows are not blank and not comment lines after the line '@data'
+         */
+        ARFF
+    }
+
+    private final String layout;
+    private final long fileLength;
+    private final long lastModified;
+    private final int step;
+    private final int rowsNumber;
+    private final long[] offsets;
+
+    private RowOffsetIndex(String layout, long fileLength, long lastModified, int step, int rowsNumber, long[] offsets) {
+        this.layout = layout;
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.step = step;
+        this.rowsNumber = rowsNumber;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Returns index of the file. If the index is persistent, it's loaded from the sidecar
+     * file, or it's built and saved if the sidecar is absent or stale.
+     *
+     * @param path        - path to the data file
+     * @param syntax      - row syntax of the file
+     * @param headerLines - number of lines before rows (used only for CSV)
+     * @param step        - number of rows between indexed offsets
+     * @param persistent  - use the sidecar file
+     * @return index of rows of the file
+     * @throws MiningException - the file can't be read
+     */
+    public static RowOffsetIndex open(String path, Syntax syntax, int headerLines, int step, boolean persistent) throws MiningException {
+        if (persistent) {
+            RowOffsetIndex index = load(path, syntax, headerLines, step);
+            if (index != null)
+                return index;
+        }
+
+        RowOffsetIndex index;
+        try {
+            index = build(path, syntax, headerLines, step);
+        } catch (IOException ex) {
+            throw new MiningDataException("Can't index the file: " + path, ex);
+        }
+
+        if (persistent) {
+            try {
+                index.save(path);
+            } catch (IOException ex) {
+                LOGGER.warning("Can't save the row index of the file " + path + ": " + ex.getMessage());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Scans the file and builds the index
+     *
+     * @param path        - path to the data file
+     * @param syntax      - row syntax of the file
+     * @param headerLines - number of lines before rows (used only for CSV)
+     * @param step        - number of rows between indexed offsets
+     * @return index of rows of the file
+     */
+    public static RowOffsetIndex build(String path, Syntax syntax, int headerLines, int step) throws IOException {
+        if (step < 1)
+            throw new IllegalArgumentException("Step of the row index must be positive: " + step);
+
+        File file = new File(path);
+        long lastModified = file.lastModified();
+        Rows rows = new Rows(step);
+        try (Scanner in = new Scanner(new FileInputStream(file))) {
+            if (syntax == Syntax.CSV)
+                scanCsv(in, headerLines, rows);
+            else
+                scanArff(in, rows);
+        }
+        return new RowOffsetIndex(layout(syntax, headerLines), file.length(), lastModified, step,
+                rows.count, Arrays.copyOf(rows.offsets, rows.size));
+    }
+
+    private static void scanCsv(Scanner in, int headerLines, Rows rows) throws IOException {
+        for (int i = 0; i < headerLines; i++)
+            in.skipLine();
+
+        while (true) {
+            long start = in.position;
+            int b = in.read();
+            if (b < 0)
+                return;
+
+            boolean content = false;
+            boolean quoted = false;
+            while (b >= 0 && (b != '\n' || quoted)) {
+                if (b == '"')
+                    quoted = !quoted;
+                if (b > ' ')
+                    content = true;
+                b = in.read();
+            }
+            if (content)
+                rows.add(start);
+        }
+    }
+
+    private static void scanArff(Scanner in, Rows rows) throws IOException {
+        String line;
+        do {
+            line = in.readLine();
+            if (line == null)
+                return;
+        } while (!line.trim().toLowerCase().startsWith("@data"));
+
+        while (true) {
+            long start = in.position;
+            int b = in.read();
+            if (b < 0)
+                return;
+
+            boolean content = false;
+            boolean comment = false;
+            while (b >= 0 && b != '\n') {
+                if (!content && !comment) {
+                    if (b == '%')
+                        comment = true;
+                    else if (b > ' ' && b != ',')
+                        content = true;
+                }
+                b = in.read();
+            }
+            if (content)
+                rows.add(start);
+        }
+    }
+
+    /**
+     * Loads index from the sidecar file of the data file
+     *
+     * @return index or null if the sidecar is absent, stale or built with other parameters
+     */
+    public static RowOffsetIndex load(String path, Syntax syntax, int headerLines, int step) {
+        File file = new File(path);
+        File sidecar = getSidecarFile(path);
+        if (!sidecar.isFile())
+            return null;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(sidecar)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                return null;
+
+            String layout = in.readUTF();
+            long fileLength = in.readLong();
+            long lastModified = in.readLong();
+            int indexStep = in.readInt();
+            if (!layout.equals(layout(syntax, headerLines)) || indexStep != step
+                    || fileLength != file.length() || lastModified != file.lastModified())
+                return null;
+
+            int rowsNumber = in.readInt();
+            long[] offsets = new long[in.readInt()];
+            for (int i = 0; i < offsets.length; i++)
+                offsets[i] = in.readLong();
+            return new RowOffsetIndex(layout, fileLength, lastModified, indexStep, rowsNumber, offsets);
+        } catch (IOException ex) {
+            LOGGER.fine("Can't load the row index of the file " + path + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Saves the index to the sidecar file of the data file
+     *
+     * @param path - path to the data file
+     */
+    public void save(String path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(getSidecarFile(path))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(layout);
+            out.writeLong(fileLength);
+            out.writeLong(lastModified);
+            out.writeInt(step);
+            out.writeInt(rowsNumber);
+            out.writeInt(offsets.length);
+            for (long offset : offsets)
+                out.writeLong(offset);
+        }
+    }
+
+    /**
+     * @param path - path to the data file
+     * @return sidecar file of the index
+     */
+    public static File getSidecarFile(String path) {
+        return new File(path + SIDECAR_EXTENSION);
+    }
+
+    private static String layout(Syntax syntax, int headerLines) {
+        return syntax == Syntax.CSV ? syntax + ":" + headerLines : syntax.toString();
+    }
+
+    /**
+     * @return number of rows of the file
+     */
+    public int getRowsNumber() {
+        return rowsNumber;
+    }
+
+    /**
+     * @return number of rows between indexed offsets
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * Returns the nearest indexed row not after the given one
+     *
+     * @param row - number of row
+     * @return number of indexed row
+     */
+    public int getIndexedRow(int row) {
+        return row / step * step;
+    }
+
+    /**
+     * Returns byte offset of the nearest indexed row not after the given one
+     *
+     * @param row - number of row
+     * @return offset of the start of the row {@link #getIndexedRow(int)}
+     */
+    public long getOffset(int row) {
+        return offsets[row / step];
+    }
+
+    /**
+     * Sampled offsets collected during the scan
+     */
+    private static class Rows {
+        private final int step;
+        private long[] offsets = new long[16];
+        private int size;
+        private int count;
+
+        Rows(int step) {
+            this.step = step;
+        }
+
+        void add(long offset) {
+            if (count % step == 0) {
+                if (size == offsets.length)
+                    offsets = Arrays.copyOf(offsets, size * 2);
+                offsets[size++] = offset;
+            }
+            count++;
+        }
+    }
+
+    /**
+     * Buffered byte reader which tracks its position in the file
+     */
+    private static class Scanner implements Closeable {
+        private final InputStream in;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int length;
+        private int index;
+        private long position;
+
+        Scanner(InputStream in) {
+            this.in = in;
+        }
+
+        int read() throws IOException {
+            if (index == length) {
+                length = in.read(buffer);
+                index = 0;
+                if (length <= 0) {
+                    length = 0;
+                    return -1;
+                }
+            }
+            position++;
+            return buffer[index++] & 0xFF;
+        }
+
+        void skipLine() throws IOException {
+            int b;
+            do {
+                b = read();
+            } while (b >= 0 && b != '\n');
+        }
+
+        String readLine() throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b = read();
+            if (b < 0)
+                return null;
+            while (b >= 0 && b != '\n') {
+                line.append((char) b);
+                b = read();
+            }
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
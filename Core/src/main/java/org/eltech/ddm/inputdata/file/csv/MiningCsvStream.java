@@ -8,6 +8,7 @@ import com.opencsv.exceptions.CsvValidationException;
 import org.eltech.ddm.inputdata.MiningVector;
 import org.eltech.ddm.inputdata.file.MiningFileStream;
 import org.eltech.ddm.inputdata.file.common.CloneableStream;
+import org.eltech.ddm.inputdata.file.common.RowOffsetIndex;
 import org.eltech.ddm.miningcore.MiningDataException;
 import org.eltech.ddm.miningcore.MiningException;
 import org.eltech.ddm.miningcore.miningdata.*;
@@ -61,14 +62,16 @@ public class MiningCsvStream extends MiningFileStream implements CloneableStream
     }
 
     /**
-     * {@inheritDoc}
+     * {@inheritDoc} Blank lines are skipped as the row index does.
      */
     @Override
     public MiningVector readPhysicalRecord() throws MiningException {
 
         String[] row;
         try {
-            row = parser.readNext();
+            do {
+                row = parser.readNext();
+            } while (row != null && row.length == 1 && row[0].trim().isEmpty());
         } catch (CsvValidationException | IOException ex) {
             ex.printStackTrace();
             return null;
@@ -88,8 +91,7 @@ public class MiningCsvStream extends MiningFileStream implements CloneableStream
                 } catch (Exception ex) {
                     Integer index = catPr.getIndex(row[i]);
                     if (index == null) {
-                        catPr.addCategory(row[i], CategoryProperty.valid);
-                        values[i] = 0.0;
+                        values[i] = catPr.addCategory(row[i], CategoryProperty.valid);
                     } else {
                         values[i] = index;
                     }
@@ -237,10 +239,41 @@ public class MiningCsvStream extends MiningFileStream implements CloneableStream
      */
     @Override
     protected MiningVector movePhysicalRecord(int position) throws MiningException{
+        RowOffsetIndex index = getRowIndex();
+        if (index != null && (position <= getCurrentPosition() || position - getCurrentPosition() > index.getStep()))
+            return seekPosition(index, position);
+
         if (position <= getCurrentPosition()) reset();
         return advancePosition(position);
     }
 
+    /**
+     * Moves the parser to the nearest indexed row before the position
+     * and advances it to the position.
+     *
+     * @param index - index of rows of the file
+     * @param position - position to reach
+     * @return - mining vector for reached position
+     */
+    private MiningVector seekPosition(RowOffsetIndex index, int position) throws MiningException {
+        if (position < 0 || position >= index.getRowsNumber())
+            return null;
+
+        int row = index.getIndexedRow(position);
+        openReaderAt(index.getOffset(row));
+        parser = getCsvParser(0);
+        cursorPosition = row - 1;
+        return advancePosition(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected RowOffsetIndex createRowIndex(int step, boolean persistent) throws MiningException {
+        return RowOffsetIndex.open(path, RowOffsetIndex.Syntax.CSV, settings.getSkipLines(), step, persistent);
+    }
+
     /**
      * Advance current position forward to the  value passed in the
      * method.
@@ -261,6 +294,7 @@ public class MiningCsvStream extends MiningFileStream implements CloneableStream
     public MiningFileStream deepCopy() throws MiningException {
         MiningCsvStream stream = new MiningCsvStream(path, logicalData, settings);
         stream.setVectorsNumber(vectorsNumber);
+        stream.copyRowIndex(this);
         return stream;
     }
 
@@ -280,11 +314,15 @@ public class MiningCsvStream extends MiningFileStream implements CloneableStream
     }
 
     private CSVReader getCsvParser() {
+        return getCsvParser(settings.getSkipLines());
+    }
+
+    private CSVReader getCsvParser(int skipLines) {
         CSVParser csvParser = new CSVParserBuilder().withSeparator(settings.getSeparator()).build();
 
         return new CSVReaderBuilder(reader)
                 .withCSVParser(csvParser)
-                .withSkipLines(settings.getSkipLines())
+                .withSkipLines(skipLines)
                 .build();
     }
 
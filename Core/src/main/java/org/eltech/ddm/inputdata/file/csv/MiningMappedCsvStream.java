@@ -0,0 +1,510 @@
+package org.eltech.ddm.inputdata.file.csv;
+
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.inputdata.file.MiningFileStream;
+import org.eltech.ddm.inputdata.file.common.CloneableStream;
+import org.eltech.ddm.inputdata.file.common.MappedFile;
+import org.eltech.ddm.miningcore.MiningDataException;
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.miningdata.*;
+import org.omg.java.cwm.analysis.datamining.miningcore.miningdata.AttributeType;
+import org.omg.java.cwm.analysis.datamining.miningcore.miningdata.CategoryProperty;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * CSV stream over memory-mapped file. <p>
+ *
+ * The file is mapped once. The stream can be split ({@link #split(int)}) into
+ * partitions: views of newline-aligned byte ranges of the file. Every partition
+ * parses its range independently with own cursor, partitions share the mapping
+ * and the meta data, so they need neither own file handles nor temporary files. <p>
+ *
+ * Vectors of a partition keep their indexes in the whole file: the partition reads
+ * vectors from {@link #getFirstVectorIndex()} to {@link #getFirstVectorIndex()} +
+ * {@link #getVectorsNumber()} - 1. <p>
+ *
+ * Records are separated by line breaks, so quoted values can't contain line breaks.
+ * Blank lines are skipped. <p>
+ *
+ * Categories of categorical attributes are indexed in order of the file: before
+ * the partitions are read, values of the partitions are collected and added to
+ * the attributes in order of the partitions. So the indexes don't depend
+ * on the order in which the partitions are read.
+ */
+public class MiningMappedCsvStream extends MiningFileStream implements CloneableStream {
+
+    private static final byte QUOTE = '"';
+
+    private final transient CsvParsingSettings settings;
+    private final transient MappedFile mapping;
+    private final transient Charset charset = Charset.defaultCharset();
+
+    // Byte range and vectors of the stream
+    private final long startOffset;
+    private final long endOffset;
+    private final int firstVector;
+    private boolean counted;
+
+    // Categories of the whole stream are indexed in order of the file
+    private boolean categoriesIndexed;
+
+    // Position of the next record
+    private transient long position;
+    private transient MiningVector currentVector;
+
+    // Buffer of current field
+    private transient byte[] field = new byte[64];
+    private transient int fieldLength;
+
+    // Partitions of the last split
+    private transient long[] splitBounds;
+    private transient int[] splitCounts;
+
+    /**
+     * Maps the file with default parser settings
+     *
+     * @param file - path to the data file
+     */
+    public MiningMappedCsvStream(String file) throws MiningException {
+        this(file, null);
+    }
+
+    /**
+     * Maps the file
+     *
+     * @param file     - path to the data file
+     * @param settings - parser settings, the default one is used if it's null
+     */
+    public MiningMappedCsvStream(String file, CsvParsingSettings settings) throws MiningException {
+        super(file);
+        this.settings = settings == null ? MiningCsvStream.getDefaultSettings() : settings;
+        try {
+            mapping = new MappedFile(file);
+        } catch (IOException ex) {
+            throw new MiningDataException("Can't map the file: " + file, ex);
+        }
+
+        long start = 0;
+        for (int i = 0; i < this.settings.getSkipLines(); i++)
+            start = mapping.nextLine(start, mapping.size());
+        startOffset = start;
+        endOffset = mapping.size();
+        firstVector = 0;
+
+        open();
+        recognize();
+    }
+
+    /**
+     * Partition of the stream
+     */
+    private MiningMappedCsvStream(MiningMappedCsvStream parent, long startOffset, long endOffset, int firstVector, int count) {
+        super(parent.path, parent.logicalData);
+        this.settings = parent.settings;
+        this.mapping = parent.mapping;
+        this.physicalData = parent.physicalData;
+        this.attributeAssignmentSet = parent.attributeAssignmentSet;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.firstVector = firstVector;
+        this.vectorsNumber = count;
+        this.counted = true;
+        this.open = true;
+        this.position = startOffset;
+        this.cursorPosition = firstVector - 1;
+    }
+
+    /**
+     * Splits the stream into partitions of about equal size. Bounds of partitions are aligned
+     * to line breaks and records of partitions are counted on the calling thread, so no common
+     * pool is used. The partitions share the mapping and the meta data of the stream.
+     *
+     * @param partitions - number of partitions
+     * @return partitions in order of the file, some of them can be empty for small files
+     */
+    public synchronized List<MiningMappedCsvStream> split(int partitions) throws MiningException {
+        if (partitions < 1)
+            throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Number of partitions must be positive: " + partitions);
+
+        if (splitBounds == null || splitBounds.length != partitions + 1) {
+            long[] bounds = new long[partitions + 1];
+            bounds[0] = startOffset;
+            bounds[partitions] = endOffset;
+            long length = endOffset - startOffset;
+            for (int i = 1; i < partitions; i++) {
+                long raw = startOffset + length * i / partitions;
+                bounds[i] = Math.max(bounds[i - 1], raw == 0 ? 0 : mapping.nextLine(raw - 1, endOffset));
+            }
+
+            int[] counts = new int[partitions];
+            for (int i = 0; i < partitions; i++)
+                counts[i] = mapping.countRecords(bounds[i], bounds[i + 1]);
+
+            splitBounds = bounds;
+            splitCounts = counts;
+        }
+
+        if (partitions > 1 && !categoriesIndexed) {
+            indexCategories(splitBounds);
+            categoriesIndexed = true;
+        }
+
+        List<MiningMappedCsvStream> parts = new ArrayList<>(partitions);
+        int first = firstVector;
+        for (int i = 0; i < partitions; i++) {
+            parts.add(new MiningMappedCsvStream(this, splitBounds[i], splitBounds[i + 1], first, splitCounts[i]));
+            first += splitCounts[i];
+        }
+
+        if (!counted) {
+            vectorsNumber = first - firstVector;
+            counted = true;
+        }
+        return parts;
+    }
+
+    /**
+     * Collects values of categorical attributes of the partitions and adds
+     * them to the attributes in order of the partitions, so categories are indexed in order
+     * of the file
+     *
+     * @param bounds - bounds of the partitions
+     */
+    private void indexCategories(long[] bounds) throws MiningException {
+        int attributesNumber = logicalData.getAttributesNumber();
+        ECategoricalAttributeProperties[] categories = new ECategoricalAttributeProperties[attributesNumber];
+        boolean categorical = false;
+        for (int i = 0; i < attributesNumber; i++) {
+            categories[i] = logicalData.getAttribute(i).getCategoricalProperties();
+            categorical |= categories[i] != null;
+        }
+        if (!categorical)
+            return;
+
+        for (int p = 0; p < bounds.length - 1; p++) {
+            List<Set<String>> partValues = new MiningMappedCsvStream(this, bounds[p], bounds[p + 1], firstVector, 0).collectCategories(categories);
+            for (int i = 0; i < attributesNumber; i++) {
+                if (categories[i] == null)
+                    continue;
+                for (String value : partValues.get(i))
+                    categoryIndex(categories[i], value);
+            }
+        }
+    }
+
+    /**
+     * Collects distinct values of categorical attributes of the stream in order of their first occurrence
+     *
+     * @param categories - categorical properties of attributes, null for numerical attributes
+     * @return values of every attribute, null for numerical attributes
+     */
+    private List<Set<String>> collectCategories(ECategoricalAttributeProperties[] categories) {
+        List<Set<String>> values = new ArrayList<>(categories.length);
+        for (ECategoricalAttributeProperties catPr : categories)
+            values.add(catPr == null ? null : new LinkedHashSet<>());
+
+        long p = startOffset;
+        while (p < endOffset) {
+            long contentEnd = mapping.contentEnd(p, endOffset);
+            if (contentEnd > p) { // blank lines are skipped
+                long f = p;
+                for (int i = 0; i < categories.length && f <= contentEnd; i++) {
+                    f = readField(f, contentEnd);
+                    if (categories[i] != null)
+                        values.get(i).add(new String(field, 0, fieldLength, charset));
+                }
+            }
+            p = mapping.nextLine(contentEnd, endOffset);
+        }
+        return values;
+    }
+
+    /**
+     * Number of vectors of the stream. Records of the whole file are counted
+     * on the first call.
+     */
+    @Override
+    public int getVectorsNumber() throws MiningException {
+        if (!counted)
+            split(Runtime.getRuntime().availableProcessors());
+        return vectorsNumber;
+    }
+
+    /**
+     * @return index of the first vector of the stream in the file
+     */
+    public int getFirstVectorIndex() {
+        return firstVector;
+    }
+
+    /**
+     * @return offset of the first byte of the stream in the file
+     */
+    public long getStartOffset() {
+        return startOffset;
+    }
+
+    /**
+     * @return offset of the byte after the last byte of the stream in the file
+     */
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * Opens the stream. The file is already mapped, so only the cursor is reset.
+     */
+    @Override
+    public void open() throws MiningException {
+        this.open = true;
+        reset();
+    }
+
+    /**
+     * Closes the stream. The mapping is released when all partitions are released.
+     */
+    @Override
+    public void close() throws MiningException {
+        if (!this.isOpen())
+            throw new MiningDataException("Stream is already closed");
+
+        this.open = false;
+        currentVector = null;
+    }
+
+    /**
+     * Places the cursor before the first record of the stream
+     */
+    @Override
+    public void reset() throws MiningException {
+        if (!this.isOpen())
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Can't reset closed stream. Call open()");
+
+        position = startOffset;
+        cursorPosition = firstVector - 1;
+        currentVector = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized EPhysicalData recognize() throws MiningException {
+        if (logicalData == null && physicalData == null && attributeAssignmentSet == null)
+            initData();
+        return physicalData;
+    }
+
+    /**
+     * Initializes meta data by the header and the first record
+     */
+    private void initData() throws MiningException {
+        logicalData = new ELogicalData();
+        physicalData = new EPhysicalData();
+        attributeAssignmentSet = new EAttributeAssignmentSet();
+
+        long firstRecord = startOffset;
+        while (firstRecord < endOffset && mapping.contentEnd(firstRecord, endOffset) == firstRecord)
+            firstRecord = mapping.nextLine(firstRecord, endOffset);
+        List<String> row = firstRecord < endOffset ? readFields(firstRecord) : new ArrayList<>();
+
+        List<String> names = new ArrayList<>();
+        if (settings.getHeaderAvailability()) {
+            names = readFields(0);
+        } else {
+            for (int i = 1; i <= row.size(); i++)
+                names.add("Attribute " + i);
+        }
+
+        for (String attrName : names) {
+            ELogicalAttribute la = new ELogicalAttribute(attrName, AttributeType.numerical);
+            PhysicalAttribute pa = new PhysicalAttribute(attrName, AttributeType.numerical, AttributeDataType.doubleType);
+            EDirectAttributeAssignment da = new EDirectAttributeAssignment();
+            logicalData.addAttribute(la);
+            physicalData.addAttribute(pa);
+            da.addLogicalAttribute(la);
+            da.setAttribute(pa);
+            attributeAssignmentSet.addAssignment(da);
+        }
+
+        for (int i = 0; i < row.size() && i < names.size(); i++) {
+            try {
+                Double.parseDouble(row.get(i));
+            } catch (NumberFormatException ex) {
+                logicalData.getAttribute(i).setAttributeType(AttributeType.categorical);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public MiningVector readPhysicalRecord() throws MiningException {
+        long contentEnd;
+        while (true) {
+            if (position >= endOffset)
+                return null;
+            contentEnd = mapping.contentEnd(position, endOffset);
+            if (contentEnd > position)
+                break;
+            position = mapping.nextLine(position, endOffset);
+        }
+
+        double[] values = parseRecord(position, contentEnd);
+        position = mapping.nextLine(contentEnd, endOffset);
+
+        MiningVector vector = new MiningVector(values);
+        vector.setLogicalData(logicalData);
+        vector.setIndex(++cursorPosition);
+        currentVector = vector;
+        return vector;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected MiningVector movePhysicalRecord(int position) throws MiningException {
+        if (position < firstVector || (counted && position >= firstVector + vectorsNumber))
+            return null;
+        if (position == getCurrentPosition() && currentVector != null)
+            return currentVector;
+        if (position < getCurrentPosition())
+            reset();
+
+        MiningVector mv;
+        do {
+            mv = next();
+        }
+        while ((mv != null) && (getCurrentPosition() != position));
+        return mv;
+    }
+
+    /**
+     * Parses values of the record in the given byte range
+     */
+    private double[] parseRecord(long from, long to) throws MiningException {
+        int attributesNumber = logicalData.getAttributesNumber();
+        double[] values = new double[attributesNumber];
+        Arrays.fill(values, Double.NaN);
+
+        long p = from;
+        for (int i = 0; i < attributesNumber && p <= to; i++) {
+            p = readField(p, to);
+            String value = new String(field, 0, fieldLength, charset);
+            ELogicalAttribute attr = logicalData.getAttribute(i);
+            ECategoricalAttributeProperties catPr = attr.getCategoricalProperties();
+            if (catPr != null) {
+                values[i] = categoryIndex(catPr, value);
+            } else if (!value.isEmpty()) { // empty value of numerical attribute is missing
+                try {
+                    values[i] = Double.parseDouble(value);
+                } catch (NumberFormatException ex) {
+                    throw new MiningException(MiningErrorCode.INVALID_DATA_TYPE, "Value " + value
+                            + " of numerical attribute " + attr.getName() + " isn't a number");
+                }
+            }
+        }
+        return values;
+    }
+
+    private double categoryIndex(ECategoricalAttributeProperties catPr, String value) throws MiningException {
+        // partitions share categories of the attribute
+        synchronized (catPr) {
+            Integer index = catPr.getIndex(value);
+            return index == null ? catPr.addCategory(value, CategoryProperty.valid) : index;
+        }
+    }
+
+    /**
+     * Reads values of the line as strings (for meta data)
+     */
+    private List<String> readFields(long lineStart) {
+        long to = mapping.contentEnd(lineStart, endOffset);
+        List<String> fields = new ArrayList<>();
+        long p = lineStart;
+        while (p <= to) {
+            p = readField(p, to);
+            fields.add(new String(field, 0, fieldLength, charset));
+        }
+        return fields;
+    }
+
+    /**
+     * Reads field started at the given position into the field buffer
+     *
+     * @param p  - first byte of the field
+     * @param to - end of the line content
+     * @return first byte of the next field or position after the end of the line if it's the last field
+     */
+    private long readField(long p, long to) {
+        byte separator = (byte) settings.getSeparator();
+        fieldLength = 0;
+
+        if (p < to && mapping.get(p) == QUOTE) {
+            p++;
+            while (p < to) {
+                byte b = mapping.get(p++);
+                if (b == QUOTE) {
+                    if (p < to && mapping.get(p) == QUOTE) {
+                        append(QUOTE);
+                        p++;
+                    } else {
+                        break;
+                    }
+                } else {
+                    append(b);
+                }
+            }
+        }
+
+        while (p < to) {
+            byte b = mapping.get(p++);
+            if (b == separator)
+                return p;
+            append(b);
+        }
+        return to + 1;
+    }
+
+    private void append(byte b) {
+        if (fieldLength == field.length)
+            field = Arrays.copyOf(field, field.length * 2);
+        field[fieldLength++] = b;
+    }
+
+    /**
+     * Creates view of the same byte range. The file isn't opened and recognized again.
+     */
+    @Override
+    public MiningFileStream deepCopy() throws MiningException {
+        return new MiningMappedCsvStream(this, startOffset, endOffset, firstVector, getVectorsNumber());
+    }
+
+    @Override
+    public Object clone() {
+        MiningMappedCsvStream o = (MiningMappedCsvStream) super.clone();
+        o.field = new byte[field.length];
+        o.currentVector = null;
+        return o;
+    }
+
+    @Override
+    public String toString() {
+        return "MiningMappedCsvStream{" +
+                "path=" + path +
+                ", range=[" + startOffset + ", " + endOffset + ")" +
+                ", firstVector=" + firstVector +
+                ", currentPosition=" + cursorPosition +
+                '}';
+    }
+}
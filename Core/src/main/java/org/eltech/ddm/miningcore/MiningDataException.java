@@ -48,4 +48,15 @@ public class MiningDataException extends MiningException
         super(MiningErrorCode.INVALID_INPUT_DATA, s );
     }
 
+    /**
+     * Mining exception in data handling caused by other exception.
+     *
+     * @param s description of exception
+     * @param cause exception of data source
+     */
+    public MiningDataException( String s, Throwable cause )
+    {
+        super(MiningErrorCode.INVALID_INPUT_DATA, s, cause );
+    }
+
 }
@@ -39,4 +39,17 @@ public class MiningException extends Exception//JDMException
         this.code = code;
     }
 
+    /**
+     * Mining exception caused by other exception.
+     *
+     * @param code - code of error
+     * @param msg - description of exception
+     * @param cause - cause of exception
+     */
+    public MiningException( MiningErrorCode code, String msg, Throwable cause )
+    {
+        super( msg, cause );
+        this.code = code;
+    }
+
 }
@@ -31,6 +31,57 @@ public abstract class DataMiningBlock extends MiningBlock {
 
     protected abstract EMiningModel execute(MiningInputStream data, EMiningModel model) throws MiningException;
 
+    /**
+     * Method execute step of algorithm for the range of vectors [fromVector, toVector)
+     * by one call (used by {@link MiningLoopVectors} for blocks which support ranges)
+     *
+     * @param model      - mining model
+     * @param fromVector - index of the first vector of the range
+     * @param toVector   - index of the vector after the last vector of the range
+     */
+    public EMiningModel runRange(EMiningModel model, int fromVector, int toVector) throws MiningException {
+        if(data == null)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Data set for the mining block "+ this +" is not initialized!");
+
+        this.notifyBeforeExecute();
+        EMiningModel result = executeRange(data, model, fromVector, toVector);
+        this.notifyAfterExecute();
+
+        return result;
+    }
+
+    /**
+     * Method execute mining calculator of algorithm for the range of vectors [fromVector, toVector).
+     * By default the vectors are handled one by one with {@link #execute(MiningInputStream, EMiningModel)}.
+     * Blocks override it to handle whole range at once (e.g. to find model's elements once
+     * for the range) and return true from {@link #isRangeSupported()}.
+     *
+     * @param data       - input data
+     * @param model      - mining model
+     * @param fromVector - index of the first vector of the range
+     * @param toVector   - index of the vector after the last vector of the range
+     * @return mining model
+     */
+    protected EMiningModel executeRange(MiningInputStream data, EMiningModel model, int fromVector, int toVector) throws MiningException {
+        EMiningModel result = model;
+        for (int i = fromVector; i < toVector; i++) {
+            result.setCurrentVector(i);
+            result = execute(data, result);
+        }
+        return result;
+    }
+
+    /**
+     * Does the block have own implementation of {@link #executeRange(MiningInputStream, EMiningModel, int, int)}?
+     * The range implementation must give the same model as execution of the block for every vector of the range.
+     * Loops of vectors call it only if the block is the whole iteration (see {@link MiningLoopVectors#isRangeIteration()}).
+     *
+     * @return true if the block can be executed for range of vectors by one call
+     */
+    public boolean isRangeSupported() {
+        return false;
+    }
+
     public boolean isDataBlock(){
         return true;
     }
@@ -17,6 +17,11 @@ public abstract class MiningAlgorithm {
 	 */
 	protected EMiningFunctionSettings miningSettings;
 
+	/**
+	 * Compiled sequence of the algorithm, it's reused by all builds of the algorithm
+	 */
+	private MiningPlan sequencePlan;
+
 
 	public MiningAlgorithm(EMiningFunctionSettings miningSettings) throws MiningException {
 		//this();
@@ -38,6 +43,19 @@ public abstract class MiningAlgorithm {
 	public abstract MiningSequence getHorDistributedAlgorithm() throws MiningException;
 	public abstract MiningSequence getVerDistributedAlgorithm() throws MiningException;
 
+	/**
+	 * Returns compiled plan of the sequence algorithm ({@link #getSequenceAlgorithm()}).
+	 * The plan is compiled once and reused, because the settings of the algorithm don't change.
+	 * The plan isn't bound to data, builds run its copies bound to their data ({@link MiningPlan#bind}).
+	 *
+	 * @return compiled plan
+	 */
+	public synchronized MiningPlan getSequencePlan() throws MiningException {
+		if (sequencePlan == null)
+			sequencePlan = MiningPlan.compile(getSequenceAlgorithm());
+		return sequencePlan;
+	}
+
 
 	public MiningFunctionSettings getMiningSettings() {
 		return miningSettings;
@@ -7,6 +7,14 @@ import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
 
 public class MiningLoopVectors extends MiningLoop {
 
+	/**
+	 * Default number of vectors passed to one range call of the iteration's blocks
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+	// Number of vectors are handled by one range call, 0 - range calls are not used
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+
 	// Number of  mining model's elements are handled by the loop
 	private int startPositon;
 
@@ -54,6 +62,59 @@ public class MiningLoopVectors extends MiningLoop {
 	public MiningLoopVectors() {
 	}
 
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Sets number of vectors passed to one range call of the iteration's blocks
+	 * @param chunkSize - number of vectors, 0 to execute the iteration for every vector
+	 */
+	public void setChunkSize(int chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * If the iteration is one block supporting ranges ({@link DataMiningBlock#isRangeSupported()}),
+	 * the loop is executed by chunks: the block is called once for a chunk of vectors instead
+	 * of one call per vector. Otherwise the iteration is executed for every vector.
+	 */
+	@Override
+	public EMiningModel execute(EMiningModel model) throws MiningException {
+		if (chunkSize <= 0 || countElement < 0 || !isRangeIteration())
+			return super.execute(model);
+
+		return executeChunks(model, startPositon, startPositon + countElement);
+	}
+
+	/**
+	 * Executes range iteration by chunks for vectors [start, end)
+	 */
+	EMiningModel executeChunks(EMiningModel model, int start, int end) throws MiningException {
+		DataMiningBlock block = (DataMiningBlock) iteration.getSequence().get(0);
+		EMiningModel result = model;
+		for (int from = start; from < end; ) {
+			int to = from + Math.min(chunkSize, end - from);
+			result = block.runRange(result, from, to);
+			from = to;
+		}
+		result.setCurrentVector(end);
+
+		return result;
+	}
+
+	/**
+	 * Can the iteration be executed by range calls?
+	 * Only iteration of one block is executed by ranges: several blocks are executed for every vector in turn,
+	 * and a block executed for the chunk before the next block would see other state of the model.
+	 */
+	public boolean isRangeIteration() {
+		if (iteration == null || iteration.getSequence() == null || iteration.getSequence().size() != 1)
+			return false;
+		MiningBlock block = iteration.getSequence().get(0);
+		return block instanceof DataMiningBlock && ((DataMiningBlock) block).isRangeSupported();
+	}
+
 	@Override
 	protected EMiningModel initLoop(EMiningModel model) throws MiningException {
 		model.setCurrentVector(startPositon);
@@ -16,6 +16,8 @@ public class MiningParallel extends MiningBlock {
 
     protected MemoryType memoryType;
 
+    protected ReductionType reductionType = ReductionType.tree;
+
     protected int handlersNumber;
 
     protected List<MiningExecutor> executors;
@@ -69,20 +71,85 @@ public class MiningParallel extends MiningBlock {
                 Distributable distributable = ((Distributable) models.get(0));
                 ((Distributable) model).setDistributionType(distributable.getDistributionType());
             }
-            model.join(models);
+            notifyBeforeJoin();
+            join(model, models);
+            notifyAfterJoin();
             return model;
         } else {
+            notifyBeforeJoin();
+            model.joinShared(models);
+            notifyAfterJoin();
             return models.get(0);
         }
     }
 
+    /**
+     * Joins models of distributed branches into the model by the reduction type of the block
+     *
+     * @param model  - model of the parallel block
+     * @param models - models of the branches, they are copies of the model
+     */
+    public void join(EMiningModel model, List<EMiningModel> models) throws MiningException {
+        if (reductionType == ReductionType.tree && models.size() > 2 && !executors.isEmpty() && model.isJoinAssociative())
+            joinByPairs(model, models);
+        else
+            model.join(models);
+    }
+
+    /**
+     * Joins models by pairs: every pair is joined into copy-on-write copy of the model
+     * by an executor of the environment, pairs of one level are joined in parallel,
+     * and the last two models are joined into the model. So number of sequential joins grows as log of number of models.
+     * Join of a pair is a join of copies with the same base, so {@link EMiningModel#join(List)} of subclasses
+     * joining differences from the model are joined by pairs too.
+     */
+    private void joinByPairs(EMiningModel model, List<EMiningModel> models) throws MiningException {
+        MiningExecutor handler = executors.get(0);
+        List<EMiningModel> level = models;
+        while (level.size() > 2) {
+            MiningExecutor[] pairs = new MiningExecutor[level.size() / 2];
+            for (int p = 0; p < pairs.length; p++) {
+                pairs[p] = (MiningExecutor) handler.clone();
+                pairs[p].setBlock(new JoinModels(functionSettings, level.subList(2 * p, 2 * p + 2)));
+                pairs[p].start(model.deltaClone());
+            }
+
+            List<EMiningModel> next = new ArrayList<>();
+            for (MiningExecutor pair : pairs)
+                next.add(pair.getModel());
+            if (level.size() % 2 != 0) // the last model hasn't a pair
+                next.add(level.get(level.size() - 1));
+            level = next;
+        }
+        model.join(level);
+    }
+
+    /**
+     * Block joining models into the model of the block
+     */
+    private static class JoinModels extends MiningBlock {
+
+        private final transient List<EMiningModel> models;
+
+        JoinModels(EMiningFunctionSettings settings, List<EMiningModel> models) {
+            super(settings);
+            this.models = models;
+        }
+
+        @Override
+        protected EMiningModel execute(EMiningModel model) throws MiningException {
+            model.join(models);
+            return model;
+        }
+    }
+
 	private List<EMiningModel> fork(EMiningModel model)
 			throws MiningException {
 
         for(int i = 0;  i < executors.size(); i++){
             MiningExecutor executor = executors.get(i);
             if(memoryType == MemoryType.distributed)
-                executor.start((EMiningModel) model.clone());
+                executor.start(model.deltaClone());
             else
                 executor.start( model.share());
         }
@@ -123,6 +190,21 @@ public class MiningParallel extends MiningBlock {
         return blocks;
     }
 
+    public MemoryType getMemoryType() {
+        return memoryType;
+    }
+
+    public ReductionType getReductionType() {
+        return reductionType;
+    }
+
+    /**
+     * @param reductionType - strategy of join of models of distributed memory
+     */
+    public void setReductionType(ReductionType reductionType) {
+        this.reductionType = reductionType;
+    }
+
     public void setHandlersNumber(int handlersNumber) {
         this.handlersNumber = handlersNumber;
     }
@@ -0,0 +1,451 @@
+package org.eltech.ddm.miningcore.algorithms;
+
+import org.eltech.ddm.inputdata.MiningInputStream;
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compiled form of a tree of mining blocks. <p>
+ *
+ * The tree of {@link MiningSequence}, {@link MiningLoop} and {@link MiningDecision}
+ * blocks is walked once and linearised into a flat program of instructions with
+ * jumps. The program is executed by one loop instead of recursive calls of
+ * {@link MiningBlock#run(EMiningModel)}:
+ * <ul>
+ * <li>blocks without listeners are executed directly, without notification;</li>
+ * <li>bounds of {@link MiningLoopVectors} are resolved by the bound data set;</li>
+ * <li>index sets of {@link MiningLoopElement} are resolved into cursor slots of
+ * the model once per run.</li>
+ * </ul>
+ * Blocks which can't be linearised ({@link MiningParallel}, blocks which override
+ * execution of a sequence, a loop or a decision) are executed as one instruction.
+ * Listeners are resolved at compile time, so the plan must be compiled again
+ * if listeners of the blocks are changed. <p>
+ *
+ * Data blocks of the tree keep their data set, so the data set is bound to a copy
+ * of the plan ({@link #bind(MiningInputStream)}) and the compiled plan itself isn't
+ * changed by builds. The compiled plan can be shared by builds with the same settings
+ * and different data sets, every build runs its own bound copy.
+ */
+public class MiningPlan {
+
+    private static final int EXECUTE = 0;
+    private static final int RUN = 1;
+    private static final int NOTIFY_BEFORE = 2;
+    private static final int NOTIFY_AFTER = 3;
+    private static final int LOOP_INIT = 4;
+    private static final int LOOP_TEST = 5;
+    private static final int LOOP_NEXT = 6;
+    private static final int VECTORS_INIT = 7;
+    private static final int VECTORS_TEST = 8;
+    private static final int VECTORS_NEXT = 9;
+    private static final int VECTORS_RANGE = 10;
+    private static final int ELEMENTS_INIT = 11;
+    private static final int ELEMENTS_TEST = 12;
+    private static final int ELEMENTS_NEXT = 13;
+    private static final int DECISION = 14;
+    private static final int DECISION_NOTIFY = 15;
+    private static final int JUMP = 16;
+
+    private static final String[] NAMES = {"EXECUTE", "RUN", "NOTIFY_BEFORE", "NOTIFY_AFTER",
+            "LOOP_INIT", "LOOP_TEST", "LOOP_NEXT", "VECTORS_INIT", "VECTORS_TEST", "VECTORS_NEXT", "VECTORS_RANGE",
+            "ELEMENTS_INIT", "ELEMENTS_TEST", "ELEMENTS_NEXT", "DECISION", "DECISION_NOTIFY", "JUMP"};
+
+    private final MiningBlock root;
+
+    // Program: operation, block and operands of every instruction
+    private final int[] code;
+    private final MiningBlock[] blocks;
+    private final int[] jumps;
+    private final int[] args;
+
+    // Bounds of vector loops (indexed by argument of the instruction)
+    private final int[] vectorStarts;
+    private final int[] vectorCounts;
+
+    // Index sets and bounds of element loops (indexed by argument of the instruction)
+    private final int[][] indexSets;
+    private final int[] elementStarts;
+    private final int[] elementCounts;
+
+    private final List<DataMiningBlock> dataBlocks;
+
+    // Number of vectors of bound data set, -1 if data isn't bound
+    private final int vectorsNumber;
+
+    private MiningPlan(Compiler compiler, MiningBlock root, int vectorsNumber) {
+        this.root = root;
+        this.vectorsNumber = vectorsNumber;
+        int n = compiler.code.size();
+        code = new int[n];
+        jumps = new int[n];
+        args = new int[n];
+        blocks = compiler.blocks.toArray(new MiningBlock[n]);
+        for (int pc = 0; pc < n; pc++) {
+            code[pc] = compiler.code.get(pc);
+            jumps[pc] = compiler.jumps.get(pc);
+            args[pc] = compiler.args.get(pc);
+        }
+        vectorStarts = toArray(compiler.vectorStarts);
+        vectorCounts = toArray(compiler.vectorCounts);
+        indexSets = compiler.indexSets.toArray(new int[compiler.indexSets.size()][]);
+        elementStarts = toArray(compiler.elementStarts);
+        elementCounts = toArray(compiler.elementCounts);
+        dataBlocks = compiler.dataBlocks;
+    }
+
+    /**
+     * Compiles tree of blocks into the plan
+     *
+     * @param root - root block of the tree (e.g. sequence of algorithm)
+     * @return compiled plan
+     */
+    public static MiningPlan compile(MiningBlock root) {
+        return compile(root, -1);
+    }
+
+    private static MiningPlan compile(MiningBlock root, int vectorsNumber) {
+        Compiler compiler = new Compiler();
+        compiler.compile(root);
+        compiler.collectDataBlocks(root);
+        return new MiningPlan(compiler, root, vectorsNumber);
+    }
+
+    /**
+     * Creates copy of the plan bound to the data set: blocks of the plan are copied and compiled
+     * again, the data set is bound to the copied data blocks and bounds of vector loops which handle
+     * the whole data set are resolved by the data set. This plan isn't changed.
+     *
+     * @param data - input data
+     * @return bound copy of the plan
+     */
+    public MiningPlan bind(MiningInputStream data) throws MiningException {
+        MiningPlan plan = compile((MiningBlock) root.clone(), data.getVectorsNumber());
+        for (DataMiningBlock block : plan.dataBlocks)
+            block.setData(data);
+        return plan;
+    }
+
+    /**
+     * Executes the plan
+     *
+     * @param model - initial model
+     * @return result model
+     */
+    public EMiningModel run(EMiningModel model) throws MiningException {
+        int[] slots = new int[indexSets.length];
+        for (int i = 0; i < slots.length; i++)
+            slots[i] = model.compileIndex(indexSets[i]);
+        int[] vectorEnds = new int[vectorStarts.length];
+
+        EMiningModel m = model;
+        int pc = 0;
+        int n = code.length;
+        while (pc < n) {
+            switch (code[pc]) {
+                case EXECUTE:
+                    m = blocks[pc].execute(m);
+                    pc++;
+                    break;
+                case RUN:
+                    m = blocks[pc].run(m);
+                    pc++;
+                    break;
+                case NOTIFY_BEFORE:
+                    blocks[pc].notifyBeforeExecute();
+                    pc++;
+                    break;
+                case NOTIFY_AFTER:
+                    blocks[pc].notifyAfterExecute();
+                    pc++;
+                    break;
+                case LOOP_INIT:
+                    m = ((MiningLoop) blocks[pc]).initLoop(m);
+                    pc++;
+                    break;
+                case LOOP_TEST:
+                    if (((MiningLoop) blocks[pc]).conditionLoop(m)) {
+                        m = ((MiningLoop) blocks[pc]).beforeIteration(m);
+                        pc++;
+                    } else {
+                        pc = jumps[pc];
+                    }
+                    break;
+                case LOOP_NEXT:
+                    m = ((MiningLoop) blocks[pc]).afterIteration(m);
+                    pc = jumps[pc];
+                    break;
+                case VECTORS_INIT:
+                    vectorEnds[args[pc]] = vectorsEnd(args[pc]);
+                    m.setCurrentVector(vectorStarts[args[pc]]);
+                    pc++;
+                    break;
+                case VECTORS_TEST:
+                    pc = m.getCurrentVectorIndex() < vectorEnds[args[pc]] ? pc + 1 : jumps[pc];
+                    break;
+                case VECTORS_NEXT:
+                    m.setCurrentVector(m.getCurrentVectorIndex() + 1);
+                    pc = jumps[pc];
+                    break;
+                case VECTORS_RANGE:
+                    m = ((MiningLoopVectors) blocks[pc]).executeChunks(m, vectorStarts[args[pc]], vectorsEnd(args[pc]));
+                    pc++;
+                    break;
+                case ELEMENTS_INIT:
+                    m.setCurrentElement(slots[args[pc]], elementStarts[args[pc]]);
+                    pc++;
+                    break;
+                case ELEMENTS_TEST: {
+                    int loop = args[pc];
+                    int pos = m.getCurrentElementIndex(slots[loop]);
+                    boolean cond = elementCounts[loop] < 0
+                            ? pos < m.getElement(indexSets[loop]).size()
+                            : pos - elementStarts[loop] < elementCounts[loop];
+                    pc = cond ? pc + 1 : jumps[pc];
+                    break;
+                }
+                case ELEMENTS_NEXT:
+                    m.setCurrentElement(slots[args[pc]], m.getCurrentElementIndex(slots[args[pc]]) + 1);
+                    pc = jumps[pc];
+                    break;
+                case DECISION:
+                    pc = ((MiningDecision) blocks[pc]).condition(m) ? pc + 1 : jumps[pc];
+                    break;
+                case DECISION_NOTIFY: {
+                    MiningDecision decision = (MiningDecision) blocks[pc];
+                    decision.notifyBeforeCondition();
+                    boolean cond = decision.condition(m);
+                    decision.notifyAfterCondition();
+                    pc = cond ? pc + 1 : jumps[pc];
+                    break;
+                }
+                case JUMP:
+                    pc = jumps[pc];
+                    break;
+                default:
+                    throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "Unknown instruction " + code[pc] + " of the plan");
+            }
+        }
+        return m;
+    }
+
+    private int vectorsEnd(int loop) throws MiningException {
+        if (vectorCounts[loop] >= 0)
+            return vectorStarts[loop] + vectorCounts[loop];
+        if (vectorsNumber < 0)
+            throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Data set for the plan is not initialized!");
+        return vectorsNumber;
+    }
+
+    /**
+     * @return root block of the compiled tree
+     */
+    public MiningBlock getRoot() {
+        return root;
+    }
+
+    /**
+     * @return number of instructions of the plan
+     */
+    public int size() {
+        return code.length;
+    }
+
+    /**
+     * Listing of the plan's program
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc++) {
+            sb.append(pc).append(": ").append(NAMES[code[pc]]).append(' ').append(blocks[pc].getClass().getSimpleName());
+            if (code[pc] == LOOP_TEST || code[pc] == LOOP_NEXT || code[pc] == VECTORS_TEST || code[pc] == VECTORS_NEXT
+                    || code[pc] == ELEMENTS_TEST || code[pc] == ELEMENTS_NEXT || code[pc] == DECISION
+                    || code[pc] == DECISION_NOTIFY || code[pc] == JUMP)
+                sb.append(" -> ").append(jumps[pc]);
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = list.get(i);
+        return array;
+    }
+
+    /**
+     * Translator of tree of blocks into program of the plan
+     */
+    private static class Compiler {
+        final List<Integer> code = new ArrayList<>();
+        final List<MiningBlock> blocks = new ArrayList<>();
+        final List<Integer> jumps = new ArrayList<>();
+        final List<Integer> args = new ArrayList<>();
+
+        final List<Integer> vectorStarts = new ArrayList<>();
+        final List<Integer> vectorCounts = new ArrayList<>();
+
+        final List<int[]> indexSets = new ArrayList<>();
+        final List<Integer> elementStarts = new ArrayList<>();
+        final List<Integer> elementCounts = new ArrayList<>();
+
+        final List<DataMiningBlock> dataBlocks = new ArrayList<>();
+
+        int emit(int op, MiningBlock block, int arg) {
+            code.add(op);
+            blocks.add(block);
+            jumps.add(-1);
+            args.add(arg);
+            return code.size() - 1;
+        }
+
+        void patch(int pc, int target) {
+            jumps.set(pc, target);
+        }
+
+        int next() {
+            return code.size();
+        }
+
+        void compile(MiningBlock block) {
+            if (overrides(block, MiningBlock.class, "run")) {
+                emit(RUN, block, 0);
+                return;
+            }
+
+            if (block.getClass() == MiningLoopVectors.class) {
+                compileComposite(block, () -> compileVectorsLoop((MiningLoopVectors) block));
+            } else if (block.getClass() == MiningLoopElement.class) {
+                compileComposite(block, () -> compileElementsLoop((MiningLoopElement) block));
+            } else if (block instanceof MiningLoop && !overrides(block, MiningLoop.class, "execute")) {
+                compileComposite(block, () -> compileLoop((MiningLoop) block));
+            } else if (block instanceof MiningSequence && !overrides(block, MiningSequence.class, "execute")) {
+                compileComposite(block, () -> {
+                    for (MiningBlock child : ((MiningSequence) block).getSequence())
+                        compile(child);
+                });
+            } else if (block instanceof MiningDecision && !overrides(block, MiningDecision.class, "execute")) {
+                compileComposite(block, () -> compileDecision((MiningDecision) block));
+            } else {
+                emit(hasListeners(block) ? RUN : EXECUTE, block, 0);
+            }
+        }
+
+        /**
+         * Composite block notifies its listeners around the linearised body as {@link MiningBlock#run(EMiningModel)} does
+         */
+        void compileComposite(MiningBlock block, Runnable body) {
+            boolean notify = hasListeners(block);
+            if (notify)
+                emit(NOTIFY_BEFORE, block, 0);
+            body.run();
+            if (notify)
+                emit(NOTIFY_AFTER, block, 0);
+        }
+
+        void compileLoop(MiningLoop loop) {
+            emit(LOOP_INIT, loop, 0);
+            int test = emit(LOOP_TEST, loop, 0);
+            if (loop.getIteration() != null)
+                compile(loop.getIteration());
+            int back = emit(LOOP_NEXT, loop, 0);
+            patch(back, test);
+            patch(test, next());
+        }
+
+        void compileVectorsLoop(MiningLoopVectors loop) {
+            int arg = vectorStarts.size();
+            vectorStarts.add(loop.getStartPositon());
+            vectorCounts.add(loop.getCountElement());
+
+            if (loop.getChunkSize() > 0 && loop.isRangeIteration()) {
+                emit(VECTORS_RANGE, loop, arg);
+                return;
+            }
+
+            emit(VECTORS_INIT, loop, arg);
+            int test = emit(VECTORS_TEST, loop, arg);
+            if (loop.getIteration() != null)
+                compile(loop.getIteration());
+            int back = emit(VECTORS_NEXT, loop, arg);
+            patch(back, test);
+            patch(test, next());
+        }
+
+        void compileElementsLoop(MiningLoopElement loop) {
+            int arg = indexSets.size();
+            indexSets.add(loop.getIndexSet());
+            elementStarts.add(loop.getStartPositon());
+            elementCounts.add(loop.getCountElement());
+
+            emit(ELEMENTS_INIT, loop, arg);
+            int test = emit(ELEMENTS_TEST, loop, arg);
+            if (loop.getIteration() != null)
+                compile(loop.getIteration());
+            int back = emit(ELEMENTS_NEXT, loop, arg);
+            patch(back, test);
+            patch(test, next());
+        }
+
+        void compileDecision(MiningDecision decision) {
+            boolean notify = (decision.listenersBeforeCondition != null && !decision.listenersBeforeCondition.isEmpty())
+                    || (decision.listenersAfterCondition != null && !decision.listenersAfterCondition.isEmpty());
+            int test = emit(notify ? DECISION_NOTIFY : DECISION, decision, 0);
+            if (decision.getTrueBranch() != null)
+                compile(decision.getTrueBranch());
+            int skip = emit(JUMP, decision, 0);
+            patch(test, next());
+            if (decision.getFalseBranch() != null)
+                compile(decision.getFalseBranch());
+            patch(skip, next());
+        }
+
+        /**
+         * Collects data blocks of the tree. Branches of parallel blocks get data from their executors.
+         */
+        void collectDataBlocks(MiningBlock block) {
+            if (block instanceof DataMiningBlock)
+                dataBlocks.add((DataMiningBlock) block);
+
+            if (block instanceof MiningSequence) {
+                for (MiningBlock child : ((MiningSequence) block).getSequence())
+                    collectDataBlocks(child);
+            } else if (block instanceof MiningLoop) {
+                if (((MiningLoop) block).getIteration() != null)
+                    collectDataBlocks(((MiningLoop) block).getIteration());
+            } else if (block instanceof MiningDecision) {
+                MiningDecision decision = (MiningDecision) block;
+                if (decision.getTrueBranch() != null)
+                    collectDataBlocks(decision.getTrueBranch());
+                if (decision.getFalseBranch() != null)
+                    collectDataBlocks(decision.getFalseBranch());
+            }
+        }
+
+        static boolean hasListeners(MiningBlock block) {
+            return (block.listenersBeforeExecute != null && !block.listenersBeforeExecute.isEmpty())
+                    || (block.listenersAfterExecute != null && !block.listenersAfterExecute.isEmpty());
+        }
+
+        /**
+         * Does class of the block declare own version of the base class' method?
+         */
+        static boolean overrides(MiningBlock block, Class<?> base, String method) {
+            for (Class<?> c = block.getClass(); c != null && c != base; c = c.getSuperclass()) {
+                try {
+                    c.getDeclaredMethod(method, EMiningModel.class);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // look at the superclass
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.eltech.ddm.miningcore.algorithms;
+
+/**
+ * Strategy of join of models built by parallel branches of distributed memory
+ */
+public enum ReductionType {
+	/**
+	 * All models are joined into the model of the parallel block by one join
+	 */
+	serial,
+	/**
+	 * Models are joined by pairs, pairs of one level are joined in parallel by executors of the environment
+	 * (see {@link MiningParallel#join(org.eltech.ddm.miningcore.miningmodel.EMiningModel, java.util.List)}),
+	 * models with not associative merge of elements are joined serially
+	 */
+	tree
+}
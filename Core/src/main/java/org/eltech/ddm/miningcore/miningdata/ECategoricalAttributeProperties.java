@@ -244,6 +244,18 @@ public class ECategoricalAttributeProperties extends CategoricalAttributePropert
 
 	}
 
+	/**
+	 * Removes all categorical values. The data type of the values is reset,
+	 * so values of any type can be added after that.
+	 */
+	public void removeAllCategories() {
+		if (category == null) // not restored by deserialization
+			category = new ArrayList<Category>();
+		else
+			category.clear();
+		dataType = null;
+	}
+
 	/**
 	 * Sets the default property of unspecified categorical values that are not contained in the attributes.
 	 * A null value indicates that no default property has to be used.
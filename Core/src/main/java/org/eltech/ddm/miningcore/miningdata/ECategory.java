@@ -16,7 +16,7 @@ import java.io.Serializable;
  *
  */
 
-public class ECategory extends Category implements Serializable {
+public class ECategory extends Category implements Serializable, Cloneable {
 	final static public int VALUE = 1;
 
 	// features for JDMAPI
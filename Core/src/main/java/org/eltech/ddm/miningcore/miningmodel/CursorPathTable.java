@@ -0,0 +1,97 @@
+package org.eltech.ddm.miningcore.miningmodel;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Table of compiled cursor paths of mining model. <p>
+ *
+ * Every prefix of a model index (e.g. <code>{ATTRIBUTE_SET}</code> or
+ * <code>{ATTRIBUTE_SET, CURRENT_ELEMENT}</code>) which can hold a current
+ * element position gets an integer slot id. The current positions itself are
+ * stored by the model in a primitive cursor frame (<code>int[]</code>)
+ * addressed by these slot ids. <p>
+ *
+ * The table is a trie over index values, so a resolution of a path doesn't
+ * allocate memory and doesn't compute string keys. The table is shared by all
+ * copies of the model (see {@link EMiningModel#share()}): lookups are lock free,
+ * registration of a new path is synchronized.
+ */
+class CursorPathTable implements Serializable {
+
+    /**
+     * Node of trie. Children are kept in small parallel arrays, a model index
+     * has only few distinct values on every level.
+     */
+    private static final class Node implements Serializable {
+        private volatile int[] keys = new int[0];
+        private volatile Node[] children = new Node[0];
+        private volatile int slot = -1;
+
+        private Node child(int key) {
+            int[] k = keys;
+            Node[] c = children;
+            for (int i = 0; i < k.length && i < c.length; i++) {
+                if (k[i] == key)
+                    return c[i];
+            }
+            return null;
+        }
+
+        private Node addChild(int key) {
+            Node node = new Node();
+            Node[] c = Arrays.copyOf(children, children.length + 1);
+            c[c.length - 1] = node;
+            int[] k = Arrays.copyOf(keys, keys.length + 1);
+            k[k.length - 1] = key;
+            children = c;
+            keys = k;
+            return node;
+        }
+    }
+
+    private final Node root = new Node();
+
+    private volatile int size;
+
+    /**
+     * Returns number of compiled slots.
+     *
+     * @return number of slots
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns slot of index prefix, compiles the path if it's absent.
+     *
+     * @param index  - model index
+     * @param length - length of prefix of the index
+     * @return slot id
+     */
+    int slot(int[] index, int length) {
+        Node node = root;
+        for (int i = 0; i < length; i++) {
+            Node next = node.child(index[i]);
+            if (next == null)
+                return compile(index, length);
+            node = next;
+        }
+        int slot = node.slot;
+        return slot >= 0 ? slot : compile(index, length);
+    }
+
+    private synchronized int compile(int[] index, int length) {
+        Node node = root;
+        for (int i = 0; i < length; i++) {
+            Node next = node.child(index[i]);
+            if (next == null)
+                next = node.addChild(index[i]);
+            node = next;
+        }
+        if (node.slot < 0)
+            node.slot = size++;
+        return node.slot;
+    }
+}
@@ -38,8 +38,22 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
     // Array (forest) of all mining model's trees
     protected ArrayList<MiningModelElement> sets;
 
-    // Map of current elements indexes
-    private Map<String, Integer> currents;
+    // Position of unset current element in cursor frame
+    private static final int UNSET = Integer.MIN_VALUE;
+
+    // Slots of paths which are compiled at creation of every model
+    private static final int SLOT_VECTOR_SET = 0;
+    private static final int SLOT_ATTRIBUTE_SET = 1;
+    private static final int SLOT_CURRENT_ATTRIBUTE = 2;
+
+    // Compiled paths of current elements (shared between copies of the model)
+    private CursorPathTable cursorPaths;
+
+    // Cursor frame: positions of current elements addressed by slots of cursorPaths
+    private int[] cursor;
+
+    // Owner of elements copied by this copy-on-write copy of the model (see deltaClone()), null for usual models
+    private transient Object cowToken;
 
     // Number of  mining vectors in input mining stream
     private final int numberVectors = 0;
@@ -82,12 +96,12 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
     }
 
     public EMiningModel() {
-
+        initCursor();
     }
 
     public EMiningModel(EMiningFunctionSettings settings) throws MiningException {
         this.settings = settings;
-        currents = new HashMap<>();
+        initCursor();
         sets = new ArrayList<>();
         sets.add(ATTRIBUTE_SET, new LogicalDataElement(settings.getLogicalData().getName(), settings.getLogicalData()) {
             @Override
@@ -101,6 +115,63 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
 
     public abstract void initModel() throws MiningException;
 
+    private void initCursor() {
+        cursorPaths = new CursorPathTable();
+        cursorPaths.slot(INDEX_VECTOR_SET, INDEX_VECTOR_SET.length);
+        cursorPaths.slot(INDEX_ATTRIBUTE_SET, INDEX_ATTRIBUTE_SET.length);
+        cursorPaths.slot(INDEX_CURRENT_ATTRIBUTE, INDEX_CURRENT_ATTRIBUTE.length);
+        cursor = new int[8];
+        Arrays.fill(cursor, UNSET);
+    }
+
+    /**
+     * Compiles index of set (parent element) into slot of the cursor frame.
+     * Steps and loops can compile their indexes once and use slot
+     * methods ({@link #getCurrentElementIndex(int)}, {@link #setCurrentElement(int, int)})
+     * instead of resolving the index on every call.
+     *
+     * @param indexSet - index of set
+     * @return slot of current element of the set
+     */
+    public int compileIndex(int[] indexSet) {
+        return cursorPaths.slot(indexSet, indexSet.length);
+    }
+
+    /**
+     * Returns position of current element in the given slot
+     *
+     * @param slot - slot of the cursor frame
+     * @return position of current element or -1 if it's not set
+     */
+    public int getCurrentElementIndex(int slot) {
+        int pos = slot < cursor.length ? cursor[slot] : UNSET;
+        return pos == UNSET ? -1 : pos;
+    }
+
+    /**
+     * Set position of current element in the given slot
+     *
+     * @param slot - slot of the cursor frame
+     * @param pos  - position for current element
+     */
+    public void setCurrentElement(int slot, int pos) {
+        if (slot >= cursor.length) {
+            int oldLength = cursor.length;
+            cursor = Arrays.copyOf(cursor, Math.max(slot + 1, cursorPaths.size()));
+            Arrays.fill(cursor, oldLength, cursor.length, UNSET);
+        }
+        cursor[slot] = pos;
+    }
+
+    private int current(int[] index, int length) throws MiningException {
+        int slot = cursorPaths.slot(index, length);
+        int pos = slot < cursor.length ? cursor[slot] : UNSET;
+        if (pos == UNSET)
+            throw new MiningException(MiningErrorCode.INVALID_INDEX,
+                    "Current element for index " + Arrays.toString(Arrays.copyOf(index, length)) + " is not set.");
+        return pos;
+    }
+
 //	/**
 //	 * Returns the name of the application that generated this model. Refer to BuildTask.
 //	 * @return
@@ -287,15 +358,22 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
         m.keyAttribute = keyAttribute;
         m.sets = sets;
 
-        if (currents != null) {
-            m.currents = new HashMap<>();
-            for (String key : currents.keySet())
-                m.currents.put(key, currents.get(key));
-        }
+        if (cursor != null)
+            m.cursor = cursor.clone();
         return m;
     }
 
     public Object clone() {
+        return copy(false);
+    }
+
+    /**
+     * Copies the model for {@link #clone()} and {@link #deltaClone()}, subclasses copy their fields here.
+     *
+     * @param delta - true for copy-on-write copy, which shares unchanged elements with this model
+     * @return copy of this model
+     */
+    protected EMiningModel copy(boolean delta) {
 
         EMiningModel o = share();
 //		o = (EMiningModel) super.clone();
@@ -309,27 +387,136 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
 //				o.currents.put(key, currents.get(key);
 //		}
 
+        o.cowToken = null;
         if (sets != null) {
-            o.sets = new ArrayList<MiningModelElement>();
-            for (MiningModelElement set : sets)
-                o.sets.add((MiningModelElement) set.clone());
+            if (delta) {
+                o.sets = new ArrayList<>(sets);
+                o.cowToken = new Object();
+            } else {
+                o.sets = new ArrayList<MiningModelElement>();
+                for (MiningModelElement set : sets)
+                    o.sets.add((MiningModelElement) set.clone());
+            }
         }
 
         return o;
     }
 
+    /**
+     * Copy of this model for parallel branch which keeps private copies of changed elements only.
+     * The copy shares sets with this model, every element is copied when the copy accesses it
+     * for update by index of the model (see {@link #getElementForUpdate(int[])}) first time,
+     * reads by {@link #getElement(int[])} don't copy elements.
+     * Shared copies of the copy (see {@link #share()}) copy every element once, the first of them copies it.
+     * Fields of subclasses are copied by {@link #copy(boolean)}, so they are not shared.
+     * The copy is joined by {@link #join(List)}, which merges the copied elements only.
+     * This model must not be changed while the copy is used.
+     * O(n) = n where n - number of sets of the model
+     *
+     * @return copy-on-write copy of this model
+     */
+    public EMiningModel deltaClone() {
+        return copy(true);
+    }
+
+    /**
+     * Returns set of the model, which can be changed by this model.
+     * Copy-on-write copy of the model copies the set on the first access, set of attributes is not copied.
+     * Shared copies of the model have the same list of sets, so the set is copied under lock of the list.
+     *
+     * @param i - index of set
+     * @return set of the model
+     */
+    protected MiningModelElement getSet(int i) {
+        MiningModelElement set = sets.get(i);
+        if (cowToken == null || i == ATTRIBUTE_SET || set == null || set.owner == cowToken)
+            return set;
+
+        synchronized (sets) {
+            set = sets.get(i);
+            if (set.owner != cowToken) {
+                set = set.copyForOwner(cowToken);
+                sets.set(i, set);
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Joins copies of this model made by {@link #share()} when their parallel branches are finished.
+     * The copies have the same sets as this model, so nothing is joined by default.
+     * Models keeping private state in the copies (e.g. private counts of every thread) reduce it here.
+     *
+     * @param models - shared copies of this model
+     */
+    public void joinShared(List<EMiningModel> models) throws MiningException {
+    }
+
+    /**
+     * Joins copies of this model made by {@link #clone()} or {@link #deltaClone()} when their parallel branches are finished.
+     * Sets and elements which are not copied by copy-on-write copies are the same as elements of this model,
+     * so they are not merged.
+     *
+     * @param models - copies of this model
+     */
     public void join(List<EMiningModel> models) throws MiningException {
         for (int i = 1; i < sets.size(); i++) { // first set are not joined
+            MiningModelElement base = sets.get(i);
+            boolean changed = false;
+            for (EMiningModel m : models)
+                changed |= m.sets.get(i) != base;
+            if (!changed)
+                continue;
+
+            MiningModelElement own = getSet(i);
             List<MiningModelElement> modelSets = new ArrayList<>();
             for (EMiningModel m : models) {
-                modelSets.add(m.sets.get(i));
+                MiningModelElement set = m.sets.get(i);
+                modelSets.add(set == base ? own : set); // elements are equal by IDs, so sets are compared by references
             }
-            sets.get(i).union(modelSets);
+            own.union(modelSets, cowToken);
+        }
+    }
+
+    /**
+     * Puts state of the built model into blocks of the snapshot (see {@link ModelSnapshotWriter}).
+     * Models supporting snapshots keep their state by arrays, so the arrays are put as they are.
+     *
+     * @param snapshot - snapshot of the model
+     * @throws MiningException - the model doesn't support snapshots or it's not built
+     */
+    public void writeSnapshot(ModelSnapshot snapshot) throws MiningException {
+        throw new MiningException(MiningErrorCode.UNSUPPORTED, getClass().getSimpleName() + " doesn't support snapshots");
+    }
+
+    /**
+     * Restores state of the built model from blocks of the snapshot (see {@link ModelSnapshotReader}).
+     * The model is created by the constructor with function settings, so it initializes itself here.
+     *
+     * @param snapshot - snapshot written by {@link #writeSnapshot(ModelSnapshot)}
+     */
+    public void readSnapshot(ModelSnapshot snapshot) throws MiningException {
+        throw new MiningException(MiningErrorCode.UNSUPPORTED, getClass().getSimpleName() + " doesn't support snapshots");
+    }
+
+    /**
+     * Only sets of the model are asked, they declare associativity of their children too.
+     * @return true if merge of all sets of the model is associative, so copies of the model can be joined by pairs
+     */
+    public boolean isJoinAssociative() {
+        for (int i = 1; i < sets.size(); i++) { // first set are not joined
+            if (sets.get(i) != null && !sets.get(i).isMergeAssociative())
+                return false;
         }
+        return true;
     }
 
     public MiningModelElement getParentElement(int[] index) throws MiningException {
-        MiningModelElement elem = sets.get(index[0]);
+        return getParentElement(index, true);
+    }
+
+    private MiningModelElement getParentElement(int[] index, boolean update) throws MiningException {
+        MiningModelElement elem = update ? getSet(index[0]) : sets.get(index[0]);
 
         for (int i = 1; i < index.length - 1; i++) {
             int pos = index[i];
@@ -338,28 +525,44 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
 //			}
 //			else
             if (pos == CURRENT_ELEMENT) {
-                pos = currents.get(Arrays.toString(Arrays.copyOf(index, i)));
+                pos = current(index, i);
             }
-            elem = elem.getElement(pos);
+            elem = update ? elem.getOwnElement(pos, cowToken) : elem.getElement(pos);
         }
 
         return elem;
     }
 
     public MiningModelElement getElement(int[] index) throws MiningException {
+        return getElement(index, false);
+    }
+
+    /**
+     * Returns element of the model, which can be changed by this model.
+     * Copy-on-write copy of the model copies the element and its parents on the first access
+     * (see {@link #deltaClone()}), {@link #getElement(int[])} returns elements for reading only.
+     *
+     * @param index - index of the element
+     * @return element of the model
+     */
+    protected MiningModelElement getElementForUpdate(int[] index) throws MiningException {
+        return getElement(index, true);
+    }
+
+    private MiningModelElement getElement(int[] index, boolean update) throws MiningException {
         if (index.length == 1)
-            return sets.get(index[0]);
+            return update ? getSet(index[0]) : sets.get(index[0]);
 
-        MiningModelElement elem = getParentElement(index);
+        MiningModelElement elem = getParentElement(index, update);
         if (elem == null) {
             throw new MiningException(MiningErrorCode.INVALID_INDEX, "For index " + Arrays.toString(index) + " a mining element is absent.");
         }
         int pos = index[index.length - 1];
         if (pos == CURRENT_ELEMENT) {
-            pos = currents.get(Arrays.toString(Arrays.copyOf(index, index.length - 1)));
+            pos = current(index, index.length - 1);
         }
 
-        return elem.getElement(pos);
+        return update ? elem.getOwnElement(pos, cowToken) : elem.getElement(pos);
     }
 
     //	public void insertElement(MiningModelIndex index, int pos, MiningModelElement element) throws MiningException {
@@ -373,10 +576,13 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
 
 
     public void addElement(int[] indexSet, MiningModelElement element) throws MiningException {
-        if (indexSet == null)
+        if (indexSet == null) {
+            element.owner = cowToken;
             sets.add(element);
+        }
         else {
-            MiningModelElement set = getElement(indexSet);
+            MiningModelElement set = getElementForUpdate(indexSet);
+            element.owner = cowToken;
             set.add(element);
             //currents.put(Arrays.toString(indexSet), set.size() - 1);
         }
@@ -419,7 +625,7 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
      * @throws MiningException
      */
     public void setCurrentElement(int[] indexParent, int pos) throws MiningException {
-        currents.put(Arrays.toString(indexParent), pos);
+        setCurrentElement(cursorPaths.slot(indexParent, indexParent.length), pos);
     }
 
 //	public MiningModelElement getCurrElement(int[] indexSet) throws MiningException {
@@ -429,29 +635,32 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
 //	}
 
     public MiningModelElement nextCurrElement(int[] indexSet) throws MiningException {
-        int pos = currents.get(Arrays.toString(indexSet));
-        MiningModelElement set = getElement(indexSet);
-        MiningModelElement elem = set.getElement(pos);
-        currents.put(Arrays.toString(indexSet), pos + 1);
+        int slot = cursorPaths.slot(indexSet, indexSet.length);
+        int pos = current(indexSet, indexSet.length);
+        MiningModelElement elem = getElement(indexSet).getElement(pos);
+        cursor[slot] = pos + 1;
         return elem;
     }
 
     public int getCurrentElementIndex(int[] indexSet) throws MiningException {
-        return currents.get(Arrays.toString(indexSet));
+        return current(indexSet, indexSet.length);
     }
 
     public boolean currIsLastElement(int[] indexSet) throws MiningException {
         MiningModelElement elem = getElement(indexSet);
-        int curr = currents.get(Arrays.toString(indexSet));
+        int curr = current(indexSet, indexSet.length);
         return (curr >= elem.size());
     }
 
     public int getCurrentVectorIndex() {
-        return currents.get(Arrays.toString(INDEX_VECTOR_SET));
+        int pos = cursor[SLOT_VECTOR_SET];
+        if (pos == UNSET)
+            throw new IllegalStateException("Current vector is not set.");
+        return pos;
     }
 
     public void setCurrentVector(int currentVector) {
-        currents.put(Arrays.toString(INDEX_VECTOR_SET), currentVector);
+        cursor[SLOT_VECTOR_SET] = currentVector;
     }
 
 //	public int getNumberVectors() {
@@ -467,10 +676,7 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
     }
 
     public int getCurrentAttributeIndex() {
-        Integer index = currents.get(Arrays.toString(INDEX_ATTRIBUTE_SET));
-        if (index == null)
-            return -1;
-        return index;
+        return getCurrentElementIndex(SLOT_ATTRIBUTE_SET);
     }
 
     public LogicalAttributeValueElement getCurrentAttributeValue() throws MiningException {
@@ -478,10 +684,7 @@ public abstract class EMiningModel extends MiningModel implements Cloneable  //
     }
 
     public int getCurrentAttributeValueIndex() throws MiningException {
-        Integer index = currents.get(Arrays.toString(INDEX_CURRENT_ATTRIBUTE));
-        if (index == null)
-            return -1;
-        return index;
+        return getCurrentElementIndex(SLOT_CURRENT_ATTRIBUTE);
     }
 
 
@@ -4,6 +4,7 @@ import org.eltech.ddm.miningcore.MiningException;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -24,6 +25,12 @@ abstract public class MiningModelElement implements Cloneable, Serializable { //
     // Set of children mining model's elements
     protected List<MiningModelElement> set;
 
+    // Copy-on-write copy of model owning this element (see EMiningModel#deltaClone()), null for usual models
+    transient Object owner;
+
+    // The current thread copies elements without children (see copyForOwner(Object))
+    private static final ThreadLocal<Boolean> shallowCloning = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
     public MiningModelElement(String id){
 //        this.properties = new ArrayList<>();
 //        this.properties.add(ID, id);
@@ -116,15 +123,53 @@ abstract public class MiningModelElement implements Cloneable, Serializable { //
 //        for(int i=0; i < properties.size(); i++)
 //            o.properties.add(properties.get(i));
 
+        o.owner = null;
         if(set != null){
             o.set = new ArrayList<>();
+            boolean shallow = shallowCloning.get();
             for(MiningModelElement element : set)
-                o.set.add((MiningModelElement)element.clone());
+                o.set.add(shallow ? element : (MiningModelElement)element.clone());
         }
 
         return o;
     }
 
+    /**
+     * Copies this element for copy-on-write copy of model: properties are copied by {@link #clone()},
+     * but children are the same elements, they are copied when they are accessed by the owner.
+     * Elements which merge own changes of copies instead of differences from this element
+     * override it to start the copy empty.
+     * O(n) = n where n - number of children of this element
+     * @param owner - owner of the copy
+     * @return copy of this element
+     */
+    protected MiningModelElement copyForOwner(Object owner) {
+        MiningModelElement o;
+        shallowCloning.set(Boolean.TRUE);
+        try {
+            o = (MiningModelElement) clone();
+        } finally {
+            shallowCloning.set(Boolean.FALSE);
+        }
+        o.owner = owner;
+        return o;
+    }
+
+    /**
+     * Returns child element, which can be changed by the owner. For copy-on-write copy of model
+     * the child is copied on the first access if this element is owned by the copy.
+     * Shared branches of the copy own the same elements, so the child is copied under lock of this element.
+     */
+    synchronized MiningModelElement getOwnElement(int index, Object owner) {
+        MiningModelElement element = getElement(index);
+        if (owner == null || element == null || element.owner == owner || this.owner != owner)
+            return element;
+
+        MiningModelElement copy = element.copyForOwner(owner);
+        replace(index, copy);
+        return copy;
+    }
+
     protected abstract String propertiesToString();
 
     public String toString() {
@@ -152,8 +197,28 @@ abstract public class MiningModelElement implements Cloneable, Serializable { //
         return stringBuilder.toString();
     }
 
+    /**
+     * Merges properties of copies of this element into this element. Copies are made from this element,
+     * so changes are the differences of the copies from this element.
+     * Merge must be associative: if copies are merged by groups into copies of this element
+     * and the groups are merged into this element, the result is the same as the merge of all copies
+     * (see {@link #isMergeAssociative()}).
+     * @param elements - copies of this element
+     * @throws MiningException
+     */
     abstract public void merge(List<MiningModelElement> elements) throws MiningException;
 
+    /**
+     * Sums of differences, minimums, maximums and logical operations are associative.
+     * Elements which merge copies in other way must return false, then copies of models are joined serially.
+     * It's a property of the class of the element, so children are not visited: a set of model
+     * with not associative children must return false too (see {@link EMiningModel#isJoinAssociative()}).
+     * @return true if {@link #merge(List)} of this element and its children is associative
+     */
+    public boolean isMergeAssociative() {
+        return true;
+    }
+
     /**
      *  Union source set of mining model with all sets of mining models which are built by parallel functions
      *  O(n) = n + p*n + n = (p+2)*n, where p - number of parallel functions, n - number of elements of this set
@@ -161,6 +226,18 @@ abstract public class MiningModelElement implements Cloneable, Serializable { //
      * @throws MiningException
      */
     void union(List<MiningModelElement> elems) throws MiningException {
+        union(elems, null);
+    }
+
+    /**
+     * Union for copy-on-write copy of model: children of elements of copies which are the same
+     * elements as children of this element are not changed, so they are not merged.
+     * Changed children of this element are copied for the owner before the merge.
+     * @param elems - sets of mining models which are built by parallel functions
+     * @param owner - owner of this element or null for usual models
+     * @throws MiningException
+     */
+    void union(List<MiningModelElement> elems, Object owner) throws MiningException {
         // 1 merge all properties of this mining element
         merge(elems);
 
@@ -169,8 +246,13 @@ abstract public class MiningModelElement implements Cloneable, Serializable { //
 
         // 2. ?????
         // forming lists for each element of this set
+        Map<String, MiningModelElement> children = new HashMap<>();
+        for (MiningModelElement ent : set)
+            children.put(ent.getID(), ent);
+
         int includingSelf = 0;
         Map<String, List<MiningModelElement>> lists = new TreeMap<>();
+        Map<String, Integer> unchanged = new HashMap<>();
         for(MiningModelElement setm: elems) {
             if(this == setm) { // if this element is same setm
                 includingSelf++;
@@ -178,6 +260,10 @@ abstract public class MiningModelElement implements Cloneable, Serializable { //
             }
 
             for (MiningModelElement entm : setm.set) {
+                if (entm == children.get(entm.getID())) { // the element is not copied by the parallel function
+                    unchanged.merge(entm.getID(), 1, Integer::sum);
+                    continue;
+                }
                 List<MiningModelElement> list = lists.get(entm.getID());
                 if(list == null) {
                     list = new ArrayList<>();
@@ -189,15 +275,18 @@ abstract public class MiningModelElement implements Cloneable, Serializable { //
 
         List<MiningModelElement> remElem = new ArrayList<>();
         // process each element from this set
-        for (MiningModelElement ent : set) {
+        for (int i = 0; i < set.size(); i++) {
+            MiningModelElement ent = set.get(i);
             List<MiningModelElement> list = lists.get(ent.getID());
             lists.remove(ent.getID());
-            if(list == null || (list.size() < (elems.size() - includingSelf))) { // if element was deleted by parallel function
+            int present = (list == null ? 0 : list.size()) + unchanged.getOrDefault(ent.getID(), 0);
+            if(present < (elems.size() - includingSelf)) { // if element was deleted by parallel function
                 // save removed element
                 remElem.add(ent);
             }
-            else {// if element was changed (may be)
-                ent.union(list);
+            else if (list != null) {// if element was changed (may be)
+                ent = getOwnElement(i, owner);
+                ent.union(list, owner);
             }
         }
 
@@ -213,8 +302,9 @@ abstract public class MiningModelElement implements Cloneable, Serializable { //
                 continue;
 
             MiningModelElement nset = list.get(0).createNewCopyElement();
+            nset.owner = owner;
             //list.remove(0);
-            nset.union(list);
+            nset.union(list, owner);
             add(nset);
             //System.out.println("Thread-" + Thread.currentThread().getName() + " add " + nset);
         }
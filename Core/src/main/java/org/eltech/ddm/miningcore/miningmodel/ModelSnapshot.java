@@ -0,0 +1,249 @@
+package org.eltech.ddm.miningcore.miningmodel;
+
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State of a built model as named blocks of primitive values. <p>
+ *
+ * A model puts its arrays into the snapshot by {@link EMiningModel#writeSnapshot(ModelSnapshot)}
+ * and takes them back by {@link EMiningModel#readSnapshot(ModelSnapshot)}. Blocks of a snapshot
+ * read by {@link ModelSnapshotReader} are views of the mapped file, so a model gets its arrays
+ * by one bulk copy of every block ({@link #getDoubles(String)}) or reads the views directly
+ * ({@link #getDoubleBuffer(String)}).
+ */
+public class ModelSnapshot {
+
+	/**
+	 * Type of values of a block
+	 */
+	public enum BlockType {
+		ints(Integer.BYTES),
+		longs(Long.BYTES),
+		doubles(Double.BYTES);
+
+		private final int bytes;
+
+		BlockType(int bytes) {
+			this.bytes = bytes;
+		}
+
+		/**
+		 * @return size of one value in bytes
+		 */
+		public int getBytes() {
+			return bytes;
+		}
+	}
+
+	/**
+	 * Byte order of blocks in files. It's the native order of common platforms,
+	 * so bulk copies of mapped blocks don't swap bytes.
+	 */
+	static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+	private final Map<String, Block> blocks = new LinkedHashMap<>();
+
+	// Class of the model and names of attributes of its logical data, they are set by the writer and the reader
+	private String modelClassName;
+	private String[] attributeNames;
+
+	public void putInts(String name, int[] values) {
+		blocks.put(name, new Block(BlockType.ints, values.length, values, null));
+	}
+
+	public void putLongs(String name, long[] values) {
+		blocks.put(name, new Block(BlockType.longs, values.length, values, null));
+	}
+
+	public void putDoubles(String name, double[] values) {
+		blocks.put(name, new Block(BlockType.doubles, values.length, values, null));
+	}
+
+	/**
+	 * Adds block read from a file
+	 *
+	 * @param buffer - bytes of the block
+	 */
+	void putBuffer(String name, BlockType type, int length, ByteBuffer buffer) {
+		blocks.put(name, new Block(type, length, null, buffer.order(ORDER)));
+	}
+
+	public boolean contains(String name) {
+		return blocks.containsKey(name);
+	}
+
+	/**
+	 * @return names of blocks in order of their addition
+	 */
+	public List<String> getNames() {
+		return new ArrayList<>(blocks.keySet());
+	}
+
+	public BlockType getType(String name) throws MiningException {
+		return getBlock(name).type;
+	}
+
+	/**
+	 * @return number of values of the block
+	 */
+	public int getLength(String name) throws MiningException {
+		return getBlock(name).length;
+	}
+
+	/**
+	 * @return values of the block, the array is owned by the caller
+	 */
+	public int[] getInts(String name) throws MiningException {
+		Block block = getBlock(name, BlockType.ints);
+		if (block.array != null)
+			return ((int[]) block.array).clone();
+		int[] values = new int[block.length];
+		getIntBuffer(name).get(values);
+		return values;
+	}
+
+	/**
+	 * @return values of the block, the array is owned by the caller
+	 */
+	public long[] getLongs(String name) throws MiningException {
+		Block block = getBlock(name, BlockType.longs);
+		if (block.array != null)
+			return ((long[]) block.array).clone();
+		long[] values = new long[block.length];
+		getLongBuffer(name).get(values);
+		return values;
+	}
+
+	/**
+	 * @return values of the block, the array is owned by the caller
+	 */
+	public double[] getDoubles(String name) throws MiningException {
+		Block block = getBlock(name, BlockType.doubles);
+		if (block.array != null)
+			return ((double[]) block.array).clone();
+		double[] values = new double[block.length];
+		getDoubleBuffer(name).get(values);
+		return values;
+	}
+
+	/**
+	 * @return read-only view of values of the block
+	 */
+	public IntBuffer getIntBuffer(String name) throws MiningException {
+		Block block = getBlock(name, BlockType.ints);
+		if (block.array != null)
+			return IntBuffer.wrap((int[]) block.array).asReadOnlyBuffer();
+		return block.buffer.duplicate().order(ORDER).asIntBuffer().asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return read-only view of values of the block
+	 */
+	public LongBuffer getLongBuffer(String name) throws MiningException {
+		Block block = getBlock(name, BlockType.longs);
+		if (block.array != null)
+			return LongBuffer.wrap((long[]) block.array).asReadOnlyBuffer();
+		return block.buffer.duplicate().order(ORDER).asLongBuffer().asReadOnlyBuffer();
+	}
+
+	/**
+	 * @return read-only view of values of the block
+	 */
+	public DoubleBuffer getDoubleBuffer(String name) throws MiningException {
+		Block block = getBlock(name, BlockType.doubles);
+		if (block.array != null)
+			return DoubleBuffer.wrap((double[]) block.array).asReadOnlyBuffer();
+		return block.buffer.duplicate().order(ORDER).asDoubleBuffer().asReadOnlyBuffer();
+	}
+
+	/**
+	 * Writes values of the block into the buffer
+	 *
+	 * @param from - index of the first written value
+	 * @return index after the last written value
+	 */
+	int writeValues(String name, int from, ByteBuffer out) throws MiningException {
+		Block block = getBlock(name);
+		int n = Math.min(block.length - from, out.remaining() / block.type.bytes);
+		if (block.array == null) {
+			ByteBuffer bytes = block.buffer.duplicate();
+			bytes.position(from * block.type.bytes).limit((from + n) * block.type.bytes);
+			out.put(bytes);
+			return from + n;
+		}
+
+		switch (block.type) {
+			case ints:
+				out.asIntBuffer().put((int[]) block.array, from, n);
+				break;
+			case longs:
+				out.asLongBuffer().put((long[]) block.array, from, n);
+				break;
+			default:
+				out.asDoubleBuffer().put((double[]) block.array, from, n);
+		}
+		out.position(out.position() + n * block.type.bytes);
+		return from + n;
+	}
+
+	public String getModelClassName() {
+		return modelClassName;
+	}
+
+	void setModelClassName(String modelClassName) {
+		this.modelClassName = modelClassName;
+	}
+
+	/**
+	 * @return names of attributes of logical data of the model
+	 */
+	public String[] getAttributeNames() {
+		return attributeNames;
+	}
+
+	void setAttributeNames(String[] attributeNames) {
+		this.attributeNames = attributeNames;
+	}
+
+	private Block getBlock(String name) throws MiningException {
+		Block block = blocks.get(name);
+		if (block == null)
+			throw new MiningException(MiningErrorCode.INVALID_INDEX, "Block " + name + " is absent in the snapshot");
+		return block;
+	}
+
+	private Block getBlock(String name, BlockType type) throws MiningException {
+		Block block = getBlock(name);
+		if (block.type != type)
+			throw new MiningException(MiningErrorCode.INVALID_DATA_TYPE, "Block " + name + " has " + block.type + " instead of " + type);
+		return block;
+	}
+
+	/**
+	 * Values of a block are kept by the array put by the model or by the buffer read from the file
+	 */
+	private static class Block {
+		final BlockType type;
+		final int length;
+		final Object array;
+		final ByteBuffer buffer;
+
+		Block(BlockType type, int length, Object array, ByteBuffer buffer) {
+			this.type = type;
+			this.length = length;
+			this.array = array;
+			this.buffer = buffer;
+		}
+	}
+}
@@ -0,0 +1,137 @@
+package org.eltech.ddm.miningcore.miningmodel;
+
+import org.eltech.ddm.miningcore.MiningDataException;
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.miningdata.ELogicalData;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader of model snapshots written by {@link ModelSnapshotWriter}. <p>
+ *
+ * The header is read and the blocks are mapped, the values are not read until the model takes them
+ * from the snapshot. The model is created by its constructor with the function settings, its logical
+ * data must have the same attributes as the logical data of the written model.
+ */
+public class ModelSnapshotReader {
+
+	/**
+	 * Reads the model from the snapshot file.
+	 *
+	 * @param path     - path to the snapshot file
+	 * @param settings - function settings of the model
+	 * @return model restored from the snapshot
+	 * @throws MiningException - the file is not a snapshot, the model can't be created
+	 *                           or attributes of the settings differ from attributes of the model
+	 */
+	public EMiningModel read(String path, EMiningFunctionSettings settings) throws MiningException {
+		ModelSnapshot snapshot = readSnapshot(path);
+		checkAttributes(snapshot, settings.getLogicalData());
+
+		EMiningModel model = createModel(snapshot.getModelClassName(), settings);
+		model.readSnapshot(snapshot);
+		return model;
+	}
+
+	/**
+	 * Reads the header of the snapshot file and maps its blocks
+	 */
+	public ModelSnapshot readSnapshot(String path) throws MiningException {
+		try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			ByteBuffer prefix = read(channel, 0, 3 * Integer.BYTES, path);
+			if (prefix.getInt() != ModelSnapshotWriter.MAGIC)
+				throw new MiningDataException("The file is not model snapshot: " + path);
+			if (prefix.getInt() != ModelSnapshotWriter.VERSION)
+				throw new MiningDataException("Unsupported version of model snapshot: " + path);
+			int headerSize = prefix.getInt();
+			ByteBuffer header = read(channel, prefix.capacity(), headerSize, path);
+
+			ModelSnapshot snapshot = new ModelSnapshot();
+			snapshot.setModelClassName(getString(header));
+			String[] attributeNames = new String[header.getInt()];
+			for (int i = 0; i < attributeNames.length; i++)
+				attributeNames[i] = getString(header);
+			snapshot.setAttributeNames(attributeNames);
+
+			// small files are mapped once, blocks of large files are mapped separately
+			long size = channel.size();
+			MappedByteBuffer file = size <= Integer.MAX_VALUE ? channel.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+			int blocksNumber = header.getInt();
+			for (int b = 0; b < blocksNumber; b++) {
+				String name = getString(header);
+				ModelSnapshot.BlockType type = ModelSnapshot.BlockType.values()[header.getInt()];
+				int length = header.getInt();
+				long offset = header.getLong();
+				long bytes = (long) length * type.getBytes();
+				if (offset < 0 || offset + bytes > size)
+					throw new MiningDataException("Block " + name + " is out of model snapshot: " + path);
+
+				ByteBuffer block;
+				if (file != null) {
+					block = file.duplicate();
+					block.position((int) offset).limit((int) (offset + bytes));
+					block = block.slice();
+				} else {
+					block = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+				}
+				snapshot.putBuffer(name, type, length, block);
+			}
+			return snapshot;
+		} catch (IOException | RuntimeException ex) {
+			throw new MiningDataException("Can't read model snapshot: " + path, ex);
+		}
+	}
+
+	private static ByteBuffer read(FileChannel channel, long position, int size, String path) throws IOException, MiningException {
+		ByteBuffer buffer = ByteBuffer.allocate(size).order(ModelSnapshot.ORDER);
+		while (buffer.hasRemaining()) {
+			int n = channel.read(buffer, position + buffer.position());
+			if (n < 0)
+				throw new MiningDataException("The file is not model snapshot: " + path);
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void checkAttributes(ModelSnapshot snapshot, ELogicalData logicalData) throws MiningException {
+		String[] names = snapshot.getAttributeNames();
+		if (logicalData.getAttributesNumber() != names.length)
+			throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Model of the snapshot has " + names.length
+					+ " attributes, logical data has " + logicalData.getAttributesNumber());
+		for (int i = 0; i < names.length; i++) {
+			if (!names[i].equals(logicalData.getAttribute(i).getName()))
+				throw new MiningException(MiningErrorCode.INVALID_INPUT_DATA, "Attribute " + i + " of the model of the snapshot is "
+						+ names[i] + " instead of " + logicalData.getAttribute(i).getName());
+		}
+	}
+
+	private static EMiningModel createModel(String className, EMiningFunctionSettings settings) throws MiningException {
+		try {
+			Class<?> modelClass = Class.forName(className);
+			if (!EMiningModel.class.isAssignableFrom(modelClass))
+				throw new MiningException(MiningErrorCode.INVALID_OBJECT_TYPE, className + " is not mining model");
+			return (EMiningModel) modelClass.getConstructor(EMiningFunctionSettings.class).newInstance(settings);
+		} catch (InvocationTargetException ex) {
+			if (ex.getCause() instanceof MiningException)
+				throw (MiningException) ex.getCause();
+			throw new MiningException(MiningErrorCode.INVALID_OBJECT_TYPE, "Can't create model " + className + ": " + ex.getCause());
+		} catch (ReflectiveOperationException ex) {
+			throw new MiningException(MiningErrorCode.INVALID_OBJECT_TYPE, "Can't create model " + className + ": " + ex);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package org.eltech.ddm.miningcore.miningmodel;
+
+import org.eltech.ddm.miningcore.MiningDataException;
+import org.eltech.ddm.miningcore.MiningException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writer of built models to the binary snapshot format read by {@link ModelSnapshotReader}. <p>
+ *
+ * Layout of the file (little-endian):
+ * <pre>
+ * magic, version, length of the header
+ * header: class of the model, number of attributes, names of attributes,
+ *         number of blocks, directory of blocks (name, type, number of values, offset)
+ * blocks: values of every block, aligned by 8 bytes
+ * </pre>
+ * Strings are written as length and UTF-8 bytes. Blocks are arrays put by the model into
+ * {@link ModelSnapshot}, so the size of the file and the time of loading are proportional to the
+ * number of values of the model, not to the number of its elements.
+ */
+public class ModelSnapshotWriter {
+
+	static final int MAGIC = 0x44444D53; // "DDMS"
+	static final int VERSION = 1;
+
+	/** Alignment of blocks in bytes */
+	static final int ALIGNMENT = 8;
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Writes snapshot of the model to the file.
+	 *
+	 * @param model - built model supporting snapshots
+	 * @param path  - path to the snapshot file
+	 * @return size of the file in bytes
+	 * @throws MiningException - the model has no snapshot or the file can't be written
+	 */
+	public long write(EMiningModel model, String path) throws MiningException {
+		ModelSnapshot snapshot = new ModelSnapshot();
+		model.writeSnapshot(snapshot);
+
+		MiningModelElement attrs = model.getElement(EMiningModel.INDEX_ATTRIBUTE_SET);
+		String[] attributeNames = new String[attrs.size()];
+		for (int i = 0; i < attributeNames.length; i++)
+			attributeNames[i] = attrs.getElement(i).getID();
+		snapshot.setModelClassName(model.getClass().getName());
+		snapshot.setAttributeNames(attributeNames);
+		return write(snapshot, path);
+	}
+
+	/**
+	 * Writes the snapshot with class of the model and names of attributes to the file
+	 *
+	 * @return size of the file in bytes
+	 */
+	long write(ModelSnapshot snapshot, String path) throws MiningException {
+		List<String> names = snapshot.getNames();
+		byte[][] encodedNames = new byte[names.size()][];
+		int headerSize = encodedSize(snapshot.getModelClassName()) + 2 * Integer.BYTES;
+		for (String name : snapshot.getAttributeNames())
+			headerSize += encodedSize(name);
+		for (int b = 0; b < encodedNames.length; b++) {
+			encodedNames[b] = names.get(b).getBytes(StandardCharsets.UTF_8);
+			headerSize += Integer.BYTES + encodedNames[b].length + 2 * Integer.BYTES + Long.BYTES;
+		}
+
+		ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES + headerSize).order(ModelSnapshot.ORDER);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(headerSize);
+		putString(header, snapshot.getModelClassName());
+		header.putInt(snapshot.getAttributeNames().length);
+		for (String name : snapshot.getAttributeNames())
+			putString(header, name);
+		header.putInt(names.size());
+
+		long offset = align(header.capacity());
+		long[] offsets = new long[names.size()];
+		for (int b = 0; b < names.size(); b++) {
+			String name = names.get(b);
+			offsets[b] = offset;
+			header.putInt(encodedNames[b].length);
+			header.put(encodedNames[b]);
+			header.putInt(snapshot.getType(name).ordinal());
+			header.putInt(snapshot.getLength(name));
+			header.putLong(offset);
+			offset = align(offset + (long) snapshot.getLength(name) * snapshot.getType(name).getBytes());
+		}
+		header.flip();
+
+		try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			writeFully(channel, header, 0);
+			ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ModelSnapshot.ORDER);
+			for (int b = 0; b < names.size(); b++) {
+				String name = names.get(b);
+				long position = offsets[b];
+				int length = snapshot.getLength(name);
+				for (int from = 0; from < length; ) {
+					buffer.clear();
+					from = snapshot.writeValues(name, from, buffer);
+					buffer.flip();
+					position = writeFully(channel, buffer, position);
+				}
+			}
+			if (channel.size() < offset) // padding of the last block
+				writeFully(channel, ByteBuffer.allocate((int) (offset - channel.size())), channel.size());
+			return offset;
+		} catch (IOException ex) {
+			throw new MiningDataException("Can't write the file: " + path, ex);
+		}
+	}
+
+	private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining())
+			position += channel.write(buffer, position);
+		return position;
+	}
+
+	static long align(long offset) {
+		return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+
+	private static int encodedSize(String value) {
+		return Integer.BYTES + value.getBytes(StandardCharsets.UTF_8).length;
+	}
+
+	private static void putString(ByteBuffer buffer, String value) {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+}
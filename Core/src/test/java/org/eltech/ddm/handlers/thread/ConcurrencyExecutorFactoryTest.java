@@ -0,0 +1,98 @@
+package org.eltech.ddm.handlers.thread;
+
+import org.eltech.ddm.handlers.ParallelExecutionException;
+import org.eltech.ddm.miningcore.MiningErrorCode;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrencyExecutorFactoryTest {
+
+    private ConcurrencyExecutorFactory factory;
+
+    @Before
+    public void setUp() {
+        factory = new ConcurrencyExecutorFactory(1);
+    }
+
+    @After
+    public void tearDown() {
+        factory.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void testNestedExecutorsOnSingleWorker() throws MiningException {
+        final AtomicInteger counter = new AtomicInteger();
+        final MiningBlock leaf = new MiningBlock() {
+            @Override
+            protected EMiningModel execute(EMiningModel model) {
+                counter.incrementAndGet();
+                return model;
+            }
+        };
+        MiningBlock parent = new MiningBlock() {
+            @Override
+            protected EMiningModel execute(EMiningModel model) throws MiningException {
+                List<ConcurrencyMiningExecutor> children = new ArrayList<>();
+                for (int i = 0; i < 4; i++) {
+                    ConcurrencyMiningExecutor child = factory.create(leaf);
+                    child.start(model);
+                    children.add(child);
+                }
+                for (ConcurrencyMiningExecutor child : children)
+                    child.getModel();
+                return model;
+            }
+        };
+
+        ConcurrencyMiningExecutor executor = factory.create(parent);
+        executor.start(null);
+        executor.getModel();
+
+        assertEquals(4, counter.get());
+        ExecutorPoolMetrics metrics = factory.getMetrics();
+        assertEquals(1, metrics.getMaximumPoolSize());
+        assertTrue(metrics.getLargestPoolSize() <= 1);
+    }
+
+    @Test(timeout = 10000)
+    public void testExceptionPropagation() throws MiningException {
+        MiningBlock failed = new MiningBlock() {
+            @Override
+            protected EMiningModel execute(EMiningModel model) throws MiningException {
+                throw new MiningException(MiningErrorCode.INVALID_ARGUMENT, "step failed");
+            }
+        };
+
+        ConcurrencyMiningExecutor executor = factory.create(failed);
+        executor.start(null);
+        try {
+            executor.getModel();
+            fail("Exception of the block must be propagated");
+        } catch (ParallelExecutionException ex) {
+            assertTrue(ex.getCause() instanceof MiningException);
+            assertEquals("step failed", ex.getCause().getMessage());
+        }
+    }
+
+    @Test(expected = ParallelExecutionException.class)
+    public void testShutdown() throws MiningException {
+        factory.shutdown();
+        assertTrue(factory.isShutdown());
+        factory.create(new MiningBlock() {
+            @Override
+            protected EMiningModel execute(EMiningModel model) {
+                return model;
+            }
+        });
+    }
+}
@@ -0,0 +1,81 @@
+package org.eltech.ddm.handlers.thread;
+
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MiningBlock;
+import org.eltech.ddm.miningcore.miningmodel.EMiningModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class VirtualThreadExecutorFactoryTest {
+
+    private VirtualThreadExecutorFactory factory;
+
+    @Before
+    public void setUp() {
+        factory = new VirtualThreadExecutorFactory(1, 4);
+    }
+
+    @After
+    public void tearDown() {
+        factory.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void testDataAndCpuBranches() throws MiningException {
+        final AtomicInteger dataCounter = new AtomicInteger();
+        final AtomicInteger cpuCounter = new AtomicInteger();
+        MiningBlock dataBlock = new MiningBlock() {
+            @Override
+            protected EMiningModel execute(EMiningModel model) {
+                dataCounter.incrementAndGet();
+                return model;
+            }
+
+            @Override
+            public boolean isDataBlock() {
+                return true;
+            }
+        };
+        MiningBlock cpuBlock = new MiningBlock() {
+            @Override
+            protected EMiningModel execute(EMiningModel model) {
+                cpuCounter.incrementAndGet();
+                return model;
+            }
+        };
+
+        List<ConcurrencyMiningExecutor> executors = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            executors.add(factory.create(dataBlock, null));
+        for (int i = 0; i < 10; i++)
+            executors.add(factory.create(cpuBlock));
+
+        for (ConcurrencyMiningExecutor executor : executors)
+            executor.start(null);
+        for (ConcurrencyMiningExecutor executor : executors)
+            executor.getModel();
+
+        assertEquals(100, dataCounter.get());
+        assertEquals(10, cpuCounter.get());
+        assertEquals(1, factory.getCpuMetrics().getMaximumPoolSize());
+    }
+
+    @Test
+    public void testVirtualThreadsDetection() {
+        boolean supported;
+        try {
+            java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            supported = true;
+        } catch (NoSuchMethodException e) {
+            supported = false;
+        }
+        assertEquals(supported, factory.isVirtualThreads());
+    }
+}
@@ -0,0 +1,86 @@
+package org.eltech.ddm.inputdata;
+
+import org.eltech.ddm.inputdata.file.csv.CsvParsingSettings;
+import org.eltech.ddm.inputdata.file.csv.MiningCsvStream;
+import org.eltech.ddm.miningcore.MiningException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MiningColumnarStoreTest {
+
+    private MiningCsvStream csvStream;
+    private MiningColumnarStore store;
+
+    @Before
+    public void setUp() throws MiningException {
+        CsvParsingSettings settings = new CsvParsingSettings();
+        settings.setHeaderAvailability(true);
+        settings.setSeparator(',');
+
+        csvStream = new MiningCsvStream("../data/csv/iris.csv", settings);
+        store = new MiningColumnarStore(csvStream);
+    }
+
+    @Test
+    public void testSameDataAsSource() throws MiningException {
+        assertEquals(csvStream.getVectorsNumber(), store.getVectorsNumber());
+        assertEquals(150, store.getVectorsNumber());
+        assertEquals(csvStream.getLogicalData().getAttributesNumber(), store.getLogicalData().getAttributesNumber());
+
+        csvStream.reset();
+        store.reset();
+        MiningVector expected = csvStream.next();
+        while (expected != null) {
+            MiningVector actual = store.next();
+            assertNotNull(actual);
+            assertArrayEquals(expected.getValues(), actual.getValues(), 0);
+            expected = csvStream.next();
+        }
+        assertNull(store.next());
+    }
+
+    @Test
+    public void testRandomAccess() throws MiningException {
+        double[] last = csvStream.getVector(149).getValues();
+        double[] first = csvStream.getVector(0).getValues();
+
+        assertArrayEquals(last, store.getVector(149).getValues(), 0);
+        assertArrayEquals(first, store.getVector(0).getValues(), 0);
+        assertEquals(0, store.getVector(0).getIndex());
+        assertNull(store.getVector(150));
+        assertEquals(store.getVector(75).getValue(2), store.getValue(75, 2), 0);
+    }
+
+    @Test
+    public void testColumns() throws MiningException {
+        assertFalse(store.isCategoricalColumn(0));
+        assertTrue(store.isCategoricalColumn(4));
+        assertEquals(150, store.getNumericColumn(0).length);
+        assertEquals(150, store.getCategoricalColumn(4).length);
+    }
+
+    @Test
+    public void testFlyweightVector() throws MiningException {
+        store.reset();
+        MiningVector v1 = store.next();
+        MiningVector v2 = store.next();
+        assertSame(v1, v2);
+        assertEquals(1, v2.getIndex());
+
+        MiningColumnarStore copy = (MiningColumnarStore) store.clone();
+        copy.reset();
+        assertNotSame(v2, copy.next());
+    }
+
+    @Test
+    public void testKeptVector() throws MiningException {
+        MiningVector v1 = store.getVector(1);
+        double[] values = v1.getValues().clone();
+        MiningVector v2 = store.getVector(100);
+        assertNotSame(v1, v2);
+        assertArrayEquals(values, v1.getValues(), 0);
+        assertEquals(1, v1.getIndex());
+    }
+}
@@ -5,7 +5,9 @@ import org.eltech.ddm.miningcore.MiningException;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class MiningDBStreamTest {
     private String url;
@@ -27,4 +29,34 @@ public class MiningDBStreamTest {
         MiningDBStream miningDBStream = new MiningDBStream(url, user, password, tableName);
         assertEquals  (5,miningDBStream.getLogicalData().getAttributesNumber());
     }
+
+    /**
+     * Streaming mode reads all rows and reads them again after reset.
+     * Needs the local PostgreSQL database with the iris table (see setUp()), like the other tests here.
+     */
+    @Test
+    public void streamingTest() throws MiningException {
+        MiningDBStream miningDBStream = new MiningDBStream(url, user, password, tableName);
+        miningDBStream.setStreaming(true);
+        miningDBStream.setFetchSize(16);
+        assertEquals(150, miningDBStream.getVectorsNumber());
+
+        double[] first = miningDBStream.next().getValues();
+        int count = 1;
+        while (miningDBStream.next() != null)
+            count++;
+        assertEquals(150, count);
+
+        // the query is executed again
+        miningDBStream.reset();
+        assertArrayEquals(first, miningDBStream.next().getValues(), 0);
+        assertArrayEquals(first, miningDBStream.getVector(0).getValues(), 0);
+        double[] last = miningDBStream.getVector(149).getValues();
+
+        // the streaming query is closed, the connection is used by scrollable query then
+        miningDBStream.setStreaming(false);
+        assertArrayEquals(last, miningDBStream.getVector(149).getValues(), 0);
+        assertArrayEquals(first, miningDBStream.getVector(0).getValues(), 0);
+        miningDBStream.close();
+    }
 }
@@ -0,0 +1,83 @@
+package org.eltech.ddm.inputdata.file.binary;
+
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.inputdata.file.csv.MiningCsvStream;
+import org.eltech.ddm.miningcore.miningdata.ELogicalAttribute;
+import org.eltech.ddm.miningcore.miningdata.ELogicalData;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.omg.java.cwm.analysis.datamining.miningcore.miningdata.AttributeType;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of conversion of CSV data to the binary columnar format and reading it back
+ */
+public class MiningBinaryStreamTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MiningCsvStream csvStream;
+    private double[][] values;
+
+    @Before
+    public void setup() throws Exception {
+        csvStream = new MiningCsvStream("../data/csv/iris.csv");
+        csvStream.open();
+        values = new double[150][];
+        for (int i = 0; i < values.length; i++)
+            values[i] = csvStream.next().getValues();
+    }
+
+    private MiningBinaryStream convert(boolean compressed) throws Exception {
+        String path = new File(folder.getRoot(), "iris.ddmb").getPath();
+        BinaryColumnarWriter writer = new BinaryColumnarWriter();
+        writer.setChunkRows(64);
+        writer.setCompressed(compressed);
+        assertEquals(150, writer.write(csvStream, path));
+        return new MiningBinaryStream(path);
+    }
+
+    @Test
+    public void readTest() throws Exception {
+        MiningBinaryStream stream = convert(false);
+        verify(stream);
+    }
+
+    @Test
+    public void compressedReadTest() throws Exception {
+        MiningBinaryStream stream = convert(true);
+        verify(stream);
+    }
+
+    private void verify(MiningBinaryStream stream) throws Exception {
+        ELogicalData logicalData = stream.getLogicalData();
+        assertEquals(5, logicalData.getAttributesNumber());
+        assertEquals(4, logicalData.getAttributes(AttributeType.numerical).size());
+        ELogicalAttribute target = logicalData.getAttribute(4);
+        assertEquals(AttributeType.categorical, target.getAttributeType());
+        assertEquals(3, target.getCategoricalProperties().getSize());
+        assertEquals("Iris-setosa", target.getCategoricalProperties().getValue(0));
+        assertNotNull(stream.getPhysicalData());
+
+        assertEquals(150, stream.getVectorsNumber());
+        for (int i = 0; i < 150; i++) {
+            MiningVector vector = stream.next();
+            assertEquals(i, vector.getIndex());
+            assertArrayEquals(values[i], vector.getValues(), 0);
+        }
+        assertNull(stream.next());
+
+        MiningBinaryStream copy = (MiningBinaryStream) stream.deepCopy();
+        for (int i : new int[]{149, 0, 70, 64, 63, 128}) {
+            assertArrayEquals(values[i], stream.getVector(i).getValues(), 0);
+            assertArrayEquals(values[i], copy.getVector(i).getValues(), 0);
+        }
+        assertNull(stream.getVector(150));
+    }
+}
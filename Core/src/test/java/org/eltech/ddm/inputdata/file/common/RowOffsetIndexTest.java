@@ -0,0 +1,99 @@
+package org.eltech.ddm.inputdata.file.common;
+
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.inputdata.file.MiningArffStream;
+import org.eltech.ddm.inputdata.file.csv.MiningCsvStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of random access by the row index for CSV and ARFF streams
+ */
+public class RowOffsetIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String copy(String path) throws Exception {
+        File file = new File(folder.getRoot(), new File(path).getName());
+        Files.copy(Paths.get(path), file.toPath());
+        return file.getPath();
+    }
+
+    @Test
+    public void csvSeekTest() throws Exception {
+        String path = copy("../data/csv/iris.csv");
+        MiningCsvStream stream = new MiningCsvStream(path);
+        stream.open();
+        double[][] values = new double[150][];
+        for (int i = 0; i < values.length; i++)
+            values[i] = stream.next().getValues();
+
+        stream.setRowIndex(16, true);
+        assertEquals(150, stream.getVectorsNumber());
+        assertTrue(RowOffsetIndex.getSidecarFile(path).isFile());
+
+        for (int i : new int[]{149, 0, 77, 16, 15, 100, 33, 149}) {
+            MiningVector vector = stream.getVector(i);
+            assertEquals(i, vector.getIndex());
+            assertArrayEquals(values[i], vector.getValues(), 0);
+        }
+        assertNull(stream.getVector(150));
+
+        RowOffsetIndex loaded = RowOffsetIndex.load(path, RowOffsetIndex.Syntax.CSV, 1, 16);
+        assertNotNull(loaded);
+        assertEquals(150, loaded.getRowsNumber());
+        assertNull(RowOffsetIndex.load(path, RowOffsetIndex.Syntax.CSV, 1, 32));
+    }
+
+    @Test
+    public void csvBlankLinesTest() throws Exception {
+        File file = folder.newFile("blank.csv");
+        Files.write(file.toPath(), "x,y\n1,2\n\n3,4\n5,6\n\n".getBytes(StandardCharsets.US_ASCII));
+
+        RowOffsetIndex index = RowOffsetIndex.build(file.getPath(), RowOffsetIndex.Syntax.CSV, 1, 1);
+        assertEquals(3, index.getRowsNumber());
+
+        MiningCsvStream stream = new MiningCsvStream(file.getPath());
+        stream.setRowIndex(1, false);
+        assertEquals(3, stream.getVectorsNumber());
+        assertArrayEquals(new double[]{5, 6}, stream.getVector(2).getValues(), 0);
+        assertArrayEquals(new double[]{3, 4}, stream.getVector(1).getValues(), 0);
+        assertNull(stream.getVector(3));
+
+        stream.reset();
+        int count = 0;
+        while (stream.next() != null)
+            count++;
+        assertEquals(3, count);
+    }
+
+    @Test
+    public void arffSeekTest() throws Exception {
+        String path = copy("../data/arff/iris.arff");
+        MiningArffStream stream = new MiningArffStream(path);
+        int count = stream.getVectorsNumber();
+        stream.reset();
+        double[][] values = new double[count][];
+        for (int i = 0; i < count; i++)
+            values[i] = stream.next().getValues();
+
+        stream.setRowIndex(10, false);
+        assertEquals(count, stream.getVectorsNumber());
+        assertFalse(RowOffsetIndex.getSidecarFile(path).exists());
+
+        for (int i : new int[]{count - 1, 0, 42, 10, 9, 120}) {
+            MiningVector vector = stream.getVector(i);
+            assertEquals(i, vector.getIndex());
+            assertArrayEquals(values[i], vector.getValues(), 0);
+        }
+    }
+}
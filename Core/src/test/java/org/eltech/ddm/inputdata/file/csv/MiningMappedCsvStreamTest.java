@@ -0,0 +1,137 @@
+package org.eltech.ddm.inputdata.file.csv;
+
+import org.eltech.ddm.inputdata.MiningVector;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.miningdata.ECategoricalAttributeProperties;
+import org.eltech.ddm.miningcore.miningdata.ELogicalData;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.omg.java.cwm.analysis.datamining.miningcore.miningdata.AttributeType;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests of MiningMappedCsvStream: the stream reads the same vectors as
+ * MiningCsvStream and its partitions cover the file without gaps.
+ */
+public class MiningMappedCsvStreamTest {
+
+    private static final String PATH = "../data/csv/iris.csv";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MiningMappedCsvStream mappedStream;
+    private MiningCsvStream csvStream;
+
+    @Before
+    public void setup() throws MiningException {
+        mappedStream = new MiningMappedCsvStream(PATH);
+        csvStream = new MiningCsvStream(PATH);
+        csvStream.open();
+    }
+
+    @Test
+    public void logicalDataTest() throws MiningException {
+        ELogicalData logicalData = mappedStream.getLogicalData();
+        assertEquals(5, logicalData.getAttributesNumber());
+        assertEquals(4, logicalData.getAttributes(AttributeType.numerical).size());
+        assertEquals(1, logicalData.getAttributes(AttributeType.categorical).size());
+        assertEquals("sepallength", logicalData.getAttribute(0).getName());
+    }
+
+    @Test
+    public void vectorsTest() throws MiningException {
+        assertEquals(150, mappedStream.getVectorsNumber());
+
+        for (int i = 0; i < 150; i++)
+            assertVector(csvStream.next(), mappedStream.next(), i);
+        assertNull(mappedStream.next());
+
+        MiningVector vector = mappedStream.getVector(50);
+        assertEquals(7.0, vector.getValue(0), 0);
+        assertEquals(3.2, vector.getValue(1), 0);
+        assertEquals(50, vector.getIndex());
+    }
+
+    @Test
+    public void splitTest() throws MiningException {
+        List<MiningMappedCsvStream> parts = mappedStream.split(3);
+        assertEquals(3, parts.size());
+
+        int index = 0;
+        for (MiningMappedCsvStream part : parts) {
+            assertEquals(index, part.getFirstVectorIndex());
+            for (int i = 0; i < part.getVectorsNumber(); i++)
+                assertVector(csvStream.next(), part.next(), index++);
+            assertNull(part.next());
+        }
+        assertEquals(150, index);
+        assertEquals(parts.get(1).getStartOffset(), parts.get(0).getEndOffset());
+
+        MiningMappedCsvStream last = parts.get(2);
+        MiningVector vector = last.getVector(last.getFirstVectorIndex());
+        assertEquals(last.getFirstVectorIndex(), vector.getIndex());
+        assertNull(last.getVector(0));
+    }
+
+    @Test
+    public void categoriesOrderTest() throws Exception {
+        StringBuilder csv = new StringBuilder("x,c\n");
+        for (int i = 0; i < 30; i++)
+            csv.append(i).append(',').append((char) ('a' + i / 10)).append('\n');
+        MiningMappedCsvStream stream = new MiningMappedCsvStream(write(csv.toString()), settings());
+
+        // the last partition is read first
+        List<MiningMappedCsvStream> parts = stream.split(3);
+        for (int p = parts.size() - 1; p >= 0; p--) {
+            MiningMappedCsvStream part = parts.get(p);
+            for (MiningVector vector = part.next(); vector != null; vector = part.next())
+                assertEquals(vector.getIndex() / 10, vector.getValue(1), 0);
+        }
+        ECategoricalAttributeProperties categories = stream.getLogicalData().getAttribute(1).getCategoricalProperties();
+        assertEquals(3, categories.getSize());
+        assertEquals(Integer.valueOf(0), categories.getIndex("a"));
+        assertEquals(Integer.valueOf(2), categories.getIndex("c"));
+    }
+
+    @Test
+    public void notNumberTest() throws Exception {
+        MiningMappedCsvStream stream = new MiningMappedCsvStream(write("x,c\n1,a\n,b\nz,c\n"), settings());
+        assertEquals(1, stream.next().getValue(0), 0);
+        assertTrue(Double.isNaN(stream.next().getValue(0))); // missing value
+        try {
+            stream.next();
+            fail("Not number of numerical attribute is read");
+        } catch (MiningException ex) {
+            assertTrue(ex.getMessage().contains("z"));
+        }
+    }
+
+    private String write(String content) throws IOException {
+        File file = folder.newFile("data.csv");
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.US_ASCII));
+        return file.getPath();
+    }
+
+    private static CsvParsingSettings settings() {
+        CsvParsingSettings settings = new CsvParsingSettings();
+        settings.setHeaderAvailability(true);
+        settings.setSeparator(',');
+        return settings;
+    }
+
+    private static void assertVector(MiningVector expected, MiningVector actual, int index) {
+        assertEquals(index, actual.getIndex());
+        for (int j = 0; j < 5; j++)
+            assertEquals(expected.getValue(j), actual.getValue(j), 0);
+    }
+}
@@ -0,0 +1,272 @@
+package org.eltech.ddm.miningcore.miningmodel;
+
+import org.eltech.ddm.handlers.thread.ConcurrencyExecutorFactory;
+import org.eltech.ddm.miningcore.MiningException;
+import org.eltech.ddm.miningcore.algorithms.MemoryType;
+import org.eltech.ddm.miningcore.algorithms.MiningParallel;
+import org.eltech.ddm.miningcore.miningfunctionsettings.EMiningFunctionSettings;
+import org.eltech.ddm.miningcore.miningfunctionsettings.MiningFunction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Current elements of copies of the model, nested indexes of current elements
+ * and copy-on-write copies of the model
+ */
+public class EMiningModelTest {
+
+	private static final int ATTRIBUTES = 3;
+	private static final int VALUES = 4;
+
+	private TestModel model;
+
+	@Before
+	public void setUp() throws MiningException {
+		model = new TestModel();
+		model.initModel();
+	}
+
+	@Test
+	public void shareCursorTest() throws MiningException {
+		model.setCurrentElement(EMiningModel.INDEX_ATTRIBUTE_SET, 1);
+		model.setCurrentVector(7);
+
+		EMiningModel shared = model.share();
+		assertEquals(1, shared.getCurrentAttributeIndex());
+		assertEquals(7, shared.getCurrentVectorIndex());
+
+		shared.setCurrentElement(EMiningModel.INDEX_ATTRIBUTE_SET, 2);
+		shared.setCurrentVector(8);
+		assertEquals(1, model.getCurrentAttributeIndex());
+		assertEquals(7, model.getCurrentVectorIndex());
+		assertEquals("a2", shared.getElement(EMiningModel.INDEX_CURRENT_ATTRIBUTE).getID());
+		assertEquals("a1", model.getElement(EMiningModel.INDEX_CURRENT_ATTRIBUTE).getID());
+	}
+
+	@Test
+	public void cloneCursorTest() throws MiningException {
+		model.setCurrentElement(EMiningModel.INDEX_ATTRIBUTE_SET, 2);
+
+		EMiningModel copy = (EMiningModel) model.clone();
+		EMiningModel delta = model.deltaClone();
+		assertEquals(2, copy.getCurrentAttributeIndex());
+		assertEquals(2, delta.getCurrentAttributeIndex());
+
+		copy.setCurrentElement(EMiningModel.INDEX_ATTRIBUTE_SET, 0);
+		delta.setCurrentElement(EMiningModel.INDEX_ATTRIBUTE_SET, 1);
+		assertEquals(2, model.getCurrentAttributeIndex());
+		assertEquals(0, copy.getCurrentAttributeIndex());
+		assertEquals(1, delta.getCurrentAttributeIndex());
+	}
+
+	@Test
+	public void compiledSlotTest() throws MiningException {
+		int[] indexCounts = {TestModel.COUNT_SET};
+		EMiningModel shared = model.share();
+		// the path is compiled by the copy after the cursor frames are copied
+		int slot = shared.compileIndex(indexCounts);
+		assertEquals(slot, model.compileIndex(indexCounts));
+		assertEquals(-1, model.getCurrentElementIndex(slot));
+
+		model.setCurrentElement(slot, 3);
+		assertEquals(3, model.getCurrentElementIndex(indexCounts));
+		assertEquals(-1, shared.getCurrentElementIndex(slot));
+	}
+
+	@Test
+	public void nestedIndexTest() throws MiningException {
+		for (int a = 0; a < ATTRIBUTES; a++) {
+			model.setCurrentElement(EMiningModel.INDEX_ATTRIBUTE_SET, a);
+			model.setCurrentElement(EMiningModel.INDEX_CURRENT_ATTRIBUTE, 0);
+			List<String> values = new ArrayList<>();
+			while (!model.currIsLastElement(EMiningModel.INDEX_CURRENT_ATTRIBUTE))
+				values.add(model.nextCurrElement(EMiningModel.INDEX_CURRENT_ATTRIBUTE).getID());
+
+			assertEquals(VALUES, values.size());
+			assertEquals("a" + a + "v0", values.get(0));
+			assertEquals("a" + a + "v" + (VALUES - 1), values.get(VALUES - 1));
+		}
+
+		model.setCurrentElement(EMiningModel.INDEX_ATTRIBUTE_SET, 1);
+		model.setCurrentElement(EMiningModel.INDEX_CURRENT_ATTRIBUTE, 2);
+		assertEquals(2, model.getCurrentAttributeValueIndex());
+		assertEquals("a1v2", model.getElement(EMiningModel.INDEX_CURRENT_ATTRIBUTE_CURRENT_VALUE).getID());
+		assertEquals("a1v3", model.getElement(EMiningModel.index(EMiningModel.ATTRIBUTE_SET, EMiningModel.CURRENT_ELEMENT, 3)).getID());
+	}
+
+	@Test
+	public void deltaCloneReadTest() throws MiningException {
+		TestElement base = model.getCount(2);
+		TestModel delta = (TestModel) model.deltaClone();
+		assertSame(base, delta.getCount(2));
+		assertSame(model.getElement(EMiningModel.index(TestModel.COUNT_SET)), delta.getElement(EMiningModel.index(TestModel.COUNT_SET)));
+
+		TestElement own = delta.getCountForUpdate(2);
+		assertNotSame(base, own);
+		assertSame(own, delta.getCount(2));
+		assertSame(base, model.getCount(2));
+	}
+
+	@Test
+	public void sharedDeltaCloneTest() throws Exception {
+		final int updates = 1000;
+		final int branchesNumber = 4;
+		for (int run = 0; run < 200; run++) {
+			setUp();
+			TestModel delta = (TestModel) model.deltaClone();
+			List<TestModel> branches = new ArrayList<>();
+			List<Thread> threads = new ArrayList<>();
+			CountDownLatch start = new CountDownLatch(1);
+			AtomicReference<Throwable> failure = new AtomicReference<>();
+			for (int b = 0; b < branchesNumber; b++) {
+				TestModel branch = (TestModel) delta.share();
+				branches.add(branch);
+				threads.add(new Thread(() -> {
+					try {
+						start.await();
+						for (int u = 0; u < updates; u++)
+							branch.getCountForUpdate(u % VALUES).addCount(1);
+					} catch (Throwable e) {
+						failure.set(e);
+					}
+				}));
+			}
+			for (Thread thread : threads)
+				thread.start();
+			start.countDown();
+			for (Thread thread : threads)
+				thread.join();
+			assertNull(failure.get());
+
+			// both branches have updated the same copies of the elements
+			for (int c = 0; c < VALUES; c++)
+				assertSame(branches.get(0).getCount(c), branches.get(branchesNumber - 1).getCount(c));
+			delta.joinShared(new ArrayList<>(branches));
+			model.join(Collections.singletonList(delta));
+			for (int c = 0; c < VALUES; c++)
+				assertEquals(branchesNumber * updates / VALUES, model.getCount(c).getCount());
+		}
+	}
+
+	@Test
+	public void joinByPairsTest() throws MiningException {
+		assertTrue(model.isJoinAssociative());
+		List<EMiningModel> copies = new ArrayList<>();
+		for (int m = 0; m < 5; m++) {
+			TestModel copy = (TestModel) model.deltaClone();
+			copy.getCountForUpdate(m % VALUES).addCount(m + 1);
+			copies.add(copy);
+		}
+		EMiningFunctionSettings settings = new EMiningFunctionSettings() {
+			@Override
+			public MiningFunction getMiningFunction() {
+				return null;
+			}
+		};
+		MiningParallel parallel = new MiningParallel(settings, MemoryType.distributed);
+		ConcurrencyExecutorFactory factory = new ConcurrencyExecutorFactory(2);
+		try {
+			parallel.addExecutor(factory.create(null));
+			parallel.join(model, copies);
+		} finally {
+			factory.shutdown();
+		}
+
+		assertEquals(1 + 5, model.getCount(0).getCount());
+		assertEquals(2, model.getCount(1).getCount());
+		assertEquals(3, model.getCount(2).getCount());
+		assertEquals(4, model.getCount(3).getCount());
+	}
+
+	@Test
+	public void mergeAssociativeTest() throws MiningException {
+		model.sets.set(TestModel.COUNT_SET, new TestElement("counts") {
+			@Override
+			public boolean isMergeAssociative() {
+				return false;
+			}
+		});
+		assertFalse(model.isJoinAssociative());
+	}
+
+	@Test(expected = MiningException.class)
+	public void unsetCurrentTest() throws MiningException {
+		model.setCurrentElement(EMiningModel.INDEX_ATTRIBUTE_SET, 0);
+		model.getElement(EMiningModel.INDEX_CURRENT_ATTRIBUTE_CURRENT_VALUE);
+	}
+
+	/**
+	 * Model with attributes and their values in the first set and counts in the second set
+	 */
+	static class TestModel extends EMiningModel {
+
+		static final int COUNT_SET = 1;
+
+		@Override
+		public void initModel() throws MiningException {
+			sets = new ArrayList<>();
+			TestElement attrs = new TestElement("attributes");
+			sets.add(attrs);
+			for (int a = 0; a < ATTRIBUTES; a++) {
+				TestElement attr = new TestElement("a" + a);
+				attrs.add(attr);
+				for (int v = 0; v < VALUES; v++)
+					attr.add(new TestElement("a" + a + "v" + v));
+			}
+
+			TestElement counts = new TestElement("counts");
+			sets.add(counts);
+			for (int c = 0; c < VALUES; c++)
+				counts.add(new TestElement("c" + c));
+		}
+
+		TestElement getCount(int i) throws MiningException {
+			return (TestElement) getElement(index(COUNT_SET, i));
+		}
+
+		TestElement getCountForUpdate(int i) throws MiningException {
+			return (TestElement) getElementForUpdate(index(COUNT_SET, i));
+		}
+	}
+
+	/**
+	 * Element with count, copies are merged by sum of differences
+	 */
+	static class TestElement extends MiningModelElement {
+
+		private long count;
+
+		TestElement(String id) {
+			super(id);
+		}
+
+		synchronized long getCount() {
+			return count;
+		}
+
+		synchronized void addCount(long delta) {
+			count += delta;
+		}
+
+		@Override
+		protected String propertiesToString() {
+			return ",count=" + count;
+		}
+
+		@Override
+		public void merge(List<MiningModelElement> elements) {
+			long delta = 0;
+			for (MiningModelElement element : elements)
+				delta += ((TestElement) element).count - count;
+			count += delta;
+		}
+	}
+}
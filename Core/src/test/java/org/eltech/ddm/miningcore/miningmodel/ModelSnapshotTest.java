@@ -0,0 +1,91 @@
+package org.eltech.ddm.miningcore.miningmodel;
+
+import org.eltech.ddm.miningcore.MiningDataException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Blocks of the snapshot written to the file must be read back the same
+ */
+public class ModelSnapshotTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void writeReadTest() throws Exception {
+		Random random = new Random(5);
+		int[] ints = {1, -2, 3};
+		long[] longs = new long[20000]; // larger than the buffer of the writer
+		for (int i = 0; i < longs.length; i++)
+			longs[i] = random.nextLong();
+		double[] doubles = {Math.PI, Double.NaN, Double.NEGATIVE_INFINITY, -0.0};
+
+		ModelSnapshot snapshot = new ModelSnapshot();
+		snapshot.setModelClassName("model");
+		snapshot.setAttributeNames(new String[]{"a", "\u0430\u0442\u0440"});
+		snapshot.putInts("ints", ints);
+		snapshot.putLongs("longs", longs);
+		snapshot.putDoubles("doubles", doubles);
+		snapshot.putDoubles("empty", new double[0]);
+
+		String path = new File(folder.getRoot(), "model.ddms").getPath();
+		long size = new ModelSnapshotWriter().write(snapshot, path);
+		assertEquals(size, new File(path).length());
+		assertEquals(0, size % ModelSnapshotWriter.ALIGNMENT);
+
+		ModelSnapshot read = new ModelSnapshotReader().readSnapshot(path);
+		assertEquals("model", read.getModelClassName());
+		assertArrayEquals(new String[]{"a", "\u0430\u0442\u0440"}, read.getAttributeNames());
+		assertEquals(Arrays.asList("ints", "longs", "doubles", "empty"), read.getNames());
+		assertEquals(ModelSnapshot.BlockType.longs, read.getType("longs"));
+		assertArrayEquals(ints, read.getInts("ints"));
+		assertArrayEquals(longs, read.getLongs("longs"));
+		assertArrayEquals(doubles, read.getDoubles("doubles"), 0);
+		assertEquals(0, read.getLength("empty"));
+
+		DoubleBuffer view = read.getDoubleBuffer("doubles");
+		assertEquals(doubles.length, view.remaining());
+		assertEquals(Math.PI, view.get(0), 0);
+	}
+
+	@Test(expected = MiningDataException.class)
+	public void notSnapshotTest() throws Exception {
+		File file = new File(folder.getRoot(), "model.ddms");
+		try (FileOutputStream out = new FileOutputStream(file)) {
+			out.write(new byte[64]);
+		}
+		new ModelSnapshotReader().readSnapshot(file.getPath());
+	}
+
+	@Test
+	public void causeTest() throws Exception {
+		String path = new File(folder.getRoot(), "absent.ddms").getPath();
+		try {
+			new ModelSnapshotReader().readSnapshot(path);
+			fail("Absent file is read");
+		} catch (MiningDataException ex) {
+			assertTrue(ex.getCause() instanceof IOException);
+		}
+
+		ModelSnapshot snapshot = new ModelSnapshot();
+		snapshot.setModelClassName("model");
+		snapshot.setAttributeNames(new String[]{"a"});
+		try {
+			new ModelSnapshotWriter().write(snapshot, folder.getRoot().getPath()); // the path is a directory
+			fail("Directory is written");
+		} catch (MiningDataException ex) {
+			assertTrue(ex.getCause() instanceof IOException);
+		}
+	}
+}